@@ -13,6 +13,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.env.Environment;
 import tech.jhipster.config.DefaultProfileUtil;
 import tech.jhipster.config.JHipsterConstants;
@@ -25,6 +26,16 @@ public class IsimmManagerApp {
 
     private static final Logger log = LoggerFactory.getLogger(IsimmManagerApp.class);
 
+    /**
+     * Program argument writing the synthetic dataset configured under {@code application.data-generator}, then exiting.
+     */
+    public static final String GENERATE_DATA_ARG = "--generate-data";
+
+    /**
+     * Program argument applying the Liquibase changelog, then exiting without serving requests.
+     */
+    public static final String MIGRATE_ARG = "--migrate";
+
     private final Environment env;
 
     public IsimmManagerApp(Environment env) {
@@ -61,12 +72,33 @@ public class IsimmManagerApp {
 
     /**
      * Main method, used to run the application.
+     * <p>
+     * With {@value #GENERATE_DATA_ARG}, the application writes the synthetic dataset and exits instead of serving requests.
+     * With {@value #MIGRATE_ARG}, it applies the database migrations and exits without starting the runners and background
+     * jobs of a node: run it once per release before starting the nodes, which only verify the changelog head with
+     * {@code application.database-migration.mode=verify}.
      *
      * @param args the command line arguments.
      */
     public static void main(String[] args) {
         SpringApplication app = new SpringApplication(IsimmManagerApp.class);
         DefaultProfileUtil.addDefaultProfile(app);
+        if (Arrays.asList(args).contains(GENERATE_DATA_ARG)) {
+            String[] generateArgs = Arrays.copyOf(args, args.length + 2);
+            generateArgs[args.length] = "--application.data-generator.enabled=true";
+            generateArgs[args.length + 1] = "--server.port=0";
+            ConfigurableApplicationContext context = app.run(generateArgs);
+            System.exit(SpringApplication.exit(context));
+        }
+        if (Arrays.asList(args).contains(MIGRATE_ARG)) {
+            String[] migrateArgs = Arrays.copyOf(args, args.length + 3);
+            migrateArgs[args.length] = "--application.database-migration.mode=migrate";
+            migrateArgs[args.length + 1] = "--application.database-migration.migrate-only=true";
+            migrateArgs[args.length + 2] = "--spring.main.web-application-type=none";
+            ConfigurableApplicationContext context = app.run(migrateArgs);
+            log.info("The database migrations are applied");
+            System.exit(SpringApplication.exit(context));
+        }
         Environment env = app.run(args).getEnvironment();
         logApplicationStartup(env);
     }
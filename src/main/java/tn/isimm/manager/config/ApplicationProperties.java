@@ -1,6 +1,10 @@
 package tn.isimm.manager.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Isimm Manager.
@@ -10,7 +14,901 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final DataGenerator dataGenerator = new DataGenerator();
+
+    private final DatabaseStatistics databaseStatistics = new DatabaseStatistics();
+
+    private final Photos photos = new Photos();
+
+    private final ReadReplicas readReplicas = new ReadReplicas();
+
+    private final Uploads uploads = new Uploads();
+
+    private final FileCompression fileCompression = new FileCompression();
+
+    private final CoursSearch coursSearch = new CoursSearch();
+
+    private final Attendance attendance = new Attendance();
+
+    private final ValidationRequests validationRequests = new ValidationRequests();
+
+    private final Certificates certificates = new Certificates();
+
+    private final Cache cache = new Cache();
+
+    private final DatabaseMigration databaseMigration = new DatabaseMigration();
+
+    private final RateLimit rateLimit = new RateLimit();
+
+    private final ServerSentEvents serverSentEvents = new ServerSentEvents();
+
     // jhipster-needle-application-properties-property
+
+    public DataGenerator getDataGenerator() {
+        return dataGenerator;
+    }
+
+    public DatabaseStatistics getDatabaseStatistics() {
+        return databaseStatistics;
+    }
+
+    public Photos getPhotos() {
+        return photos;
+    }
+
+    public ReadReplicas getReadReplicas() {
+        return readReplicas;
+    }
+
+    public Uploads getUploads() {
+        return uploads;
+    }
+
+    public FileCompression getFileCompression() {
+        return fileCompression;
+    }
+
+    public CoursSearch getCoursSearch() {
+        return coursSearch;
+    }
+
+    public Attendance getAttendance() {
+        return attendance;
+    }
+
+    public ValidationRequests getValidationRequests() {
+        return validationRequests;
+    }
+
+    public Certificates getCertificates() {
+        return certificates;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public DatabaseMigration getDatabaseMigration() {
+        return databaseMigration;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public ServerSentEvents getServerSentEvents() {
+        return serverSentEvents;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    /**
+     * Synthetic dataset written by the {@code --generate-data} command line mode, for load and capacity tests.
+     * <p>
+     * The same seed and sizes always produce the same rows, whatever the number of threads.
+     */
+    public static class DataGenerator {
+
+        private boolean enabled = false;
+
+        private long seed = 42L;
+
+        private long firstId = 10_000_000L;
+
+        private int threads = 4;
+
+        private int batchSize = 1_000;
+
+        private int etudiants = 100_000;
+
+        private int professeurs = 2_000;
+
+        private int niveaus = 400;
+
+        private int matieres = 3_000;
+
+        private int clubs = 60;
+
+        private int maxClubsPerEtudiant = 3;
+
+        private int maxMatieresPerProfesseur = 4;
+
+        private int cours = 6_000;
+
+        private int fichierAdmins = 20_000;
+
+        private int actulaites = 2_000;
+
+        private int blobSize = 8_192;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+
+        public long getFirstId() {
+            return firstId;
+        }
+
+        public void setFirstId(long firstId) {
+            this.firstId = firstId;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getEtudiants() {
+            return etudiants;
+        }
+
+        public void setEtudiants(int etudiants) {
+            this.etudiants = etudiants;
+        }
+
+        public int getProfesseurs() {
+            return professeurs;
+        }
+
+        public void setProfesseurs(int professeurs) {
+            this.professeurs = professeurs;
+        }
+
+        public int getNiveaus() {
+            return niveaus;
+        }
+
+        public void setNiveaus(int niveaus) {
+            this.niveaus = niveaus;
+        }
+
+        public int getMatieres() {
+            return matieres;
+        }
+
+        public void setMatieres(int matieres) {
+            this.matieres = matieres;
+        }
+
+        public int getClubs() {
+            return clubs;
+        }
+
+        public void setClubs(int clubs) {
+            this.clubs = clubs;
+        }
+
+        public int getMaxClubsPerEtudiant() {
+            return maxClubsPerEtudiant;
+        }
+
+        public void setMaxClubsPerEtudiant(int maxClubsPerEtudiant) {
+            this.maxClubsPerEtudiant = maxClubsPerEtudiant;
+        }
+
+        public int getMaxMatieresPerProfesseur() {
+            return maxMatieresPerProfesseur;
+        }
+
+        public void setMaxMatieresPerProfesseur(int maxMatieresPerProfesseur) {
+            this.maxMatieresPerProfesseur = maxMatieresPerProfesseur;
+        }
+
+        public int getCours() {
+            return cours;
+        }
+
+        public void setCours(int cours) {
+            this.cours = cours;
+        }
+
+        public int getFichierAdmins() {
+            return fichierAdmins;
+        }
+
+        public void setFichierAdmins(int fichierAdmins) {
+            this.fichierAdmins = fichierAdmins;
+        }
+
+        public int getActulaites() {
+            return actulaites;
+        }
+
+        public void setActulaites(int actulaites) {
+            this.actulaites = actulaites;
+        }
+
+        public int getBlobSize() {
+            return blobSize;
+        }
+
+        public void setBlobSize(int blobSize) {
+            this.blobSize = blobSize;
+        }
+    }
+
+    /**
+     * Timing of every SQL statement, exported as metrics and kept per statement for the slow statements endpoint.
+     */
+    public static class DatabaseStatistics {
+
+        private boolean enabled = true;
+
+        private Duration slowStatementThreshold = Duration.ofMillis(500);
+
+        private int maxTrackedStatements = 1_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getSlowStatementThreshold() {
+            return slowStatementThreshold;
+        }
+
+        public void setSlowStatementThreshold(Duration slowStatementThreshold) {
+            this.slowStatementThreshold = slowStatementThreshold;
+        }
+
+        public int getMaxTrackedStatements() {
+            return maxTrackedStatements;
+        }
+
+        public void setMaxTrackedStatements(int maxTrackedStatements) {
+            this.maxTrackedStatements = maxTrackedStatements;
+        }
+    }
+
+    /**
+     * Thumbnails of the profile photos, generated in the background when a photo is uploaded.
+     */
+    public static class Photos {
+
+        private List<Integer> thumbnailSizes = new ArrayList<>(List.of(64, 256));
+
+        private float jpegQuality = 0.85f;
+
+        private int cacheSize = 2_000;
+
+        private boolean backfillOnStartup = true;
+
+        private int batchSize = 100;
+
+        public List<Integer> getThumbnailSizes() {
+            return thumbnailSizes;
+        }
+
+        public void setThumbnailSizes(List<Integer> thumbnailSizes) {
+            this.thumbnailSizes = thumbnailSizes;
+        }
+
+        public float getJpegQuality() {
+            return jpegQuality;
+        }
+
+        public void setJpegQuality(float jpegQuality) {
+            this.jpegQuality = jpegQuality;
+        }
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public boolean isBackfillOnStartup() {
+            return backfillOnStartup;
+        }
+
+        public void setBackfillOnStartup(boolean backfillOnStartup) {
+            this.backfillOnStartup = backfillOnStartup;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    /**
+     * Replica pools serving the read-only transactions, the primary {@code spring.datasource} serving the others.
+     */
+    public static class ReadReplicas {
+
+        private boolean enabled = false;
+
+        private List<Pool> pools = new ArrayList<>();
+
+        private int maximumPoolSize = 10;
+
+        private Duration healthCheckInterval = Duration.ofSeconds(10);
+
+        private Duration maxLag = Duration.ofSeconds(10);
+
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<Pool> getPools() {
+            return pools;
+        }
+
+        public void setPools(List<Pool> pools) {
+            this.pools = pools;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public Duration getHealthCheckInterval() {
+            return healthCheckInterval;
+        }
+
+        public void setHealthCheckInterval(Duration healthCheckInterval) {
+            this.healthCheckInterval = healthCheckInterval;
+        }
+
+        public Duration getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(Duration maxLag) {
+            this.maxLag = maxLag;
+        }
+
+        public Duration getReadYourWritesWindow() {
+            return readYourWritesWindow;
+        }
+
+        public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+            this.readYourWritesWindow = readYourWritesWindow;
+        }
+
+        /**
+         * Connection settings of one replica, the other pool settings being the ones of the primary.
+         */
+        public static class Pool {
+
+            private String name;
+
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            public String getName() {
+                return name;
+            }
+
+            public void setName(String name) {
+                this.name = name;
+            }
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+        }
+    }
+
+    /**
+     * Limits of the files streamed to the {@code /file} upload endpoints, checked before reading the body.
+     */
+    public static class Uploads {
+
+        private DataSize coursMaxSize = DataSize.ofMegabytes(100);
+
+        private DataSize fichierAdminMaxSize = DataSize.ofMegabytes(20);
+
+        public DataSize getCoursMaxSize() {
+            return coursMaxSize;
+        }
+
+        public void setCoursMaxSize(DataSize coursMaxSize) {
+            this.coursMaxSize = coursMaxSize;
+        }
+
+        public DataSize getFichierAdminMaxSize() {
+            return fichierAdminMaxSize;
+        }
+
+        public void setFichierAdminMaxSize(DataSize fichierAdminMaxSize) {
+            this.fichierAdminMaxSize = fichierAdminMaxSize;
+        }
+    }
+
+    /**
+     * Background compression of the files stored raw before the introduction of the storage codec.
+     */
+    public static class FileCompression {
+
+        private boolean recompressOnStartup = false;
+
+        private int batchSize = 100;
+
+        public boolean isRecompressOnStartup() {
+            return recompressOnStartup;
+        }
+
+        public void setRecompressOnStartup(boolean recompressOnStartup) {
+            this.recompressOnStartup = recompressOnStartup;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    /**
+     * Full-text search of the files of the cours, indexed in the background.
+     * <p>
+     * A search reads at most {@code max-postings} cours holding its rarest word, those holding it most often.
+     */
+    public static class CoursSearch {
+
+        private boolean enabled = true;
+
+        private int threads = 2;
+
+        private int queueCapacity = 1_000;
+
+        private int maxTextLength = 1_000_000;
+
+        private int batchSize = 100;
+
+        private int maxPostings = 10_000;
+
+        private Duration catchUpInterval = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getMaxTextLength() {
+            return maxTextLength;
+        }
+
+        public void setMaxTextLength(int maxTextLength) {
+            this.maxTextLength = maxTextLength;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxPostings() {
+            return maxPostings;
+        }
+
+        public void setMaxPostings(int maxPostings) {
+            this.maxPostings = maxPostings;
+        }
+
+        public Duration getCatchUpInterval() {
+            return catchUpInterval;
+        }
+
+        public void setCatchUpInterval(Duration catchUpInterval) {
+            this.catchUpInterval = catchUpInterval;
+        }
+    }
+
+    /**
+     * Ingestion of the attendance sheets uploaded as {@code Presence} {@link tn.isimm.manager.domain.FichierAdmin}.
+     */
+    public static class Attendance {
+
+        private boolean enabled = true;
+
+        private int batchSize = 1_000;
+
+        private int maxRows = 200_000;
+
+        private Duration catchUpInterval = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxRows() {
+            return maxRows;
+        }
+
+        public void setMaxRows(int maxRows) {
+            this.maxRows = maxRows;
+        }
+
+        public Duration getCatchUpInterval() {
+            return catchUpInterval;
+        }
+
+        public void setCatchUpInterval(Duration catchUpInterval) {
+            this.catchUpInterval = catchUpInterval;
+        }
+    }
+
+    /**
+     * Queue of the validation requests of the {@link tn.isimm.manager.domain.FichierAdmin}.
+     */
+    public static class ValidationRequests {
+
+        private Duration claimLease = Duration.ofMinutes(15);
+
+        private int maxClaimed = 50;
+
+        public Duration getClaimLease() {
+            return claimLease;
+        }
+
+        public void setClaimLease(Duration claimLease) {
+            this.claimLease = claimLease;
+        }
+
+        public int getMaxClaimed() {
+            return maxClaimed;
+        }
+
+        public void setMaxClaimed(int maxClaimed) {
+            this.maxClaimed = maxClaimed;
+        }
+    }
+
+    /**
+     * Generation of the success certificates of the etudiants of a niveau, as {@code Reusite}
+     * {@link tn.isimm.manager.domain.FichierAdmin}.
+     */
+    public static class Certificates {
+
+        private int threads = 4;
+
+        private int queueCapacity = 100;
+
+        private int batchSize = 50;
+
+        private int retainedJobs = 20;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getRetainedJobs() {
+            return retainedJobs;
+        }
+
+        public void setRetainedJobs(int retainedJobs) {
+            this.retainedJobs = retainedJobs;
+        }
+    }
+
+    /**
+     * Second-level cache of the entities.
+     * <p>
+     * With {@code defer-regions}, the regions of the entities are created by Hibernate while it builds its session
+     * factory, in the background with the deferred repositories bootstrap, instead of with the cache manager.
+     */
+    public static class Cache {
+
+        private boolean deferRegions = false;
+
+        public boolean isDeferRegions() {
+            return deferRegions;
+        }
+
+        public void setDeferRegions(boolean deferRegions) {
+            this.deferRegions = deferRegions;
+        }
+    }
+
+    /**
+     * Liquibase migrations on startup.
+     * <p>
+     * With {@code migrate}, the changelog is applied on startup. With {@code verify}, the startup only checks that the
+     * last change set was applied, and fails otherwise: the migrations are applied once per release by running the
+     * application with {@code --migrate}, which sets {@code migrate-only} so that the application exits without
+     * starting the runners and background jobs of a node.
+     */
+    public static class DatabaseMigration {
+
+        private Mode mode = Mode.MIGRATE;
+
+        private boolean migrateOnly = false;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public boolean isMigrateOnly() {
+            return migrateOnly;
+        }
+
+        public void setMigrateOnly(boolean migrateOnly) {
+            this.migrateOnly = migrateOnly;
+        }
+
+        public enum Mode {
+            MIGRATE,
+            VERIFY,
+        }
+    }
+
+    /**
+     * Token buckets limiting the API requests of each client, a client being the subject of its JWT or, when not
+     * authenticated, its IP address, and its login on the authentication routes.
+     * <p>
+     * Each route group has its own bucket per client, holding up to {@code capacity} requests and refilled with
+     * {@code requests-per-second}; {@code auth-address} bounds the authentication requests of an IP address across
+     * logins. The buckets that refilled are dropped every second, and the ones closest to refilled beyond
+     * {@code max-clients}.
+     */
+    public static class RateLimit {
+
+        private boolean enabled = true;
+
+        private int maxClients = 100_000;
+
+        private final Bucket auth = new Bucket(10, 0.2);
+
+        private final Bucket authAddress = new Bucket(100, 2);
+
+        private final Bucket list = new Bucket(100, 20);
+
+        private final Bucket write = new Bucket(30, 5);
+
+        private final Bucket fileDownload = new Bucket(20, 2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxClients() {
+            return maxClients;
+        }
+
+        public void setMaxClients(int maxClients) {
+            this.maxClients = maxClients;
+        }
+
+        public Bucket getAuth() {
+            return auth;
+        }
+
+        public Bucket getAuthAddress() {
+            return authAddress;
+        }
+
+        public Bucket getList() {
+            return list;
+        }
+
+        public Bucket getWrite() {
+            return write;
+        }
+
+        public Bucket getFileDownload() {
+            return fileDownload;
+        }
+
+        /**
+         * Size and refill rate of the bucket of a client in a route group.
+         */
+        public static class Bucket {
+
+            private int capacity;
+
+            private double requestsPerSecond;
+
+            public Bucket(int capacity, double requestsPerSecond) {
+                this.capacity = capacity;
+                this.requestsPerSecond = requestsPerSecond;
+            }
+
+            public int getCapacity() {
+                return capacity;
+            }
+
+            public void setCapacity(int capacity) {
+                this.capacity = capacity;
+            }
+
+            public double getRequestsPerSecond() {
+                return requestsPerSecond;
+            }
+
+            public void setRequestsPerSecond(double requestsPerSecond) {
+                this.requestsPerSecond = requestsPerSecond;
+            }
+        }
+    }
+
+    /**
+     * Delivery of the server-sent events to their subscribers.
+     * <p>
+     * Each subscriber buffers up to {@code buffer-size} events, written by a pool of {@code threads}: a subscriber
+     * whose buffer is full is completed, and one whose write does not return within {@code send-timeout} is dropped.
+     */
+    public static class ServerSentEvents {
+
+        private int threads = 4;
+
+        private int bufferSize = 64;
+
+        private Duration sendTimeout = Duration.ofSeconds(10);
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public Duration getSendTimeout() {
+            return sendTimeout;
+        }
+
+        public void setSendTimeout(Duration sendTimeout) {
+            this.sendTimeout = sendTimeout;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
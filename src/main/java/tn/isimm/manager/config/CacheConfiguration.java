@@ -4,6 +4,8 @@ import java.time.Duration;
 import org.ehcache.config.builders.*;
 import org.ehcache.jsr107.Eh107Configuration;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cfg.AvailableSettings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
@@ -22,9 +24,11 @@ public class CacheConfiguration {
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final boolean deferRegions;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+        deferRegions = applicationProperties.getCache().isDeferRegions();
 
         jcacheConfiguration =
             Eh107Configuration.fromEhcacheCacheConfiguration(
@@ -37,7 +41,12 @@ public class CacheConfiguration {
 
     @Bean
     public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
-        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+        return hibernateProperties -> {
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+            if (deferRegions) {
+                hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, new DeferredRegionFactory(jcacheConfiguration));
+            }
+        };
     }
 
     @Bean
@@ -45,6 +54,10 @@ public class CacheConfiguration {
         return cm -> {
             createCache(cm, tn.isimm.manager.repository.UserRepository.USERS_BY_LOGIN_CACHE);
             createCache(cm, tn.isimm.manager.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            if (deferRegions) {
+                // The regions of the entities are created by the DeferredRegionFactory
+                return;
+            }
             createCache(cm, tn.isimm.manager.domain.User.class.getName());
             createCache(cm, tn.isimm.manager.domain.Authority.class.getName());
             createCache(cm, tn.isimm.manager.domain.User.class.getName() + ".authorities");
@@ -95,4 +108,23 @@ public class CacheConfiguration {
     public KeyGenerator keyGenerator() {
         return new PrefixedKeyGenerator(this.gitProperties, this.buildProperties);
     }
+
+    /**
+     * Region factory creating the missing regions of the entities with the same configuration as the other caches, as
+     * Hibernate builds its session factory: with the deferred repositories bootstrap, this happens in the background
+     * while the rest of the context starts.
+     */
+    private static class DeferredRegionFactory extends JCacheRegionFactory {
+
+        private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+
+        DeferredRegionFactory(javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration) {
+            this.jcacheConfiguration = jcacheConfiguration;
+        }
+
+        @Override
+        protected javax.cache.Cache<Object, Object> createCache(String regionName) {
+            return getCacheManager().createCache(regionName, jcacheConfiguration);
+        }
+    }
 }
@@ -0,0 +1,132 @@
+package tn.isimm.manager.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import liquibase.integration.spring.SpringLiquibase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Liquibase bean checking that the last change set of the changelog was applied, instead of applying the changelog.
+ * <p>
+ * The head is the last change set of the newest file included by the master changelog, the one whose name, prefixed by
+ * its timestamp, comes last: JHipster adds the changelogs of new entities above the constraints and incremental ones,
+ * so the last include is not the newest. Change sets are therefore added in new files, never to the existing ones. Only
+ * these two files are read, and the database is checked with a single query on the changelog table. The migrations are applied beforehand by
+ * running the application with {@value tn.isimm.manager.IsimmManagerApp#MIGRATE_ARG}. As the entity manager factory
+ * depends on the Liquibase beans, the application refuses to start before the schema is used.
+ */
+public class ChangelogHeadVerifier extends SpringLiquibase {
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
+    private static final String DEFAULT_CHANGELOG_TABLE = "databasechangelog";
+
+    private final Logger log = LoggerFactory.getLogger(ChangelogHeadVerifier.class);
+
+    private boolean verify = true;
+
+    @Override
+    public void setShouldRun(boolean shouldRun) {
+        super.setShouldRun(shouldRun);
+        this.verify = shouldRun;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!verify) {
+            log.debug("Liquibase is disabled, the changelog head is not verified");
+            return;
+        }
+        ChangeSetId head = findHead();
+        String sql = "select count(*) from " + changelogTable() + " where id = ? and author = ?";
+        Integer applied;
+        try {
+            applied = new JdbcTemplate(getDataSource()).queryForObject(sql, Integer.class, head.id(), head.author());
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Could not read the changelog table, the database may not be migrated: " + e.getMessage(), e);
+        }
+        if (applied == null || applied == 0) {
+            throw new IllegalStateException(
+                "The database schema is behind the changelog head " + head + ", run the application with --migrate to apply the migrations"
+            );
+        }
+        log.info("The database schema is at the changelog head {}", head);
+    }
+
+    /**
+     * @return the last change set of the newest file included by the master changelog.
+     */
+    ChangeSetId findHead() {
+        String[] lastInclude = new String[1];
+        read(getChangeLog(), reader -> {
+            if ("include".equals(reader.getLocalName())) {
+                String file = reader.getAttributeValue(null, "file");
+                if (lastInclude[0] == null || fileName(file).compareTo(fileName(lastInclude[0])) > 0) {
+                    lastInclude[0] = file;
+                }
+            }
+        });
+        if (lastInclude[0] == null) {
+            throw new IllegalStateException("The changelog " + getChangeLog() + " includes no file");
+        }
+        ChangeSetId[] head = new ChangeSetId[1];
+        read(CLASSPATH_PREFIX + lastInclude[0], reader -> {
+            if ("changeSet".equals(reader.getLocalName())) {
+                head[0] = new ChangeSetId(reader.getAttributeValue(null, "id"), reader.getAttributeValue(null, "author"));
+            }
+        });
+        if (head[0] == null) {
+            throw new IllegalStateException("The changelog " + lastInclude[0] + " has no change set");
+        }
+        return head[0];
+    }
+
+    private static String fileName(String file) {
+        return file.substring(file.lastIndexOf('/') + 1);
+    }
+
+    private void read(String location, Consumer<XMLStreamReader> onStartElement) {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try (InputStream input = getResourceLoader().getResource(location).getInputStream()) {
+            XMLStreamReader reader = factory.createXMLStreamReader(input);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                        onStartElement.accept(reader);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            throw new IllegalStateException("Could not read the changelog " + location, e);
+        }
+    }
+
+    private String changelogTable() {
+        String table = getDatabaseChangeLogTable() != null ? getDatabaseChangeLogTable() : DEFAULT_CHANGELOG_TABLE;
+        String schema = getLiquibaseSchema() != null ? getLiquibaseSchema() : getDefaultSchema();
+        return schema != null ? schema + "." + table : table;
+    }
+
+    /**
+     * @param id the id of the change set.
+     * @param author the author of the change set.
+     */
+    record ChangeSetId(String id, String author) {
+        @Override
+        public String toString() {
+            return id + " (" + author + ")";
+        }
+    }
+}
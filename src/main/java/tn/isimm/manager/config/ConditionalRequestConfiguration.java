@@ -0,0 +1,25 @@
+package tn.isimm.manager.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tn.isimm.manager.service.EntityVersionService;
+import tn.isimm.manager.web.conditional.ConditionalGetInterceptor;
+
+/**
+ * Configuration of the HTTP conditional requests on the REST API.
+ */
+@Configuration
+public class ConditionalRequestConfiguration implements WebMvcConfigurer {
+
+    private final EntityVersionService entityVersionService;
+
+    public ConditionalRequestConfiguration(EntityVersionService entityVersionService) {
+        this.entityVersionService = entityVersionService;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConditionalGetInterceptor(entityVersionService)).addPathPatterns("/api/**");
+    }
+}
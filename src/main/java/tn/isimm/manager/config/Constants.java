@@ -11,5 +11,8 @@ public final class Constants {
     public static final String SYSTEM = "system";
     public static final String DEFAULT_LANGUAGE = "fr";
 
+    // Spring profile shortening the startup, see application-fast-start.yml
+    public static final String SPRING_PROFILE_FAST_START = "fast-start";
+
     private Constants() {}
 }
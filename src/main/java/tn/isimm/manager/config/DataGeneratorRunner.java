@@ -0,0 +1,31 @@
+package tn.isimm.manager.config;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tn.isimm.manager.service.SyntheticDataGenerator;
+
+/**
+ * Writes the synthetic dataset once the application has started, when {@code application.data-generator.enabled} is set.
+ * <p>
+ * Started with {@code --generate-data}, the application exits as soon as this runner is done.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.data-generator", name = "enabled", havingValue = "true")
+public class DataGeneratorRunner implements ApplicationRunner {
+
+    private final SyntheticDataGenerator syntheticDataGenerator;
+
+    private final ApplicationProperties applicationProperties;
+
+    public DataGeneratorRunner(SyntheticDataGenerator syntheticDataGenerator, ApplicationProperties applicationProperties) {
+        this.syntheticDataGenerator = syntheticDataGenerator;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        syntheticDataGenerator.generate(applicationProperties.getDataGenerator());
+    }
+}
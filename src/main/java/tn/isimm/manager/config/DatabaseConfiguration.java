@@ -1,8 +1,13 @@
 package tn.isimm.manager.config;
 
 import java.sql.SQLException;
+import java.util.List;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -12,6 +17,9 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
+import tn.isimm.manager.repository.EntityChangePublisher;
+import tn.isimm.manager.repository.EntityLoadCounter;
+import tn.isimm.manager.repository.EntityVersionTracker;
 
 @Configuration
 @EnableJpaRepositories({ "tn.isimm.manager.repository" })
@@ -41,6 +49,23 @@ public class DatabaseConfiguration {
         return H2ConfigurationHelper.createServer(port);
     }
 
+    /**
+     * Register the Hibernate integrators, so that committed entity changes are published as application events
+     * and counted in the entity version table, and entity loads are counted per request.
+     *
+     * @param applicationEventPublisher the publisher used to broadcast the changes.
+     * @return the customizer adding the integrators to the Hibernate properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer integratorsCustomizer(ApplicationEventPublisher applicationEventPublisher) {
+        List<Integrator> integrators = List.of(
+            new EntityChangePublisher(applicationEventPublisher),
+            new EntityVersionTracker(),
+            new EntityLoadCounter()
+        );
+        return hibernateProperties -> hibernateProperties.put("hibernate.integrator_provider", (IntegratorProvider) () -> integrators);
+    }
+
     private String getValidPortForH2() {
         int port = Integer.parseInt(env.getProperty("server.port"));
         if (port < 10000) {
@@ -0,0 +1,52 @@
+package tn.isimm.manager.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tn.isimm.manager.repository.InstrumentedDataSource;
+import tn.isimm.manager.repository.StatementStatistics;
+import tn.isimm.manager.web.filter.StatementStatisticsFilter;
+
+/**
+ * Instrumentation of the SQL statements, configured under {@code application.database-statistics}.
+ */
+@Configuration
+public class DatabaseStatisticsConfiguration {
+
+    @Bean
+    public StatementStatistics statementStatistics(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        ApplicationProperties.DatabaseStatistics properties = applicationProperties.getDatabaseStatistics();
+        return new StatementStatistics(meterRegistry, properties.getSlowStatementThreshold(), properties.getMaxTrackedStatements());
+    }
+
+    /**
+     * Wrap the data sources, so that every statement is timed.
+     *
+     * @param statementStatistics the statistics, resolved on first use.
+     * @return the post processor wrapping the data sources.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.database-statistics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor instrumentedDataSourcePostProcessor(ObjectProvider<StatementStatistics> statementStatistics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource(dataSource, statementStatistics::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.database-statistics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<StatementStatisticsFilter> statementStatisticsFilter(MeterRegistry meterRegistry) {
+        return new FilterRegistrationBean<>(new StatementStatisticsFilter(meterRegistry));
+    }
+}
@@ -0,0 +1,47 @@
+package tn.isimm.manager.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Configuration of the {@code fast-start} profile, which initializes the beans lazily.
+ * <p>
+ * The beans that must be ready before the first request are still created on startup, and the entity manager factory
+ * is built in the background, the repositories waiting for it only when first used.
+ */
+@Configuration
+@Profile(Constants.SPRING_PROFILE_FAST_START)
+public class FastStartConfiguration {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) ->
+            beanType != null &&
+            (SpringLiquibase.class.isAssignableFrom(beanType) ||
+                SecurityFilterChain.class.isAssignableFrom(beanType) ||
+                hasScheduledMethods(beanType));
+    }
+
+    @Bean
+    public EntityManagerFactoryBuilderCustomizer backgroundBootstrapCustomizer() {
+        return builder -> builder.setBootstrapExecutor(new SimpleAsyncTaskExecutor("jpa-bootstrap-"));
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        return !MethodIntrospector
+            .selectMethods(
+                beanType,
+                (MethodIntrospector.MetadataLookup<Scheduled>) method -> AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)
+            )
+            .isEmpty();
+    }
+}
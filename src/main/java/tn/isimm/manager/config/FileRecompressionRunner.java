@@ -0,0 +1,34 @@
+package tn.isimm.manager.config;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tn.isimm.manager.service.FileRecompressionService;
+
+/**
+ * Starts the background recompression of the stored files once the application has started, when
+ * {@code application.file-compression.recompress-on-startup} is set and the application was not started with
+ * {@code --migrate}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.file-compression", name = "recompress-on-startup", havingValue = "true")
+public class FileRecompressionRunner implements ApplicationRunner {
+
+    private final FileRecompressionService fileRecompressionService;
+
+    private final ApplicationProperties applicationProperties;
+
+    public FileRecompressionRunner(FileRecompressionService fileRecompressionService, ApplicationProperties applicationProperties) {
+        this.fileRecompressionService = fileRecompressionService;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (applicationProperties.getDatabaseMigration().isMigrateOnly()) {
+            return;
+        }
+        fileRecompressionService.start();
+    }
+}
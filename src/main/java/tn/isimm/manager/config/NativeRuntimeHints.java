@@ -0,0 +1,95 @@
+package tn.isimm.manager.config;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.projection.TargetAware;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Hints of the native executable built by the {@code native} Maven profile, for the classes and resources that are
+ * only reached by reflection, through JDK proxies or on the class path.
+ * <p>
+ * The entities are bound by Hibernate, the DTOs, the view models and the records by Jackson and the Thymeleaf
+ * templates, and the JDBC objects are wrapped in proxies by {@link tn.isimm.manager.repository.InstrumentedDataSource}
+ * and {@link ReadReplicaConfiguration}. Registered in {@code META-INF/spring/aot.factories}.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String BASE_PACKAGE = "tn.isimm.manager";
+
+    private static final String PACKAGE_INFO = ".package-info";
+
+    private static final List<String> BINDING_PACKAGES = List.of("domain", "service.dto", "web.rest.vm");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+        for (String subPackage : BINDING_PACKAGES) {
+            for (Class<?> type : findTypes(BASE_PACKAGE + "." + subPackage, classLoader)) {
+                bindingHints.registerReflectionHints(hints.reflection(), type);
+            }
+        }
+        for (Class<?> type : findTypes(BASE_PACKAGE, classLoader)) {
+            if (type.isRecord()) {
+                bindingHints.registerReflectionHints(hints.reflection(), type);
+            }
+        }
+        // Hibernate reads and writes the fields of the entities, and instantiates the entities and their converters
+        for (Class<?> type : findTypes(BASE_PACKAGE + ".domain", classLoader)) {
+            hints.reflection().registerType(type, MemberCategory.values());
+        }
+        // Interface projections of the repositories
+        for (Class<?> type : findTypes(BASE_PACKAGE + ".repository.projection", classLoader)) {
+            if (type.isInterface()) {
+                hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_METHODS);
+                hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(type, TargetAware.class));
+            }
+        }
+
+        hints.proxies().registerJdkProxy(Connection.class);
+        hints.proxies().registerJdkProxy(Statement.class);
+        hints.proxies().registerJdkProxy(PreparedStatement.class);
+        hints.proxies().registerJdkProxy(CallableStatement.class);
+        hints.proxies().registerJdkProxy(ResultSet.class);
+        hints.proxies().registerJdkProxy(ConnectionProxy.class);
+
+        hints.resources().registerPattern("templates/**");
+        hints.resources().registerPattern("i18n/*.properties");
+        hints.resources().registerPattern("config/liquibase/**");
+        hints.resources().registerPattern("www.liquibase.org/xml/ns/dbchangelog/*.xsd");
+        hints.resources().registerPattern("liquibase.build.properties");
+    }
+
+    private static List<Class<?>> findTypes(String basePackage, ClassLoader classLoader) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return true;
+            }
+        };
+        scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+        if (classLoader != null) {
+            scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+        }
+        return scanner
+            .findCandidateComponents(basePackage)
+            .stream()
+            .map(AnnotatedBeanDefinition.class::cast)
+            .filter(beanDefinition -> !beanDefinition.getMetadata().getClassName().endsWith(PACKAGE_INFO))
+            .<Class<?>>map(beanDefinition -> ClassUtils.resolveClassName(beanDefinition.getBeanClassName(), classLoader))
+            .toList();
+    }
+}
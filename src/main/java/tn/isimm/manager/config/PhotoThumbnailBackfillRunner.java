@@ -0,0 +1,33 @@
+package tn.isimm.manager.config;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tn.isimm.manager.service.PhotoThumbnailService;
+
+/**
+ * Starts the background generation of the missing thumbnails once the application has started, unless
+ * {@code application.photos.backfill-on-startup} is set to false or the application was started with {@code --migrate}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.photos", name = "backfill-on-startup", havingValue = "true", matchIfMissing = true)
+public class PhotoThumbnailBackfillRunner implements ApplicationRunner {
+
+    private final PhotoThumbnailService photoThumbnailService;
+
+    private final ApplicationProperties applicationProperties;
+
+    public PhotoThumbnailBackfillRunner(PhotoThumbnailService photoThumbnailService, ApplicationProperties applicationProperties) {
+        this.photoThumbnailService = photoThumbnailService;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (applicationProperties.getDatabaseMigration().isMigrateOnly()) {
+            return;
+        }
+        photoThumbnailService.startBackfill();
+    }
+}
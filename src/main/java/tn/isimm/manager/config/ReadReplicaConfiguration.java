@@ -0,0 +1,95 @@
+package tn.isimm.manager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+import tn.isimm.manager.repository.ReplicaRoutingDataSource;
+
+/**
+ * Routing of the read-only transactions to replica pools, configured under {@code application.read-replicas}.
+ * <p>
+ * Replaces the data source of Spring Boot: the primary pool is built from {@code spring.datasource}, and each replica
+ * pool from the same Hikari settings with its own URL and credentials. The pools are not beans of their own, so that
+ * the statement timing wraps the routing data source only once; their Hikari metrics are tagged with their pool name.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.read-replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaConfiguration {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    private final Logger log = LoggerFactory.getLogger(ReadReplicaConfiguration.class);
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    public DataSource dataSource(
+        DataSourceProperties dataSourceProperties,
+        ApplicationProperties applicationProperties,
+        Environment environment,
+        MeterRegistry meterRegistry,
+        TaskScheduler taskScheduler
+    ) {
+        ApplicationProperties.ReadReplicas properties = applicationProperties.getReadReplicas();
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configurePool(primary, environment, meterRegistry);
+        String primaryPoolName = primary.getPoolName() != null ? primary.getPoolName() : "Hikari";
+        primary.setPoolName(primaryPoolName);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int index = 0; index < properties.getPools().size(); index++) {
+            ApplicationProperties.ReadReplicas.Pool pool = properties.getPools().get(index);
+            String name = pool.getName() != null ? pool.getName() : "replica-" + (index + 1);
+            HikariDataSource replica = new HikariDataSource();
+            configurePool(replica, environment, meterRegistry);
+            replica.setJdbcUrl(pool.getUrl());
+            replica.setUsername(pool.getUsername());
+            replica.setPassword(pool.getPassword());
+            replica.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            replica.setPoolName(primaryPoolName + "-" + name);
+            replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+        log.info("Routing the read-only transactions to {} replicas: {}", replicas.size(), replicas.keySet());
+
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(
+            primary,
+            replicas,
+            properties.getMaxLag(),
+            properties.getReadYourWritesWindow(),
+            Clock.systemUTC()
+        );
+        taskScheduler.scheduleWithFixedDelay(routingDataSource::checkReplicas, properties.getHealthCheckInterval());
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @PreDestroy
+    public void closePools() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private void configurePool(HikariDataSource pool, Environment environment, MeterRegistry meterRegistry) {
+        Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(pool));
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        pools.add(pool);
+    }
+}
@@ -23,6 +23,10 @@ public class Administrateur implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "prenom")
     private String prenom;
 
@@ -51,6 +55,12 @@ public class Administrateur implements Serializable {
     @Column(name = "photo_de_profile_content_type")
     private String photoDeProfileContentType;
 
+    /**
+     * Hash of the photo the thumbnails were generated from, written by the thumbnail worker only.
+     */
+    @Column(name = "photo_de_profile_hash", insertable = false, updatable = false)
+    private String photoDeProfileHash;
+
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(unique = true)
     private User user;
@@ -70,6 +80,19 @@ public class Administrateur implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Administrateur version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getPrenom() {
         return this.prenom;
     }
@@ -187,6 +210,19 @@ public class Administrateur implements Serializable {
         this.photoDeProfileContentType = photoDeProfileContentType;
     }
 
+    public String getPhotoDeProfileHash() {
+        return this.photoDeProfileHash;
+    }
+
+    public Administrateur photoDeProfileHash(String photoDeProfileHash) {
+        this.setPhotoDeProfileHash(photoDeProfileHash);
+        return this;
+    }
+
+    public void setPhotoDeProfileHash(String photoDeProfileHash) {
+        this.photoDeProfileHash = photoDeProfileHash;
+    }
+
     public User getUser() {
         return this.user;
     }
@@ -233,6 +269,7 @@ public class Administrateur implements Serializable {
             ", dateDeNaissance='" + getDateDeNaissance() + "'" +
             ", photoDeProfile='" + getPhotoDeProfile() + "'" +
             ", photoDeProfileContentType='" + getPhotoDeProfileContentType() + "'" +
+            ", photoDeProfileHash='" + getPhotoDeProfileHash() + "'" +
             "}";
     }
 }
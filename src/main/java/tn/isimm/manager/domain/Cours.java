@@ -23,10 +23,15 @@ public class Cours implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "titre")
     private String titre;
 
     @Lob
+    @Convert(converter = StoredFileConverter.class)
     @Column(name = "file")
     private byte[] file;
 
@@ -52,6 +57,19 @@ public class Cours implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Cours version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getTitre() {
         return this.titre;
     }
@@ -28,6 +28,10 @@ public class Etudiant implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     /**
      * The firstname attribute.
      */
@@ -57,6 +61,12 @@ public class Etudiant implements Serializable {
     @Column(name = "photo_de_profile_content_type")
     private String photoDeProfileContentType;
 
+    /**
+     * Hash of the photo the thumbnails were generated from, written by the thumbnail worker only.
+     */
+    @Column(name = "photo_de_profile_hash", insertable = false, updatable = false)
+    private String photoDeProfileHash;
+
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "etudiant")
     @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties(value = { "etudiant" }, allowSetters = true)
@@ -95,6 +105,19 @@ public class Etudiant implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Etudiant version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getPrenom() {
         return this.prenom;
     }
@@ -199,6 +222,19 @@ public class Etudiant implements Serializable {
         this.photoDeProfileContentType = photoDeProfileContentType;
     }
 
+    public String getPhotoDeProfileHash() {
+        return this.photoDeProfileHash;
+    }
+
+    public Etudiant photoDeProfileHash(String photoDeProfileHash) {
+        this.setPhotoDeProfileHash(photoDeProfileHash);
+        return this;
+    }
+
+    public void setPhotoDeProfileHash(String photoDeProfileHash) {
+        this.photoDeProfileHash = photoDeProfileHash;
+    }
+
     public Set<FichierAdmin> getFichierAdmins() {
         return this.fichierAdmins;
     }
@@ -311,6 +347,7 @@ public class Etudiant implements Serializable {
             ", dateDeNaissance='" + getDateDeNaissance() + "'" +
             ", photoDeProfile='" + getPhotoDeProfile() + "'" +
             ", photoDeProfileContentType='" + getPhotoDeProfileContentType() + "'" +
+            ", photoDeProfileHash='" + getPhotoDeProfileHash() + "'" +
             "}";
     }
 }
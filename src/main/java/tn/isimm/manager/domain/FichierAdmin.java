@@ -24,6 +24,10 @@ public class FichierAdmin implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "titre")
     private String titre;
 
@@ -32,6 +36,7 @@ public class FichierAdmin implements Serializable {
     private TypeFichierAdmin type;
 
     @Lob
+    @Convert(converter = StoredFileConverter.class)
     @Column(name = "file")
     private byte[] file;
 
@@ -60,6 +65,19 @@ public class FichierAdmin implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public FichierAdmin version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getTitre() {
         return this.titre;
     }
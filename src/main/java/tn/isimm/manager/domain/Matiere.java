@@ -25,6 +25,10 @@ public class Matiere implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "nom_matiere")
     private String nomMatiere;
 
@@ -67,6 +71,19 @@ public class Matiere implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Matiere version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getNomMatiere() {
         return this.nomMatiere;
     }
@@ -27,6 +27,10 @@ public class Professeur implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "prenom")
     private String prenom;
 
@@ -59,6 +63,12 @@ public class Professeur implements Serializable {
     @Column(name = "photo_de_profile_content_type")
     private String photoDeProfileContentType;
 
+    /**
+     * Hash of the photo the thumbnails were generated from, written by the thumbnail worker only.
+     */
+    @Column(name = "photo_de_profile_hash", insertable = false, updatable = false)
+    private String photoDeProfileHash;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "rel_professeur__matiere",
@@ -88,6 +98,19 @@ public class Professeur implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Professeur version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getPrenom() {
         return this.prenom;
     }
@@ -218,6 +241,19 @@ public class Professeur implements Serializable {
         this.photoDeProfileContentType = photoDeProfileContentType;
     }
 
+    public String getPhotoDeProfileHash() {
+        return this.photoDeProfileHash;
+    }
+
+    public Professeur photoDeProfileHash(String photoDeProfileHash) {
+        this.setPhotoDeProfileHash(photoDeProfileHash);
+        return this;
+    }
+
+    public void setPhotoDeProfileHash(String photoDeProfileHash) {
+        this.photoDeProfileHash = photoDeProfileHash;
+    }
+
     public Set<Matiere> getMatieres() {
         return this.matieres;
     }
@@ -288,6 +324,7 @@ public class Professeur implements Serializable {
             ", dateDeNaissance='" + getDateDeNaissance() + "'" +
             ", photoDeProfile='" + getPhotoDeProfile() + "'" +
             ", photoDeProfileContentType='" + getPhotoDeProfileContentType() + "'" +
+            ", photoDeProfileHash='" + getPhotoDeProfileHash() + "'" +
             "}";
     }
 }
@@ -23,6 +23,10 @@ public class Semestre implements Serializable {
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "annee_scolaire")
     private String anneeScolaire;
 
@@ -52,6 +56,19 @@ public class Semestre implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Semestre version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getAnneeScolaire() {
         return this.anneeScolaire;
     }
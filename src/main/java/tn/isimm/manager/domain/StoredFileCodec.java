@@ -0,0 +1,194 @@
+package tn.isimm.manager.domain;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Storage format of the {@code file} columns of {@link Cours} and {@link FichierAdmin}.
+ * <p>
+ * A stored file is either its raw content, as written before files were compressed, or a header followed by the
+ * content compressed by a codec. The only codec is {@code gzip}: its stream is a valid {@code Content-Encoding}, so
+ * compressed files are served to the clients accepting it without being decompressed.
+ * <p>
+ * Files are compressed according to their content type when it is known, or else unless their first bytes are the
+ * signature of an already compressed format. A raw content starting like the header is always compressed, so that it
+ * is never mistaken for a compressed one.
+ */
+public final class StoredFileCodec {
+
+    public static final String GZIP = "gzip";
+
+    /**
+     * Files smaller than this are stored raw, their compression saving less than the header and the gzip trailer.
+     */
+    public static final int MIN_SIZE = 1024;
+
+    private static final byte[] GZIP_HEADER = { 0, 'I', 'S', 'I', 'M', 'M', 'Z', 1 };
+
+    public static final int HEADER_LENGTH = GZIP_HEADER.length;
+
+    private static final Set<String> COMPRESSIBLE_TYPES = Set.of(
+        "application/json",
+        "application/msword",
+        "application/pdf",
+        "application/postscript",
+        "application/rtf",
+        "application/sql",
+        "application/vnd.ms-excel",
+        "application/vnd.ms-powerpoint",
+        "application/x-latex",
+        "application/x-tex",
+        "application/xml",
+        "image/bmp",
+        "image/svg+xml",
+        "image/tiff"
+    );
+
+    private static final byte[][] COMPRESSED_SIGNATURES = {
+        { 'P', 'K', 3, 4 }, // zip, and the office formats based on it
+        { 0x1f, (byte) 0x8b }, // gzip
+        { (byte) 0x89, 'P', 'N', 'G' },
+        { (byte) 0xff, (byte) 0xd8, (byte) 0xff }, // jpeg
+        { 'G', 'I', 'F', '8' },
+        { '7', 'z', (byte) 0xbc, (byte) 0xaf },
+        { 'R', 'a', 'r', '!' },
+        { 0x28, (byte) 0xb5, 0x2f, (byte) 0xfd }, // zstd
+        { 'B', 'Z', 'h' },
+        { 'R', 'I', 'F', 'F' }, // webp, avi, wav
+    };
+
+    private StoredFileCodec() {}
+
+    /**
+     * @param contentType the content type of a file.
+     * @return {@code true} if files of that type are worth compressing.
+     */
+    public static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.endsWith("+xml") || type.endsWith("+json") || COMPRESSIBLE_TYPES.contains(type);
+    }
+
+    /**
+     * @param head the first {@link #HEADER_LENGTH} bytes of a file, or all of them if it is shorter.
+     * @param length the length of the file.
+     * @param contentType the content type of the file, if known.
+     * @return {@code true} if the file is to be stored compressed.
+     */
+    public static boolean shouldCompress(byte[] head, long length, String contentType) {
+        if (startsWith(head, GZIP_HEADER)) {
+            return true;
+        }
+        if (length < MIN_SIZE) {
+            return false;
+        }
+        if (contentType != null) {
+            return isCompressible(contentType);
+        }
+        return Arrays.stream(COMPRESSED_SIGNATURES).noneMatch(signature -> startsWith(head, signature));
+    }
+
+    /**
+     * @param content the raw content of a file.
+     * @param contentType the content type of the file, if known.
+     * @return the file as stored: compressed if worth it, else the content itself.
+     */
+    public static byte[] encode(byte[] content, String contentType) {
+        if (!shouldCompress(content, content.length, contentType)) {
+            return content;
+        }
+        ByteArrayOutputStream stored = new ByteArrayOutputStream(content.length / 2);
+        try (OutputStream encoder = encoder(stored)) {
+            encoder.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (stored.size() >= content.length && !startsWith(content, GZIP_HEADER)) {
+            return content;
+        }
+        return stored.toByteArray();
+    }
+
+    /**
+     * @param stored a file as stored.
+     * @return the raw content of the file.
+     */
+    public static byte[] decode(byte[] stored) {
+        if (!startsWith(stored, GZIP_HEADER)) {
+            return stored;
+        }
+        try (InputStream decoder = open(new ByteArrayInputStream(stored)).decoded()) {
+            return decoder.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param stored the stream the compressed file is written to, closed with the returned stream.
+     * @return the stream compressing a raw content to {@code stored}.
+     * @throws IOException if the header cannot be written.
+     */
+    public static OutputStream encoder(OutputStream stored) throws IOException {
+        stored.write(GZIP_HEADER);
+        return new GZIPOutputStream(stored, 64 * 1024);
+    }
+
+    /**
+     * Read the header of a stored file.
+     *
+     * @param stored the stream of a file as stored.
+     * @return the encoding of the file, and the stream of its content in that encoding.
+     * @throws IOException if the header cannot be read.
+     */
+    public static Encoded open(InputStream stored) throws IOException {
+        InputStream input = stored.markSupported() ? stored : new BufferedInputStream(stored);
+        input.mark(HEADER_LENGTH);
+        byte[] head = input.readNBytes(HEADER_LENGTH);
+        if (startsWith(head, GZIP_HEADER)) {
+            return new Encoded(GZIP, input);
+        }
+        input.reset();
+        return new Encoded(null, input);
+    }
+
+    /**
+     * @param head the first bytes of a file.
+     * @return {@code true} if the file is stored compressed.
+     */
+    public static boolean isEncoded(byte[] head) {
+        return startsWith(head, GZIP_HEADER);
+    }
+
+    private static boolean startsWith(byte[] content, byte[] prefix) {
+        return content.length >= prefix.length && Arrays.equals(content, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    /**
+     * The content of a stored file, in its stored encoding.
+     *
+     * @param encoding the {@code Content-Encoding} of the content, or {@code null} if it is raw.
+     * @param content the content, after the header.
+     */
+    public record Encoded(String encoding, InputStream content) {
+        /**
+         * @return the stream of the raw content.
+         * @throws IOException if the compressed stream is invalid.
+         */
+        public InputStream decoded() throws IOException {
+            return encoding == null ? content : new GZIPInputStream(content, 64 * 1024);
+        }
+    }
+}
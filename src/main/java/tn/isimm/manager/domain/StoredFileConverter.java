@@ -0,0 +1,24 @@
+package tn.isimm.manager.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Maps the {@code file} attributes to and from the storage format of {@link StoredFileCodec}, so that the entities
+ * always hold the raw content.
+ * <p>
+ * The content type is not known here: files are compressed unless they start with the signature of a compressed format.
+ */
+@Converter
+public class StoredFileConverter implements AttributeConverter<byte[], byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(byte[] attribute) {
+        return attribute == null ? null : StoredFileCodec.encode(attribute, null);
+    }
+
+    @Override
+    public byte[] convertToEntityAttribute(byte[] column) {
+        return column == null ? null : StoredFileCodec.decode(column);
+    }
+}
@@ -1,12 +1,26 @@
 package tn.isimm.manager.repository;
 
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tn.isimm.manager.domain.Actulaite;
 
 /**
  * Spring Data JPA repository for the Actulaite entity.
+ * <p>
+ * The feed queries are keyset-paginated on {@code (date, id)} and backed by the {@code idx_actulaite__date_id} index.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ActulaiteRepository extends JpaRepository<Actulaite, Long> {}
+public interface ActulaiteRepository extends JpaRepository<Actulaite, Long> {
+    @Query("select actulaite from Actulaite actulaite where actulaite.date is not null order by actulaite.date desc, actulaite.id desc")
+    List<Actulaite> findFeed(Pageable pageable);
+
+    @Query(
+        "select actulaite from Actulaite actulaite where actulaite.date < :date or (actulaite.date = :date and actulaite.id < :id) order by actulaite.date desc, actulaite.id desc"
+    )
+    List<Actulaite> findFeedAfter(@Param("date") LocalDate date, @Param("id") Long id, Pageable pageable);
+}
@@ -8,6 +8,8 @@ import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tn.isimm.manager.domain.Administrateur;
+import tn.isimm.manager.repository.projection.AdministrateurSummary;
+import tn.isimm.manager.repository.projection.BinaryContent;
 
 /**
  * Spring Data JPA repository for the Administrateur entity.
@@ -37,4 +39,15 @@ public interface AdministrateurRepository extends JpaRepository<Administrateur,
 
     @Query("select administrateur from Administrateur administrateur left join fetch administrateur.user where administrateur.id =:id")
     Optional<Administrateur> findOneWithToOneRelationships(@Param("id") Long id);
+
+    @Query(
+        value = "select new tn.isimm.manager.repository.projection.AdministrateurSummary(administrateur.id, administrateur.version, administrateur.prenom, administrateur.nom, administrateur.email, administrateur.matricule, administrateur.titre, administrateur.numTel, administrateur.dateDeNaissance, administrateur.photoDeProfileContentType, administrateur.photoDeProfileHash, appUser.id, appUser.login) from Administrateur administrateur left join administrateur.user appUser",
+        countQuery = "select count(administrateur) from Administrateur administrateur"
+    )
+    Page<AdministrateurSummary> findAllSummaries(Pageable pageable);
+
+    @Query(
+        "select new tn.isimm.manager.repository.projection.BinaryContent(administrateur.photoDeProfile, administrateur.photoDeProfileContentType) from Administrateur administrateur where administrateur.id = :id and administrateur.photoDeProfile is not null"
+    )
+    Optional<BinaryContent> findPhotoDeProfileById(@Param("id") Long id);
 }
@@ -0,0 +1,582 @@
+package tn.isimm.manager.repository;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Plain JDBC access to the attendance facts ingested from the {@code Presence} sheets, and to the absence counts
+ * derived from them.
+ * <p>
+ * A fact is the presence of an etudiant at a seance on a given day, from the last sheet ingested holding it; the facts
+ * of every sheet are also kept as sources, so that the fact goes back to the last other sheet holding it when that
+ * sheet is removed, and is only deleted once no sheet holds it anymore. The counts
+ * hold the number of sessions and absences of each etudiant in each seance, with the matiere and niveau of the seance:
+ * they are changed by the same transactions as the facts, so that rates and alerts never scan the facts. Both are
+ * deleted with their etudiant or seance by the database, and the matiere and niveau they hold are refreshed when their
+ * seance changes.
+ */
+@Repository
+public class AttendanceRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public AttendanceRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * @param fichierAdminId the id of a fichier admin.
+     * @return the current version of the fichier admin, if it is a {@code Presence} sheet with a file.
+     */
+    public Optional<Long> findPresenceSheetVersion(long fichierAdminId) {
+        return jdbcTemplate
+            .queryForList(
+                "select version from fichier_admin where id = ? and type = 'Presence' and file is not null",
+                Long.class,
+                fichierAdminId
+            )
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * @param afterId the id after which to start.
+     * @param limit the maximum number of ids.
+     * @return the ids of the {@code Presence} sheets not ingested at their current version, in ascending order.
+     */
+    public List<Long> findStaleSheetIds(long afterId, int limit) {
+        return jdbcTemplate.queryForList(
+            "select fichier_admin.id from fichier_admin" +
+            " left join presence_sheet on presence_sheet.fichier_admin_id = fichier_admin.id" +
+            " where fichier_admin.id > ? and fichier_admin.type = 'Presence' and fichier_admin.file is not null" +
+            " and (presence_sheet.fichier_admin_id is null or presence_sheet.source_version <> fichier_admin.version)" +
+            " order by fichier_admin.id limit ?",
+            Long.class,
+            afterId,
+            limit
+        );
+    }
+
+    /**
+     * @return the ids of the ingested sheets which were deleted, or are no longer {@code Presence} sheets with a file.
+     */
+    public List<Long> findRemovedSheetIds() {
+        return jdbcTemplate.queryForList(
+            "select presence_sheet.fichier_admin_id from presence_sheet" +
+            " left join fichier_admin on fichier_admin.id = presence_sheet.fichier_admin_id" +
+            " where fichier_admin.id is null or fichier_admin.type is null or fichier_admin.type <> 'Presence'" +
+            " or fichier_admin.file is null",
+            Long.class
+        );
+    }
+
+    /**
+     * @param fichierAdminId the id of a fichier admin.
+     * @return the outcome of the last ingestion of the fichier admin, if it was ingested.
+     */
+    public Optional<SheetStatus> findSheetStatus(long fichierAdminId) {
+        return jdbcTemplate
+            .query(
+                "select fichier_admin_id, source_version, status, ingested_rows, rejected_rows, first_error, ingested_at" +
+                " from presence_sheet where fichier_admin_id = ?",
+                (resultSet, rowNum) ->
+                    new SheetStatus(
+                        resultSet.getLong(1),
+                        resultSet.getLong(2),
+                        resultSet.getString(3),
+                        resultSet.getInt(4),
+                        resultSet.getInt(5),
+                        resultSet.getString(6),
+                        resultSet.getTimestamp(7).toInstant()
+                    ),
+                fichierAdminId
+            )
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * Record the outcome of the ingestion of a sheet. Must be called within a transaction.
+     *
+     * @param status the outcome.
+     */
+    public void saveSheetStatus(SheetStatus status) {
+        jdbcTemplate.update("delete from presence_sheet where fichier_admin_id = ?", status.fichierAdminId());
+        jdbcTemplate.update(
+            "insert into presence_sheet" +
+            " (fichier_admin_id, source_version, status, ingested_rows, rejected_rows, first_error, ingested_at)" +
+            " values (?, ?, ?, ?, ?, ?, ?)",
+            status.fichierAdminId(),
+            status.sourceVersion(),
+            status.status(),
+            status.ingestedRows(),
+            status.rejectedRows(),
+            status.firstError(),
+            Timestamp.from(status.ingestedAt())
+        );
+    }
+
+    /**
+     * Forget that a sheet was ingested. Must be called within a transaction.
+     *
+     * @param fichierAdminId the id of the sheet.
+     */
+    public void deleteSheetStatus(long fichierAdminId) {
+        jdbcTemplate.update("delete from presence_sheet where fichier_admin_id = ?", fichierAdminId);
+    }
+
+    /**
+     * @param seanceIds ids of seances.
+     * @return the matiere and niveau of the existing ones, by id.
+     */
+    public Map<Long, SeanceScope> findSeanceScopes(Collection<Long> seanceIds) {
+        Map<Long, SeanceScope> scopes = new HashMap<>();
+        if (seanceIds.isEmpty()) {
+            return scopes;
+        }
+        namedParameterJdbcTemplate.query(
+            "select id, matiere_id, niveau_id from seance where id in (:ids)",
+            new MapSqlParameterSource("ids", seanceIds),
+            resultSet -> {
+                scopes.put(
+                    resultSet.getLong(1),
+                    new SeanceScope(resultSet.getObject(2, Long.class), resultSet.getObject(3, Long.class))
+                );
+            }
+        );
+        return scopes;
+    }
+
+    /**
+     * @param etudiantIds ids of etudiants.
+     * @return the ids of the existing ones.
+     */
+    public Set<Long> findEtudiantIds(Collection<Long> etudiantIds) {
+        if (etudiantIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(
+            namedParameterJdbcTemplate.queryForList(
+                "select id from etudiant where id in (:ids)",
+                new MapSqlParameterSource("ids", etudiantIds),
+                Long.class
+            )
+        );
+    }
+
+    /**
+     * @param numEtudiants student numbers.
+     * @return the ids of the etudiants with these numbers, by number.
+     */
+    public Map<Long, Long> findEtudiantIdsByNum(Collection<Long> numEtudiants) {
+        Map<Long, Long> ids = new HashMap<>();
+        if (numEtudiants.isEmpty()) {
+            return ids;
+        }
+        namedParameterJdbcTemplate.query(
+            "select num_etudiant, id from etudiant where num_etudiant in (:nums)",
+            new MapSqlParameterSource("nums", numEtudiants),
+            resultSet -> {
+                ids.put(resultSet.getLong(1), resultSet.getLong(2));
+            }
+        );
+        return ids;
+    }
+
+    /**
+     * @param etudiantIds ids of etudiants.
+     * @param seanceIds ids of seances.
+     * @param jours days.
+     * @return the facts of these etudiants at these seances on these days.
+     */
+    public List<Fact> findFacts(Collection<Long> etudiantIds, Collection<Long> seanceIds, Collection<LocalDate> jours) {
+        if (etudiantIds.isEmpty() || seanceIds.isEmpty() || jours.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+            .addValue("etudiantIds", etudiantIds)
+            .addValue("seanceIds", seanceIds)
+            .addValue("jours", jours.stream().map(Date::valueOf).toList());
+        return namedParameterJdbcTemplate.query(
+            "select etudiant_id, seance_id, jour, present from presence" +
+            " where seance_id in (:seanceIds) and jour in (:jours) and etudiant_id in (:etudiantIds)",
+            parameters,
+            (resultSet, rowNum) ->
+                new Fact(resultSet.getLong(1), resultSet.getLong(2), resultSet.getDate(3).toLocalDate(), resultSet.getBoolean(4))
+        );
+    }
+
+    /**
+     * Insert facts. Must be called within a transaction.
+     *
+     * @param facts the new facts.
+     * @param fichierAdminId the id of the sheet they were ingested from.
+     * @param scopes the matiere and niveau of their seances, by id.
+     */
+    public void insertFacts(List<Fact> facts, long fichierAdminId, Map<Long, SeanceScope> scopes) {
+        List<Object[]> rows = new ArrayList<>(facts.size());
+        for (Fact fact : facts) {
+            SeanceScope scope = scopes.get(fact.seanceId());
+            rows.add(
+                new Object[] {
+                    fact.etudiantId(),
+                    fact.seanceId(),
+                    Date.valueOf(fact.jour()),
+                    fact.present(),
+                    fichierAdminId,
+                    scope.matiereId(),
+                    scope.niveauId(),
+                }
+            );
+        }
+        jdbcTemplate.batchUpdate(
+            "insert into presence (etudiant_id, seance_id, jour, present, fichier_admin_id, matiere_id, niveau_id)" +
+            " values (?, ?, ?, ?, ?, ?, ?)",
+            rows
+        );
+    }
+
+    /**
+     * Replace existing facts, and make them belong to a sheet. Must be called within a transaction.
+     *
+     * @param facts the facts.
+     * @param fichierAdminId the id of the sheet they were ingested from.
+     */
+    public void updateFacts(List<Fact> facts, long fichierAdminId) {
+        List<Object[]> rows = new ArrayList<>(facts.size());
+        for (Fact fact : facts) {
+            rows.add(new Object[] { fact.present(), fichierAdminId, fact.etudiantId(), fact.seanceId(), Date.valueOf(fact.jour()) });
+        }
+        jdbcTemplate.batchUpdate(
+            "update presence set present = ?, fichier_admin_id = ? where etudiant_id = ? and seance_id = ? and jour = ?",
+            rows
+        );
+    }
+
+    /**
+     * Record the facts held by a sheet, whether or not it is the last sheet ingested holding them. Must be called within
+     * a transaction.
+     *
+     * @param facts the facts, at most one per etudiant, seance and day.
+     * @param fichierAdminId the id of the sheet.
+     */
+    public void insertSources(List<Fact> facts, long fichierAdminId) {
+        List<Object[]> rows = new ArrayList<>(facts.size());
+        for (Fact fact : facts) {
+            rows.add(new Object[] { fact.etudiantId(), fact.seanceId(), Date.valueOf(fact.jour()), fichierAdminId, fact.present() });
+        }
+        jdbcTemplate.batchUpdate(
+            "insert into presence_source (etudiant_id, seance_id, jour, fichier_admin_id, present) values (?, ?, ?, ?, ?)",
+            rows
+        );
+    }
+
+    /**
+     * Remove the facts of a sheet. A fact another sheet holds goes back to the last one ingested of them, the others are
+     * deleted. Must be called within a transaction.
+     *
+     * @param fichierAdminId the id of the sheet.
+     * @return the changes to apply to the counts.
+     */
+    public List<CountDelta> deleteFacts(long fichierAdminId) {
+        jdbcTemplate.update("delete from presence_source where fichier_admin_id = ?", fichierAdminId);
+        Map<FactKey, Boolean> owned = new LinkedHashMap<>();
+        Map<FactKey, Source> replacements = new HashMap<>();
+        jdbcTemplate.query(
+            "select presence.etudiant_id, presence.seance_id, presence.jour, presence.present," +
+            " presence_source.fichier_admin_id, presence_source.present, presence_sheet.ingested_at from presence" +
+            " left join presence_source on presence_source.etudiant_id = presence.etudiant_id" +
+            " and presence_source.seance_id = presence.seance_id and presence_source.jour = presence.jour" +
+            " left join presence_sheet on presence_sheet.fichier_admin_id = presence_source.fichier_admin_id" +
+            " where presence.fichier_admin_id = ?",
+            resultSet -> {
+                FactKey key = new FactKey(resultSet.getLong(1), resultSet.getLong(2), resultSet.getDate(3).toLocalDate());
+                owned.put(key, resultSet.getBoolean(4));
+                Long sourceId = resultSet.getObject(5, Long.class);
+                if (sourceId != null) {
+                    Timestamp ingestedAt = resultSet.getTimestamp(7);
+                    Instant order = ingestedAt == null ? Instant.MIN : ingestedAt.toInstant();
+                    Source source = new Source(sourceId, resultSet.getBoolean(6), order);
+                    replacements.merge(key, source, (current, other) -> current.isAfter(other) ? current : other);
+                }
+            },
+            fichierAdminId
+        );
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> moves = new ArrayList<>();
+        Map<CountKey, int[]> changes = new LinkedHashMap<>();
+        owned.forEach((key, present) -> {
+            Source replacement = replacements.get(key);
+            int[] change = changes.computeIfAbsent(new CountKey(key.etudiantId(), key.seanceId()), countKey -> new int[2]);
+            if (replacement == null) {
+                deletes.add(new Object[] { key.etudiantId(), key.seanceId(), Date.valueOf(key.jour()) });
+                change[0]--;
+                change[1] -= present ? 0 : 1;
+            } else {
+                moves.add(
+                    new Object[] {
+                        replacement.present(),
+                        replacement.fichierAdminId(),
+                        key.etudiantId(),
+                        key.seanceId(),
+                        Date.valueOf(key.jour()),
+                    }
+                );
+                change[1] += (replacement.present() ? 0 : 1) - (present ? 0 : 1);
+            }
+        });
+        jdbcTemplate.batchUpdate("delete from presence where etudiant_id = ? and seance_id = ? and jour = ?", deletes);
+        jdbcTemplate.batchUpdate(
+            "update presence set present = ?, fichier_admin_id = ? where etudiant_id = ? and seance_id = ? and jour = ?",
+            moves
+        );
+        List<CountDelta> deltas = new ArrayList<>(changes.size());
+        changes.forEach((key, change) -> {
+            if (change[0] != 0 || change[1] != 0) {
+                deltas.add(new CountDelta(key.etudiantId(), key.seanceId(), null, null, change[0], change[1]));
+            }
+        });
+        return deltas;
+    }
+
+    /**
+     * Add changes to the counts, creating the missing ones. Must be called within a transaction.
+     *
+     * @param deltas the changes, at most one per etudiant and seance.
+     */
+    public void applyDeltas(List<CountDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> updates = new ArrayList<>(deltas.size());
+        for (CountDelta delta : deltas) {
+            updates.add(new Object[] { delta.sessions(), delta.absences(), delta.etudiantId(), delta.seanceId() });
+        }
+        int[] updated = jdbcTemplate.batchUpdate(
+            "update absence_count set sessions = sessions + ?, absences = absences + ? where etudiant_id = ? and seance_id = ?",
+            updates
+        );
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < deltas.size(); i++) {
+            CountDelta delta = deltas.get(i);
+            if (updated[i] == 0 && delta.sessions() > 0) {
+                inserts.add(
+                    new Object[] {
+                        delta.etudiantId(),
+                        delta.seanceId(),
+                        delta.matiereId(),
+                        delta.niveauId(),
+                        delta.sessions(),
+                        delta.absences(),
+                    }
+                );
+            }
+        }
+        jdbcTemplate.batchUpdate(
+            "insert into absence_count (etudiant_id, seance_id, matiere_id, niveau_id, sessions, absences) values (?, ?, ?, ?, ?, ?)",
+            inserts
+        );
+    }
+
+    /**
+     * Copy the matiere and niveau of a seance to its facts and counts, when they differ. Must be called within a
+     * transaction.
+     *
+     * @param seanceId the id of the seance.
+     * @param scope the current matiere and niveau of the seance.
+     * @return the number of counts changed.
+     */
+    public int updateSeanceScope(long seanceId, SeanceScope scope) {
+        SqlParameterValue matiereId = new SqlParameterValue(Types.BIGINT, scope.matiereId());
+        SqlParameterValue niveauId = new SqlParameterValue(Types.BIGINT, scope.niveauId());
+        String set =
+            " set matiere_id = ?, niveau_id = ? where seance_id = ? and (matiere_id is distinct from ? or niveau_id is distinct from ?)";
+        jdbcTemplate.update("update presence" + set, matiereId, niveauId, seanceId, matiereId, niveauId);
+        return jdbcTemplate.update("update absence_count" + set, matiereId, niveauId, seanceId, matiereId, niveauId);
+    }
+
+    /**
+     * @return the ids of the seances whose counts do not hold their current matiere and niveau.
+     */
+    public List<Long> findSeanceIdsWithStaleScope() {
+        return jdbcTemplate.queryForList(
+            "select distinct absence_count.seance_id from absence_count" +
+            " join seance on seance.id = absence_count.seance_id" +
+            " where seance.matiere_id is distinct from absence_count.matiere_id" +
+            " or seance.niveau_id is distinct from absence_count.niveau_id",
+            Long.class
+        );
+    }
+
+    /**
+     * @param scope the column the counts are selected by: {@code etudiant_id}, {@code matiere_id} or {@code niveau_id}.
+     * @param id the id of the etudiant, matiere or niveau.
+     * @return the total number of sessions and absences.
+     */
+    public Totals findTotals(Scope scope, long id) {
+        return jdbcTemplate.queryForObject(
+            "select coalesce(sum(sessions), 0), coalesce(sum(absences), 0) from absence_count where " + scope.getColumn() + " = ?",
+            (resultSet, rowNum) -> new Totals(resultSet.getLong(1), resultSet.getLong(2)),
+            id
+        );
+    }
+
+    /**
+     * Find the etudiants absent too often at a seance. The index on the absences restricts the scan to the counts with
+     * at least the number of absences reaching the threshold over the minimum number of sessions.
+     *
+     * @param threshold the absence rate, between 0 and 1, from which a count is selected.
+     * @param minSessions the minimum number of sessions of a selected count.
+     * @param niveauId the id of the niveau of the seances, if any.
+     * @param matiereId the id of the matiere of the seances, if any.
+     * @param limit the maximum number of counts.
+     * @return the selected counts, the highest rates first.
+     */
+    public List<AbsenceCount> findAlerts(double threshold, int minSessions, Long niveauId, Long matiereId, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+            .addValue("minAbsences", Math.max(1, (long) Math.ceil(threshold * minSessions)))
+            .addValue("threshold", threshold)
+            .addValue("minSessions", minSessions)
+            .addValue("limit", limit);
+        StringBuilder sql = new StringBuilder(
+            "select etudiant_id, seance_id, matiere_id, niveau_id, sessions, absences from absence_count" +
+            " where absences >= :minAbsences and sessions >= :minSessions and absences >= :threshold * sessions"
+        );
+        if (niveauId != null) {
+            sql.append(" and niveau_id = :niveauId");
+            parameters.addValue("niveauId", niveauId);
+        }
+        if (matiereId != null) {
+            sql.append(" and matiere_id = :matiereId");
+            parameters.addValue("matiereId", matiereId);
+        }
+        sql.append(" order by absences * 1.0 / sessions desc, etudiant_id, seance_id limit :limit");
+        return namedParameterJdbcTemplate.query(
+            sql.toString(),
+            parameters,
+            (resultSet, rowNum) ->
+                new AbsenceCount(
+                    resultSet.getLong(1),
+                    resultSet.getLong(2),
+                    resultSet.getObject(3, Long.class),
+                    resultSet.getObject(4, Long.class),
+                    resultSet.getInt(5),
+                    resultSet.getInt(6)
+                )
+        );
+    }
+
+    private record FactKey(long etudiantId, long seanceId, LocalDate jour) {}
+
+    private record CountKey(long etudiantId, long seanceId) {}
+
+    /**
+     * A sheet holding a fact, with when it was ingested.
+     */
+    private record Source(long fichierAdminId, boolean present, Instant ingestedAt) {
+        boolean isAfter(Source other) {
+            int order = ingestedAt.compareTo(other.ingestedAt);
+            return order > 0 || (order == 0 && fichierAdminId > other.fichierAdminId);
+        }
+    }
+
+    /**
+     * The columns the absence counts can be totalled by.
+     */
+    public enum Scope {
+        ETUDIANT("etudiant_id"),
+        MATIERE("matiere_id"),
+        NIVEAU("niveau_id");
+
+        private final String column;
+
+        Scope(String column) {
+            this.column = column;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+    }
+
+    /**
+     * @param etudiantId the id of the etudiant.
+     * @param seanceId the id of the seance.
+     * @param jour the day of the session.
+     * @param present {@code true} if the etudiant attended the session.
+     */
+    public record Fact(long etudiantId, long seanceId, LocalDate jour, boolean present) {}
+
+    /**
+     * @param matiereId the id of the matiere of the seance, if any.
+     * @param niveauId the id of the niveau of the seance, if any.
+     */
+    public record SeanceScope(Long matiereId, Long niveauId) {}
+
+    /**
+     * A change to the count of an etudiant at a seance.
+     *
+     * @param etudiantId the id of the etudiant.
+     * @param seanceId the id of the seance.
+     * @param matiereId the id of the matiere of the seance, if any, used when the count is created.
+     * @param niveauId the id of the niveau of the seance, if any, used when the count is created.
+     * @param sessions the number of sessions added.
+     * @param absences the number of absences added.
+     */
+    public record CountDelta(long etudiantId, long seanceId, Long matiereId, Long niveauId, int sessions, int absences) {}
+
+    /**
+     * @param etudiantId the id of the etudiant.
+     * @param seanceId the id of the seance.
+     * @param matiereId the id of the matiere of the seance, if any.
+     * @param niveauId the id of the niveau of the seance, if any.
+     * @param sessions the number of sessions of the seance ingested.
+     * @param absences the number of them the etudiant missed.
+     */
+    public record AbsenceCount(long etudiantId, long seanceId, Long matiereId, Long niveauId, int sessions, int absences) {}
+
+    /**
+     * @param sessions the number of sessions.
+     * @param absences the number of them missed.
+     */
+    public record Totals(long sessions, long absences) {}
+
+    /**
+     * @param fichierAdminId the id of the sheet.
+     * @param sourceVersion the version of the sheet ingested.
+     * @param status the outcome of the ingestion.
+     * @param ingestedRows the number of lines ingested.
+     * @param rejectedRows the number of invalid lines.
+     * @param firstError the description of the first invalid line, if any.
+     * @param ingestedAt when the sheet was ingested.
+     */
+    public record SheetStatus(
+        long fichierAdminId,
+        long sourceVersion,
+        String status,
+        int ingestedRows,
+        int rejectedRows,
+        String firstError,
+        Instant ingestedAt
+    ) {}
+}
@@ -0,0 +1,89 @@
+package tn.isimm.manager.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.List;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Plain JDBC writer for large amounts of rows, bypassing the persistence context.
+ * <p>
+ * Rows written here are invisible to {@link EntityChangePublisher} and {@link EntityVersionTracker}, and to the
+ * second-level cache: callers are expected to bump the entity versions themselves once done.
+ */
+@Repository
+public class BulkInsertRepository {
+
+    private static final String SEQUENCE = "sequence_generator";
+
+    /**
+     * Values handed out by the pooled optimizer of Hibernate below a value read from the sequence.
+     */
+    private static final long SEQUENCE_POOL_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String sequenceNextValueSql;
+
+    public BulkInsertRepository(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequenceNextValueSql =
+            entityManagerFactory
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect()
+                .getSequenceSupport()
+                .getSequenceNextValString(SEQUENCE);
+    }
+
+    /**
+     * Insert rows in a single JDBC batch. Must be called within a transaction.
+     *
+     * @param table the table name.
+     * @param columns the column names, in the order of the row values.
+     * @param rows the rows to insert.
+     */
+    public void insert(String table, List<String> columns, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        String sql =
+            "insert into " +
+            table +
+            " (" +
+            String.join(", ", columns) +
+            ") values (" +
+            String.join(", ", Collections.nCopies(columns.size(), "?")) +
+            ")";
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    /**
+     * Check whether {@code table} holds any row with an id in the given range.
+     *
+     * @param table the table name.
+     * @param fromId the first id of the range, inclusive.
+     * @param toId the last id of the range, exclusive.
+     * @return {@code true} if such a row exists.
+     */
+    public boolean existsIdBetween(String table, long fromId, long toId) {
+        Long count = jdbcTemplate.queryForObject("select count(*) from " + table + " where id >= ? and id < ?", Long.class, fromId, toId);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Move the shared id sequence past {@code lastId}, so that entities saved afterwards do not collide with bulk rows.
+     * The sequence never moves backwards: when other writes already took it further, it is only moved past the ids the
+     * nodes may currently hand out.
+     *
+     * @param lastId the highest id written.
+     */
+    public void restartSequenceAfter(long lastId) {
+        Long current = jdbcTemplate.queryForObject(sequenceNextValueSql, Long.class);
+        // Every value of the restarted sequence must be above both, including the pool handed out below it
+        long restart = Math.max(lastId, current != null ? current : 0) + 2 * SEQUENCE_POOL_SIZE;
+        jdbcTemplate.execute("alter sequence " + SEQUENCE + " restart with " + restart);
+    }
+}
@@ -0,0 +1,168 @@
+package tn.isimm.manager.repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import tn.isimm.manager.domain.enumeration.TypeFichierAdmin;
+
+/**
+ * Plain JDBC reads of the data printed on the success certificates of the etudiants of a niveau.
+ * <p>
+ * The notes belong to the matieres, so the matieres of a niveau, those of its seances and of its semestre, are read
+ * once per niveau, then the etudiants in pages.
+ */
+@Repository
+public class CertificateRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CertificateRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param niveauId the id of a niveau.
+     * @return the niveau with its semestre, if it exists.
+     */
+    public Optional<Classe> findClasse(long niveauId) {
+        return jdbcTemplate
+            .query(
+                "select niveau.id, niveau.classe, niveau.td, niveau.tp, semestre.s, semestre.annee_scolaire from niveau" +
+                " left join semestre on semestre.id = niveau.semestre_id where niveau.id = ?",
+                (resultSet, rowNum) ->
+                    new Classe(
+                        resultSet.getLong(1),
+                        resultSet.getString(2),
+                        resultSet.getString(3),
+                        resultSet.getString(4),
+                        resultSet.getObject(5, Integer.class),
+                        resultSet.getString(6)
+                    ),
+                niveauId
+            )
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * @param niveauId the id of a niveau.
+     * @return the matieres of the seances and of the semestre of the niveau, with their notes, by name.
+     */
+    public List<MatiereNote> findMatiereNotes(long niveauId) {
+        return jdbcTemplate.query(
+            "select matiere.nom_matiere, note.note from matiere left join note on note.id = matiere.note_id" +
+            " where matiere.id in (select seance.matiere_id from seance where seance.niveau_id = ?)" +
+            " or matiere.semestre_id = (select niveau.semestre_id from niveau where niveau.id = ?)" +
+            " order by matiere.nom_matiere, matiere.id",
+            (resultSet, rowNum) -> new MatiereNote(resultSet.getString(1), resultSet.getObject(2, Integer.class)),
+            niveauId,
+            niveauId
+        );
+    }
+
+    /**
+     * @param niveauId the id of a niveau.
+     * @return the number of etudiants of the niveau.
+     */
+    public long countEtudiants(long niveauId) {
+        Long count = jdbcTemplate.queryForObject("select count(*) from etudiant where niveau_id = ?", Long.class, niveauId);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * @param niveauId the id of a niveau.
+     * @param afterId the id after which to start.
+     * @param limit the maximum number of etudiants.
+     * @return the etudiants of the niveau, in ascending order of ids.
+     */
+    public List<Graduate> findEtudiants(long niveauId, long afterId, int limit) {
+        return jdbcTemplate.query(
+            "select id, prenom, nom, num_etudiant, date_de_naissance from etudiant" +
+            " where niveau_id = ? and id > ? order by id limit ?",
+            (resultSet, rowNum) -> {
+                Date dateDeNaissance = resultSet.getDate(5);
+                return new Graduate(
+                    resultSet.getLong(1),
+                    resultSet.getString(2),
+                    resultSet.getString(3),
+                    resultSet.getObject(4, Long.class),
+                    dateDeNaissance != null ? dateDeNaissance.toLocalDate() : null
+                );
+            },
+            niveauId,
+            afterId,
+            limit
+        );
+    }
+
+    /**
+     * @param titre the title of the certificates.
+     * @param etudiantIds the ids of etudiants.
+     * @return the ids of the success certificates with this title of the etudiants that have one, by etudiant id.
+     */
+    public Map<Long, Long> findCertificateIds(String titre, List<Long> etudiantIds) {
+        Map<Long, Long> certificateIds = new HashMap<>();
+        if (etudiantIds.isEmpty()) {
+            return certificateIds;
+        }
+        List<Object> arguments = new ArrayList<>(etudiantIds.size() + 2);
+        arguments.add(TypeFichierAdmin.Reusite.name());
+        arguments.add(titre);
+        arguments.addAll(etudiantIds);
+        jdbcTemplate.query(
+            "select etudiant_id, min(id) from fichier_admin where type = ? and titre = ? and etudiant_id in (" +
+            String.join(", ", Collections.nCopies(etudiantIds.size(), "?")) +
+            ") group by etudiant_id",
+            (RowCallbackHandler) resultSet -> certificateIds.put(resultSet.getLong(1), resultSet.getLong(2)),
+            arguments.toArray()
+        );
+        return certificateIds;
+    }
+
+    /**
+     * @param niveauId the id of the niveau.
+     * @param classe the name of the class.
+     * @param td the tutorial group.
+     * @param tp the practical group.
+     * @param semestre the number of the semestre of the niveau, if any.
+     * @param anneeScolaire the academic year of the semestre, if any.
+     */
+    public record Classe(long niveauId, String classe, String td, String tp, Integer semestre, String anneeScolaire) {
+        /**
+         * @return the name of the class, with its groups.
+         */
+        public String label() {
+            StringBuilder label = new StringBuilder(classe != null ? classe : "");
+            if (td != null && !td.isBlank()) {
+                label.append(" TD ").append(td);
+            }
+            if (tp != null && !tp.isBlank()) {
+                label.append(" TP ").append(tp);
+            }
+            return label.toString().trim();
+        }
+    }
+
+    /**
+     * @param nomMatiere the name of the matiere.
+     * @param note the note of the matiere, if any.
+     */
+    public record MatiereNote(String nomMatiere, Integer note) {}
+
+    /**
+     * @param id the id of the etudiant.
+     * @param prenom the first name of the etudiant.
+     * @param nom the last name of the etudiant.
+     * @param numEtudiant the student number of the etudiant.
+     * @param dateDeNaissance the birth date of the etudiant.
+     */
+    public record Graduate(long id, String prenom, String nom, Long numEtudiant, LocalDate dateDeNaissance) {}
+}
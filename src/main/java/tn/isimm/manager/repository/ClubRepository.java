@@ -1,12 +1,17 @@
 package tn.isimm.manager.repository;
 
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 import tn.isimm.manager.domain.Club;
+import tn.isimm.manager.repository.projection.IdLabel;
 
 /**
  * Spring Data JPA repository for the Club entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ClubRepository extends JpaRepository<Club, Long> {}
+public interface ClubRepository extends JpaRepository<Club, Long> {
+    @Query("select club.id as id, club.nom as label from Club club")
+    List<IdLabel> findAllIdLabels();
+}
@@ -1,12 +1,19 @@
 package tn.isimm.manager.repository;
 
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 import tn.isimm.manager.domain.Cours;
+import tn.isimm.manager.repository.projection.CoursSummary;
 
 /**
  * Spring Data JPA repository for the Cours entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface CoursRepository extends JpaRepository<Cours, Long> {}
+public interface CoursRepository extends JpaRepository<Cours, Long> {
+    @Query(
+        "select new tn.isimm.manager.repository.projection.CoursSummary(cours.id, cours.version, cours.titre, cours.fileContentType, matiere.id) from Cours cours left join cours.matiere matiere"
+    )
+    List<CoursSummary> findAllSummaries();
+}
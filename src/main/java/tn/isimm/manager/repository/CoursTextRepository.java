@@ -0,0 +1,223 @@
+package tn.isimm.manager.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Plain JDBC access to the text extracted from the files of the cours, and to its full-text index.
+ * <p>
+ * The index holds one row per word of a cours, with its number of occurrences and the matiere of the cours, so that
+ * a search is a lookup of its words in the primary key. Both are deleted with their cours by the database.
+ */
+@Repository
+public class CoursTextRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public CoursTextRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * @param afterId the id after which to start.
+     * @param limit the maximum number of ids.
+     * @return the ids of the cours whose file was not indexed at their current version, in ascending order.
+     */
+    public List<Long> findStaleCoursIds(long afterId, int limit) {
+        return jdbcTemplate.queryForList(
+            "select cours.id from cours left join cours_text on cours_text.cours_id = cours.id" +
+            " where cours.id > ? and cours.file is not null" +
+            " and (cours_text.cours_id is null or cours_text.source_version <> cours.version)" +
+            " order by cours.id limit ?",
+            Long.class,
+            afterId,
+            limit
+        );
+    }
+
+    /**
+     * Delete the text and the index of the cours whose file was removed.
+     *
+     * @return the number of cours removed from the index.
+     */
+    public int deleteWithoutFile() {
+        jdbcTemplate.update("delete from cours_term where cours_id in (select id from cours where file is null)");
+        return jdbcTemplate.update("delete from cours_text where cours_id in (select id from cours where file is null)");
+    }
+
+    /**
+     * @param coursId the id of a cours.
+     * @return the version the file of the cours was indexed at, if it was.
+     */
+    public Optional<Long> findSourceVersion(long coursId) {
+        return jdbcTemplate
+            .queryForList("select source_version from cours_text where cours_id = ?", Long.class, coursId)
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * @param coursId the id of a cours.
+     * @return the id of the matiere of the cours, if it exists and has one.
+     */
+    public Optional<Long> findMatiereId(long coursId) {
+        return jdbcTemplate
+            .queryForList("select matiere_id from cours where id = ? and matiere_id is not null", Long.class, coursId)
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * Replace the text and the index of a cours, unless they were already replaced from a later version. Must be called
+     * within a transaction.
+     *
+     * @param coursId the id of the cours.
+     * @param matiereId the id of the matiere of the cours, if any.
+     * @param version the version of the cours the text was extracted from.
+     * @param status the outcome of the extraction.
+     * @param content the extracted text, if any.
+     * @param terms the number of occurrences of each normalized word of the text.
+     * @return {@code true} if the text was replaced.
+     */
+    public boolean replace(long coursId, Long matiereId, long version, String status, String content, Map<String, Integer> terms) {
+        jdbcTemplate.update("delete from cours_text where cours_id = ? and source_version <= ?", coursId, version);
+        if (findSourceVersion(coursId).isPresent()) {
+            return false;
+        }
+        jdbcTemplate.update(
+            "insert into cours_text (cours_id, source_version, status, content, indexed_at) values (?, ?, ?, ?, ?)",
+            coursId,
+            version,
+            status,
+            content,
+            Timestamp.from(Instant.now())
+        );
+        jdbcTemplate.update("delete from cours_term where cours_id = ?", coursId);
+        List<Object[]> rows = new ArrayList<>(terms.size());
+        terms.forEach((term, frequency) -> rows.add(new Object[] { term, coursId, matiereId, frequency }));
+        jdbcTemplate.batchUpdate("insert into cours_term (term, cours_id, matiere_id, frequency) values (?, ?, ?, ?)", rows);
+        return true;
+    }
+
+    /**
+     * Delete the text and the index of a cours. Must be called within a transaction.
+     *
+     * @param coursId the id of the cours.
+     */
+    public void delete(long coursId) {
+        jdbcTemplate.update("delete from cours_term where cours_id = ?", coursId);
+        jdbcTemplate.update("delete from cours_text where cours_id = ?", coursId);
+    }
+
+    /**
+     * @return the number of cours in the index.
+     */
+    public long countIndexed() {
+        Long count = jdbcTemplate.queryForObject("select count(*) from cours_text", Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * @param terms normalized words.
+     * @param matiereId the id of the matiere the cours must belong to, if any.
+     * @return the number of cours holding each of the words found.
+     */
+    public Map<String, Integer> countPostings(Collection<String> terms, Long matiereId) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("terms", terms);
+        String sql = "select term, count(*) from cours_term where term in (:terms)";
+        if (matiereId != null) {
+            sql += " and matiere_id = :matiereId";
+            parameters.addValue("matiereId", matiereId);
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+            sql + " group by term",
+            parameters,
+            resultSet -> {
+                counts.put(resultSet.getString(1), resultSet.getInt(2));
+            }
+        );
+        return counts;
+    }
+
+    /**
+     * @param term a normalized word.
+     * @param matiereId the id of the matiere the cours must belong to, if any.
+     * @param limit the maximum number of cours.
+     * @return the occurrences of the word in the cours holding it most often.
+     */
+    public List<Posting> findPostings(String term, Long matiereId, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("term", term).addValue("limit", limit);
+        String sql = "select cours_id, term, frequency from cours_term where term = :term";
+        if (matiereId != null) {
+            sql += " and matiere_id = :matiereId";
+            parameters.addValue("matiereId", matiereId);
+        }
+        return namedParameterJdbcTemplate.query(
+            sql + " order by frequency desc, cours_id limit :limit",
+            parameters,
+            (resultSet, rowNum) -> new Posting(resultSet.getLong(1), resultSet.getString(2), resultSet.getInt(3))
+        );
+    }
+
+    /**
+     * @param terms normalized words.
+     * @param coursIds ids of cours.
+     * @return the occurrences of the words in these cours.
+     */
+    public List<Posting> findPostings(Collection<String> terms, Collection<Long> coursIds) {
+        if (terms.isEmpty() || coursIds.isEmpty()) {
+            return List.of();
+        }
+        return namedParameterJdbcTemplate.query(
+            "select cours_id, term, frequency from cours_term where term in (:terms) and cours_id in (:coursIds)",
+            new MapSqlParameterSource("terms", terms).addValue("coursIds", coursIds),
+            (resultSet, rowNum) -> new Posting(resultSet.getLong(1), resultSet.getString(2), resultSet.getInt(3))
+        );
+    }
+
+    /**
+     * @param coursIds ids of indexed cours.
+     * @return the title, matiere and text of these cours.
+     */
+    public List<IndexedCours> findIndexedCours(Collection<Long> coursIds) {
+        if (coursIds.isEmpty()) {
+            return List.of();
+        }
+        return namedParameterJdbcTemplate.query(
+            "select cours.id, cours.titre, cours.matiere_id, cours_text.content from cours" +
+            " join cours_text on cours_text.cours_id = cours.id where cours.id in (:ids)",
+            new MapSqlParameterSource("ids", coursIds),
+            (resultSet, rowNum) ->
+                new IndexedCours(resultSet.getLong(1), resultSet.getString(2), resultSet.getObject(3, Long.class), resultSet.getString(4))
+        );
+    }
+
+    /**
+     * @param coursId the id of the cours.
+     * @param term the normalized word.
+     * @param frequency its number of occurrences in the text of the cours.
+     */
+    public record Posting(long coursId, String term, int frequency) {}
+
+    /**
+     * @param id the id of the cours.
+     * @param titre the title of the cours.
+     * @param matiereId the id of the matiere of the cours, if any.
+     * @param content the text extracted from the file of the cours, if any.
+     */
+    public record IndexedCours(long id, String titre, Long matiereId, String content) {}
+}
@@ -0,0 +1,66 @@
+package tn.isimm.manager.repository;
+
+/**
+ * Application event published once a change to a JPA entity has been committed.
+ * <p>
+ * Events are raised by {@link EntityChangePublisher}, so listeners only see changes that actually reached the database.
+ * The services writing an entity with plain JDBC raise them too, once their transaction is committed, without the
+ * state of the entity.
+ */
+public class EntityChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED,
+    }
+
+    private final Class<?> entityType;
+
+    private final Object id;
+
+    private final Object entity;
+
+    private final ChangeType changeType;
+
+    public EntityChangedEvent(Class<?> entityType, Object id, Object entity, ChangeType changeType) {
+        this.entityType = entityType;
+        this.id = id;
+        this.entity = entity;
+        this.changeType = changeType;
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    public Object getId() {
+        return id;
+    }
+
+    /**
+     * @return the detached state of the entity as it was committed (for deletions, the state before removal), or
+     * {@code null} if the entity was written with plain JDBC.
+     */
+    public Object getEntity() {
+        return entity;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public boolean isAbout(Class<?> type) {
+        return type.isAssignableFrom(entityType);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "EntityChangedEvent{" +
+            "entityType=" + entityType.getSimpleName() +
+            ", id=" + id +
+            ", changeType=" + changeType +
+            "}";
+    }
+}
@@ -0,0 +1,90 @@
+package tn.isimm.manager.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Access to the per-entity modification counters maintained by {@link EntityVersionTracker}.
+ */
+@Repository
+public class EntityVersionRepository {
+
+    private static final String SELECT_SQL =
+        "select entity_name, version, last_modified_date from jhi_entity_version where entity_name in (:entityNames)";
+
+    private static final String INCREMENT_SQL =
+        "update jhi_entity_version set version = version + 1, last_modified_date = :now where entity_name = :entityName";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public EntityVersionRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Read the counters of the given entity types, in one query.
+     *
+     * @param entityNames the simple class names of the entity types.
+     * @return the counters found, entity types without a counter row are left out.
+     */
+    public List<EntityVersion> findAllByEntityNameIn(Collection<String> entityNames) {
+        return jdbcTemplate.query(
+            SELECT_SQL,
+            Map.of("entityNames", entityNames),
+            (resultSet, rowNum) -> {
+                Timestamp lastModifiedDate = resultSet.getTimestamp("last_modified_date");
+                return new EntityVersion(
+                    resultSet.getString("entity_name"),
+                    resultSet.getLong("version"),
+                    lastModifiedDate == null ? null : lastModifiedDate.toInstant()
+                );
+            }
+        );
+    }
+
+    /**
+     * Increment the counters of the given entity types, for writes made outside of the persistence context.
+     * <p>
+     * Like {@link EntityVersionTracker}, the counters are incremented by the current transaction right before it
+     * commits, if any, in name order.
+     *
+     * @param entityNames the simple class names of the entity types.
+     */
+    public void incrementVersions(Collection<String> entityNames) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            incrementVersionsNow(entityNames);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    incrementVersionsNow(entityNames);
+                }
+            }
+        );
+    }
+
+    private void incrementVersionsNow(Collection<String> entityNames) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(
+            INCREMENT_SQL,
+            new TreeSet<>(entityNames)
+                .stream()
+                .map(entityName -> new MapSqlParameterSource("now", now).addValue("entityName", entityName))
+                .toArray(SqlParameterSource[]::new)
+        );
+    }
+
+    public record EntityVersion(String entityName, long version, Instant lastModifiedDate) {}
+}
@@ -0,0 +1,158 @@
+package tn.isimm.manager.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Hibernate integrator maintaining one modification counter per entity type in the {@code jhi_entity_version} table.
+ * <p>
+ * The entity types written by a transaction are collected while it flushes, and their counters are incremented by the
+ * same transaction once its last flush is done, right before it commits: the data and the counters change together,
+ * whichever node did the write, and a transaction whose counters cannot be incremented fails instead of leaving stale
+ * representations cached. The row locks of the counters are only held while committing, rather than for the whole
+ * write transaction, which would serialize all the writers of a type. Counters are updated in name order, so that
+ * concurrent writers cannot deadlock.
+ * <p>
+ * Like {@link EntityChangePublisher}, only changes going through the persistence context are seen.
+ */
+public class EntityVersionTracker
+    implements
+        Integrator,
+        PostInsertEventListener,
+        PostUpdateEventListener,
+        PostDeleteEventListener,
+        PostCollectionRecreateEventListener,
+        PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String UPDATE_SQL =
+        "update jhi_entity_version set version = version + 1, last_modified_date = ? where entity_name = ?";
+
+    private final transient Map<SharedSessionContractImplementor, Set<String>> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        pending.clear();
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        track(event.getSession(), event.getPersister().getMappedClass().getSimpleName());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        track(event.getSession(), event.getPersister().getMappedClass().getSimpleName());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        track(event.getSession(), event.getPersister().getMappedClass().getSimpleName());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        trackOwner(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        trackOwner(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        trackOwner(event);
+    }
+
+    private void trackOwner(AbstractCollectionEvent event) {
+        String ownerEntityName = event.getAffectedOwnerEntityName();
+        if (ownerEntityName != null) {
+            track(event.getSession(), ownerEntityName.substring(ownerEntityName.lastIndexOf('.') + 1));
+        }
+    }
+
+    private void track(EventSource session, String entityName) {
+        Set<String> entityNames = pending.computeIfAbsent(
+            session,
+            key -> {
+                session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this::incrementVersions);
+                // Forget the entity types of a transaction rolled back
+                session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) -> forget(completed));
+                return new TreeSet<>();
+            }
+        );
+        entityNames.add(entityName);
+    }
+
+    private void forget(SharedSessionContractImplementor session) {
+        pending.remove(session);
+    }
+
+    private void incrementVersions(SessionImplementor session) {
+        Set<String> entityNames = pending.remove(session);
+        if (entityNames == null || entityNames.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_SQL)) {
+                for (String entityName : entityNames) {
+                    statement.setTimestamp(1, now);
+                    statement.setString(2, entityName);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tn.isimm.manager.domain.Etudiant;
+import tn.isimm.manager.repository.projection.BinaryContent;
+import tn.isimm.manager.repository.projection.EtudiantSummary;
 
 /**
  * Spring Data JPA repository for the Etudiant entity.
@@ -40,4 +42,15 @@ public interface EtudiantRepository extends EtudiantRepositoryWithBagRelationshi
 
     @Query("select etudiant from Etudiant etudiant left join fetch etudiant.user where etudiant.id =:id")
     Optional<Etudiant> findOneWithToOneRelationships(@Param("id") Long id);
+
+    @Query(
+        value = "select new tn.isimm.manager.repository.projection.EtudiantSummary(etudiant.id, etudiant.version, etudiant.prenom, etudiant.nom, etudiant.email, etudiant.numEtudiant, etudiant.numTel, etudiant.dateDeNaissance, etudiant.photoDeProfileContentType, etudiant.photoDeProfileHash, niveau.id, appUser.id, appUser.login) from Etudiant etudiant left join etudiant.niveau niveau left join etudiant.user appUser",
+        countQuery = "select count(etudiant) from Etudiant etudiant"
+    )
+    Page<EtudiantSummary> findAllSummaries(Pageable pageable);
+
+    @Query(
+        "select new tn.isimm.manager.repository.projection.BinaryContent(etudiant.photoDeProfile, etudiant.photoDeProfileContentType) from Etudiant etudiant where etudiant.id = :id and etudiant.photoDeProfile is not null"
+    )
+    Optional<BinaryContent> findPhotoDeProfileById(@Param("id") Long id);
 }
@@ -1,12 +1,19 @@
 package tn.isimm.manager.repository;
 
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 import tn.isimm.manager.domain.FichierAdmin;
+import tn.isimm.manager.repository.projection.FichierAdminSummary;
 
 /**
  * Spring Data JPA repository for the FichierAdmin entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface FichierAdminRepository extends JpaRepository<FichierAdmin, Long> {}
+public interface FichierAdminRepository extends JpaRepository<FichierAdmin, Long> {
+    @Query(
+        "select new tn.isimm.manager.repository.projection.FichierAdminSummary(fichierAdmin.id, fichierAdmin.version, fichierAdmin.titre, fichierAdmin.type, fichierAdmin.fileContentType, fichierAdmin.demandeValide, etudiant.id) from FichierAdmin fichierAdmin left join fichierAdmin.etudiant etudiant"
+    )
+    List<FichierAdminSummary> findAllSummaries();
+}
@@ -0,0 +1,29 @@
+package tn.isimm.manager.repository;
+
+import tn.isimm.manager.domain.Cours;
+import tn.isimm.manager.domain.FichierAdmin;
+
+/**
+ * The entities holding an uploaded file, in their {@code file} and {@code file_content_type} columns.
+ */
+public enum FileKind {
+    COURS("cours", Cours.class),
+    FICHIER_ADMIN("fichier_admin", FichierAdmin.class);
+
+    private final String tableName;
+
+    private final Class<?> entityType;
+
+    FileKind(String tableName, Class<?> entityType) {
+        this.tableName = tableName;
+        this.entityType = entityType;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+}
@@ -0,0 +1,182 @@
+package tn.isimm.manager.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Plain JDBC reads and writes of the uploaded files, streamed from and to the database instead of being held in a
+ * {@code byte[]}. Files are read and written in their storage format, see {@link tn.isimm.manager.domain.StoredFileCodec}.
+ * <p>
+ * Writes here bypass the persistence context: callers are expected to evict the owners from the second-level cache and
+ * to bump their entity versions, unless the raw content of the file is unchanged.
+ */
+@Repository
+public class FileRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FileRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Replace the file of an owner, and increment its version. Must be called within a transaction.
+     *
+     * @param kind the kind of the owner.
+     * @param ownerId the id of the owner.
+     * @param content the file in its storage format, read exactly {@code length} bytes by the driver.
+     * @param length the length of the stored file, in bytes.
+     * @param contentType the content type of the file.
+     * @return {@code true} if the owner exists.
+     */
+    public boolean writeFile(FileKind kind, long ownerId, InputStream content, long length, String contentType) {
+        return writeFile(kind, ownerId, content, length, contentType, List.of());
+    }
+
+    /**
+     * Replace the file of an owner if it has one of the expected versions, and increment its version. Must be called
+     * within a transaction.
+     *
+     * @param kind the kind of the owner.
+     * @param ownerId the id of the owner.
+     * @param content the file in its storage format, read exactly {@code length} bytes by the driver.
+     * @param length the length of the stored file, in bytes.
+     * @param contentType the content type of the file.
+     * @param expectedVersions the versions the owner may have, or an empty list for any version.
+     * @return {@code true} if the owner exists with one of the expected versions.
+     */
+    public boolean writeFile(
+        FileKind kind,
+        long ownerId,
+        InputStream content,
+        long length,
+        String contentType,
+        List<Long> expectedVersions
+    ) {
+        String versionCondition = expectedVersions.isEmpty()
+            ? ""
+            : " and version in (" + String.join(", ", Collections.nCopies(expectedVersions.size(), "?")) + ")";
+        int updated = jdbcTemplate.update(
+            "update " + kind.getTableName() + " set file = ?, file_content_type = ?, version = version + 1 where id = ?" + versionCondition,
+            statement -> {
+                statement.setBinaryStream(1, content, length);
+                statement.setString(2, contentType);
+                statement.setLong(3, ownerId);
+                for (int index = 0; index < expectedVersions.size(); index++) {
+                    statement.setLong(4 + index, expectedVersions.get(index));
+                }
+            }
+        );
+        return updated > 0;
+    }
+
+    /**
+     * @param kind the kind of the owner.
+     * @param ownerId the id of the owner.
+     * @return the current version of the owner, if it exists.
+     */
+    public Optional<Long> findVersion(FileKind kind, long ownerId) {
+        return jdbcTemplate
+            .queryForList("select version from " + kind.getTableName() + " where id = ?", Long.class, ownerId)
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * Stream the file of an owner, as stored, to {@code handler}.
+     *
+     * @param kind the kind of the owner.
+     * @param ownerId the id of the owner.
+     * @param handler the handler reading the file, before the result set is closed.
+     * @return {@code true} if the owner exists and has a file.
+     * @throws IOException if the handler failed.
+     */
+    public boolean readFile(FileKind kind, long ownerId, StoredFileHandler handler) throws IOException {
+        try {
+            Boolean found = jdbcTemplate.query(
+                "select file, file_content_type, version from " + kind.getTableName() + " where id = ? and file is not null",
+                resultSet -> {
+                    if (!resultSet.next()) {
+                        return false;
+                    }
+                    try (InputStream content = resultSet.getBinaryStream(1)) {
+                        handler.handle(new StoredFile(resultSet.getString(2), resultSet.getLong(3), content));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return true;
+                },
+                ownerId
+            );
+            return Boolean.TRUE.equals(found);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @param kind the kind of the owners.
+     * @param afterId the id after which to start.
+     * @param limit the maximum number of ids.
+     * @return the ids of the owners having a file, in ascending order.
+     */
+    public List<Long> findOwnerIds(FileKind kind, long afterId, int limit) {
+        return jdbcTemplate.queryForList(
+            "select id from " + kind.getTableName() + " where id > ? and file is not null order by id limit ?",
+            Long.class,
+            afterId,
+            limit
+        );
+    }
+
+    /**
+     * @param kind the kind of the owners.
+     * @return the number of owners having a file.
+     */
+    public long countOwners(FileKind kind) {
+        Long count = jdbcTemplate.queryForObject("select count(*) from " + kind.getTableName() + " where file is not null", Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Replace the file of an owner by another storage of the same raw content, leaving its version unchanged.
+     *
+     * @param kind the kind of the owner.
+     * @param ownerId the id of the owner.
+     * @param version the version of the owner the file was read at.
+     * @param stored the file in its new storage format, read exactly {@code length} bytes by the driver.
+     * @param length the length of the stored file, in bytes.
+     * @return {@code true} if the owner was not changed since the file was read.
+     */
+    public boolean replaceStoredFile(FileKind kind, long ownerId, long version, InputStream stored, long length) {
+        int updated = jdbcTemplate.update(
+            "update " + kind.getTableName() + " set file = ? where id = ? and version = ?",
+            statement -> {
+                statement.setBinaryStream(1, stored, length);
+                statement.setLong(2, ownerId);
+                statement.setLong(3, version);
+            }
+        );
+        return updated > 0;
+    }
+
+    /**
+     * A file as stored, open while the handler reads it.
+     *
+     * @param contentType the content type of the file.
+     * @param version the version of the owner.
+     * @param content the file in its storage format.
+     */
+    public record StoredFile(String contentType, long version, InputStream content) {}
+
+    @FunctionalInterface
+    public interface StoredFileHandler {
+        void handle(StoredFile file) throws IOException;
+    }
+}
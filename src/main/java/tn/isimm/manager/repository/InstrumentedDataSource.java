@@ -0,0 +1,159 @@
+package tn.isimm.manager.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Data source timing every statement executed through its connections, and counting the rows they read or write,
+ * into {@link StatementStatistics}.
+ * <p>
+ * Connections, statements and result sets are wrapped in dynamic proxies: everything goes through, whether issued by
+ * Hibernate, a {@code JdbcTemplate} or Liquibase. The statistics are only looked up on first use, as the data source
+ * is needed before them at startup.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+        "execute",
+        "executeQuery",
+        "executeUpdate",
+        "executeLargeUpdate",
+        "executeBatch",
+        "executeLargeBatch"
+    );
+
+    private final Supplier<StatementStatistics> statisticsSupplier;
+
+    private volatile StatementStatistics statistics;
+
+    public InstrumentedDataSource(DataSource targetDataSource, Supplier<StatementStatistics> statisticsSupplier) {
+        super(targetDataSource);
+        this.statisticsSupplier = statisticsSupplier;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        if (statistics == null) {
+            statistics = statisticsSupplier.get();
+        }
+        return proxy(
+            Connection.class,
+            (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                if (result instanceof CallableStatement statement) {
+                    return wrapStatement(CallableStatement.class, statement, (String) args[0]);
+                }
+                if (result instanceof PreparedStatement statement) {
+                    return wrapStatement(PreparedStatement.class, statement, (String) args[0]);
+                }
+                if (result instanceof Statement statement) {
+                    return wrapStatement(Statement.class, statement, null);
+                }
+                return result;
+            }
+        );
+    }
+
+    private <S extends Statement> S wrapStatement(Class<S> type, S statement, String preparedSql) {
+        return proxy(
+            type,
+            (proxy, method, args) -> {
+                String name = method.getName();
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+                if (sql == null || !EXECUTE_METHODS.contains(name)) {
+                    Object result = invoke(statement, method, args);
+                    if (result instanceof ResultSet resultSet && sql != null && "getResultSet".equals(name)) {
+                        return wrapResultSet(resultSet, sql);
+                    }
+                    return result;
+                }
+                long start = System.nanoTime();
+                Object result = invoke(statement, method, args);
+                statistics.recordExecution(sql, System.nanoTime() - start);
+                if (result instanceof ResultSet resultSet) {
+                    return wrapResultSet(resultSet, sql);
+                }
+                if (result instanceof Number count && count.longValue() > 0) {
+                    statistics.recordRows(sql, count.longValue());
+                } else if (result instanceof int[] counts) {
+                    statistics.recordRows(sql, sumPositive(counts));
+                } else if (result instanceof long[] counts) {
+                    long rows = 0;
+                    for (long count : counts) {
+                        rows += Math.max(0, count);
+                    }
+                    statistics.recordRows(sql, rows);
+                }
+                return result;
+            }
+        );
+    }
+
+    private ResultSet wrapResultSet(ResultSet resultSet, String sql) {
+        long[] rows = new long[1];
+        boolean[] closed = new boolean[1];
+        return proxy(
+            ResultSet.class,
+            (proxy, method, args) -> {
+                Object result = invoke(resultSet, method, args);
+                if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                    rows[0]++;
+                } else if ("close".equals(method.getName()) && !closed[0]) {
+                    closed[0] = true;
+                    statistics.recordRows(sql, rows[0]);
+                }
+                return result;
+            }
+        );
+    }
+
+    private static long sumPositive(int[] counts) {
+        long rows = 0;
+        for (int count : counts) {
+            // Batches may report SUCCESS_NO_INFO (-2) instead of a count
+            rows += Math.max(0, count);
+        }
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        // Identity semantics, as the JDBC objects are used as keys by the connection pool and Hibernate
+        InvocationHandler identityHandler = (proxy, method, args) ->
+            switch (method.getName()) {
+                case "equals" -> args != null && args.length == 1 && proxy == args[0];
+                case "hashCode" -> method.getParameterCount() == 0 ? System.identityHashCode(proxy) : handler.invoke(proxy, method, args);
+                default -> handler.invoke(proxy, method, args);
+            };
+        return (T) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[] { type }, identityHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
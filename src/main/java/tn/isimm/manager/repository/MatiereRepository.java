@@ -1,12 +1,21 @@
 package tn.isimm.manager.repository;
 
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 import tn.isimm.manager.domain.Matiere;
+import tn.isimm.manager.repository.projection.IdLabel;
 
 /**
  * Spring Data JPA repository for the Matiere entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface MatiereRepository extends JpaRepository<Matiere, Long> {}
+public interface MatiereRepository extends JpaRepository<Matiere, Long> {
+    // The seance side is not the owner of the relationship, so Hibernate would otherwise load it with one query per matiere
+    @Query("select matiere from Matiere matiere left join fetch matiere.seance")
+    List<Matiere> findAllWithSeance();
+
+    @Query("select matiere.id as id, matiere.nomMatiere as label from Matiere matiere")
+    List<IdLabel> findAllIdLabels();
+}
@@ -1,12 +1,19 @@
 package tn.isimm.manager.repository;
 
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 import tn.isimm.manager.domain.Niveau;
+import tn.isimm.manager.repository.projection.IdLabel;
 
 /**
  * Spring Data JPA repository for the Niveau entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface NiveauRepository extends JpaRepository<Niveau, Long> {}
+public interface NiveauRepository extends JpaRepository<Niveau, Long> {
+    @Query(
+        "select niveau.id as id, concat(coalesce(niveau.classe, ''), ' ', coalesce(niveau.td, ''), ' ', coalesce(niveau.tp, '')) as label from Niveau niveau"
+    )
+    List<IdLabel> findAllIdLabels();
+}
@@ -1,5 +1,6 @@
 package tn.isimm.manager.repository;
 
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 import tn.isimm.manager.domain.Note;
@@ -9,4 +10,9 @@ import tn.isimm.manager.domain.Note;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface NoteRepository extends JpaRepository<Note, Long> {}
+public interface NoteRepository extends JpaRepository<Note, Long> {
+    // Neither the matiere nor its seance is owned by the note side, so Hibernate would otherwise load them with queries per
+    // note, even though the seance is not serialized
+    @Query("select note from Note note left join fetch note.matiere matiere left join fetch matiere.seance")
+    List<Note> findAllWithMatiere();
+}
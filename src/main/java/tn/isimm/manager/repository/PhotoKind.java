@@ -0,0 +1,44 @@
+package tn.isimm.manager.repository;
+
+import java.util.Arrays;
+import java.util.Optional;
+import tn.isimm.manager.domain.Administrateur;
+import tn.isimm.manager.domain.Etudiant;
+import tn.isimm.manager.domain.Professeur;
+
+/**
+ * The entities with a profile photo, named in the URLs of their thumbnails.
+ */
+public enum PhotoKind {
+    ADMINISTRATEUR("administrateur", Administrateur.class),
+    ETUDIANT("etudiant", Etudiant.class),
+    PROFESSEUR("professeur", Professeur.class);
+
+    private final String name;
+
+    private final Class<?> entityType;
+
+    PhotoKind(String name, Class<?> entityType) {
+        this.name = name;
+        this.entityType = entityType;
+    }
+
+    /**
+     * @return the name of the kind in the URLs, which is also the name of the entity table.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    public static Optional<PhotoKind> fromName(String name) {
+        return Arrays.stream(values()).filter(kind -> kind.name.equals(name)).findFirst();
+    }
+
+    public static Optional<PhotoKind> fromEntityType(Class<?> entityType) {
+        return Arrays.stream(values()).filter(kind -> kind.entityType.isAssignableFrom(entityType)).findFirst();
+    }
+}
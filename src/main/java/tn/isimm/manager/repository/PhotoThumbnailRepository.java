@@ -0,0 +1,121 @@
+package tn.isimm.manager.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Plain JDBC access to the profile photos and to the thumbnails stored next to them.
+ * <p>
+ * Writes here bypass the persistence context: callers are expected to evict the owners from the second-level cache and
+ * to bump the versions of their entity types. The {@code version} of the owners is left alone, as the thumbnails are
+ * derived by the server and must not fail the updates of clients holding the owner.
+ */
+@Repository
+public class PhotoThumbnailRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PhotoThumbnailRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param kind the kind of the owner.
+     * @param ownerId the id of the owner.
+     * @return the current photo of the owner, if it exists and has one.
+     */
+    public Optional<Photo> findPhoto(PhotoKind kind, long ownerId) {
+        return jdbcTemplate
+            .query(
+                "select photo_de_profile, photo_de_profile_hash from " + kind.getName() + " where id = ? and photo_de_profile is not null",
+                (resultSet, rowNum) -> new Photo(resultSet.getBytes("photo_de_profile"), resultSet.getString("photo_de_profile_hash")),
+                ownerId
+            )
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * @param kind the kind of the owner.
+     * @param ownerId the id of the owner.
+     * @return {@code true} if thumbnails were generated for the owner.
+     */
+    public boolean hasThumbnails(PhotoKind kind, long ownerId) {
+        Long count = jdbcTemplate.queryForObject(
+            "select count(*) from photo_thumbnail where kind = ? and owner_id = ?",
+            Long.class,
+            kind.getName(),
+            ownerId
+        );
+        return count != null && count > 0;
+    }
+
+    /**
+     * @param kind the kind of the owner.
+     * @param ownerId the id of the owner.
+     * @param size the size of the thumbnail, in pixels.
+     * @return the thumbnail, if it was generated.
+     */
+    public Optional<Thumbnail> findThumbnail(PhotoKind kind, long ownerId, int size) {
+        return jdbcTemplate
+            .query(
+                "select content_hash, content_type, content from photo_thumbnail where kind = ? and owner_id = ? and thumbnail_size = ?",
+                (resultSet, rowNum) ->
+                    new Thumbnail(resultSet.getString("content_hash"), resultSet.getString("content_type"), resultSet.getBytes("content")),
+                kind.getName(),
+                ownerId,
+                size
+            )
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * Replace the thumbnails of an owner and record the hash of the photo they were generated from. Must be called within
+     * a transaction.
+     *
+     * @param kind the kind of the owner.
+     * @param ownerId the id of the owner.
+     * @param hash the hash of the photo, {@code null} if the owner has no photo anymore.
+     * @param contentType the content type of the thumbnails.
+     * @param thumbnails the thumbnails by size, in pixels.
+     */
+    public void replaceThumbnails(PhotoKind kind, long ownerId, String hash, String contentType, Map<Integer, byte[]> thumbnails) {
+        jdbcTemplate.update("delete from photo_thumbnail where kind = ? and owner_id = ?", kind.getName(), ownerId);
+        List<Object[]> rows = thumbnails
+            .entrySet()
+            .stream()
+            .map(thumbnail -> new Object[] { kind.getName(), ownerId, thumbnail.getKey(), hash, contentType, thumbnail.getValue() })
+            .toList();
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                "insert into photo_thumbnail (kind, owner_id, thumbnail_size, content_hash, content_type, content) values (?, ?, ?, ?, ?, ?)",
+                rows
+            );
+        }
+        jdbcTemplate.update("update " + kind.getName() + " set photo_de_profile_hash = ? where id = ?", hash, ownerId);
+    }
+
+    /**
+     * @param kind the kind of the owners.
+     * @param afterId the id after which to start.
+     * @param limit the maximum number of ids.
+     * @return the ids of the owners having a photo that no thumbnails were generated from, in ascending order.
+     */
+    public List<Long> findOwnerIdsWithoutThumbnails(PhotoKind kind, long afterId, int limit) {
+        return jdbcTemplate.queryForList(
+            "select id from " + kind.getName() + " where id > ? and photo_de_profile is not null and photo_de_profile_hash is null " +
+            "order by id limit ?",
+            Long.class,
+            afterId,
+            limit
+        );
+    }
+
+    public record Photo(byte[] content, String hash) {}
+
+    public record Thumbnail(String contentHash, String contentType, byte[] content) {}
+}
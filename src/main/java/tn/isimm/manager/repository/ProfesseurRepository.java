@@ -8,6 +8,9 @@ import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tn.isimm.manager.domain.Professeur;
+import tn.isimm.manager.repository.projection.BinaryContent;
+import tn.isimm.manager.repository.projection.IdLabel;
+import tn.isimm.manager.repository.projection.ProfesseurSummary;
 
 /**
  * Spring Data JPA repository for the Professeur entity.
@@ -40,4 +43,20 @@ public interface ProfesseurRepository extends ProfesseurRepositoryWithBagRelatio
 
     @Query("select professeur from Professeur professeur left join fetch professeur.user where professeur.id =:id")
     Optional<Professeur> findOneWithToOneRelationships(@Param("id") Long id);
+
+    @Query(
+        "select professeur.id as id, concat(coalesce(professeur.prenom, ''), ' ', coalesce(professeur.nom, '')) as label from Professeur professeur"
+    )
+    List<IdLabel> findAllIdLabels();
+
+    @Query(
+        value = "select new tn.isimm.manager.repository.projection.ProfesseurSummary(professeur.id, professeur.version, professeur.prenom, professeur.nom, professeur.email, professeur.matricule, professeur.departement, professeur.titre, professeur.numTel, professeur.dateDeNaissance, professeur.photoDeProfileContentType, professeur.photoDeProfileHash, appUser.id, appUser.login) from Professeur professeur left join professeur.user appUser",
+        countQuery = "select count(professeur) from Professeur professeur"
+    )
+    Page<ProfesseurSummary> findAllSummaries(Pageable pageable);
+
+    @Query(
+        "select new tn.isimm.manager.repository.projection.BinaryContent(professeur.photoDeProfile, professeur.photoDeProfileContentType) from Professeur professeur where professeur.id = :id and professeur.photoDeProfile is not null"
+    )
+    Optional<BinaryContent> findPhotoDeProfileById(@Param("id") Long id);
 }
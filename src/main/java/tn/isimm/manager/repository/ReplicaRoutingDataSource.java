@@ -0,0 +1,238 @@
+package tn.isimm.manager.repository;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source sending the connections of read-only transactions to replica pools, and all the others to the primary.
+ * <p>
+ * The routing relies on the transaction being known to be read-only when the connection is requested: this data
+ * source must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which only
+ * asks for a connection on the first statement, once the transaction is set up.
+ * <p>
+ * The replicas are used in turn, skipping the ones that failed their last health check or that lag behind the
+ * primary. A user who committed a write transaction reads from the primary for a while, so that the replicas have
+ * replayed the write before they serve the user again.
+ * <p>
+ * Between {@link #beginConsistentReads()} and {@link #endConsistentReads()}, the read-only transactions of a thread all
+ * read from the data source of the first one, or from the primary once that replica is no longer used, so that a read
+ * never sees an older state than the reads before it.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    /**
+     * A replica that replayed all the WAL it received does not lag, however long ago the primary last committed;
+     * otherwise, its lag is the age of the last transaction it replayed.
+     */
+    private static final String LAG_QUERY =
+        "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 " +
+        "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) * 1000 end as lag_millis";
+
+    private static final ThreadLocal<ConsistentReads> CONSISTENT_READS = new ThreadLocal<>();
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final Duration maxLag;
+
+    private final Duration readYourWritesWindow;
+
+    private final Clock clock;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingDataSource(
+        DataSource primary,
+        Map<String, DataSource> replicas,
+        Duration maxLag,
+        Duration readYourWritesWindow,
+        Clock clock
+    ) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream().map(entry -> new Replica(entry.getKey(), entry.getValue())).toList();
+        this.maxLag = maxLag;
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.clock = clock;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit();
+            return primary.getConnection();
+        }
+        ConsistentReads consistentReads = CONSISTENT_READS.get();
+        if (consistentReads != null && consistentReads.started) {
+            Replica replica = consistentReads.replica;
+            Connection connection = replica != null && replica.healthy ? tryConnection(replica) : null;
+            return connection != null ? connection : primary.getConnection();
+        }
+        Replica chosen = null;
+        Connection connection = null;
+        if (!hasRecentWrite()) {
+            for (int attempt = 0; attempt < replicas.size() && connection == null; attempt++) {
+                Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+                if (replica.healthy) {
+                    chosen = replica;
+                    connection = tryConnection(replica);
+                }
+            }
+        }
+        if (consistentReads != null) {
+            consistentReads.started = true;
+            consistentReads.replica = connection != null ? chosen : null;
+        }
+        return connection != null ? connection : primary.getConnection();
+    }
+
+    /**
+     * Connections with other credentials are taken from the primary, the replica pools having their own.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Make the next read-only transactions of the current thread read from the same data source, until
+     * {@link #endConsistentReads()}.
+     */
+    public static void beginConsistentReads() {
+        CONSISTENT_READS.set(new ConsistentReads());
+    }
+
+    public static void endConsistentReads() {
+        CONSISTENT_READS.remove();
+    }
+
+    /**
+     * Check that each replica accepts connections and lags behind the primary by at most {@code maxLag}, and forget
+     * the writes older than the read-your-writes window.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy = isHealthy(replica);
+            if (healthy != replica.healthy) {
+                log.info("Replica {} is {}", replica.name, healthy ? "back in use" : "no longer used");
+            }
+            replica.healthy = healthy;
+        }
+        long oldest = clock.millis() - readYourWritesWindow.toMillis();
+        lastWrites.values().removeIf(time -> time < oldest);
+    }
+
+    /**
+     * @return the names of the replicas that passed their last health check.
+     */
+    public List<String> getHealthyReplicas() {
+        return replicas.stream().filter(replica -> replica.healthy).map(replica -> replica.name).toList();
+    }
+
+    private boolean isHealthy(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                long lagMillis = resultSet.getLong(1);
+                if (lagMillis > maxLag.toMillis()) {
+                    log.warn("Replica {} lags {} ms behind the primary", replica.name, lagMillis);
+                    return false;
+                }
+            } finally {
+                connection.rollback();
+            }
+            return true;
+        } catch (SQLException e) {
+            log.warn("Replica {} failed its health check: {}", replica.name, e.getMessage());
+            return false;
+        }
+    }
+
+    private Connection tryConnection(Replica replica) {
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            log.warn("Replica {} is unavailable, until its next health check: {}", replica.name, e.getMessage());
+            replica.healthy = false;
+            return null;
+        }
+    }
+
+    private void recordWriteOnCommit() {
+        String user = currentUser();
+        if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lastWrites.put(user, clock.millis());
+                }
+            }
+        );
+    }
+
+    private boolean hasRecentWrite() {
+        String user = currentUser();
+        if (user == null) {
+            return false;
+        }
+        Long lastWrite = lastWrites.get(user);
+        return lastWrite != null && clock.millis() - lastWrite < readYourWritesWindow.toMillis();
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static final class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    /**
+     * The data source of the consistent reads of a thread, the primary when {@code replica} is {@code null}, known once
+     * {@code started}.
+     */
+    private static final class ConsistentReads {
+
+        private boolean started;
+
+        private Replica replica;
+    }
+}
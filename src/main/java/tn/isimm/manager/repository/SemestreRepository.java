@@ -1,5 +1,6 @@
 package tn.isimm.manager.repository;
 
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 import tn.isimm.manager.domain.Semestre;
@@ -9,4 +10,12 @@ import tn.isimm.manager.domain.Semestre;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface SemestreRepository extends JpaRepository<Semestre, Long> {}
+public interface SemestreRepository extends JpaRepository<Semestre, Long> {
+    // Neither the niveau, the matiere nor its seance is owned by the semestre side, so Hibernate would otherwise load them
+    // with queries per semestre, even though the seance is not serialized
+    @Query(
+        "select semestre from Semestre semestre left join fetch semestre.niveau " +
+        "left join fetch semestre.matiere matiere left join fetch matiere.seance"
+    )
+    List<Semestre> findAllWithNiveauAndMatiere();
+}
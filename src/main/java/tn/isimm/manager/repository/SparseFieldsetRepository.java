@@ -0,0 +1,121 @@
+package tn.isimm.manager.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Criteria queries selecting only some attributes of an entity, returned as maps from attribute name to value.
+ * <p>
+ * Basic attributes are selected as is. To-one associations are left joined and only their id is selected, returned as
+ * {@code {"id": ...}} like in the full representation. The attribute names, and the properties of the sort, must have
+ * been validated by the caller: collections are not supported.
+ */
+@Repository
+public class SparseFieldsetRepository {
+
+    private static final String ID = "id";
+
+    private final EntityManager entityManager;
+
+    public SparseFieldsetRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * @param entityType the entity type.
+     * @param fields the attributes to select.
+     * @param pageable the pagination information.
+     * @return a page of the entities, reduced to {@code fields}.
+     */
+    public Page<Map<String, Object>> findAll(Class<?> entityType, List<String> fields, Pageable pageable) {
+        TypedQuery<Tuple> query = createQuery(entityType, fields, pageable.getSort(), null);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<Map<String, Object>> content = toMaps(entityType, fields, query.getResultList());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(entityType));
+    }
+
+    /**
+     * @param entityType the entity type.
+     * @param fields the attributes to select.
+     * @param sort the order of the entities.
+     * @return all the entities, reduced to {@code fields}.
+     */
+    public List<Map<String, Object>> findAll(Class<?> entityType, List<String> fields, Sort sort) {
+        return toMaps(entityType, fields, createQuery(entityType, fields, sort, null).getResultList());
+    }
+
+    /**
+     * @param entityType the entity type.
+     * @param fields the attributes to select.
+     * @param id the id of the entity.
+     * @return the entity reduced to {@code fields}, if it exists.
+     */
+    public Optional<Map<String, Object>> findById(Class<?> entityType, List<String> fields, Object id) {
+        return toMaps(entityType, fields, createQuery(entityType, fields, Sort.unsorted(), id).getResultList()).stream().findFirst();
+    }
+
+    private TypedQuery<Tuple> createQuery(Class<?> entityType, List<String> fields, Sort sort, Object id) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<?> root = query.from(entityType);
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String field : fields) {
+            if (root.getModel().getAttribute(field).isAssociation()) {
+                selections.add(root.join(field, JoinType.LEFT).get(ID).alias(field));
+            } else {
+                selections.add(root.get(field).alias(field));
+            }
+        }
+        query.multiselect(selections);
+        if (id != null) {
+            query.where(criteriaBuilder.equal(root.get(ID), id));
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Class<?> entityType) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        query.select(criteriaBuilder.count(query.from(entityType)));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private List<Map<String, Object>> toMaps(Class<?> entityType, List<String> fields, List<Tuple> tuples) {
+        EntityType<?> model = entityManager.getMetamodel().entity(entityType);
+        List<Map<String, Object>> maps = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (String field : fields) {
+                Object value = tuple.get(field);
+                if (value != null && model.getAttribute(field).isAssociation()) {
+                    value = Map.of(ID, value);
+                }
+                values.put(field, value);
+            }
+            maps.add(values);
+        }
+        return maps;
+    }
+}
@@ -0,0 +1,249 @@
+package tn.isimm.manager.repository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Statistics of the SQL statements run by the application, fed by {@link InstrumentedDataSource}.
+ * <p>
+ * Every statement is timed into the {@code db.statements} timer, tagged by operation and main table only so that the
+ * number of series stays bounded, and its rows into {@code db.statements.rows}. Statements slower than the threshold
+ * are logged, with their literals redacted: bind parameters are never logged. The statistics of each distinct SQL
+ * text are also kept, up to a limit, to find the slowest ones.
+ * <p>
+ * Statements and entity loads are also counted per HTTP request, between {@link #begin()} and {@link #end()}.
+ */
+public class StatementStatistics {
+
+    public static final String STATEMENTS_METER = "db.statements";
+
+    public static final String ROWS_METER = "db.statements.rows";
+
+    private static final Pattern TABLE = Pattern.compile("\\b(?:from|into|update)\\s+([a-z_][a-z0-9_]*)", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern LITERAL = Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private final Logger log = LoggerFactory.getLogger(StatementStatistics.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final long slowStatementThresholdNanos;
+
+    private final int maxTrackedStatements;
+
+    private final Map<String, StatementMeters> meters = new ConcurrentHashMap<>();
+
+    private final Map<String, StatementAccumulator> statements = new ConcurrentHashMap<>();
+
+    public StatementStatistics(MeterRegistry meterRegistry, Duration slowStatementThreshold, int maxTrackedStatements) {
+        this.meterRegistry = meterRegistry;
+        this.slowStatementThresholdNanos = slowStatementThreshold.toNanos();
+        this.maxTrackedStatements = maxTrackedStatements;
+    }
+
+    /**
+     * Record an execution of {@code sql}.
+     *
+     * @param sql the SQL text, with its parameter markers.
+     * @param nanos the execution time.
+     */
+    public void recordExecution(String sql, long nanos) {
+        StatementMeters statementMeters = meters.computeIfAbsent(tagsOf(sql), this::createMeters);
+        statementMeters.timer.record(nanos, TimeUnit.NANOSECONDS);
+        StatementAccumulator accumulator = accumulatorOf(sql);
+        if (accumulator != null) {
+            accumulator.record(nanos);
+        }
+        RequestStatistics request = CURRENT.get();
+        if (request != null) {
+            request.statements++;
+            request.nanos += nanos;
+        }
+        if (nanos >= slowStatementThresholdNanos) {
+            log.warn("Slow statement, {} ms: {}", TimeUnit.NANOSECONDS.toMillis(nanos), redact(sql));
+        }
+    }
+
+    /**
+     * Record the rows read or written by an execution of {@code sql}.
+     *
+     * @param sql the SQL text, with its parameter markers.
+     * @param rows the number of rows.
+     */
+    public void recordRows(String sql, long rows) {
+        meters.computeIfAbsent(tagsOf(sql), this::createMeters).rows.record(rows);
+        StatementAccumulator accumulator = statements.get(sql);
+        if (accumulator != null) {
+            accumulator.rows.add(rows);
+        }
+        RequestStatistics request = CURRENT.get();
+        if (request != null) {
+            request.rows += rows;
+        }
+    }
+
+    /**
+     * Count an entity loaded by Hibernate in the current request.
+     */
+    public static void recordEntityLoad() {
+        RequestStatistics request = CURRENT.get();
+        if (request != null) {
+            request.entityLoads++;
+        }
+    }
+
+    /**
+     * Start counting the statements of the current thread.
+     */
+    public static void begin() {
+        CURRENT.set(new RequestStatistics());
+    }
+
+    /**
+     * Stop counting the statements of the current thread.
+     *
+     * @return what was run since {@link #begin()}, or {@code null} if counting was not started.
+     */
+    public static RequestStatistics end() {
+        RequestStatistics request = CURRENT.get();
+        CURRENT.remove();
+        return request;
+    }
+
+    /**
+     * Find the slowest statements since startup.
+     *
+     * @param limit the maximum number of statements to return.
+     * @return the statements, by decreasing maximum execution time.
+     */
+    public List<StatementSummary> findSlowest(int limit) {
+        return statements
+            .entrySet()
+            .stream()
+            .map(entry -> entry.getValue().summarize(entry.getKey()))
+            .sorted(Comparator.comparingLong(StatementSummary::maxNanos).reversed())
+            .limit(limit)
+            .toList();
+    }
+
+    private StatementAccumulator accumulatorOf(String sql) {
+        StatementAccumulator accumulator = statements.get(sql);
+        if (accumulator == null && statements.size() < maxTrackedStatements) {
+            accumulator = statements.computeIfAbsent(sql, key -> new StatementAccumulator());
+        }
+        return accumulator;
+    }
+
+    private StatementMeters createMeters(String tags) {
+        String[] operationAndTable = tags.split(" ", 2);
+        Timer timer = Timer
+            .builder(STATEMENTS_METER)
+            .description("SQL statements execution time")
+            .tag("operation", operationAndTable[0])
+            .tag("table", operationAndTable[1])
+            .register(meterRegistry);
+        DistributionSummary rows = DistributionSummary
+            .builder(ROWS_METER)
+            .description("Rows read or written by SQL statements")
+            .baseUnit("rows")
+            .tag("operation", operationAndTable[0])
+            .tag("table", operationAndTable[1])
+            .register(meterRegistry);
+        return new StatementMeters(timer, rows);
+    }
+
+    static String tagsOf(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        String operation = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+        if (!List.of("select", "insert", "update", "delete", "merge", "with").contains(operation)) {
+            operation = "other";
+        }
+        Matcher table = TABLE.matcher(trimmed);
+        return operation + " " + (table.find() ? table.group(1).toLowerCase(Locale.ROOT) : "none");
+    }
+
+    static String redact(String sql) {
+        return LITERAL.matcher(sql).replaceAll("?");
+    }
+
+    private record StatementMeters(Timer timer, DistributionSummary rows) {}
+
+    private static final class StatementAccumulator {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        StatementSummary summarize(String sql) {
+            long executions = count.sum();
+            long total = totalNanos.sum();
+            return new StatementSummary(redact(sql), executions, total, executions == 0 ? 0 : total / executions, maxNanos.get(), rows.sum());
+        }
+    }
+
+    /**
+     * Statistics of one SQL text since startup.
+     *
+     * @param sql the SQL text, literals redacted.
+     * @param count the number of executions.
+     * @param totalNanos the total execution time.
+     * @param meanNanos the mean execution time.
+     * @param maxNanos the longest execution time.
+     * @param rows the total number of rows read or written.
+     */
+    public record StatementSummary(String sql, long count, long totalNanos, long meanNanos, long maxNanos, long rows) {}
+
+    /**
+     * What the statements of one request did. Only ever used by the thread serving the request.
+     */
+    public static final class RequestStatistics {
+
+        private long statements;
+        private long nanos;
+        private long rows;
+        private long entityLoads;
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getEntityLoads() {
+            return entityLoads;
+        }
+    }
+}
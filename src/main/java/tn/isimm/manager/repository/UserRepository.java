@@ -1,12 +1,17 @@
 package tn.isimm.manager.repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import tn.isimm.manager.domain.User;
 
@@ -33,4 +38,29 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
     Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+
+    /**
+     * Page of users with their authorities, in one query for the ids of the page and one for the users of these ids
+     * with their authorities, whatever the page size. Fetching the authorities with the page itself would page in
+     * memory.
+     *
+     * @param pageable the pagination information.
+     * @return the page of users, in the order of the ids page.
+     */
+    default Page<User> findAllWithAuthorities(Pageable pageable) {
+        Page<Long> ids = findAllIds(pageable);
+        if (!ids.hasContent()) {
+            return new PageImpl<>(List.of(), pageable, ids.getTotalElements());
+        }
+        Map<Long, User> users = findAllWithAuthoritiesByIdIn(ids.getContent())
+            .stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        return ids.map(users::get);
+    }
+
+    @Query(value = "select appUser.id from User appUser", countQuery = "select count(appUser) from User appUser")
+    Page<Long> findAllIds(Pageable pageable);
+
+    @EntityGraph(attributePaths = "authorities")
+    List<User> findAllWithAuthoritiesByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,359 @@
+package tn.isimm.manager.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Plain JDBC access to the queue of the validation requests of the fichier admins.
+ * <p>
+ * A request is {@code PENDING} until a reviewer claims it, then {@code CLAIMED} until the reviewer approves or rejects
+ * it, or until the claim expires. The queue is indexed by status and age, and never reads the files of the fichier
+ * admins. Requests are deleted with their fichier admin by the database.
+ */
+@Repository
+public class ValidationRequestRepository {
+
+    public static final String PENDING = "PENDING";
+
+    public static final String CLAIMED = "CLAIMED";
+
+    public static final String APPROVED = "APPROVED";
+
+    public static final String REJECTED = "REJECTED";
+
+    private static final String SELECT_REQUESTS =
+        "select validation_request.fichier_admin_id, fichier_admin.titre, fichier_admin.type, fichier_admin.file_content_type," +
+        " fichier_admin.etudiant_id, validation_request.status, validation_request.requested_at, validation_request.claimed_by," +
+        " validation_request.claimed_until, validation_request.reviewed_by, validation_request.reviewed_at" +
+        " from validation_request join fichier_admin on fichier_admin.id = validation_request.fichier_admin_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public ValidationRequestRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Queue the requests of the fichier admins which have none.
+     *
+     * @param now the time of the requests.
+     * @return the number of requests queued.
+     */
+    public int insertMissing(Instant now) {
+        return jdbcTemplate.update(
+            "insert into validation_request (fichier_admin_id, status, requested_at)" +
+            " select id, case when demande_valide then 'APPROVED' else 'PENDING' end, ? from fichier_admin" +
+            " where not exists (select 1 from validation_request where validation_request.fichier_admin_id = fichier_admin.id)",
+            Timestamp.from(now)
+        );
+    }
+
+    /**
+     * Align the request of a fichier admin with its {@code demandeValide}: a fichier admin validated elsewhere is
+     * approved, and one no longer validated is queued again. Must be called within a transaction.
+     *
+     * @param fichierAdminId the id of the fichier admin.
+     * @param now the time of the change.
+     */
+    public void sync(long fichierAdminId, Instant now) {
+        Optional<Boolean> valid = jdbcTemplate
+            .query(
+                "select demande_valide from fichier_admin where id = ?",
+                (resultSet, rowNum) -> Boolean.TRUE.equals(resultSet.getObject(1, Boolean.class)),
+                fichierAdminId
+            )
+            .stream()
+            .findFirst();
+        if (valid.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.from(now);
+        if (valid.orElseThrow()) {
+            int updated = jdbcTemplate.update(
+                "update validation_request set status = 'APPROVED', claimed_by = null, claimed_until = null, reviewed_at = ?" +
+                " where fichier_admin_id = ? and status <> 'APPROVED'",
+                timestamp,
+                fichierAdminId
+            );
+            if (updated == 0 && findStatus(fichierAdminId).isEmpty()) {
+                insert(fichierAdminId, APPROVED, timestamp);
+            }
+        } else {
+            int updated = jdbcTemplate.update(
+                "update validation_request set status = 'PENDING', requested_at = ?, reviewed_by = null, reviewed_at = null" +
+                " where fichier_admin_id = ? and status = 'APPROVED'",
+                timestamp,
+                fichierAdminId
+            );
+            if (updated == 0 && findStatus(fichierAdminId).isEmpty()) {
+                insert(fichierAdminId, PENDING, timestamp);
+            }
+        }
+    }
+
+    private void insert(long fichierAdminId, String status, Timestamp requestedAt) {
+        jdbcTemplate.update(
+            "insert into validation_request (fichier_admin_id, status, requested_at) values (?, ?, ?)",
+            fichierAdminId,
+            status,
+            requestedAt
+        );
+    }
+
+    /**
+     * @param fichierAdminId the id of a fichier admin.
+     * @return the status of its request, if it has one.
+     */
+    public Optional<String> findStatus(long fichierAdminId) {
+        return jdbcTemplate
+            .queryForList("select status from validation_request where fichier_admin_id = ?", String.class, fichierAdminId)
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * @param status the status of the requests.
+     * @param offset the number of requests skipped.
+     * @param limit the maximum number of requests.
+     * @return the requests with this status, the oldest first.
+     */
+    public List<ValidationRequest> findByStatus(String status, long offset, int limit) {
+        return jdbcTemplate.query(
+            SELECT_REQUESTS +
+            " where validation_request.status = ?" +
+            " order by validation_request.requested_at, validation_request.fichier_admin_id limit ? offset ?",
+            this::toRequest,
+            status,
+            limit,
+            offset
+        );
+    }
+
+    /**
+     * @param status the status of the requests.
+     * @return the number of requests with this status.
+     */
+    public long countByStatus(String status) {
+        Long count = jdbcTemplate.queryForObject("select count(*) from validation_request where status = ?", Long.class, status);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * @param fichierAdminIds ids of fichier admins.
+     * @return their requests, the oldest first.
+     */
+    public List<ValidationRequest> findByIds(Collection<Long> fichierAdminIds) {
+        if (fichierAdminIds.isEmpty()) {
+            return List.of();
+        }
+        return namedParameterJdbcTemplate.query(
+            SELECT_REQUESTS +
+            " where validation_request.fichier_admin_id in (:ids)" +
+            " order by validation_request.requested_at, validation_request.fichier_admin_id",
+            new MapSqlParameterSource("ids", fichierAdminIds),
+            this::toRequest
+        );
+    }
+
+    /**
+     * Return the requests whose claim expired to the queue. Must be called within a transaction.
+     *
+     * @param now the current time.
+     * @return the ids of the requests returned.
+     */
+    public List<Long> releaseExpired(Instant now) {
+        List<Long> ids = jdbcTemplate.queryForList(
+            "select fichier_admin_id from validation_request where status = 'CLAIMED' and claimed_until < ? for update skip locked",
+            Long.class,
+            Timestamp.from(now)
+        );
+        release(ids);
+        return ids;
+    }
+
+    /**
+     * Lock the oldest pending requests, skipping the ones locked by concurrent claims. Must be called within a
+     * transaction.
+     *
+     * @param limit the maximum number of requests.
+     * @return the ids of the locked requests, the oldest first.
+     */
+    public List<Long> lockPending(int limit) {
+        return jdbcTemplate.queryForList(
+            "select fichier_admin_id from validation_request where status = 'PENDING'" +
+            " order by requested_at, fichier_admin_id limit ? for update skip locked",
+            Long.class,
+            limit
+        );
+    }
+
+    /**
+     * Claim requests. Must be called within a transaction, once they are locked.
+     *
+     * @param fichierAdminIds the ids of the requests.
+     * @param reviewer the login of the reviewer.
+     * @param until the end of the claim.
+     */
+    public void claim(Collection<Long> fichierAdminIds, String reviewer, Instant until) {
+        if (fichierAdminIds.isEmpty()) {
+            return;
+        }
+        namedParameterJdbcTemplate.update(
+            "update validation_request set status = 'CLAIMED', claimed_by = :reviewer, claimed_until = :until" +
+            " where fichier_admin_id in (:ids)",
+            new MapSqlParameterSource()
+                .addValue("reviewer", reviewer)
+                .addValue("until", Timestamp.from(until))
+                .addValue("ids", fichierAdminIds)
+        );
+    }
+
+    /**
+     * Lock the requests a reviewer may review: the pending ones, and the ones claimed by the reviewer or whose claim
+     * expired. Must be called within a transaction.
+     *
+     * @param fichierAdminIds the ids of the requests.
+     * @param reviewer the login of the reviewer.
+     * @param now the current time.
+     * @return the ids of the locked requests.
+     */
+    public List<Long> lockReviewable(Collection<Long> fichierAdminIds, String reviewer, Instant now) {
+        if (fichierAdminIds.isEmpty()) {
+            return List.of();
+        }
+        return namedParameterJdbcTemplate.queryForList(
+            "select fichier_admin_id from validation_request where fichier_admin_id in (:ids)" +
+            " and (status = 'PENDING' or (status = 'CLAIMED' and (claimed_by = :reviewer or claimed_until < :now)))" +
+            " order by fichier_admin_id for update",
+            new MapSqlParameterSource()
+                .addValue("ids", fichierAdminIds)
+                .addValue("reviewer", reviewer)
+                .addValue("now", Timestamp.from(now)),
+            Long.class
+        );
+    }
+
+    /**
+     * Approve or reject requests, and set the {@code demandeValide} of their fichier admins, incrementing their versions.
+     * Must be called within a transaction, once they are locked.
+     *
+     * @param fichierAdminIds the ids of the requests.
+     * @param approved {@code true} to approve the requests, {@code false} to reject them.
+     * @param reviewer the login of the reviewer.
+     * @param now the time of the review.
+     */
+    public void review(Collection<Long> fichierAdminIds, boolean approved, String reviewer, Instant now) {
+        if (fichierAdminIds.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+            .addValue("status", approved ? APPROVED : REJECTED)
+            .addValue("approved", approved)
+            .addValue("reviewer", reviewer)
+            .addValue("now", Timestamp.from(now))
+            .addValue("ids", fichierAdminIds);
+        namedParameterJdbcTemplate.update(
+            "update validation_request set status = :status, claimed_by = null, claimed_until = null, reviewed_by = :reviewer," +
+            " reviewed_at = :now where fichier_admin_id in (:ids)",
+            parameters
+        );
+        namedParameterJdbcTemplate.update(
+            "update fichier_admin set demande_valide = :approved, version = version + 1 where id in (:ids)",
+            parameters
+        );
+    }
+
+    /**
+     * Return claimed requests to the queue. Must be called within a transaction, once they are locked.
+     *
+     * @param fichierAdminIds the ids of the requests.
+     */
+    public void release(Collection<Long> fichierAdminIds) {
+        if (fichierAdminIds.isEmpty()) {
+            return;
+        }
+        namedParameterJdbcTemplate.update(
+            "update validation_request set status = 'PENDING', claimed_by = null, claimed_until = null" +
+            " where fichier_admin_id in (:ids) and status = 'CLAIMED'",
+            new MapSqlParameterSource("ids", fichierAdminIds)
+        );
+    }
+
+    /**
+     * Lock the requests claimed by a reviewer. Must be called within a transaction.
+     *
+     * @param fichierAdminIds the ids of the requests.
+     * @param reviewer the login of the reviewer.
+     * @return the ids of the locked requests.
+     */
+    public List<Long> lockClaimedBy(Collection<Long> fichierAdminIds, String reviewer) {
+        if (fichierAdminIds.isEmpty()) {
+            return List.of();
+        }
+        return namedParameterJdbcTemplate.queryForList(
+            "select fichier_admin_id from validation_request where fichier_admin_id in (:ids) and status = 'CLAIMED'" +
+            " and claimed_by = :reviewer order by fichier_admin_id for update",
+            new MapSqlParameterSource().addValue("ids", fichierAdminIds).addValue("reviewer", reviewer),
+            Long.class
+        );
+    }
+
+    private ValidationRequest toRequest(ResultSet resultSet, int rowNum) throws SQLException {
+        return new ValidationRequest(
+            resultSet.getLong(1),
+            resultSet.getString(2),
+            resultSet.getString(3),
+            resultSet.getString(4),
+            resultSet.getObject(5, Long.class),
+            resultSet.getString(6),
+            toInstant(resultSet.getTimestamp(7)),
+            resultSet.getString(8),
+            toInstant(resultSet.getTimestamp(9)),
+            resultSet.getString(10),
+            toInstant(resultSet.getTimestamp(11))
+        );
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    /**
+     * @param fichierAdminId the id of the fichier admin.
+     * @param titre the title of the fichier admin.
+     * @param type the type of the fichier admin.
+     * @param fileContentType the content type of its file.
+     * @param etudiantId the id of its etudiant, if any.
+     * @param status the status of the request.
+     * @param requestedAt when the request was queued.
+     * @param claimedBy the login of the reviewer who claimed it, if claimed.
+     * @param claimedUntil the end of the claim, if claimed.
+     * @param reviewedBy the login of the reviewer who approved or rejected it, if reviewed.
+     * @param reviewedAt when it was approved or rejected, if reviewed.
+     */
+    public record ValidationRequest(
+        long fichierAdminId,
+        String titre,
+        String type,
+        String fileContentType,
+        Long etudiantId,
+        String status,
+        Instant requestedAt,
+        String claimedBy,
+        Instant claimedUntil,
+        String reviewedBy,
+        Instant reviewedAt
+    ) {}
+}
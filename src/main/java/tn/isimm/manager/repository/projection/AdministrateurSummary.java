@@ -0,0 +1,53 @@
+package tn.isimm.manager.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of an {@link tn.isimm.manager.domain.Administrateur} returned by the list endpoint: its scalar columns and
+ * its user, without its photo.
+ */
+public record AdministrateurSummary(
+    Long id,
+    Long version,
+    String prenom,
+    String nom,
+    String email,
+    String matricule,
+    String titre,
+    String numTel,
+    LocalDate dateDeNaissance,
+    String photoDeProfileContentType,
+    String photoDeProfileHash,
+    UserRef user
+) {
+    public AdministrateurSummary(
+        Long id,
+        Long version,
+        String prenom,
+        String nom,
+        String email,
+        String matricule,
+        String titre,
+        String numTel,
+        LocalDate dateDeNaissance,
+        String photoDeProfileContentType,
+        String photoDeProfileHash,
+        Long userId,
+        String userLogin
+    ) {
+        this(
+            id,
+            version,
+            prenom,
+            nom,
+            email,
+            matricule,
+            titre,
+            numTel,
+            dateDeNaissance,
+            photoDeProfileContentType,
+            photoDeProfileHash,
+            UserRef.of(userId, userLogin)
+        );
+    }
+}
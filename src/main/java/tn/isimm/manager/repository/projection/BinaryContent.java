@@ -0,0 +1,6 @@
+package tn.isimm.manager.repository.projection;
+
+/**
+ * Projection of a binary attribute of an entity, with its content type.
+ */
+public record BinaryContent(byte[] content, String contentType) {}
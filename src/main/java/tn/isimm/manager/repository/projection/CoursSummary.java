@@ -0,0 +1,10 @@
+package tn.isimm.manager.repository.projection;
+
+/**
+ * Projection of a {@link tn.isimm.manager.domain.Cours} returned by the list endpoint, without its file.
+ */
+public record CoursSummary(Long id, Long version, String titre, String fileContentType, EntityRef matiere) {
+    public CoursSummary(Long id, Long version, String titre, String fileContentType, Long matiereId) {
+        this(id, version, titre, fileContentType, EntityRef.of(matiereId));
+    }
+}
@@ -0,0 +1,14 @@
+package tn.isimm.manager.repository.projection;
+
+/**
+ * Reference to an associated entity by its id, serialized as {@code {"id": ...}} like an association that is not loaded.
+ */
+public record EntityRef(Long id) {
+    /**
+     * @param id the id of the associated entity, if any.
+     * @return the reference, or {@code null} if there is no associated entity.
+     */
+    public static EntityRef of(Long id) {
+        return id == null ? null : new EntityRef(id);
+    }
+}
@@ -0,0 +1,53 @@
+package tn.isimm.manager.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of an {@link tn.isimm.manager.domain.Etudiant} returned by the list endpoint: its scalar columns and the
+ * ids of its associations, without its photo.
+ */
+public record EtudiantSummary(
+    Long id,
+    Long version,
+    String prenom,
+    String nom,
+    String email,
+    Long numEtudiant,
+    String numTel,
+    LocalDate dateDeNaissance,
+    String photoDeProfileContentType,
+    String photoDeProfileHash,
+    EntityRef niveau,
+    UserRef user
+) {
+    public EtudiantSummary(
+        Long id,
+        Long version,
+        String prenom,
+        String nom,
+        String email,
+        Long numEtudiant,
+        String numTel,
+        LocalDate dateDeNaissance,
+        String photoDeProfileContentType,
+        String photoDeProfileHash,
+        Long niveauId,
+        Long userId,
+        String userLogin
+    ) {
+        this(
+            id,
+            version,
+            prenom,
+            nom,
+            email,
+            numEtudiant,
+            numTel,
+            dateDeNaissance,
+            photoDeProfileContentType,
+            photoDeProfileHash,
+            EntityRef.of(niveauId),
+            UserRef.of(userId, userLogin)
+        );
+    }
+}
@@ -0,0 +1,28 @@
+package tn.isimm.manager.repository.projection;
+
+import tn.isimm.manager.domain.enumeration.TypeFichierAdmin;
+
+/**
+ * Projection of a {@link tn.isimm.manager.domain.FichierAdmin} returned by the list endpoint, without its file.
+ */
+public record FichierAdminSummary(
+    Long id,
+    Long version,
+    String titre,
+    TypeFichierAdmin type,
+    String fileContentType,
+    Boolean demandeValide,
+    EntityRef etudiant
+) {
+    public FichierAdminSummary(
+        Long id,
+        Long version,
+        String titre,
+        TypeFichierAdmin type,
+        String fileContentType,
+        Boolean demandeValide,
+        Long etudiantId
+    ) {
+        this(id, version, titre, type, fileContentType, demandeValide, EntityRef.of(etudiantId));
+    }
+}
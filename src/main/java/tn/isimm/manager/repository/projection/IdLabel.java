@@ -0,0 +1,10 @@
+package tn.isimm.manager.repository.projection;
+
+/**
+ * Projection of an entity reduced to its id and a display label.
+ */
+public interface IdLabel {
+    Long getId();
+
+    String getLabel();
+}
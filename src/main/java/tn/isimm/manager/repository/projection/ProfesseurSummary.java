@@ -0,0 +1,57 @@
+package tn.isimm.manager.repository.projection;
+
+import java.time.LocalDate;
+import tn.isimm.manager.domain.enumeration.Departement;
+
+/**
+ * Projection of a {@link tn.isimm.manager.domain.Professeur} returned by the list endpoint: its scalar columns and its
+ * user, without its photo nor its matieres.
+ */
+public record ProfesseurSummary(
+    Long id,
+    Long version,
+    String prenom,
+    String nom,
+    String email,
+    String matricule,
+    Departement departement,
+    String titre,
+    String numTel,
+    LocalDate dateDeNaissance,
+    String photoDeProfileContentType,
+    String photoDeProfileHash,
+    UserRef user
+) {
+    public ProfesseurSummary(
+        Long id,
+        Long version,
+        String prenom,
+        String nom,
+        String email,
+        String matricule,
+        Departement departement,
+        String titre,
+        String numTel,
+        LocalDate dateDeNaissance,
+        String photoDeProfileContentType,
+        String photoDeProfileHash,
+        Long userId,
+        String userLogin
+    ) {
+        this(
+            id,
+            version,
+            prenom,
+            nom,
+            email,
+            matricule,
+            departement,
+            titre,
+            numTel,
+            dateDeNaissance,
+            photoDeProfileContentType,
+            photoDeProfileHash,
+            UserRef.of(userId, userLogin)
+        );
+    }
+}
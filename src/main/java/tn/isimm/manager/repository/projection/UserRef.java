@@ -0,0 +1,15 @@
+package tn.isimm.manager.repository.projection;
+
+/**
+ * Reference to an associated {@link tn.isimm.manager.domain.User}, with the login displayed by the lists.
+ */
+public record UserRef(Long id, String login) {
+    /**
+     * @param id the id of the associated user, if any.
+     * @param login the login of that user.
+     * @return the reference, or {@code null} if there is no associated user.
+     */
+    public static UserRef of(Long id, String login) {
+        return id == null ? null : new UserRef(id, login);
+    }
+}
@@ -0,0 +1,475 @@
+package tn.isimm.manager.service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.isimm.manager.config.ApplicationProperties;
+import tn.isimm.manager.domain.FichierAdmin;
+import tn.isimm.manager.domain.Seance;
+import tn.isimm.manager.domain.StoredFileCodec;
+import tn.isimm.manager.repository.AttendanceRepository;
+import tn.isimm.manager.repository.AttendanceRepository.CountDelta;
+import tn.isimm.manager.repository.AttendanceRepository.Fact;
+import tn.isimm.manager.repository.AttendanceRepository.SeanceScope;
+import tn.isimm.manager.repository.EntityChangedEvent;
+import tn.isimm.manager.repository.FileKind;
+import tn.isimm.manager.repository.FileRepository;
+import tn.isimm.manager.service.dto.AbsenceAlertDTO;
+import tn.isimm.manager.service.dto.AbsenceRateDTO;
+import tn.isimm.manager.service.dto.AttendanceSheetDTO;
+
+/**
+ * Service ingesting the attendance sheets uploaded as {@code Presence} {@link FichierAdmin}, and reporting the absences.
+ * <p>
+ * A sheet is ingested by a single background worker once a change to it is committed, in one transaction: the facts of
+ * its previous version are removed, going back to the other sheets holding them if any, then its lines are written in
+ * batches, and the absence counts of the etudiants are changed by the same amounts, so that rates and alerts only read
+ * the counts. Sheets are recorded with the version
+ * ingested: the sheets changed or deleted while the application was down are found on startup and then periodically.
+ * The matiere and niveau the counts are selected by are copied from their seance, by the same worker once a change to
+ * the seance is committed, and periodically. See {@link AttendanceSheetParser} for the format of the sheets.
+ */
+@Service
+public class AttendanceService {
+
+    public static final String STATUS_INGESTED = "INGESTED";
+
+    public static final String STATUS_REJECTED = "REJECTED";
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final Logger log = LoggerFactory.getLogger(AttendanceService.class);
+
+    private final AttendanceRepository attendanceRepository;
+
+    private final FileRepository fileRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TaskScheduler taskScheduler;
+
+    private final ApplicationProperties.Attendance properties;
+
+    private final boolean migrateOnly;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> pendingSeances = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "attendance-ingestion");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AttendanceService(
+        AttendanceRepository attendanceRepository,
+        FileRepository fileRepository,
+        PlatformTransactionManager transactionManager,
+        TaskScheduler taskScheduler,
+        ApplicationProperties applicationProperties
+    ) {
+        this.attendanceRepository = attendanceRepository;
+        this.fileRepository = fileRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskScheduler = taskScheduler;
+        this.properties = applicationProperties.getAttendance();
+        this.migrateOnly = applicationProperties.getDatabaseMigration().isMigrateOnly();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // Started with --migrate, the application exits once ready
+        if (properties.isEnabled() && !migrateOnly) {
+            taskScheduler.scheduleWithFixedDelay(this::catchUp, properties.getCatchUpInterval());
+        }
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isAbout(FichierAdmin.class) && event.getId() instanceof Long id) {
+            submit(id);
+        } else if (
+            event.isAbout(Seance.class) &&
+            event.getChangeType() == EntityChangedEvent.ChangeType.UPDATED &&
+            event.getId() instanceof Long id
+        ) {
+            submitSeance(id);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Queue the ingestion of the sheets not ingested at their current version, the removal of the facts of the sheets
+     * deleted, and the refresh of the counts of the seances moved to another matiere or niveau.
+     */
+    public void catchUp() {
+        try {
+            attendanceRepository.findSeanceIdsWithStaleScope().forEach(this::submitSeance);
+            attendanceRepository.findRemovedSheetIds().forEach(this::submit);
+            long lastId = 0;
+            List<Long> sheetIds;
+            do {
+                sheetIds = attendanceRepository.findStaleSheetIds(lastId, properties.getBatchSize());
+                for (Long sheetId : sheetIds) {
+                    submit(sheetId);
+                    lastId = sheetId;
+                }
+            } while (sheetIds.size() == properties.getBatchSize());
+        } catch (RuntimeException e) {
+            log.warn("Could not catch up with the stale attendance sheets: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Queue the ingestion of a fichier admin, unless it is already queued.
+     *
+     * @param fichierAdminId the id of the fichier admin.
+     */
+    public void submit(long fichierAdminId) {
+        if (!properties.isEnabled() || !pending.add(fichierAdminId)) {
+            return;
+        }
+        worker.execute(() -> {
+            pending.remove(fichierAdminId);
+            try {
+                ingest(fichierAdminId);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not ingest the attendance sheet {}: {}", fichierAdminId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Queue the refresh of the matiere and niveau of the facts and counts of a seance, unless it is already queued.
+     * Queued on the worker ingesting the sheets, so that a refresh always follows the ingestions that read the seance
+     * before it changed.
+     *
+     * @param seanceId the id of the seance.
+     */
+    public void submitSeance(long seanceId) {
+        if (!properties.isEnabled() || !pendingSeances.add(seanceId)) {
+            return;
+        }
+        worker.execute(() -> {
+            pendingSeances.remove(seanceId);
+            try {
+                refreshSeanceScope(seanceId);
+            } catch (RuntimeException e) {
+                log.warn("Could not refresh the absence counts of the seance {}: {}", seanceId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Copy the current matiere and niveau of a seance to its facts and counts, which the rates and alerts select.
+     *
+     * @param seanceId the id of the seance.
+     * @return {@code true} if counts were changed.
+     */
+    public boolean refreshSeanceScope(long seanceId) {
+        SeanceScope scope = attendanceRepository.findSeanceScopes(List.of(seanceId)).get(seanceId);
+        if (scope == null) {
+            // Its facts and counts were deleted with it
+            return false;
+        }
+        Integer changed = transactionTemplate.execute(status -> attendanceRepository.updateSeanceScope(seanceId, scope));
+        if (changed != null && changed > 0) {
+            log.debug(
+                "Moved {} absence counts of the seance {} to the matiere {} and niveau {}",
+                changed,
+                seanceId,
+                scope.matiereId(),
+                scope.niveauId()
+            );
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Ingest a {@code Presence} sheet, unless it is already ingested at its current version. The facts of a fichier
+     * admin which is no longer a {@code Presence} sheet are removed.
+     *
+     * @param fichierAdminId the id of the fichier admin.
+     * @return {@code true} if the facts were changed.
+     * @throws IOException if the file could not be read.
+     */
+    public boolean ingest(long fichierAdminId) throws IOException {
+        Optional<AttendanceRepository.SheetStatus> previous = attendanceRepository.findSheetStatus(fichierAdminId);
+        Optional<Long> version = attendanceRepository.findPresenceSheetVersion(fichierAdminId);
+        if (version.isEmpty()) {
+            return previous.isPresent() && remove(fichierAdminId);
+        }
+        if (previous.isPresent() && previous.orElseThrow().sourceVersion() == version.orElseThrow()) {
+            return false;
+        }
+        Parsing parsing = new Parsing();
+        boolean found = fileRepository.readFile(
+            FileKind.FICHIER_ADMIN,
+            fichierAdminId,
+            file -> {
+                parsing.version = file.version();
+                parsing.sheet =
+                    AttendanceSheetParser.parse(
+                        new InputStreamReader(StoredFileCodec.open(file.content()).decoded(), StandardCharsets.UTF_8),
+                        properties.getMaxRows()
+                    );
+            }
+        );
+        if (!found) {
+            return remove(fichierAdminId);
+        }
+        Resolution resolution = resolve(parsing.sheet);
+        int rejected = parsing.sheet.rejected() + resolution.rejected;
+        String firstError = parsing.sheet.firstError() != null ? parsing.sheet.firstError() : resolution.firstError;
+        String status = resolution.facts.isEmpty() && firstError != null ? STATUS_REJECTED : STATUS_INGESTED;
+        transactionTemplate.executeWithoutResult(transaction -> {
+            attendanceRepository.applyDeltas(attendanceRepository.deleteFacts(fichierAdminId));
+            List<Fact> facts = new ArrayList<>(resolution.facts.values());
+            for (int from = 0; from < facts.size(); from += properties.getBatchSize()) {
+                write(facts.subList(from, Math.min(from + properties.getBatchSize(), facts.size())), fichierAdminId, resolution.scopes);
+            }
+            attendanceRepository.saveSheetStatus(
+                new AttendanceRepository.SheetStatus(
+                    fichierAdminId,
+                    parsing.version,
+                    status,
+                    facts.size(),
+                    rejected,
+                    firstError != null && firstError.length() > MAX_ERROR_LENGTH ? firstError.substring(0, MAX_ERROR_LENGTH) : firstError,
+                    Instant.now()
+                )
+            );
+        });
+        log.debug(
+            "Ingested {} lines of attendance sheet {} at version {}, rejected {}",
+            resolution.facts.size(),
+            fichierAdminId,
+            parsing.version,
+            rejected
+        );
+        return true;
+    }
+
+    private boolean remove(long fichierAdminId) {
+        transactionTemplate.executeWithoutResult(transaction -> {
+            attendanceRepository.applyDeltas(attendanceRepository.deleteFacts(fichierAdminId));
+            attendanceRepository.deleteSheetStatus(fichierAdminId);
+        });
+        log.debug("Removed the attendance facts of fichier admin {}", fichierAdminId);
+        return true;
+    }
+
+    /**
+     * Resolve the etudiants and seances of the lines of a sheet, rejecting the unknown ones. The last line of an etudiant
+     * at a seance on a day wins.
+     */
+    private Resolution resolve(AttendanceSheetParser.Sheet sheet) {
+        Resolution resolution = new Resolution();
+        List<AttendanceSheetParser.Row> rows = sheet.rows();
+        resolution.scopes = attendanceRepository.findSeanceScopes(
+            rows.stream().map(AttendanceSheetParser.Row::seanceId).collect(Collectors.toSet())
+        );
+        Set<Long> etudiantIds = new HashSet<>();
+        Map<Long, Long> idsByNum = new HashMap<>();
+        List<Long> givenIds = rows.stream().map(AttendanceSheetParser.Row::etudiantId).filter(Objects::nonNull).distinct().toList();
+        for (List<Long> chunk : chunks(givenIds)) {
+            etudiantIds.addAll(attendanceRepository.findEtudiantIds(chunk));
+        }
+        List<Long> givenNums = rows
+            .stream()
+            .filter(row -> row.etudiantId() == null)
+            .map(AttendanceSheetParser.Row::numEtudiant)
+            .distinct()
+            .toList();
+        for (List<Long> chunk : chunks(givenNums)) {
+            idsByNum.putAll(attendanceRepository.findEtudiantIdsByNum(chunk));
+        }
+        for (AttendanceSheetParser.Row row : rows) {
+            Long etudiantId = row.etudiantId() == null ? idsByNum.get(row.numEtudiant()) : row.etudiantId();
+            if (etudiantId == null || (row.etudiantId() != null && !etudiantIds.contains(etudiantId))) {
+                resolution.reject(
+                    row.etudiantId() == null ? "Unknown etudiant number " + row.numEtudiant() : "Unknown etudiant " + etudiantId
+                );
+            } else if (!resolution.scopes.containsKey(row.seanceId())) {
+                resolution.reject("Unknown seance " + row.seanceId());
+            } else {
+                Fact fact = new Fact(etudiantId, row.seanceId(), row.jour(), row.present());
+                resolution.facts.put(new FactKey(etudiantId, row.seanceId(), row.jour()), fact);
+            }
+        }
+        return resolution;
+    }
+
+    /**
+     * Write a batch of facts, and change the counts by the same amounts.
+     */
+    private void write(List<Fact> facts, long fichierAdminId, Map<Long, SeanceScope> scopes) {
+        Map<FactKey, Boolean> existing = new HashMap<>();
+        for (Fact fact : attendanceRepository.findFacts(
+            facts.stream().map(Fact::etudiantId).collect(Collectors.toSet()),
+            facts.stream().map(Fact::seanceId).collect(Collectors.toSet()),
+            facts.stream().map(Fact::jour).collect(Collectors.toSet())
+        )) {
+            existing.put(new FactKey(fact.etudiantId(), fact.seanceId(), fact.jour()), fact.present());
+        }
+        List<Fact> inserts = new ArrayList<>();
+        List<Fact> updates = new ArrayList<>();
+        Map<CountKey, int[]> changes = new LinkedHashMap<>();
+        for (Fact fact : facts) {
+            Boolean wasPresent = existing.get(new FactKey(fact.etudiantId(), fact.seanceId(), fact.jour()));
+            int[] change = changes.computeIfAbsent(new CountKey(fact.etudiantId(), fact.seanceId()), key -> new int[2]);
+            if (wasPresent == null) {
+                inserts.add(fact);
+                change[0]++;
+                change[1] += fact.present() ? 0 : 1;
+            } else {
+                // Held by another sheet: the session is already counted
+                updates.add(fact);
+                change[1] += (fact.present() ? 0 : 1) - (wasPresent ? 0 : 1);
+            }
+        }
+        attendanceRepository.insertFacts(inserts, fichierAdminId, scopes);
+        attendanceRepository.updateFacts(updates, fichierAdminId);
+        attendanceRepository.insertSources(facts, fichierAdminId);
+        List<CountDelta> deltas = new ArrayList<>(changes.size());
+        changes.forEach((key, change) -> {
+            SeanceScope scope = scopes.get(key.seanceId());
+            deltas.add(new CountDelta(key.etudiantId(), key.seanceId(), scope.matiereId(), scope.niveauId(), change[0], change[1]));
+        });
+        attendanceRepository.applyDeltas(deltas);
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += properties.getBatchSize()) {
+            chunks.add(ids.subList(from, Math.min(from + properties.getBatchSize(), ids.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * @param scope whose absences are totalled.
+     * @param id the id of the etudiant, matiere or niveau.
+     * @return the absences of the etudiant, or of the etudiants of the matiere or niveau.
+     */
+    public AbsenceRateDTO findRate(AttendanceRepository.Scope scope, long id) {
+        AttendanceRepository.Totals totals = attendanceRepository.findTotals(scope, id);
+        return new AbsenceRateDTO(
+            scope.name().toLowerCase(Locale.ROOT),
+            id,
+            totals.sessions(),
+            totals.absences(),
+            rate(totals.sessions(), totals.absences())
+        );
+    }
+
+    /**
+     * @param threshold the absence rate, between 0 and 1, from which an etudiant is reported.
+     * @param minSessions the minimum number of sessions of a seance before its absences are reported.
+     * @param niveauId the id of the niveau of the seances, if any.
+     * @param matiereId the id of the matiere of the seances, if any.
+     * @param limit the maximum number of alerts.
+     * @return the etudiants absent too often at a seance, the highest rates first.
+     */
+    public List<AbsenceAlertDTO> findAlerts(double threshold, int minSessions, Long niveauId, Long matiereId, int limit) {
+        return attendanceRepository
+            .findAlerts(threshold, minSessions, niveauId, matiereId, limit)
+            .stream()
+            .map(count ->
+                new AbsenceAlertDTO(
+                    count.etudiantId(),
+                    count.seanceId(),
+                    count.matiereId(),
+                    count.niveauId(),
+                    count.sessions(),
+                    count.absences(),
+                    rate(count.sessions(), count.absences())
+                )
+            )
+            .toList();
+    }
+
+    /**
+     * @param fichierAdminId the id of a fichier admin.
+     * @return the outcome of its last ingestion, if it was ingested.
+     */
+    public Optional<AttendanceSheetDTO> findSheet(long fichierAdminId) {
+        return attendanceRepository
+            .findSheetStatus(fichierAdminId)
+            .map(status ->
+                new AttendanceSheetDTO(
+                    status.fichierAdminId(),
+                    status.sourceVersion(),
+                    status.status(),
+                    status.ingestedRows(),
+                    status.rejectedRows(),
+                    status.firstError(),
+                    status.ingestedAt()
+                )
+            );
+    }
+
+    private static double rate(long sessions, long absences) {
+        return sessions == 0 ? 0 : (double) absences / sessions;
+    }
+
+    private record FactKey(long etudiantId, long seanceId, LocalDate jour) {}
+
+    private record CountKey(long etudiantId, long seanceId) {}
+
+    private static final class Parsing {
+
+        private long version;
+
+        private AttendanceSheetParser.Sheet sheet;
+    }
+
+    private static final class Resolution {
+
+        private final Map<FactKey, Fact> facts = new LinkedHashMap<>();
+
+        private Map<Long, SeanceScope> scopes;
+
+        private int rejected;
+
+        private String firstError;
+
+        private void reject(String error) {
+            rejected++;
+            if (firstError == null) {
+                firstError = error;
+            }
+        }
+    }
+}
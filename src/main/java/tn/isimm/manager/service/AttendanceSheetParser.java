@@ -0,0 +1,246 @@
+package tn.isimm.manager.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parser of the attendance sheets uploaded as {@code Presence} {@link tn.isimm.manager.domain.FichierAdmin}.
+ * <p>
+ * A sheet is a CSV file, separated by commas, semicolons or tabs, whose first line names its columns, in any order and
+ * regardless of case and accents:
+ * <ul>
+ *     <li>{@code etudiant}, the id of the etudiant, or {@code num_etudiant}, its student number;</li>
+ *     <li>{@code seance}, the id of the seance;</li>
+ *     <li>{@code date} or {@code jour}, the day of the session, as {@code yyyy-MM-dd} or {@code dd/MM/yyyy};</li>
+ *     <li>{@code present}, {@code 1}, {@code oui}, {@code P} or {@code present} if the etudiant attended, {@code 0},
+ *     {@code non}, {@code A} or {@code absent} otherwise.</li>
+ * </ul>
+ * Other columns are ignored. Invalid lines are counted and skipped, the first of them being reported.
+ */
+public final class AttendanceSheetParser {
+
+    private static final DateTimeFormatter FRENCH_DATE = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+
+    private static final Set<String> PRESENT = Set.of("1", "true", "oui", "o", "yes", "y", "p", "present", "x");
+
+    private static final Set<String> ABSENT = Set.of("0", "false", "non", "n", "no", "a", "absent");
+
+    private static final Map<String, Column> COLUMNS = Map.of(
+        "etudiant",
+        Column.ETUDIANT,
+        "etudiant_id",
+        Column.ETUDIANT,
+        "num_etudiant",
+        Column.NUM_ETUDIANT,
+        "numetudiant",
+        Column.NUM_ETUDIANT,
+        "seance",
+        Column.SEANCE,
+        "seance_id",
+        Column.SEANCE,
+        "date",
+        Column.DATE,
+        "jour",
+        Column.DATE,
+        "present",
+        Column.PRESENT,
+        "presence",
+        Column.PRESENT
+    );
+
+    private AttendanceSheetParser() {}
+
+    /**
+     * @param sheet the text of the sheet.
+     * @param maxRows the maximum number of lines read, the following ones being rejected.
+     * @return the valid lines of the sheet, and the number of rejected ones.
+     * @throws IOException if the sheet cannot be read.
+     */
+    public static Sheet parse(Reader sheet, int maxRows) throws IOException {
+        BufferedReader reader = sheet instanceof BufferedReader buffered ? buffered : new BufferedReader(sheet);
+        String header = reader.readLine();
+        if (header == null) {
+            return new Sheet(List.of(), 0, "The sheet is empty");
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        char separator = separatorOf(header);
+        Column[] columns = columnsOf(split(header, separator));
+        String missing = missingColumns(columns);
+        if (missing != null) {
+            return new Sheet(List.of(), 0, missing);
+        }
+        List<Row> rows = new ArrayList<>();
+        int rejected = 0;
+        String firstError = null;
+        int lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                if (rows.size() >= maxRows) {
+                    throw new IllegalArgumentException("more than " + maxRows + " lines");
+                }
+                rows.add(rowOf(columns, split(line, separator)));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                rejected++;
+                if (firstError == null) {
+                    firstError = "Line " + lineNumber + ": " + e.getMessage();
+                }
+            }
+        }
+        return new Sheet(rows, rejected, firstError);
+    }
+
+    private static char separatorOf(String header) {
+        char separator = ',';
+        int count = 0;
+        for (char candidate : new char[] { ',', ';', '\t' }) {
+            int candidateCount = (int) header.chars().filter(c -> c == candidate).count();
+            if (candidateCount > count) {
+                separator = candidate;
+                count = candidateCount;
+            }
+        }
+        return separator;
+    }
+
+    private static Column[] columnsOf(List<String> names) {
+        Column[] columns = new Column[names.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = COLUMNS.get(PrefixIndex.normalize(names.get(i)).replace(' ', '_'));
+        }
+        return columns;
+    }
+
+    private static String missingColumns(Column[] columns) {
+        List<Column> present = Arrays.asList(columns);
+        if (!present.contains(Column.ETUDIANT) && !present.contains(Column.NUM_ETUDIANT)) {
+            return "The sheet has no etudiant or num_etudiant column";
+        }
+        for (Column required : new Column[] { Column.SEANCE, Column.DATE, Column.PRESENT }) {
+            if (!present.contains(required)) {
+                return "The sheet has no " + required.name().toLowerCase(Locale.ROOT) + " column";
+            }
+        }
+        return null;
+    }
+
+    private static Row rowOf(Column[] columns, List<String> values) {
+        Long etudiantId = null;
+        Long numEtudiant = null;
+        Long seanceId = null;
+        LocalDate jour = null;
+        Boolean present = null;
+        for (int i = 0; i < columns.length && i < values.size(); i++) {
+            if (columns[i] == null) {
+                continue;
+            }
+            String value = values.get(i);
+            switch (columns[i]) {
+                case ETUDIANT -> etudiantId = idOf(value, "etudiant");
+                case NUM_ETUDIANT -> numEtudiant = idOf(value, "num_etudiant");
+                case SEANCE -> seanceId = idOf(value, "seance");
+                case DATE -> jour = value.contains("/") ? LocalDate.parse(value, FRENCH_DATE) : LocalDate.parse(value);
+                case PRESENT -> present = presentOf(value);
+            }
+        }
+        if ((etudiantId == null && numEtudiant == null) || seanceId == null || jour == null || present == null) {
+            throw new IllegalArgumentException("missing values");
+        }
+        return new Row(etudiantId, numEtudiant, seanceId, jour, present);
+    }
+
+    private static Long idOf(String value, String column) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid " + column + " '" + value + "'");
+        }
+    }
+
+    private static Boolean presentOf(String value) {
+        String key = PrefixIndex.normalize(value);
+        if (PRESENT.contains(key)) {
+            return true;
+        }
+        if (ABSENT.contains(key)) {
+            return false;
+        }
+        throw new IllegalArgumentException("invalid present '" + value + "'");
+    }
+
+    /**
+     * Split a line of a CSV file, fields being possibly quoted with double quotes.
+     */
+    static List<String> split(String line, char separator) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private enum Column {
+        ETUDIANT,
+        NUM_ETUDIANT,
+        SEANCE,
+        DATE,
+        PRESENT,
+    }
+
+    /**
+     * A line of a sheet.
+     *
+     * @param etudiantId the id of the etudiant, if given.
+     * @param numEtudiant the student number of the etudiant, if its id is not given.
+     * @param seanceId the id of the seance.
+     * @param jour the day of the session.
+     * @param present {@code true} if the etudiant attended the session.
+     */
+    public record Row(Long etudiantId, Long numEtudiant, long seanceId, LocalDate jour, boolean present) {}
+
+    /**
+     * @param rows the valid lines of the sheet.
+     * @param rejected the number of invalid lines.
+     * @param firstError the description of the first invalid line, or of why the whole sheet is invalid, if any.
+     */
+    public record Sheet(List<Row> rows, int rejected, String firstError) {}
+}
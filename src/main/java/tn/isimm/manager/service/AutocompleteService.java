@@ -0,0 +1,232 @@
+package tn.isimm.manager.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.isimm.manager.domain.Club;
+import tn.isimm.manager.domain.Matiere;
+import tn.isimm.manager.domain.Niveau;
+import tn.isimm.manager.domain.Professeur;
+import tn.isimm.manager.repository.ClubRepository;
+import tn.isimm.manager.repository.EntityChangedEvent;
+import tn.isimm.manager.repository.EntityVersionRepository;
+import tn.isimm.manager.repository.EntityVersionRepository.EntityVersion;
+import tn.isimm.manager.repository.MatiereRepository;
+import tn.isimm.manager.repository.NiveauRepository;
+import tn.isimm.manager.repository.ProfesseurRepository;
+import tn.isimm.manager.repository.projection.IdLabel;
+import tn.isimm.manager.service.dto.AutocompleteItemDTO;
+
+/**
+ * Service answering entity picker typeahead requests from in-memory {@link PrefixIndex}es.
+ * <p>
+ * Each index is loaded from the database on first use, in a read-only transaction of its own, then kept up to date
+ * from {@link EntityChangedEvent}s, so lookups never hit the database. Those events are only published for the changes
+ * made by this node: an index is also reloaded once the {@code jhi_entity_version} counter of its entity type no longer
+ * is the one read with it, which is checked periodically.
+ */
+@Service
+public class AutocompleteService {
+
+    public static final int DEFAULT_SIZE = 10;
+
+    public static final int MAX_SIZE = 50;
+
+    private static final long UNKNOWN_VERSION = -1;
+
+    private final Logger log = LoggerFactory.getLogger(AutocompleteService.class);
+
+    private final IndexHolder<Matiere> matieres;
+
+    private final IndexHolder<Niveau> niveaus;
+
+    private final IndexHolder<Club> clubs;
+
+    private final IndexHolder<Professeur> professeurs;
+
+    private final EntityVersionRepository entityVersionRepository;
+
+    private final TransactionTemplate readTransactionTemplate;
+
+    public AutocompleteService(
+        MatiereRepository matiereRepository,
+        NiveauRepository niveauRepository,
+        ClubRepository clubRepository,
+        ProfesseurRepository professeurRepository,
+        EntityVersionRepository entityVersionRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.entityVersionRepository = entityVersionRepository;
+        this.readTransactionTemplate = new TransactionTemplate(transactionManager);
+        // The indexes are shared, so they are never read from the uncommitted state of the first caller
+        this.readTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransactionTemplate.setReadOnly(true);
+        this.matieres = new IndexHolder<>(Matiere.class, matiereRepository::findAllIdLabels, Matiere::getNomMatiere);
+        this.niveaus =
+            new IndexHolder<>(
+                Niveau.class,
+                niveauRepository::findAllIdLabels,
+                niveau -> join(niveau.getClasse(), niveau.getTd(), niveau.getTp())
+            );
+        this.clubs = new IndexHolder<>(Club.class, clubRepository::findAllIdLabels, Club::getNom);
+        this.professeurs =
+            new IndexHolder<>(
+                Professeur.class,
+                professeurRepository::findAllIdLabels,
+                professeur -> join(professeur.getPrenom(), professeur.getNom())
+            );
+    }
+
+    public List<AutocompleteItemDTO> completeMatieres(String prefix, int size) {
+        return matieres.complete(prefix, size);
+    }
+
+    public List<AutocompleteItemDTO> completeNiveaus(String prefix, int size) {
+        return niveaus.complete(prefix, size);
+    }
+
+    public List<AutocompleteItemDTO> completeClubs(String prefix, int size) {
+        return clubs.complete(prefix, size);
+    }
+
+    public List<AutocompleteItemDTO> completeProfesseurs(String prefix, int size) {
+        return professeurs.complete(prefix, size);
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        for (IndexHolder<?> holder : List.of(matieres, niveaus, clubs, professeurs)) {
+            if (event.isAbout(holder.type)) {
+                log.debug("Updating the {} autocomplete index after {}", holder.type.getSimpleName(), event);
+                holder.apply(event);
+            }
+        }
+    }
+
+    /**
+     * Reload the loaded indexes whose entity type changed since they were read, which includes the changes made by the
+     * other nodes.
+     */
+    @Scheduled(fixedDelay = 10_000)
+    public void reloadChangedIndexes() {
+        List<IndexHolder<?>> loaded = List.<IndexHolder<?>>of(matieres, niveaus, clubs, professeurs)
+            .stream()
+            .filter(IndexHolder::isLoaded)
+            .toList();
+        if (loaded.isEmpty()) {
+            return;
+        }
+        List<String> entityNames = loaded.stream().map(holder -> holder.type.getSimpleName()).toList();
+        Map<String, Long> versions = readTransactionTemplate.execute(status ->
+            entityVersionRepository
+                .findAllByEntityNameIn(entityNames)
+                .stream()
+                .collect(Collectors.toMap(EntityVersion::entityName, EntityVersion::version))
+        );
+        for (IndexHolder<?> holder : loaded) {
+            Long version = versions.get(holder.type.getSimpleName());
+            if (version != null && version != holder.version) {
+                log.debug("Reloading the {} autocomplete index at version {}", holder.type.getSimpleName(), version);
+                holder.load();
+            }
+        }
+    }
+
+    private static String join(String... parts) {
+        StringBuilder result = new StringBuilder();
+        for (String part : parts) {
+            result.append(part == null ? "" : part).append(' ');
+        }
+        return result.toString();
+    }
+
+    private final class IndexHolder<T> {
+
+        private final Class<T> type;
+
+        private final Supplier<List<IdLabel>> loader;
+
+        private final Function<T, String> labeler;
+
+        private volatile PrefixIndex index;
+
+        // The counter of the entity type when the index was read
+        private volatile long version = UNKNOWN_VERSION;
+
+        IndexHolder(Class<T> type, Supplier<List<IdLabel>> loader, Function<T, String> labeler) {
+            this.type = type;
+            this.loader = loader;
+            this.labeler = labeler;
+        }
+
+        List<AutocompleteItemDTO> complete(String prefix, int size) {
+            PrefixIndex current = get();
+            int limit = Math.max(1, Math.min(size, MAX_SIZE));
+            return current
+                .search(prefix == null ? "" : prefix, limit)
+                .stream()
+                .map(id -> new AutocompleteItemDTO(id, current.labelOf(id)))
+                .toList();
+        }
+
+        boolean isLoaded() {
+            return index != null;
+        }
+
+        private PrefixIndex get() {
+            PrefixIndex current = index;
+            if (current == null) {
+                synchronized (this) {
+                    current = index;
+                    if (current == null) {
+                        current = load();
+                    }
+                }
+            }
+            return current;
+        }
+
+        synchronized PrefixIndex load() {
+            PrefixIndex loaded = readTransactionTemplate.execute(status -> {
+                // Read first, so that the counter is never newer than the labels
+                version =
+                    entityVersionRepository
+                        .findAllByEntityNameIn(List.of(type.getSimpleName()))
+                        .stream()
+                        .findFirst()
+                        .map(EntityVersion::version)
+                        .orElse(UNKNOWN_VERSION);
+                Map<Long, String> labels = loader
+                    .get()
+                    .stream()
+                    .collect(Collectors.toMap(IdLabel::getId, idLabel -> PrefixIndex.clean(idLabel.getLabel())));
+                return PrefixIndex.of(labels);
+            });
+            index = loaded;
+            return loaded;
+        }
+
+        synchronized void apply(EntityChangedEvent event) {
+            // Not loaded yet: the first lookup will read the committed state from the database
+            if (index == null || !(event.getId() instanceof Long id)) {
+                return;
+            }
+            if (event.getChangeType() == EntityChangedEvent.ChangeType.DELETED) {
+                index = index.without(id);
+            } else if (event.getEntity() != null) {
+                // Changes published without their entity are picked up by the next reload
+                index = index.with(id, labeler.apply(type.cast(event.getEntity())));
+            }
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package tn.isimm.manager.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import tn.isimm.manager.config.ApplicationProperties;
+import tn.isimm.manager.domain.Etudiant;
+import tn.isimm.manager.domain.FichierAdmin;
+import tn.isimm.manager.domain.StoredFileCodec;
+import tn.isimm.manager.domain.enumeration.TypeFichierAdmin;
+import tn.isimm.manager.repository.CertificateRepository;
+import tn.isimm.manager.repository.CertificateRepository.Classe;
+import tn.isimm.manager.repository.CertificateRepository.Graduate;
+import tn.isimm.manager.repository.CertificateRepository.MatiereNote;
+import tn.isimm.manager.repository.EtudiantRepository;
+import tn.isimm.manager.repository.FichierAdminRepository;
+import tn.isimm.manager.repository.FileKind;
+import tn.isimm.manager.repository.FileRepository;
+import tn.isimm.manager.service.dto.CertificateJobDTO;
+
+/**
+ * Service generating the success certificates of the etudiants of a niveau, as validated {@code Reusite}
+ * {@link FichierAdmin}.
+ * <p>
+ * A job reads the etudiants of the niveau in pages. The certificates of a page are rendered in parallel by a bounded
+ * pool of workers, each one streamed through the {@link StoredFileCodec} to a temporary file, so that no certificate is
+ * held in memory. The page is then stored in one transaction: its fichier admins are inserted, then their files are
+ * streamed to the database. The etudiants that already have the certificate of the semestre of the niveau keep their
+ * fichier admin, whose file is replaced, so that a job can be run again. A job whose certificates could not all be
+ * rendered ends {@value #STATUS_PARTIALLY_FAILED}. A single job runs at a time, the others waiting in line; the last jobs
+ * are kept in memory with their progress. The certificates are published as metrics:
+ * <ul>
+ *     <li>{@code certificates.generated}: the certificates, per outcome.</li>
+ * </ul>
+ */
+@Service
+public class CertificateService {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+
+    public static final String STATUS_RUNNING = "RUNNING";
+
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    public static final String STATUS_PARTIALLY_FAILED = "PARTIALLY_FAILED";
+
+    public static final String STATUS_FAILED = "FAILED";
+
+    public static final String CONTENT_TYPE = "text/html;charset=UTF-8";
+
+    private static final String TEMPLATE = "certificate/attestationReussite";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final Logger log = LoggerFactory.getLogger(CertificateService.class);
+
+    private final CertificateRepository certificateRepository;
+
+    private final FichierAdminRepository fichierAdminRepository;
+
+    private final EtudiantRepository etudiantRepository;
+
+    private final FileRepository fileRepository;
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Certificates properties;
+
+    private final Counter storedCounter;
+
+    private final Counter failedCounter;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<Long, Job> jobs = new LinkedHashMap<>();
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "certificate-jobs");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ThreadPoolExecutor renderers;
+
+    public CertificateService(
+        CertificateRepository certificateRepository,
+        FichierAdminRepository fichierAdminRepository,
+        EtudiantRepository etudiantRepository,
+        FileRepository fileRepository,
+        SpringTemplateEngine templateEngine,
+        EntityManagerFactory entityManagerFactory,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.certificateRepository = certificateRepository;
+        this.fichierAdminRepository = fichierAdminRepository;
+        this.etudiantRepository = etudiantRepository;
+        this.fileRepository = fileRepository;
+        this.templateEngine = templateEngine;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getCertificates();
+        this.storedCounter = counter(meterRegistry, "stored");
+        this.failedCounter = counter(meterRegistry, "failed");
+        AtomicInteger threadCount = new AtomicInteger();
+        // When the queue is full, the job runner renders the certificate itself, slowing down the submission
+        this.renderers = new ThreadPoolExecutor(
+            properties.getThreads(),
+            properties.getThreads(),
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "certificate-renderer-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        renderers.shutdownNow();
+    }
+
+    /**
+     * Queue the generation of the success certificates of the etudiants of a niveau.
+     *
+     * @param niveauId the id of the niveau.
+     * @return the queued job, if the niveau exists.
+     */
+    public Optional<CertificateJobDTO> generate(long niveauId) {
+        Optional<Classe> classe = certificateRepository.findClasse(niveauId);
+        if (classe.isEmpty()) {
+            return Optional.empty();
+        }
+        Job job = new Job(sequence.incrementAndGet(), niveauId, certificateRepository.countEtudiants(niveauId));
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+            Iterator<Job> oldest = jobs.values().iterator();
+            while (jobs.size() > properties.getRetainedJobs() && oldest.hasNext()) {
+                if (oldest.next().isFinished()) {
+                    oldest.remove();
+                }
+            }
+        }
+        runner.execute(() -> run(job, classe.orElseThrow()));
+        return Optional.of(job.toDto());
+    }
+
+    /**
+     * @return the last jobs, the most recent first.
+     */
+    public List<CertificateJobDTO> findJobs() {
+        List<CertificateJobDTO> dtos = new ArrayList<>();
+        synchronized (jobs) {
+            jobs.values().forEach(job -> dtos.add(0, job.toDto()));
+        }
+        return dtos;
+    }
+
+    /**
+     * @param id the id of a job.
+     * @return the job, if it is one of the last jobs.
+     */
+    public Optional<CertificateJobDTO> findJob(long id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id)).map(Job::toDto);
+        }
+    }
+
+    private void run(Job job, Classe classe) {
+        job.start();
+        try {
+            List<MatiereNote> matieres = certificateRepository.findMatiereNotes(job.niveauId);
+            Double moyenne = matieres
+                .stream()
+                .map(MatiereNote::note)
+                .filter(Objects::nonNull)
+                .mapToInt(Integer::intValue)
+                .average()
+                .stream()
+                .boxed()
+                .findFirst()
+                .orElse(null);
+            LocalDate deliveredOn = LocalDate.now();
+            String titre = titre(classe);
+            long lastId = 0;
+            List<Graduate> etudiants;
+            do {
+                etudiants = certificateRepository.findEtudiants(job.niveauId, lastId, properties.getBatchSize());
+                if (!etudiants.isEmpty()) {
+                    lastId = etudiants.get(etudiants.size() - 1).id();
+                    List<Rendered> rendered = render(job, etudiants, classe, matieres, moyenne, deliveredOn);
+                    try {
+                        store(rendered, titre);
+                        job.stored.addAndGet(rendered.size());
+                        storedCounter.increment(rendered.size());
+                    } finally {
+                        rendered.forEach(certificate -> delete(certificate.file()));
+                    }
+                }
+            } while (etudiants.size() == properties.getBatchSize());
+            long failures = job.failed.get();
+            if (failures > 0) {
+                job.finish(STATUS_PARTIALLY_FAILED, failures + " success certificates could not be rendered");
+                log.warn(
+                    "Generated {} success certificates of niveau {} in {}, {} failed",
+                    job.stored,
+                    job.niveauId,
+                    job.elapsed(),
+                    failures
+                );
+            } else {
+                job.finish(STATUS_COMPLETED, null);
+                log.info("Generated {} success certificates of niveau {} in {}", job.stored, job.niveauId, job.elapsed());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not generate the success certificates of niveau {}: {}", job.niveauId, e.getMessage());
+            job.finish(STATUS_FAILED, e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+        }
+    }
+
+    private List<Rendered> render(
+        Job job,
+        List<Graduate> etudiants,
+        Classe classe,
+        List<MatiereNote> matieres,
+        Double moyenne,
+        LocalDate deliveredOn
+    ) {
+        List<Future<Rendered>> futures = new ArrayList<>(etudiants.size());
+        for (Graduate etudiant : etudiants) {
+            futures.add(renderers.submit(() -> render(etudiant, classe, matieres, moyenne, deliveredOn)));
+        }
+        List<Rendered> rendered = new ArrayList<>(etudiants.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                rendered.add(futures.get(i).get());
+                job.rendered.incrementAndGet();
+            } catch (ExecutionException e) {
+                log.warn("Could not render the success certificate of etudiant {}: {}", etudiants.get(i).id(), e.getCause().getMessage());
+                job.failed.incrementAndGet();
+                failedCounter.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(future -> future.cancel(true));
+                rendered.forEach(certificate -> delete(certificate.file()));
+                throw new IllegalStateException("Interrupted while rendering the success certificates", e);
+            }
+        }
+        return rendered;
+    }
+
+    private Rendered render(Graduate etudiant, Classe classe, List<MatiereNote> matieres, Double moyenne, LocalDate deliveredOn)
+        throws IOException {
+        Context context = new Context(Locale.FRENCH);
+        context.setVariable("etudiant", etudiant);
+        context.setVariable("classe", classe);
+        context.setVariable("matieres", matieres);
+        context.setVariable("moyenne", moyenne);
+        context.setVariable("deliveredOn", deliveredOn);
+        Path file = Files.createTempFile("certificate-", ".gz");
+        try {
+            try (
+                OutputStream encoder = StoredFileCodec.encoder(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+                Writer writer = new OutputStreamWriter(encoder, StandardCharsets.UTF_8)
+            ) {
+                templateEngine.process(TEMPLATE, context, writer);
+            }
+            return new Rendered(etudiant.id(), file, Files.size(file));
+        } catch (IOException | RuntimeException e) {
+            delete(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Store the certificates of a page in one transaction, inserting the fichier admins of the etudiants that do not have
+     * one with this title yet.
+     */
+    private void store(List<Rendered> rendered, String titre) {
+        if (rendered.isEmpty()) {
+            return;
+        }
+        List<Long> etudiantIds = rendered.stream().map(Rendered::etudiantId).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, Long> fichierAdminIds = new HashMap<>(certificateRepository.findCertificateIds(titre, etudiantIds));
+            List<FichierAdmin> fichierAdmins = new ArrayList<>(rendered.size());
+            for (Rendered certificate : rendered) {
+                if (!fichierAdminIds.containsKey(certificate.etudiantId())) {
+                    fichierAdmins.add(
+                        new FichierAdmin()
+                            .titre(titre)
+                            .type(TypeFichierAdmin.Reusite)
+                            .demandeValide(true)
+                            .etudiant(etudiantRepository.getReferenceById(certificate.etudiantId()))
+                    );
+                }
+            }
+            fichierAdminRepository.saveAllAndFlush(fichierAdmins);
+            fichierAdmins.forEach(fichierAdmin -> fichierAdminIds.put(fichierAdmin.getEtudiant().getId(), fichierAdmin.getId()));
+            for (Rendered certificate : rendered) {
+                long fichierAdminId = fichierAdminIds.get(certificate.etudiantId());
+                try (InputStream stored = new BufferedInputStream(Files.newInputStream(certificate.file()), BUFFER_SIZE)) {
+                    fileRepository.writeFile(FileKind.FICHIER_ADMIN, fichierAdminId, stored, certificate.length(), CONTENT_TYPE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            List<Long> storedIds = List.copyOf(fichierAdminIds.values());
+            // The fichier admins were cached on insert without their files, or with their previous files, and the new
+            // ones are not seen by their etudiants
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        storedIds.forEach(id -> entityManagerFactory.getCache().evict(FichierAdmin.class, id));
+                        org.hibernate.Cache cache = entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+                        etudiantIds.forEach(id -> cache.evictCollectionData(Etudiant.class.getName() + ".fichierAdmins", id));
+                    }
+                }
+            );
+        });
+    }
+
+    /**
+     * @return the title of the certificates of a niveau, which tells them apart from those of its other semestres.
+     */
+    private static String titre(Classe classe) {
+        StringBuilder titre = new StringBuilder("Attestation de réussite ").append(classe.label());
+        if (classe.semestre() != null) {
+            titre.append(" S").append(classe.semestre());
+        }
+        if (classe.anneeScolaire() != null && !classe.anneeScolaire().isBlank()) {
+            titre.append(' ').append(classe.anneeScolaire());
+        }
+        return titre.toString();
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete the temporary certificate {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter
+            .builder("certificates.generated")
+            .description("The success certificates generated")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private record Rendered(long etudiantId, Path file, long length) {}
+
+    private static final class Job {
+
+        private final long id;
+
+        private final long niveauId;
+
+        private final long total;
+
+        private final AtomicLong rendered = new AtomicLong();
+
+        private final AtomicLong stored = new AtomicLong();
+
+        private final AtomicLong failed = new AtomicLong();
+
+        private volatile String status = STATUS_QUEUED;
+
+        private volatile Instant startedAt;
+
+        private volatile Instant finishedAt;
+
+        private volatile String error;
+
+        private Job(long id, long niveauId, long total) {
+            this.id = id;
+            this.niveauId = niveauId;
+            this.total = total;
+        }
+
+        private void start() {
+            startedAt = Instant.now();
+            status = STATUS_RUNNING;
+        }
+
+        private void finish(String status, String error) {
+            this.error = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+            finishedAt = Instant.now();
+            this.status = status;
+        }
+
+        private boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        private Duration elapsed() {
+            Instant start = startedAt;
+            if (start == null) {
+                return Duration.ZERO;
+            }
+            Instant end = finishedAt;
+            return Duration.between(start, end != null ? end : Instant.now());
+        }
+
+        private CertificateJobDTO toDto() {
+            long elapsedMillis = elapsed().toMillis();
+            long storedCount = stored.get();
+            return new CertificateJobDTO(
+                id,
+                niveauId,
+                status,
+                total,
+                rendered.get(),
+                storedCount,
+                failed.get(),
+                startedAt,
+                finishedAt,
+                elapsedMillis > 0 ? storedCount * 1000.0 / elapsedMillis : 0,
+                error
+            );
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package tn.isimm.manager.service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.HtmlUtils;
+import tn.isimm.manager.config.ApplicationProperties;
+import tn.isimm.manager.domain.Cours;
+import tn.isimm.manager.domain.StoredFileCodec;
+import tn.isimm.manager.repository.CoursTextRepository;
+import tn.isimm.manager.repository.EntityChangedEvent;
+import tn.isimm.manager.repository.FileKind;
+import tn.isimm.manager.repository.FileRepository;
+import tn.isimm.manager.service.dto.CoursSearchResultDTO;
+
+/**
+ * Service indexing the text of the files of the cours, and searching it.
+ * <p>
+ * A cours is indexed by a bounded pool of workers once a change to it is committed, so that uploads never wait for the
+ * extraction. Its text is stored with the version of the cours it was extracted from: the cours changed while the queue
+ * of the pool was full, or while the application was down, are found by comparing versions, on startup and then
+ * periodically.
+ * <p>
+ * Words are indexed without accents and case. A search returns the cours holding all its words, ranked by TF-IDF, among
+ * a bounded number of the cours holding its rarest word.
+ */
+@Service
+public class CoursSearchService {
+
+    public static final String STATUS_INDEXED = "INDEXED";
+
+    public static final String STATUS_UNSUPPORTED = "UNSUPPORTED";
+
+    public static final String STATUS_FAILED = "FAILED";
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private static final int MAX_TERM_LENGTH = 64;
+
+    private static final int MAX_QUERY_TERMS = 10;
+
+    private static final int MAX_SNIPPETS = 3;
+
+    private static final int MAX_IDS_PER_QUERY = 1_000;
+
+    private static final int SNIPPET_BEFORE = 60;
+
+    private static final int SNIPPET_AFTER = 100;
+
+    private final Logger log = LoggerFactory.getLogger(CoursSearchService.class);
+
+    private final CoursTextRepository coursTextRepository;
+
+    private final FileRepository fileRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TaskScheduler taskScheduler;
+
+    private final ApplicationProperties.CoursSearch properties;
+
+    private final boolean migrateOnly;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolExecutor workers;
+
+    public CoursSearchService(
+        CoursTextRepository coursTextRepository,
+        FileRepository fileRepository,
+        PlatformTransactionManager transactionManager,
+        TaskScheduler taskScheduler,
+        ApplicationProperties applicationProperties
+    ) {
+        this.coursTextRepository = coursTextRepository;
+        this.fileRepository = fileRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskScheduler = taskScheduler;
+        this.properties = applicationProperties.getCoursSearch();
+        this.migrateOnly = applicationProperties.getDatabaseMigration().isMigrateOnly();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers =
+            new ThreadPoolExecutor(
+                properties.getThreads(),
+                properties.getThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cours-text-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // Started with --migrate, the application exits once ready
+        if (properties.isEnabled() && !migrateOnly) {
+            taskScheduler.scheduleWithFixedDelay(this::catchUp, properties.getCatchUpInterval());
+        }
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (
+            event.isAbout(Cours.class) && event.getChangeType() != EntityChangedEvent.ChangeType.DELETED && event.getId() instanceof Long id
+        ) {
+            submit(id);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queue the indexing of the stale cours, in the order of their ids, until the queue is full.
+     */
+    public void catchUp() {
+        try {
+            Integer removed = transactionTemplate.execute(status -> coursTextRepository.deleteWithoutFile());
+            if (removed != null && removed > 0) {
+                log.debug("Removed {} cours without file from the index", removed);
+            }
+            long lastId = 0;
+            List<Long> coursIds;
+            do {
+                coursIds = coursTextRepository.findStaleCoursIds(lastId, properties.getBatchSize());
+                for (Long coursId : coursIds) {
+                    if (!submit(coursId)) {
+                        // The next catch-up resumes from the first cours still stale
+                        log.debug("The cours text queue is full, resuming the catch-up at cours {} later", coursId);
+                        return;
+                    }
+                    lastId = coursId;
+                }
+            } while (coursIds.size() == properties.getBatchSize());
+        } catch (RuntimeException e) {
+            log.warn("Could not catch up with the stale cours texts: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Queue the indexing of a cours, unless it is already queued.
+     *
+     * @param coursId the id of the cours.
+     * @return {@code false} if the queue is full.
+     */
+    public boolean submit(long coursId) {
+        if (!properties.isEnabled() || !pending.add(coursId)) {
+            return true;
+        }
+        try {
+            workers.execute(() -> {
+                pending.remove(coursId);
+                try {
+                    index(coursId);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Could not index the file of cours {}: {}", coursId, e.getMessage());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(coursId);
+            return false;
+        }
+    }
+
+    /**
+     * Extract the text of the file of a cours and index it, unless it is already indexed at the current version.
+     *
+     * @param coursId the id of the cours.
+     * @return {@code true} if the index was changed.
+     * @throws IOException if the file could not be read.
+     */
+    public boolean index(long coursId) throws IOException {
+        Optional<Long> version = fileRepository.findVersion(FileKind.COURS, coursId);
+        if (version.isPresent() && version.equals(coursTextRepository.findSourceVersion(coursId))) {
+            return false;
+        }
+        Optional<Long> matiereId = coursTextRepository.findMatiereId(coursId);
+        Extraction extraction = new Extraction();
+        boolean found = fileRepository.readFile(
+            FileKind.COURS,
+            coursId,
+            file -> {
+                extraction.version = file.version();
+                try {
+                    extraction.text =
+                        DocumentTextExtractor.extract(
+                            StoredFileCodec.open(file.content()).decoded(),
+                            file.contentType(),
+                            properties.getMaxTextLength()
+                        );
+                    extraction.status = extraction.text.isPresent() ? STATUS_INDEXED : STATUS_UNSUPPORTED;
+                } catch (IOException e) {
+                    log.debug("Could not extract the text of cours {}: {}", coursId, e.getMessage());
+                    extraction.text = Optional.empty();
+                    extraction.status = STATUS_FAILED;
+                }
+            }
+        );
+        if (!found) {
+            transactionTemplate.executeWithoutResult(status -> coursTextRepository.delete(coursId));
+            return true;
+        }
+        String text = extraction.text.orElse(null);
+        Map<String, Integer> terms = termFrequencies(text);
+        Boolean replaced = transactionTemplate.execute(status ->
+            coursTextRepository.replace(coursId, matiereId.orElse(null), extraction.version, extraction.status, text, terms)
+        );
+        log.debug("Indexed {} words of cours {} at version {}: {}", terms.size(), coursId, extraction.version, extraction.status);
+        return Boolean.TRUE.equals(replaced);
+    }
+
+    /**
+     * Search the text of the files of the cours.
+     *
+     * @param query the words to search, all of which must be found.
+     * @param matiereId the id of the matiere of the cours, if any.
+     * @param pageable the pagination information.
+     * @return the page of the matching cours, the best ranked first.
+     */
+    public Page<CoursSearchResultDTO> search(String query, Long matiereId, Pageable pageable) {
+        Set<String> terms = queryTerms(query);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        Map<String, Integer> documentFrequencies = coursTextRepository.countPostings(terms, matiereId);
+        if (documentFrequencies.size() < terms.size()) {
+            return Page.empty(pageable);
+        }
+        // Only the cours holding the rarest word most often are read, and the other words looked up in them
+        String rarest = terms.stream().min(Comparator.comparingInt(documentFrequencies::get)).orElseThrow();
+        Map<Long, Map<String, Integer>> frequencies = new HashMap<>();
+        for (CoursTextRepository.Posting posting : coursTextRepository.findPostings(rarest, matiereId, properties.getMaxPostings())) {
+            frequencies.computeIfAbsent(posting.coursId(), id -> new HashMap<>()).put(posting.term(), posting.frequency());
+        }
+        Set<String> otherTerms = new LinkedHashSet<>(terms);
+        otherTerms.remove(rarest);
+        List<Long> coursIds = new ArrayList<>(frequencies.keySet());
+        for (int from = 0; !otherTerms.isEmpty() && from < coursIds.size(); from += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = coursIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, coursIds.size()));
+            for (CoursTextRepository.Posting posting : coursTextRepository.findPostings(otherTerms, chunk)) {
+                frequencies.get(posting.coursId()).put(posting.term(), posting.frequency());
+            }
+        }
+        double documents = Math.max(1, coursTextRepository.countIndexed());
+        List<Hit> hits = new ArrayList<>();
+        frequencies.forEach((coursId, termFrequencies) -> {
+            if (termFrequencies.size() == terms.size()) {
+                double score = 0;
+                for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                    score += (1 + Math.log(entry.getValue())) * Math.log(1 + documents / documentFrequencies.get(entry.getKey()));
+                }
+                hits.add(new Hit(coursId, score));
+            }
+        });
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::coursId));
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        List<Hit> page = hits.subList(from, Math.min(from + pageable.getPageSize(), hits.size()));
+        Map<Long, CoursTextRepository.IndexedCours> indexed = coursTextRepository
+            .findIndexedCours(page.stream().map(Hit::coursId).toList())
+            .stream()
+            .collect(Collectors.toMap(CoursTextRepository.IndexedCours::id, Function.identity()));
+        List<CoursSearchResultDTO> results = page
+            .stream()
+            .filter(hit -> indexed.containsKey(hit.coursId()))
+            .map(hit -> {
+                CoursTextRepository.IndexedCours cours = indexed.get(hit.coursId());
+                return new CoursSearchResultDTO(cours.id(), cours.titre(), cours.matiereId(), hit.score(), snippets(cours.content(), terms));
+            })
+            .toList();
+        return new PageImpl<>(results, pageable, hits.size());
+    }
+
+    /**
+     * @param text a text, if any.
+     * @return the number of occurrences of each of its normalized words.
+     */
+    static Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        if (text != null) {
+            Matcher word = WORD.matcher(PrefixIndex.normalize(text));
+            while (word.find()) {
+                if (isTerm(word.group())) {
+                    frequencies.merge(word.group(), 1, Integer::sum);
+                }
+            }
+        }
+        return frequencies;
+    }
+
+    static Set<String> queryTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (query != null) {
+            Matcher word = WORD.matcher(PrefixIndex.normalize(query));
+            while (word.find() && terms.size() < MAX_QUERY_TERMS) {
+                if (isTerm(word.group())) {
+                    terms.add(word.group());
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * @param text the text of a cours, if any.
+     * @param terms the normalized words searched.
+     * @return the passages of the text around the first occurrences of the words, escaped, with the words marked.
+     */
+    static List<String> snippets(String text, Set<String> terms) {
+        List<String> snippets = new ArrayList<>();
+        if (text == null) {
+            return snippets;
+        }
+        List<int[]> matches = new ArrayList<>();
+        Matcher word = WORD.matcher(text);
+        while (word.find()) {
+            if (terms.contains(PrefixIndex.normalize(word.group()))) {
+                matches.add(new int[] { word.start(), word.end() });
+            }
+        }
+        int index = 0;
+        while (index < matches.size() && snippets.size() < MAX_SNIPPETS) {
+            int start = wordBoundary(text, Math.max(0, matches.get(index)[0] - SNIPPET_BEFORE), true);
+            int end = wordBoundary(text, Math.min(text.length(), matches.get(index)[1] + SNIPPET_AFTER), false);
+            StringBuilder snippet = new StringBuilder();
+            if (start > 0) {
+                snippet.append("… ");
+            }
+            int position = start;
+            while (index < matches.size() && matches.get(index)[1] <= end) {
+                int[] match = matches.get(index);
+                snippet.append(HtmlUtils.htmlEscape(text.substring(position, match[0]), "UTF-8"));
+                snippet.append("<mark>").append(HtmlUtils.htmlEscape(text.substring(match[0], match[1]), "UTF-8")).append("</mark>");
+                position = match[1];
+                index++;
+            }
+            snippet.append(HtmlUtils.htmlEscape(text.substring(position, end), "UTF-8"));
+            if (end < text.length()) {
+                snippet.append(" …");
+            }
+            snippets.add(snippet.toString().replaceAll("\\s+", " ").trim());
+        }
+        return snippets;
+    }
+
+    private static boolean isTerm(String word) {
+        return word.length() >= MIN_TERM_LENGTH && word.length() <= MAX_TERM_LENGTH;
+    }
+
+    private static int wordBoundary(String text, int position, boolean backwards) {
+        int current = position;
+        if (backwards) {
+            while (current > 0 && !Character.isWhitespace(text.charAt(current - 1)) && position - current < 20) {
+                current--;
+            }
+        } else {
+            while (current < text.length() && !Character.isWhitespace(text.charAt(current)) && current - position < 20) {
+                current++;
+            }
+        }
+        return current;
+    }
+
+    private record Hit(long coursId, double score) {}
+
+    private static final class Extraction {
+
+        private long version;
+
+        private Optional<String> text = Optional.empty();
+
+        private String status = STATUS_FAILED;
+    }
+}
@@ -0,0 +1,217 @@
+package tn.isimm.manager.service;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+/**
+ * Extraction of the text of the uploaded documents, streamed so that the memory used does not grow with their size.
+ * <ul>
+ *     <li>plain text, HTML and XML files, their markup being dropped;</li>
+ *     <li>Office Open XML (docx, pptx, xlsx) and OpenDocument files, from the XML parts holding their text;</li>
+ *     <li>PDF files, with PDFBox, which maps the glyphs of every font to text, CID fonts included.</li>
+ * </ul>
+ * The extracted text is truncated to a maximum number of characters.
+ */
+public final class DocumentTextExtractor {
+
+    private static final Pattern TEXT_PARTS = Pattern.compile(
+        "word/(document|header\\d*|footer\\d*|footnotes|endnotes)\\.xml|ppt/(slides|notesSlides)/\\w+\\.xml|xl/sharedStrings\\.xml|content\\.xml"
+    );
+
+    private static final Set<String> BREAKING_ELEMENTS = Set.of("p", "br", "tab", "tc", "si", "h", "line-break", "cr");
+
+    private static final Pattern MARKUP = Pattern.compile("<[^>]*>");
+
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private DocumentTextExtractor() {}
+
+    /**
+     * @param content the raw content of the document.
+     * @param contentType the content type of the document, if known.
+     * @param maxLength the maximum number of characters extracted.
+     * @return the text of the document, or nothing if its format is not supported.
+     * @throws IOException if the document cannot be read.
+     */
+    public static Optional<String> extract(InputStream content, String contentType, int maxLength) throws IOException {
+        InputStream input = new BufferedInputStream(content, 64 * 1024);
+        input.mark(8);
+        byte[] head = input.readNBytes(8);
+        input.reset();
+        Text text = new Text(maxLength);
+        if (startsWith(head, "%PDF")) {
+            extractPdf(input, text);
+        } else if (startsWith(head, "PK\u0003\u0004")) {
+            if (!extractZip(input, text)) {
+                return Optional.empty();
+            }
+        } else if (isText(contentType)) {
+            extractText(input, contentType, text);
+        } else {
+            return Optional.empty();
+        }
+        return Optional.of(text.toString());
+    }
+
+    private static boolean isText(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.endsWith("/xml") || type.endsWith("+xml") || type.equals("application/json");
+    }
+
+    private static void extractText(InputStream input, String contentType, Text text) throws IOException {
+        Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+        char[] buffer = new char[8192];
+        StringBuilder content = new StringBuilder();
+        int read;
+        while (content.length() < text.maxLength * 2 && (read = reader.read(buffer)) >= 0) {
+            content.append(buffer, 0, read);
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        String plain = type.contains("html") || type.contains("xml") ? MARKUP.matcher(content).replaceAll(" ") : content.toString();
+        text.append(SPACES.matcher(plain).replaceAll(" ").trim());
+    }
+
+    private static boolean extractZip(InputStream input, Text text) throws IOException {
+        boolean found = false;
+        ZipInputStream zip = new ZipInputStream(input);
+        ZipEntry entry;
+        while (!text.isFull() && (entry = zip.getNextEntry()) != null) {
+            if (TEXT_PARTS.matcher(entry.getName()).matches()) {
+                found = true;
+                extractXml(new UnclosableInputStream(zip), text);
+            }
+        }
+        return found;
+    }
+
+    private static void extractXml(InputStream part, Text text) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            XMLStreamReader reader = factory.createXMLStreamReader(part);
+            try {
+                while (reader.hasNext() && !text.isFull()) {
+                    int event = reader.next();
+                    if (event == XMLStreamReader.CHARACTERS || event == XMLStreamReader.CDATA) {
+                        text.appendRaw(reader.getText());
+                    } else if (event == XMLStreamReader.END_ELEMENT && BREAKING_ELEMENTS.contains(reader.getLocalName())) {
+                        text.separate();
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid XML part: " + e.getMessage(), e);
+        }
+        text.separate();
+    }
+
+    /**
+     * Extract the text of a PDF file page by page, from a temporary copy so that neither the file nor the streams it
+     * holds are kept in memory.
+     */
+    private static void extractPdf(InputStream input, Text text) throws IOException {
+        Path file = Files.createTempFile("document-text-", ".pdf");
+        try {
+            Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+            try (PDDocument document = Loader.loadPDF(file.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+                PDFTextStripper stripper = new PDFTextStripper();
+                for (int page = 1; page <= document.getNumberOfPages() && !text.isFull(); page++) {
+                    stripper.setStartPage(page);
+                    stripper.setEndPage(page);
+                    text.append(SPACES.matcher(stripper.getText(document)).replaceAll(" ").trim());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static boolean startsWith(byte[] head, String prefix) {
+        byte[] bytes = prefix.getBytes(StandardCharsets.ISO_8859_1);
+        return head.length >= bytes.length && Arrays.equals(head, 0, bytes.length, bytes, 0, bytes.length);
+    }
+
+    /**
+     * The entry of a zip stream, left open for the next entries by the XML parsers closing it.
+     */
+    private static final class UnclosableInputStream extends FilterInputStream {
+
+        private UnclosableInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+            // The zip stream is closed with the document
+        }
+    }
+
+    /**
+     * Text truncated to a maximum length, where separations collapse to a single space.
+     */
+    static final class Text {
+
+        private final int maxLength;
+
+        private final StringBuilder builder = new StringBuilder();
+
+        Text(int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        boolean isFull() {
+            return builder.length() >= maxLength;
+        }
+
+        void append(CharSequence content) {
+            separate();
+            appendRaw(content);
+        }
+
+        void appendRaw(CharSequence content) {
+            int remaining = maxLength - builder.length();
+            if (remaining > 0) {
+                builder.append(content, 0, Math.min(remaining, content.length()));
+            }
+        }
+
+        void separate() {
+            if (!builder.isEmpty() && !Character.isWhitespace(builder.charAt(builder.length() - 1)) && !isFull()) {
+                builder.append(' ');
+            }
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString().trim();
+        }
+    }
+}
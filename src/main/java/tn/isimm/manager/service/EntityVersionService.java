@@ -0,0 +1,78 @@
+package tn.isimm.manager.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+import tn.isimm.manager.repository.EntityVersionRepository;
+import tn.isimm.manager.repository.EntityVersionRepository.EntityVersion;
+
+/**
+ * Service computing HTTP validators from the modification counters of entity types.
+ * <p>
+ * A representation built from some entity types can only change when one of their counters changes, so the
+ * aggregate of those counters is a strong ETag for it, and is far cheaper to obtain than the representation itself.
+ * The counters are read in a read-only transaction, from the data source the representation is read from.
+ */
+@Service
+public class EntityVersionService {
+
+    private final Logger log = LoggerFactory.getLogger(EntityVersionService.class);
+
+    private final EntityVersionRepository entityVersionRepository;
+
+    public EntityVersionService(EntityVersionRepository entityVersionRepository) {
+        this.entityVersionRepository = entityVersionRepository;
+    }
+
+    /**
+     * Compute the validators of a representation depending on the given entity types.
+     *
+     * @param entityTypes the entity types the representation is built from.
+     * @return the validators, or empty if some entity type has no counter, in which case nothing can be validated.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Validators> getValidators(Class<?>... entityTypes) {
+        Set<String> entityNames = new TreeSet<>();
+        Arrays.stream(entityTypes).map(Class::getSimpleName).forEach(entityNames::add);
+        List<EntityVersion> versions;
+        try {
+            versions = entityVersionRepository.findAllByEntityNameIn(entityNames);
+        } catch (DataAccessException e) {
+            log.warn("Could not read the versions of {}: {}", entityNames, e.getMessage());
+            return Optional.empty();
+        }
+        if (versions.size() != entityNames.size()) {
+            log.debug("Missing versions for some of {}, skipping validation", entityNames);
+            return Optional.empty();
+        }
+        StringBuilder key = new StringBuilder();
+        Instant lastModified = Instant.EPOCH;
+        for (EntityVersion version : versions.stream().sorted(Comparator.comparing(EntityVersion::entityName)).toList()) {
+            key.append(version.entityName()).append(':').append(version.version()).append(';');
+            if (version.lastModifiedDate() != null && version.lastModifiedDate().isAfter(lastModified)) {
+                lastModified = version.lastModifiedDate();
+            }
+        }
+        String eTag = "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        return Optional.of(new Validators(eTag, lastModified));
+    }
+
+    /**
+     * The validators of a representation.
+     *
+     * @param eTag the strong entity tag, quoted.
+     * @param lastModified the last time one of the entity types changed.
+     */
+    public record Validators(String eTag, Instant lastModified) {}
+}
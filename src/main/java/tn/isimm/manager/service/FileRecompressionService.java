@@ -0,0 +1,254 @@
+package tn.isimm.manager.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.isimm.manager.config.ApplicationProperties;
+import tn.isimm.manager.domain.StoredFileCodec;
+import tn.isimm.manager.repository.FileKind;
+import tn.isimm.manager.repository.FileRepository;
+
+/**
+ * Service compressing the files stored raw before the introduction of {@link StoredFileCodec}.
+ * <p>
+ * The files are scanned in the order of their owners by a single background worker, one transaction per file. A file
+ * is compressed to a temporary file, then written back only if its owner was not changed meanwhile: as its raw content
+ * is the same, the version of the owner is left unchanged. The progress is published as metrics:
+ * <ul>
+ *     <li>{@code files.recompression.progress}: the ratio of the files scanned, per kind of owner;</li>
+ *     <li>{@code files.recompression.files}: the files scanned, per kind of owner and outcome;</li>
+ *     <li>{@code files.recompression.saved}: the bytes saved, per kind of owner.</li>
+ * </ul>
+ */
+@Service
+public class FileRecompressionService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Logger log = LoggerFactory.getLogger(FileRecompressionService.class);
+
+    private final FileRepository fileRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ApplicationProperties.FileCompression properties;
+
+    private final Map<FileKind, Progress> progress = new EnumMap<>(FileKind.class);
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "file-recompression");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public FileRecompressionService(
+        FileRepository fileRepository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.fileRepository = fileRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.properties = applicationProperties.getFileCompression();
+        for (FileKind kind : FileKind.values()) {
+            Progress kindProgress = new Progress();
+            progress.put(kind, kindProgress);
+            Gauge
+                .builder("files.recompression.progress", kindProgress, Progress::ratio)
+                .description("Ratio of the stored files scanned by the recompression")
+                .tag("kind", kind.getTableName())
+                .register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Start recompressing the files of all the kinds of owners in the background, unless it is already running.
+     *
+     * @return {@code true} if the recompression was started.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        worker.execute(() -> {
+            try {
+                for (FileKind kind : FileKind.values()) {
+                    recompress(kind);
+                }
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Compress the files of a kind of owners stored raw, when worth it.
+     *
+     * @param kind the kind of the owners.
+     * @return the number of files compressed.
+     */
+    public long recompress(FileKind kind) {
+        Progress kindProgress = progress.get(kind);
+        kindProgress.start(fileRepository.countOwners(kind));
+        log.info("Recompressing the {} stored files of {}", kindProgress.total.get(), kind.getTableName());
+        long compressed = 0;
+        long lastId = 0;
+        List<Long> ownerIds;
+        do {
+            ownerIds = fileRepository.findOwnerIds(kind, lastId, properties.getBatchSize());
+            for (Long ownerId : ownerIds) {
+                if (Thread.currentThread().isInterrupted()) {
+                    log.info("Interrupted the recompression of {} after {} files", kind.getTableName(), kindProgress.scanned.get());
+                    return compressed;
+                }
+                Outcome outcome;
+                try {
+                    outcome = recompress(kind, ownerId);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Could not recompress the file of {} {}: {}", kind.getTableName(), ownerId, e.getMessage());
+                    outcome = Outcome.FAILED;
+                }
+                if (outcome == Outcome.COMPRESSED) {
+                    compressed++;
+                }
+                filesCounter(kind, outcome).increment();
+                kindProgress.scanned.incrementAndGet();
+                lastId = ownerId;
+            }
+        } while (ownerIds.size() == properties.getBatchSize());
+        log.info("Recompressed {} of the {} stored files of {}", compressed, kindProgress.scanned.get(), kind.getTableName());
+        return compressed;
+    }
+
+    private Outcome recompress(FileKind kind, long ownerId) throws IOException {
+        Path compressed = Files.createTempFile("recompression-", ".gz");
+        try {
+            Candidate candidate = new Candidate();
+            fileRepository.readFile(
+                kind,
+                ownerId,
+                file -> {
+                    StoredFileCodec.Encoded encoded = StoredFileCodec.open(file.content());
+                    if (encoded.encoding() != null) {
+                        return;
+                    }
+                    InputStream raw = encoded.content();
+                    raw.mark(StoredFileCodec.HEADER_LENGTH);
+                    byte[] head = raw.readNBytes(StoredFileCodec.HEADER_LENGTH);
+                    raw.reset();
+                    // The length is only known once the file is read, and checked then
+                    if (!StoredFileCodec.shouldCompress(head, StoredFileCodec.MIN_SIZE, file.contentType())) {
+                        return;
+                    }
+                    try (OutputStream encoder = StoredFileCodec.encoder(new BufferedOutputStream(Files.newOutputStream(compressed), BUFFER_SIZE))) {
+                        candidate.rawLength = raw.transferTo(encoder);
+                    }
+                    candidate.version = file.version();
+                }
+            );
+            if (candidate.version == null) {
+                return Outcome.SKIPPED;
+            }
+            long storedLength = Files.size(compressed);
+            if (candidate.rawLength < StoredFileCodec.MIN_SIZE || storedLength >= candidate.rawLength) {
+                return Outcome.SKIPPED;
+            }
+            Boolean replaced = transactionTemplate.execute(status -> {
+                try (InputStream stored = new BufferedInputStream(Files.newInputStream(compressed), BUFFER_SIZE)) {
+                    return fileRepository.replaceStoredFile(kind, ownerId, candidate.version, stored, storedLength);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not read the compressed file", e);
+                }
+            });
+            if (!Boolean.TRUE.equals(replaced)) {
+                return Outcome.CHANGED;
+            }
+            Counter
+                .builder("files.recompression.saved")
+                .description("Bytes saved by the recompression of the stored files")
+                .baseUnit("bytes")
+                .tag("kind", kind.getTableName())
+                .register(meterRegistry)
+                .increment((double) candidate.rawLength - storedLength);
+            log.debug("Compressed the file of {} {} from {} to {} bytes", kind.getTableName(), ownerId, candidate.rawLength, storedLength);
+            return Outcome.COMPRESSED;
+        } finally {
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    private Counter filesCounter(FileKind kind, Outcome outcome) {
+        return Counter
+            .builder("files.recompression.files")
+            .description("Stored files scanned by the recompression")
+            .tag("kind", kind.getTableName())
+            .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+            .register(meterRegistry);
+    }
+
+    private enum Outcome {
+        /** Compressed and written back. */
+        COMPRESSED,
+        /** Already compressed, or not worth compressing. */
+        SKIPPED,
+        /** Changed while it was compressed, and stored again by that change. */
+        CHANGED,
+        FAILED,
+    }
+
+    private static final class Candidate {
+
+        private Long version;
+
+        private long rawLength;
+    }
+
+    private static final class Progress {
+
+        private final AtomicLong total = new AtomicLong();
+
+        private final AtomicLong scanned = new AtomicLong();
+
+        private void start(long total) {
+            this.total.set(total);
+            this.scanned.set(0);
+        }
+
+        private double ratio() {
+            long currentTotal = total.get();
+            return currentTotal == 0 ? 0 : Math.min(1, (double) scanned.get() / currentTotal);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package tn.isimm.manager.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.isimm.manager.config.ApplicationProperties;
+import tn.isimm.manager.domain.StoredFileCodec;
+import tn.isimm.manager.repository.EntityChangedEvent;
+import tn.isimm.manager.repository.EntityVersionRepository;
+import tn.isimm.manager.repository.FileKind;
+import tn.isimm.manager.repository.FileRepository;
+import tn.isimm.manager.service.dto.StoredFileDTO;
+
+/**
+ * Service streaming uploaded files to the database.
+ * <p>
+ * The content is read once while its size and SHA-256 hash are computed: however large the file, an upload only holds
+ * the buffers of the driver and of the streams in memory. Files of a compressible content type are compressed to a
+ * temporary file first, then streamed from it; the others are streamed as they are read, through the JDBC driver.
+ */
+@Service
+public class FileUploadService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Logger log = LoggerFactory.getLogger(FileUploadService.class);
+
+    private final FileRepository fileRepository;
+
+    private final EntityVersionRepository entityVersionRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final ApplicationProperties.Uploads properties;
+
+    public FileUploadService(
+        FileRepository fileRepository,
+        EntityVersionRepository entityVersionRepository,
+        EntityManagerFactory entityManagerFactory,
+        PlatformTransactionManager transactionManager,
+        ApplicationEventPublisher applicationEventPublisher,
+        ApplicationProperties applicationProperties
+    ) {
+        this.fileRepository = fileRepository;
+        this.entityVersionRepository = entityVersionRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.properties = applicationProperties.getUploads();
+    }
+
+    /**
+     * @param kind the kind of the owner.
+     * @return the largest file accepted for that kind of owner, in bytes.
+     */
+    public long getMaxSize(FileKind kind) {
+        return switch (kind) {
+            case COURS -> properties.getCoursMaxSize().toBytes();
+            case FICHIER_ADMIN -> properties.getFichierAdminMaxSize().toBytes();
+        };
+    }
+
+    /**
+     * Replace the file of an owner by streaming {@code content} to the database, in a transaction of its own.
+     * <p>
+     * Must not be called within a transaction: the owner is evicted from the second-level cache and the listeners of
+     * its change are notified once the file is committed, which an outer transaction would delay.
+     *
+     * @param kind the kind of the owner.
+     * @param ownerId the id of the owner.
+     * @param content the content of the file.
+     * @param length the length of the file, in bytes, at most {@link #getMaxSize(FileKind)}.
+     * @param contentType the content type of the file.
+     * @param expectedVersions the versions the owner may have, or an empty list for any version.
+     * @return the stored file, or nothing if the owner does not exist.
+     * @throws IllegalArgumentException if the file is too large.
+     * @throws OptimisticLockingFailureException if the owner does not have one of the expected versions.
+     * @throws IOException if the content does not have {@code length} bytes.
+     */
+    public Optional<StoredFileDTO> store(
+        FileKind kind,
+        long ownerId,
+        InputStream content,
+        long length,
+        String contentType,
+        List<Long> expectedVersions
+    ) throws IOException {
+        if (length > getMaxSize(kind)) {
+            throw new IllegalArgumentException("The file of " + length + " bytes is larger than " + getMaxSize(kind) + " bytes");
+        }
+        // Checked again by the update, this spares reading a file that would be refused
+        checkVersion(kind, ownerId, expectedVersions);
+        InputStream buffered = new BufferedInputStream(content, BUFFER_SIZE);
+        buffered.mark(StoredFileCodec.HEADER_LENGTH);
+        byte[] head = buffered.readNBytes(StoredFileCodec.HEADER_LENGTH);
+        buffered.reset();
+        MessageDigest digest = sha256();
+        CountingInputStream input = new CountingInputStream(new DigestInputStream(buffered, digest));
+        if (!StoredFileCodec.shouldCompress(head, length, contentType)) {
+            return write(kind, ownerId, input, length, input, length, contentType, expectedVersions, digest);
+        }
+        Path compressed = Files.createTempFile("upload-", ".gz");
+        try {
+            try (OutputStream encoder = StoredFileCodec.encoder(new BufferedOutputStream(Files.newOutputStream(compressed), BUFFER_SIZE))) {
+                input.transferTo(encoder);
+            }
+            if (input.count != length) {
+                throw new IOException("The file has " + input.count + " bytes instead of " + length);
+            }
+            try (InputStream stored = new BufferedInputStream(Files.newInputStream(compressed), BUFFER_SIZE)) {
+                return write(kind, ownerId, stored, Files.size(compressed), input, length, contentType, expectedVersions, digest);
+            }
+        } finally {
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    private Optional<StoredFileDTO> write(
+        FileKind kind,
+        long ownerId,
+        InputStream stored,
+        long storedLength,
+        CountingInputStream input,
+        long length,
+        String contentType,
+        List<Long> expectedVersions,
+        MessageDigest digest
+    ) throws IOException {
+        Optional<Long> version = transactionTemplate.execute(status -> {
+            if (!fileRepository.writeFile(kind, ownerId, stored, storedLength, contentType, expectedVersions)) {
+                checkVersion(kind, ownerId, expectedVersions);
+                return Optional.empty();
+            }
+            if (input.count != length) {
+                // The driver stopped at the end of a shorter stream
+                status.setRollbackOnly();
+                return null;
+            }
+            entityVersionRepository.incrementVersions(List.of(kind.getEntityType().getSimpleName()));
+            return fileRepository.findVersion(kind, ownerId);
+        });
+        if (version == null) {
+            throw new IOException("The file ended after " + input.count + " of " + length + " bytes");
+        }
+        if (version.isEmpty()) {
+            return Optional.empty();
+        }
+        entityManagerFactory.getCache().evict(kind.getEntityType(), ownerId);
+        publishChange(kind, ownerId);
+        String hash = HexFormat.of().formatHex(digest.digest());
+        log.debug("Stored a file of {} bytes as {} bytes for {} {}: {}", length, storedLength, kind.getTableName(), ownerId, hash);
+        return Optional.of(new StoredFileDTO(ownerId, version.orElseThrow(), length, hash, contentType));
+    }
+
+    private void checkVersion(FileKind kind, long ownerId, List<Long> expectedVersions) {
+        if (expectedVersions.isEmpty()) {
+            return;
+        }
+        Optional<Long> version = fileRepository.findVersion(kind, ownerId);
+        if (version.isPresent() && !expectedVersions.contains(version.orElseThrow())) {
+            throw new OptimisticLockingFailureException("The " + kind.getTableName() + " " + ownerId + " was modified by another request");
+        }
+    }
+
+    private void publishChange(FileKind kind, long ownerId) {
+        EntityChangedEvent event = new EntityChangedEvent(kind.getEntityType(), ownerId, null, EntityChangedEvent.ChangeType.UPDATED);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applicationEventPublisher.publishEvent(event);
+            return;
+        }
+        // Joined an outer transaction: the file is only visible to the listeners once it commits
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applicationEventPublisher.publishEvent(event);
+                }
+            }
+        );
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read >= 0) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package tn.isimm.manager.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.isimm.manager.config.ApplicationProperties;
+import tn.isimm.manager.repository.EntityChangedEvent;
+import tn.isimm.manager.repository.EntityVersionRepository;
+import tn.isimm.manager.repository.PhotoKind;
+import tn.isimm.manager.repository.PhotoThumbnailRepository;
+import tn.isimm.manager.repository.PhotoThumbnailRepository.Photo;
+import tn.isimm.manager.repository.PhotoThumbnailRepository.Thumbnail;
+
+/**
+ * Service generating and serving the square thumbnails of the profile photos.
+ * <p>
+ * Thumbnails are generated by a single background worker once a change to a photo owner is committed, and stored next
+ * to the photo with the hash of the photo they were generated from. As that hash is part of their URLs, the thumbnails
+ * served are immutable, and the most requested ones are kept in memory. The photos stored before the thumbnails were
+ * introduced are picked up by {@link #startBackfill()}, on the same worker.
+ */
+@Service
+public class PhotoThumbnailService {
+
+    public static final String CONTENT_TYPE = "image/jpeg";
+
+    private static final int HASH_LENGTH = 16;
+
+    private final Logger log = LoggerFactory.getLogger(PhotoThumbnailService.class);
+
+    private final PhotoThumbnailRepository photoThumbnailRepository;
+
+    private final EntityVersionRepository entityVersionRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Photos properties;
+
+    private final Map<CacheKey, Thumbnail> cache;
+
+    private final Set<Owner> pending = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "photo-thumbnails");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PhotoThumbnailService(
+        PhotoThumbnailRepository photoThumbnailRepository,
+        EntityVersionRepository entityVersionRepository,
+        EntityManagerFactory entityManagerFactory,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.photoThumbnailRepository = photoThumbnailRepository;
+        this.entityVersionRepository = entityVersionRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getPhotos();
+        int cacheSize = properties.getCacheSize();
+        this.cache =
+            Collections.synchronizedMap(
+                new LinkedHashMap<CacheKey, Thumbnail>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<CacheKey, Thumbnail> eldest) {
+                        return size() > cacheSize;
+                    }
+                }
+            );
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        PhotoKind
+            .fromEntityType(event.getEntityType())
+            .ifPresent(kind -> {
+                Owner owner = new Owner(kind, (Long) event.getId());
+                // Changes made while a refresh is pending are picked up by that refresh
+                if (pending.add(owner)) {
+                    worker.execute(() -> {
+                        pending.remove(owner);
+                        try {
+                            refresh(owner.kind(), owner.id());
+                        } catch (RuntimeException e) {
+                            log.warn("Could not refresh the thumbnails of {} {}: {}", owner.kind().getName(), owner.id(), e.getMessage());
+                        }
+                    });
+                }
+            });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Start generating the thumbnails of the photos that have none in the background.
+     */
+    public void startBackfill() {
+        worker.execute(() -> {
+            for (PhotoKind kind : PhotoKind.values()) {
+                backfill(kind);
+            }
+        });
+    }
+
+    /**
+     * Generate the thumbnails of the photos of a kind of owners that have none. Photos in an unsupported format are
+     * scanned again by every backfill, as no thumbnails are ever generated from them.
+     *
+     * @param kind the kind of the owners.
+     * @return the number of owners whose thumbnails were generated.
+     */
+    public long backfill(PhotoKind kind) {
+        long generated = 0;
+        long lastId = 0;
+        List<Long> ownerIds;
+        do {
+            ownerIds = photoThumbnailRepository.findOwnerIdsWithoutThumbnails(kind, lastId, properties.getBatchSize());
+            for (Long ownerId : ownerIds) {
+                if (Thread.currentThread().isInterrupted()) {
+                    log.info("Interrupted the thumbnail backfill of {} after {} photos", kind.getName(), generated);
+                    return generated;
+                }
+                try {
+                    if (refresh(kind, ownerId)) {
+                        generated++;
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Could not generate the thumbnails of {} {}: {}", kind.getName(), ownerId, e.getMessage());
+                }
+                lastId = ownerId;
+            }
+        } while (ownerIds.size() == properties.getBatchSize());
+        if (generated > 0) {
+            log.info("Generated the missing thumbnails of {} photos of {}", generated, kind.getName());
+        }
+        return generated;
+    }
+
+    /**
+     * Generate the thumbnails of an owner from its current photo, unless they are up to date.
+     *
+     * @param kind the kind of the owner.
+     * @param ownerId the id of the owner.
+     * @return {@code true} if the thumbnails were replaced.
+     */
+    public boolean refresh(PhotoKind kind, long ownerId) {
+        Optional<Photo> photo = photoThumbnailRepository.findPhoto(kind, ownerId);
+        String hash = photo.map(current -> hash(current.content())).orElse(null);
+        if (hash != null && hash.equals(photo.orElseThrow().hash())) {
+            return false;
+        }
+        Map<Integer, byte[]> thumbnails = new TreeMap<>();
+        if (photo.isPresent()) {
+            for (int size : properties.getThumbnailSizes()) {
+                thumbnail(photo.orElseThrow().content(), size, properties.getJpegQuality()).ifPresent(bytes -> thumbnails.put(size, bytes));
+            }
+            if (thumbnails.isEmpty()) {
+                log.warn("The photo of {} {} is not in a supported image format", kind.getName(), ownerId);
+            }
+        }
+        if (thumbnails.isEmpty() && !photoThumbnailRepository.hasThumbnails(kind, ownerId)) {
+            return false;
+        }
+        String thumbnailsHash = thumbnails.isEmpty() ? null : hash;
+        transactionTemplate.executeWithoutResult(status -> {
+            photoThumbnailRepository.replaceThumbnails(kind, ownerId, thumbnailsHash, CONTENT_TYPE, thumbnails);
+            entityVersionRepository.incrementVersions(List.of(kind.getEntityType().getSimpleName()));
+        });
+        entityManagerFactory.getCache().evict(kind.getEntityType(), ownerId);
+        log.debug("Replaced the thumbnails of {} {} with {} thumbnails of {}", kind.getName(), ownerId, thumbnails.size(), thumbnailsHash);
+        return true;
+    }
+
+    /**
+     * Get a thumbnail, from memory when it was recently served.
+     *
+     * @param kind the kind of the owner.
+     * @param ownerId the id of the owner.
+     * @param size the size of the thumbnail, in pixels.
+     * @param hash the hash of the photo expected by the client, if any.
+     * @return the current thumbnail, if the size is one of the configured sizes and it was generated.
+     */
+    public Optional<Thumbnail> getThumbnail(PhotoKind kind, long ownerId, int size, String hash) {
+        if (!properties.getThumbnailSizes().contains(size)) {
+            return Optional.empty();
+        }
+        if (hash != null) {
+            Thumbnail cached = cache.get(new CacheKey(kind, ownerId, size, hash));
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+        Optional<Thumbnail> thumbnail = photoThumbnailRepository.findThumbnail(kind, ownerId, size);
+        thumbnail.ifPresent(current -> cache.put(new CacheKey(kind, ownerId, size, current.contentHash()), current));
+        return thumbnail;
+    }
+
+    static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest).substring(0, HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Crop the center square of an image and scale it down to {@code size} pixels, never up.
+     *
+     * @param photo the image, in any format readable by {@link ImageIO}.
+     * @param size the side of the thumbnail, in pixels.
+     * @param quality the JPEG quality, between 0 and 1.
+     * @return the JPEG thumbnail, or nothing if the format of the image is not supported.
+     */
+    static Optional<byte[]> thumbnail(byte[] photo, int size, float quality) {
+        try {
+            BufferedImage image = ImageIO.read(new MemoryCacheImageInputStream(new ByteArrayInputStream(photo)));
+            if (image == null) {
+                return Optional.empty();
+            }
+            int side = Math.min(image.getWidth(), image.getHeight());
+            BufferedImage square = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+            int x = (image.getWidth() - side) / 2;
+            int y = (image.getHeight() - side) / 2;
+            draw(square, image, x, y, side);
+            // Halve the image until close to the target, as a single bilinear pass from a large photo would alias
+            BufferedImage scaled = square;
+            int target = Math.min(size, side);
+            while (scaled.getWidth() != target) {
+                int next = Math.max(target, scaled.getWidth() / 2);
+                BufferedImage smaller = new BufferedImage(next, next, BufferedImage.TYPE_INT_RGB);
+                draw(smaller, scaled, 0, 0, scaled.getWidth());
+                scaled = smaller;
+            }
+            return Optional.of(writeJpeg(scaled, quality));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static void draw(BufferedImage target, BufferedImage source, int x, int y, int side) {
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // Transparent pixels would be black in a JPEG
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, target.getWidth(), target.getHeight());
+            graphics.drawImage(source, 0, 0, target.getWidth(), target.getHeight(), x, y, x + side, y + side, null);
+        } finally {
+            graphics.dispose();
+        }
+    }
+
+    private static byte[] writeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private record Owner(PhotoKind kind, long id) {}
+
+    private record CacheKey(PhotoKind kind, long ownerId, int size, String hash) {}
+}
@@ -0,0 +1,144 @@
+package tn.isimm.manager.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable in-memory prefix index over (id, label) pairs.
+ * <p>
+ * Every word of a label is indexed, accents and case are ignored, and lookups are a binary search in a sorted array.
+ * Updates return a new index so that readers never need to lock.
+ */
+public final class PrefixIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private static final PrefixIndex EMPTY = new PrefixIndex(Map.of());
+
+    private final Map<Long, String> labels;
+
+    private final String[] keys;
+
+    private final long[] ids;
+
+    private PrefixIndex(Map<Long, String> labels) {
+        this.labels = labels;
+        List<Entry> entries = new ArrayList<>();
+        labels.forEach((id, label) -> {
+            String key = normalize(label);
+            int start = 0;
+            while (start >= 0) {
+                entries.add(new Entry(key.substring(start), id));
+                int space = key.indexOf(' ', start);
+                start = space < 0 ? -1 : space + 1;
+            }
+        });
+        entries.sort(Comparator.comparing(Entry::key).thenComparing(entry -> labels.get(entry.id())));
+        this.keys = new String[entries.size()];
+        this.ids = new long[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            keys[i] = entries.get(i).key();
+            ids[i] = entries.get(i).id();
+        }
+    }
+
+    public static PrefixIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build an index from the given labels, keyed by id.
+     *
+     * @param labels the labels to index.
+     * @return the new index.
+     */
+    public static PrefixIndex of(Map<Long, String> labels) {
+        Map<Long, String> copy = new HashMap<>();
+        labels.forEach((id, label) -> {
+            String cleaned = clean(label);
+            if (id != null && !cleaned.isEmpty()) {
+                copy.put(id, cleaned);
+            }
+        });
+        return copy.isEmpty() ? EMPTY : new PrefixIndex(Map.copyOf(copy));
+    }
+
+    /**
+     * @return a copy of this index where {@code id} is labelled {@code label}.
+     */
+    public PrefixIndex with(Long id, String label) {
+        Map<Long, String> copy = new HashMap<>(labels);
+        copy.put(id, label);
+        return of(copy);
+    }
+
+    /**
+     * @return a copy of this index without {@code id}.
+     */
+    public PrefixIndex without(Long id) {
+        if (!labels.containsKey(id)) {
+            return this;
+        }
+        Map<Long, String> copy = new HashMap<>(labels);
+        copy.remove(id);
+        return of(copy);
+    }
+
+    public int size() {
+        return labels.size();
+    }
+
+    public String labelOf(Long id) {
+        return labels.get(id);
+    }
+
+    /**
+     * Find the ids whose label has a word starting with {@code prefix}, in alphabetical order of the matched word.
+     *
+     * @param prefix the prefix typed by the user.
+     * @param limit the maximum number of ids to return.
+     * @return the matching ids, without duplicates.
+     */
+    public List<Long> search(String prefix, int limit) {
+        String key = normalize(prefix);
+        Set<Long> result = new LinkedHashSet<>();
+        for (int i = lowerBound(key); i < keys.length && result.size() < limit && keys[i].startsWith(key); i++) {
+            result.add(ids[i]);
+        }
+        return new ArrayList<>(result);
+    }
+
+    private int lowerBound(String key) {
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0) {
+            return -index - 1;
+        }
+        // Walk back to the first of several identical keys
+        while (index > 0 && keys[index - 1].equals(key)) {
+            index--;
+        }
+        return index;
+    }
+
+    static String clean(String label) {
+        return label == null ? "" : SPACES.matcher(label).replaceAll(" ").trim();
+    }
+
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(clean(text), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(String key, Long id) {}
+}
@@ -0,0 +1,604 @@
+package tn.isimm.manager.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.isimm.manager.config.ApplicationProperties;
+import tn.isimm.manager.domain.enumeration.Departement;
+import tn.isimm.manager.domain.enumeration.Jours;
+import tn.isimm.manager.domain.enumeration.Salle;
+import tn.isimm.manager.domain.enumeration.TypeFichierAdmin;
+import tn.isimm.manager.repository.BulkInsertRepository;
+import tn.isimm.manager.repository.EntityVersionRepository;
+
+/**
+ * Service writing a synthetic university, for performance tests.
+ * <p>
+ * Every table gets a fixed id range after {@link ApplicationProperties.DataGenerator#getFirstId()}, and is written in
+ * chunks of {@code batchSize} rows, each in its own transaction, by a pool of threads. The random generator of a chunk
+ * is seeded from the seed, the table and the chunk index only, so the same settings always produce the same rows.
+ */
+@Service
+public class SyntheticDataGenerator {
+
+    private static final String[] PRENOMS = {
+        "Ahmed",
+        "Amine",
+        "Aya",
+        "Cyrine",
+        "Eya",
+        "Fatma",
+        "Hamza",
+        "Houssem",
+        "Ines",
+        "Khalil",
+        "Mariem",
+        "Mohamed",
+        "Nour",
+        "Oumayma",
+        "Rania",
+        "Sami",
+        "Sarra",
+        "Skander",
+        "Wael",
+        "Yassine",
+        "Youssef",
+        "Zied",
+    };
+
+    private static final String[] NOMS = {
+        "Ayari",
+        "Ben Ali",
+        "Ben Salah",
+        "Bouazizi",
+        "Chaabane",
+        "Dridi",
+        "Elkamel",
+        "Gharbi",
+        "Hammami",
+        "Jaziri",
+        "Khelifi",
+        "Mansouri",
+        "Mejri",
+        "Nasri",
+        "Rekik",
+        "Saidi",
+        "Sassi",
+        "Toumi",
+        "Trabelsi",
+        "Zouari",
+    };
+
+    private static final String[] MATIERES = {
+        "Algorithmique",
+        "Analyse",
+        "Algebre",
+        "Architecture des ordinateurs",
+        "Bases de donnees",
+        "Compilation",
+        "Electronique",
+        "Genie logiciel",
+        "Intelligence artificielle",
+        "Mecanique",
+        "Probabilites",
+        "Programmation Java",
+        "Reseaux",
+        "Systemes d'exploitation",
+        "Theorie des graphes",
+    };
+
+    private static final String[] CLASSES = { "LI", "LF", "LM", "LP", "MP", "MR", "ING" };
+
+    private static final String[] TITRES = { "Assistant", "Maitre assistant", "Maitre de conferences", "Professeur" };
+
+    private static final String[] CLUBS = { "Robotique", "Informatique", "Theatre", "Musique", "Echecs", "Photo", "Sport", "Entrepreneuriat" };
+
+    private static final String[] WORDS = {
+        "cours",
+        "chapitre",
+        "exercice",
+        "definition",
+        "theoreme",
+        "exemple",
+        "corrige",
+        "examen",
+        "la",
+        "le",
+        "de",
+        "des",
+        "et",
+        "une",
+        "fonction",
+        "donnee",
+        "reseau",
+        "matrice",
+        "graphe",
+        "systeme",
+    };
+
+    private static final String DOCUMENT_CONTENT_TYPE = "application/pdf";
+
+    private final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private final BulkInsertRepository bulkInsertRepository;
+
+    private final EntityVersionRepository entityVersionRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public SyntheticDataGenerator(
+        BulkInsertRepository bulkInsertRepository,
+        EntityVersionRepository entityVersionRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.bulkInsertRepository = bulkInsertRepository;
+        this.entityVersionRepository = entityVersionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Write the dataset described by {@code settings}.
+     *
+     * @param settings the seed and sizes of the dataset.
+     * @return the number of rows written, or 0 if the id range of the dataset is already in use.
+     */
+    public long generate(ApplicationProperties.DataGenerator settings) {
+        Layout layout = new Layout(settings);
+        if (bulkInsertRepository.existsIdBetween("semestre", layout.semestre, layout.end)) {
+            log.warn("Ids {} to {} are already in use, drop the previous dataset or change the first id", layout.semestre, layout.end);
+            return 0;
+        }
+        log.info("Generating a synthetic dataset with seed {} in ids {} to {}", settings.getSeed(), layout.semestre, layout.end);
+        Instant start = Instant.now();
+        AtomicLong rows = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, settings.getThreads()));
+        try {
+            Generation generation = new Generation(settings, layout, executor, rows);
+            generation.semestres();
+            generation.notes();
+            generation.niveaus();
+            generation.matieres();
+            generation.seances();
+            generation.clubs();
+            generation.professeurs();
+            generation.etudiants();
+            generation.cours();
+            generation.fichierAdmins();
+            generation.actulaites();
+        } finally {
+            executor.shutdownNow();
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            bulkInsertRepository.restartSequenceAfter(layout.end - 1);
+            entityVersionRepository.incrementVersions(
+                List.of(
+                    "Actulaite",
+                    "Club",
+                    "Cours",
+                    "Etudiant",
+                    "FichierAdmin",
+                    "Matiere",
+                    "Niveau",
+                    "Note",
+                    "Professeur",
+                    "Seance",
+                    "Semestre"
+                )
+            );
+        });
+        log.info("Generated {} rows in {}", rows.get(), Duration.between(start, Instant.now()));
+        return rows.get();
+    }
+
+    /**
+     * First id of each table: ranges are contiguous and only depend on the sizes of the dataset.
+     */
+    static final class Layout {
+
+        final long semestre;
+        final long note;
+        final long niveau;
+        final long matiere;
+        final long seance;
+        final long club;
+        final long professeur;
+        final long etudiant;
+        final long cours;
+        final long fichierAdmin;
+        final long actulaite;
+        final long end;
+
+        Layout(ApplicationProperties.DataGenerator settings) {
+            semestre = settings.getFirstId();
+            note = semestre + settings.getNiveaus() + settings.getMatieres();
+            niveau = note + settings.getMatieres();
+            matiere = niveau + settings.getNiveaus();
+            seance = matiere + settings.getMatieres();
+            club = seance + settings.getMatieres();
+            professeur = club + settings.getClubs();
+            etudiant = professeur + settings.getProfesseurs();
+            cours = etudiant + settings.getEtudiants();
+            fichierAdmin = cours + settings.getCours();
+            actulaite = fichierAdmin + settings.getFichierAdmins();
+            end = actulaite + settings.getActulaites();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        /**
+         * Write the rows {@code from} (inclusive) to {@code to} (exclusive) of a table.
+         *
+         * @return the number of rows written, join table rows included.
+         */
+        int write(int from, int to, SplittableRandom random);
+    }
+
+    private final class Generation {
+
+        private final ApplicationProperties.DataGenerator settings;
+        private final Layout layout;
+        private final ExecutorService executor;
+        private final AtomicLong rows;
+
+        Generation(ApplicationProperties.DataGenerator settings, Layout layout, ExecutorService executor, AtomicLong rows) {
+            this.settings = settings;
+            this.layout = layout;
+            this.executor = executor;
+            this.rows = rows;
+        }
+
+        void semestres() {
+            // One per Niveau, then one per Matiere: both sides of the relationship are unique
+            generate(
+                "semestre",
+                settings.getNiveaus() + settings.getMatieres(),
+                (from, to, random) -> {
+                    List<Object[]> semestres = new ArrayList<>(to - from);
+                    for (int i = from; i < to; i++) {
+                        int year = 2019 + random.nextInt(6);
+                        semestres.add(new Object[] { layout.semestre + i, year + "-" + (year + 1), 1 + random.nextInt(2) });
+                    }
+                    bulkInsertRepository.insert("semestre", List.of("id", "annee_scolaire", "s"), semestres);
+                    return semestres.size();
+                }
+            );
+        }
+
+        void notes() {
+            generate(
+                "note",
+                settings.getMatieres(),
+                (from, to, random) -> {
+                    List<Object[]> notes = new ArrayList<>(to - from);
+                    for (int i = from; i < to; i++) {
+                        notes.add(new Object[] { layout.note + i, random.nextInt(21) });
+                    }
+                    bulkInsertRepository.insert("note", List.of("id", "note"), notes);
+                    return notes.size();
+                }
+            );
+        }
+
+        void niveaus() {
+            generate(
+                "niveau",
+                settings.getNiveaus(),
+                (from, to, random) -> {
+                    List<Object[]> niveaus = new ArrayList<>(to - from);
+                    for (int i = from; i < to; i++) {
+                        niveaus.add(
+                            new Object[] {
+                                layout.niveau + i,
+                                pick(random, CLASSES) + (1 + random.nextInt(3)),
+                                "TP" + (1 + random.nextInt(8)),
+                                "TD" + (1 + random.nextInt(4)),
+                                layout.semestre + i,
+                            }
+                        );
+                    }
+                    bulkInsertRepository.insert("niveau", List.of("id", "classe", "tp", "td", "semestre_id"), niveaus);
+                    return niveaus.size();
+                }
+            );
+        }
+
+        void matieres() {
+            generate(
+                "matiere",
+                settings.getMatieres(),
+                (from, to, random) -> {
+                    List<Object[]> matieres = new ArrayList<>(to - from);
+                    for (int i = from; i < to; i++) {
+                        matieres.add(
+                            new Object[] {
+                                layout.matiere + i,
+                                pick(random, MATIERES) + " " + (1 + random.nextInt(4)),
+                                layout.semestre + settings.getNiveaus() + i,
+                                layout.note + i,
+                            }
+                        );
+                    }
+                    bulkInsertRepository.insert("matiere", List.of("id", "nom_matiere", "semestre_id", "note_id"), matieres);
+                    return matieres.size();
+                }
+            );
+        }
+
+        void seances() {
+            generate(
+                "seance",
+                settings.getMatieres(),
+                (from, to, random) -> {
+                    List<Object[]> seances = new ArrayList<>(to - from);
+                    for (int i = from; i < to; i++) {
+                        seances.add(
+                            new Object[] {
+                                layout.seance + i,
+                                pick(random, Jours.values()).name(),
+                                1 + random.nextInt(5),
+                                pick(random, Salle.values()).name(),
+                                layout.matiere + i,
+                                randomId(random, layout.niveau, settings.getNiveaus()),
+                            }
+                        );
+                    }
+                    bulkInsertRepository.insert("seance", List.of("id", "jour", "num_seance", "salle", "matiere_id", "niveau_id"), seances);
+                    return seances.size();
+                }
+            );
+        }
+
+        void clubs() {
+            generate(
+                "club",
+                settings.getClubs(),
+                (from, to, random) -> {
+                    List<Object[]> clubs = new ArrayList<>(to - from);
+                    for (int i = from; i < to; i++) {
+                        String slug = "club" + i;
+                        clubs.add(
+                            new Object[] {
+                                layout.club + i,
+                                "Club " + pick(random, CLUBS) + " " + (i + 1),
+                                "https://www.facebook.com/" + slug,
+                                "https://www.instagram.com/" + slug,
+                                slug + "@isimm.tn",
+                            }
+                        );
+                    }
+                    bulkInsertRepository.insert("club", List.of("id", "nom", "page_fb", "page_ig", "email"), clubs);
+                    return clubs.size();
+                }
+            );
+        }
+
+        void professeurs() {
+            generate(
+                "professeur",
+                settings.getProfesseurs(),
+                (from, to, random) -> {
+                    List<Object[]> professeurs = new ArrayList<>(to - from);
+                    List<Object[]> matieres = new ArrayList<>();
+                    for (int i = from; i < to; i++) {
+                        long id = layout.professeur + i;
+                        String prenom = pick(random, PRENOMS);
+                        String nom = pick(random, NOMS);
+                        professeurs.add(
+                            new Object[] {
+                                id,
+                                prenom,
+                                nom,
+                                email(prenom, nom, "p" + i),
+                                String.format("P%06d", i),
+                                pick(random, Departement.values()).name(),
+                                pick(random, TITRES),
+                                phone(random),
+                                birthDate(random, 1960, 1990),
+                            }
+                        );
+                        for (long matiereId : distinctIds(random, layout.matiere, settings.getMatieres(), 1, settings.getMaxMatieresPerProfesseur())) {
+                            matieres.add(new Object[] { id, matiereId });
+                        }
+                    }
+                    bulkInsertRepository.insert(
+                        "professeur",
+                        List.of("id", "prenom", "nom", "email", "matricule", "departement", "titre", "num_tel", "date_de_naissance"),
+                        professeurs
+                    );
+                    bulkInsertRepository.insert("rel_professeur__matiere", List.of("professeur_id", "matiere_id"), matieres);
+                    return professeurs.size() + matieres.size();
+                }
+            );
+        }
+
+        void etudiants() {
+            generate(
+                "etudiant",
+                settings.getEtudiants(),
+                (from, to, random) -> {
+                    List<Object[]> etudiants = new ArrayList<>(to - from);
+                    List<Object[]> clubs = new ArrayList<>();
+                    for (int i = from; i < to; i++) {
+                        long id = layout.etudiant + i;
+                        String prenom = pick(random, PRENOMS);
+                        String nom = pick(random, NOMS);
+                        etudiants.add(
+                            new Object[] {
+                                id,
+                                prenom,
+                                nom,
+                                email(prenom, nom, "e" + i),
+                                20_000_000L + i,
+                                phone(random),
+                                birthDate(random, 1998, 2006),
+                                randomId(random, layout.niveau, settings.getNiveaus()),
+                            }
+                        );
+                        for (long clubId : distinctIds(random, layout.club, settings.getClubs(), 0, settings.getMaxClubsPerEtudiant())) {
+                            clubs.add(new Object[] { id, clubId });
+                        }
+                    }
+                    bulkInsertRepository.insert(
+                        "etudiant",
+                        List.of("id", "prenom", "nom", "email", "num_etudiant", "num_tel", "date_de_naissance", "niveau_id"),
+                        etudiants
+                    );
+                    bulkInsertRepository.insert("rel_etudiant__club", List.of("etudiant_id", "club_id"), clubs);
+                    return etudiants.size() + clubs.size();
+                }
+            );
+        }
+
+        void cours() {
+            generate(
+                "cours",
+                settings.getCours(),
+                (from, to, random) -> {
+                    List<Object[]> cours = new ArrayList<>(to - from);
+                    for (int i = from; i < to; i++) {
+                        cours.add(
+                            new Object[] {
+                                layout.cours + i,
+                                "Chapitre " + (1 + random.nextInt(12)) + " - " + pick(random, MATIERES),
+                                document(random),
+                                DOCUMENT_CONTENT_TYPE,
+                                randomId(random, layout.matiere, settings.getMatieres()),
+                            }
+                        );
+                    }
+                    bulkInsertRepository.insert("cours", List.of("id", "titre", "file", "file_content_type", "matiere_id"), cours);
+                    return cours.size();
+                }
+            );
+        }
+
+        void fichierAdmins() {
+            generate(
+                "fichier_admin",
+                settings.getFichierAdmins(),
+                (from, to, random) -> {
+                    List<Object[]> fichierAdmins = new ArrayList<>(to - from);
+                    for (int i = from; i < to; i++) {
+                        TypeFichierAdmin type = pick(random, TypeFichierAdmin.values());
+                        fichierAdmins.add(
+                            new Object[] {
+                                layout.fichierAdmin + i,
+                                "Attestation de " + type.name().toLowerCase(),
+                                type.name(),
+                                document(random),
+                                DOCUMENT_CONTENT_TYPE,
+                                random.nextInt(4) != 0,
+                                randomId(random, layout.etudiant, settings.getEtudiants()),
+                            }
+                        );
+                    }
+                    bulkInsertRepository.insert(
+                        "fichier_admin",
+                        List.of("id", "titre", "type", "file", "file_content_type", "demande_valide", "etudiant_id"),
+                        fichierAdmins
+                    );
+                    return fichierAdmins.size();
+                }
+            );
+        }
+
+        void actulaites() {
+            LocalDate reference = LocalDate.of(2026, 1, 1);
+            generate(
+                "actulaite",
+                settings.getActulaites(),
+                (from, to, random) -> {
+                    List<Object[]> actulaites = new ArrayList<>(to - from);
+                    for (int i = from; i < to; i++) {
+                        actulaites.add(new Object[] { layout.actulaite + i, reference.minusDays(random.nextInt(730)), sentence(random, 200) });
+                    }
+                    bulkInsertRepository.insert("actulaite", List.of("id", "date", "data"), actulaites);
+                    return actulaites.size();
+                }
+            );
+        }
+
+        private void generate(String table, int count, ChunkWriter writer) {
+            int batchSize = Math.max(1, settings.getBatchSize());
+            long tableSeed = new SplittableRandom(settings.getSeed() ^ table.hashCode()).nextLong();
+            List<Callable<Integer>> chunks = new ArrayList<>();
+            for (int from = 0; from < count; from += batchSize) {
+                int chunkFrom = from;
+                int chunkTo = Math.min(count, from + batchSize);
+                SplittableRandom random = new SplittableRandom(tableSeed + chunkFrom);
+                chunks.add(() -> transactionTemplate.execute(status -> writer.write(chunkFrom, chunkTo, random)));
+            }
+            try {
+                for (Future<Integer> chunk : executor.invokeAll(chunks)) {
+                    rows.addAndGet(chunk.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while generating " + table, e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Could not generate " + table, e.getCause());
+            }
+            log.debug("Generated {} rows of {}", count, table);
+        }
+
+        private byte[] document(SplittableRandom random) {
+            int size = settings.getBlobSize() / 2 + random.nextInt(Math.max(1, settings.getBlobSize()));
+            return ("%PDF-1.4\n" + sentence(random, size)).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static <T> T pick(SplittableRandom random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static long randomId(SplittableRandom random, long firstId, int count) {
+        return firstId + random.nextInt(count);
+    }
+
+    private static TreeSet<Long> distinctIds(SplittableRandom random, long firstId, int count, int min, int max) {
+        int size = Math.min(count, min + random.nextInt(Math.max(1, max - min + 1)));
+        TreeSet<Long> ids = new TreeSet<>();
+        while (ids.size() < size) {
+            ids.add(randomId(random, firstId, count));
+        }
+        return ids;
+    }
+
+    private static String email(String prenom, String nom, String suffix) {
+        return (prenom + "." + nom).toLowerCase().replace(' ', '-') + "." + suffix + "@isimm.tn";
+    }
+
+    private static String phone(SplittableRandom random) {
+        return String.format("+216 %08d", 20_000_000 + random.nextInt(80_000_000));
+    }
+
+    private static LocalDate birthDate(SplittableRandom random, int fromYear, int toYear) {
+        return LocalDate.of(fromYear, 1, 1).plusDays(random.nextInt((toYear - fromYear) * 365));
+    }
+
+    private static String sentence(SplittableRandom random, int length) {
+        StringBuilder sentence = new StringBuilder(length + 16);
+        while (sentence.length() < length) {
+            sentence.append(pick(random, WORDS)).append(' ');
+        }
+        sentence.setLength(length);
+        return sentence.toString();
+    }
+}
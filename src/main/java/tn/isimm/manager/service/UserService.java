@@ -275,7 +275,7 @@ public class UserService {
 
     @Transactional(readOnly = true)
     public Page<AdminUserDTO> getAllManagedUsers(Pageable pageable) {
-        return userRepository.findAll(pageable).map(AdminUserDTO::new);
+        return userRepository.findAllWithAuthorities(pageable).map(AdminUserDTO::new);
     }
 
     @Transactional(readOnly = true)
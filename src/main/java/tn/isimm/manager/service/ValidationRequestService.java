@@ -0,0 +1,231 @@
+package tn.isimm.manager.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.isimm.manager.config.ApplicationProperties;
+import tn.isimm.manager.domain.FichierAdmin;
+import tn.isimm.manager.repository.EntityChangedEvent;
+import tn.isimm.manager.repository.EntityVersionRepository;
+import tn.isimm.manager.repository.ValidationRequestRepository;
+import tn.isimm.manager.security.SecurityUtils;
+import tn.isimm.manager.service.dto.ValidationRequestChangeDTO;
+import tn.isimm.manager.service.dto.ValidationRequestDTO;
+
+/**
+ * Service managing the queue of the validation requests of the {@link FichierAdmin}.
+ * <p>
+ * Reviewers claim the oldest pending requests with {@code SELECT ... FOR UPDATE SKIP LOCKED}, so that concurrent claims
+ * never wait for each other nor return the same request. A claim expires after a lease, the request then returning to
+ * the queue. Approvals and rejections are applied to any number of requests in one transaction, setting the
+ * {@code demandeValide} of their fichier admins. Every change of status is published as a
+ * {@link ValidationRequestChangeDTO} once committed.
+ * <p>
+ * The fichier admins created or validated through their own resource are queued or approved once committed.
+ */
+@Service
+public class ValidationRequestService {
+
+    private final Logger log = LoggerFactory.getLogger(ValidationRequestService.class);
+
+    private final ValidationRequestRepository validationRequestRepository;
+
+    private final EntityVersionRepository entityVersionRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final TransactionTemplate syncTransactionTemplate;
+
+    private final ApplicationProperties.ValidationRequests properties;
+
+    private final boolean migrateOnly;
+
+    public ValidationRequestService(
+        ValidationRequestRepository validationRequestRepository,
+        EntityVersionRepository entityVersionRepository,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationEventPublisher applicationEventPublisher,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.validationRequestRepository = validationRequestRepository;
+        this.entityVersionRepository = entityVersionRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.syncTransactionTemplate = new TransactionTemplate(transactionManager);
+        // Listeners run once the change is committed, while its resources may still be bound
+        this.syncTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = applicationProperties.getValidationRequests();
+        this.migrateOnly = applicationProperties.getDatabaseMigration().isMigrateOnly();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // Started with --migrate, the application exits once ready
+        if (migrateOnly) {
+            return;
+        }
+        Integer queued = syncTransactionTemplate.execute(status -> validationRequestRepository.insertMissing(Instant.now()));
+        if (queued != null && queued > 0) {
+            log.info("Queued the validation requests of {} fichier admins", queued);
+        }
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (
+            event.isAbout(FichierAdmin.class) &&
+            event.getChangeType() != EntityChangedEvent.ChangeType.DELETED &&
+            event.getId() instanceof Long id
+        ) {
+            try {
+                syncTransactionTemplate.executeWithoutResult(status -> validationRequestRepository.sync(id, Instant.now()));
+            } catch (RuntimeException e) {
+                // Queued by the next startup
+                log.warn("Could not queue the validation request of fichier admin {}: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Get the requests with a status, the oldest first.
+     *
+     * @param status the status of the requests.
+     * @param pageable the pagination information.
+     * @return the page of requests.
+     */
+    @Transactional(readOnly = true)
+    public Page<ValidationRequestDTO> findByStatus(String status, Pageable pageable) {
+        List<ValidationRequestDTO> requests = validationRequestRepository
+            .findByStatus(status, pageable.getOffset(), pageable.getPageSize())
+            .stream()
+            .map(ValidationRequestService::toDto)
+            .toList();
+        return new PageImpl<>(requests, pageable, validationRequestRepository.countByStatus(status));
+    }
+
+    /**
+     * Claim the oldest pending requests for the current user, after returning the expired claims to the queue.
+     *
+     * @param size the maximum number of requests claimed, at most {@code application.validation-requests.max-claimed}.
+     * @return the claimed requests, the oldest first.
+     */
+    @Transactional
+    public List<ValidationRequestDTO> claim(int size) {
+        String reviewer = currentReviewer();
+        Instant now = Instant.now();
+        List<Long> expired = validationRequestRepository.releaseExpired(now);
+        List<Long> claimed = validationRequestRepository.lockPending(Math.min(size, properties.getMaxClaimed()));
+        validationRequestRepository.claim(claimed, reviewer, now.plus(properties.getClaimLease()));
+        publishChange(expired, ValidationRequestRepository.PENDING, null);
+        publishChange(claimed, ValidationRequestRepository.CLAIMED, reviewer);
+        log.debug("Claimed {} validation requests for {}", claimed.size(), reviewer);
+        return findByIds(claimed);
+    }
+
+    /**
+     * Approve or reject requests for the current user, in one transaction. The requests claimed by another reviewer, or
+     * already reviewed, are left unchanged.
+     *
+     * @param fichierAdminIds the ids of the requests.
+     * @param approved {@code true} to approve the requests, {@code false} to reject them.
+     * @return the reviewed requests.
+     */
+    @Transactional
+    public List<ValidationRequestDTO> review(Collection<Long> fichierAdminIds, boolean approved) {
+        String reviewer = currentReviewer();
+        Instant now = Instant.now();
+        List<Long> reviewed = validationRequestRepository.lockReviewable(fichierAdminIds, reviewer, now);
+        if (reviewed.isEmpty()) {
+            return List.of();
+        }
+        validationRequestRepository.review(reviewed, approved, reviewer, now);
+        entityVersionRepository.incrementVersions(List.of(FichierAdmin.class.getSimpleName()));
+        afterCommit(() -> {
+            reviewed.forEach(id -> entityManagerFactory.getCache().evict(FichierAdmin.class, id));
+            reviewed.forEach(id ->
+                applicationEventPublisher.publishEvent(
+                    new EntityChangedEvent(FichierAdmin.class, id, null, EntityChangedEvent.ChangeType.UPDATED)
+                )
+            );
+        });
+        publishChange(reviewed, approved ? ValidationRequestRepository.APPROVED : ValidationRequestRepository.REJECTED, reviewer);
+        log.debug("{} {} validation requests for {}", approved ? "Approved" : "Rejected", reviewed.size(), reviewer);
+        return findByIds(reviewed);
+    }
+
+    /**
+     * Return requests claimed by the current user to the queue.
+     *
+     * @param fichierAdminIds the ids of the requests.
+     * @return the requests returned.
+     */
+    @Transactional
+    public List<ValidationRequestDTO> release(Collection<Long> fichierAdminIds) {
+        String reviewer = currentReviewer();
+        List<Long> released = validationRequestRepository.lockClaimedBy(fichierAdminIds, reviewer);
+        validationRequestRepository.release(released);
+        publishChange(released, ValidationRequestRepository.PENDING, null);
+        return findByIds(released);
+    }
+
+    private List<ValidationRequestDTO> findByIds(List<Long> fichierAdminIds) {
+        return validationRequestRepository.findByIds(fichierAdminIds).stream().map(ValidationRequestService::toDto).toList();
+    }
+
+    private void publishChange(List<Long> fichierAdminIds, String status, String reviewer) {
+        if (!fichierAdminIds.isEmpty()) {
+            ValidationRequestChangeDTO change = new ValidationRequestChangeDTO(List.copyOf(fichierAdminIds), status, reviewer);
+            afterCommit(() -> applicationEventPublisher.publishEvent(change));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            }
+        );
+    }
+
+    private static String currentReviewer() {
+        return SecurityUtils.getCurrentUserLogin().orElseThrow(() -> new IllegalStateException("No current user"));
+    }
+
+    private static ValidationRequestDTO toDto(ValidationRequestRepository.ValidationRequest request) {
+        return new ValidationRequestDTO(
+            request.fichierAdminId(),
+            request.titre(),
+            request.type(),
+            request.fileContentType(),
+            request.etudiantId(),
+            request.status(),
+            request.requestedAt(),
+            request.claimedBy(),
+            request.claimedUntil(),
+            request.reviewedBy(),
+            request.reviewedAt()
+        );
+    }
+}
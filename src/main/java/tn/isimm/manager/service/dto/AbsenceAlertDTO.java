@@ -0,0 +1,109 @@
+package tn.isimm.manager.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing an etudiant whose absence rate at a seance reached the alert threshold.
+ */
+public class AbsenceAlertDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long etudiantId;
+
+    private Long seanceId;
+
+    private Long matiereId;
+
+    private Long niveauId;
+
+    private int sessions;
+
+    private int absences;
+
+    private double rate;
+
+    public AbsenceAlertDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public AbsenceAlertDTO(Long etudiantId, Long seanceId, Long matiereId, Long niveauId, int sessions, int absences, double rate) {
+        this.etudiantId = etudiantId;
+        this.seanceId = seanceId;
+        this.matiereId = matiereId;
+        this.niveauId = niveauId;
+        this.sessions = sessions;
+        this.absences = absences;
+        this.rate = rate;
+    }
+
+    public Long getEtudiantId() {
+        return etudiantId;
+    }
+
+    public void setEtudiantId(Long etudiantId) {
+        this.etudiantId = etudiantId;
+    }
+
+    public Long getSeanceId() {
+        return seanceId;
+    }
+
+    public void setSeanceId(Long seanceId) {
+        this.seanceId = seanceId;
+    }
+
+    public Long getMatiereId() {
+        return matiereId;
+    }
+
+    public void setMatiereId(Long matiereId) {
+        this.matiereId = matiereId;
+    }
+
+    public Long getNiveauId() {
+        return niveauId;
+    }
+
+    public void setNiveauId(Long niveauId) {
+        this.niveauId = niveauId;
+    }
+
+    public int getSessions() {
+        return sessions;
+    }
+
+    public void setSessions(int sessions) {
+        this.sessions = sessions;
+    }
+
+    public int getAbsences() {
+        return absences;
+    }
+
+    public void setAbsences(int absences) {
+        this.absences = absences;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AbsenceAlertDTO{" +
+            "etudiantId=" + getEtudiantId() +
+            ", seanceId=" + getSeanceId() +
+            ", matiereId=" + getMatiereId() +
+            ", niveauId=" + getNiveauId() +
+            ", sessions=" + getSessions() +
+            ", absences=" + getAbsences() +
+            ", rate=" + getRate() +
+            "}";
+    }
+}
@@ -0,0 +1,86 @@
+package tn.isimm.manager.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing the absences of an etudiant, or of the etudiants of a matiere or a niveau, over the attendance
+ * sheets ingested.
+ */
+public class AbsenceRateDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String scope;
+
+    private Long id;
+
+    private long sessions;
+
+    private long absences;
+
+    private double rate;
+
+    public AbsenceRateDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public AbsenceRateDTO(String scope, Long id, long sessions, long absences, double rate) {
+        this.scope = scope;
+        this.id = id;
+        this.sessions = sessions;
+        this.absences = absences;
+        this.rate = rate;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public void setScope(String scope) {
+        this.scope = scope;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public long getSessions() {
+        return sessions;
+    }
+
+    public void setSessions(long sessions) {
+        this.sessions = sessions;
+    }
+
+    public long getAbsences() {
+        return absences;
+    }
+
+    public void setAbsences(long absences) {
+        this.absences = absences;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AbsenceRateDTO{" +
+            "scope='" + getScope() + "'" +
+            ", id=" + getId() +
+            ", sessions=" + getSessions() +
+            ", absences=" + getAbsences() +
+            ", rate=" + getRate() +
+            "}";
+    }
+}
@@ -0,0 +1,118 @@
+package tn.isimm.manager.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A DTO representing the outcome of the ingestion of a {@code Presence} sheet.
+ */
+public class AttendanceSheetDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long fichierAdminId;
+
+    private Long sourceVersion;
+
+    private String status;
+
+    private int ingestedRows;
+
+    private int rejectedRows;
+
+    private String firstError;
+
+    private Instant ingestedAt;
+
+    public AttendanceSheetDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public AttendanceSheetDTO(
+        Long fichierAdminId,
+        Long sourceVersion,
+        String status,
+        int ingestedRows,
+        int rejectedRows,
+        String firstError,
+        Instant ingestedAt
+    ) {
+        this.fichierAdminId = fichierAdminId;
+        this.sourceVersion = sourceVersion;
+        this.status = status;
+        this.ingestedRows = ingestedRows;
+        this.rejectedRows = rejectedRows;
+        this.firstError = firstError;
+        this.ingestedAt = ingestedAt;
+    }
+
+    public Long getFichierAdminId() {
+        return fichierAdminId;
+    }
+
+    public void setFichierAdminId(Long fichierAdminId) {
+        this.fichierAdminId = fichierAdminId;
+    }
+
+    public Long getSourceVersion() {
+        return sourceVersion;
+    }
+
+    public void setSourceVersion(Long sourceVersion) {
+        this.sourceVersion = sourceVersion;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getIngestedRows() {
+        return ingestedRows;
+    }
+
+    public void setIngestedRows(int ingestedRows) {
+        this.ingestedRows = ingestedRows;
+    }
+
+    public int getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public void setRejectedRows(int rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    public String getFirstError() {
+        return firstError;
+    }
+
+    public void setFirstError(String firstError) {
+        this.firstError = firstError;
+    }
+
+    public Instant getIngestedAt() {
+        return ingestedAt;
+    }
+
+    public void setIngestedAt(Instant ingestedAt) {
+        this.ingestedAt = ingestedAt;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AttendanceSheetDTO{" +
+            "fichierAdminId=" + getFichierAdminId() +
+            ", sourceVersion=" + getSourceVersion() +
+            ", status='" + getStatus() + "'" +
+            ", ingestedRows=" + getIngestedRows() +
+            ", rejectedRows=" + getRejectedRows() +
+            ", firstError='" + getFirstError() + "'" +
+            ", ingestedAt=" + getIngestedAt() +
+            "}";
+    }
+}
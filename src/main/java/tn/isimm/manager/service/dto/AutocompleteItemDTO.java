@@ -0,0 +1,49 @@
+package tn.isimm.manager.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing one suggestion of an entity picker: the id of the entity and its display label.
+ */
+public class AutocompleteItemDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String label;
+
+    public AutocompleteItemDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public AutocompleteItemDTO(Long id, String label) {
+        this.id = id;
+        this.label = label;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AutocompleteItemDTO{" +
+            "id=" + id +
+            ", label='" + label + "'" +
+            "}";
+    }
+}
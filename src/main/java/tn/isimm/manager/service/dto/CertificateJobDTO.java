@@ -0,0 +1,170 @@
+package tn.isimm.manager.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A DTO representing the progress of the generation of the success certificates of a niveau.
+ */
+public class CertificateJobDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private Long niveauId;
+
+    private String status;
+
+    private long total;
+
+    private long rendered;
+
+    private long stored;
+
+    private long failed;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private double certificatesPerSecond;
+
+    private String error;
+
+    public CertificateJobDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public CertificateJobDTO(
+        Long id,
+        Long niveauId,
+        String status,
+        long total,
+        long rendered,
+        long stored,
+        long failed,
+        Instant startedAt,
+        Instant finishedAt,
+        double certificatesPerSecond,
+        String error
+    ) {
+        this.id = id;
+        this.niveauId = niveauId;
+        this.status = status;
+        this.total = total;
+        this.rendered = rendered;
+        this.stored = stored;
+        this.failed = failed;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.certificatesPerSecond = certificatesPerSecond;
+        this.error = error;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getNiveauId() {
+        return niveauId;
+    }
+
+    public void setNiveauId(Long niveauId) {
+        this.niveauId = niveauId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getRendered() {
+        return rendered;
+    }
+
+    public void setRendered(long rendered) {
+        this.rendered = rendered;
+    }
+
+    public long getStored() {
+        return stored;
+    }
+
+    public void setStored(long stored) {
+        this.stored = stored;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public double getCertificatesPerSecond() {
+        return certificatesPerSecond;
+    }
+
+    public void setCertificatesPerSecond(double certificatesPerSecond) {
+        this.certificatesPerSecond = certificatesPerSecond;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CertificateJobDTO{" +
+            "id=" + getId() +
+            ", niveauId=" + getNiveauId() +
+            ", status='" + getStatus() + "'" +
+            ", total=" + getTotal() +
+            ", rendered=" + getRendered() +
+            ", stored=" + getStored() +
+            ", failed=" + getFailed() +
+            ", startedAt=" + getStartedAt() +
+            ", finishedAt=" + getFinishedAt() +
+            ", certificatesPerSecond=" + getCertificatesPerSecond() +
+            ", error='" + getError() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,87 @@
+package tn.isimm.manager.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A DTO representing a cours matching a full-text search, with the passages of its file where the words were found.
+ * <p>
+ * The snippets are HTML: their text is escaped, and the words found are wrapped in {@code <mark>} elements.
+ */
+public class CoursSearchResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String titre;
+
+    private Long matiereId;
+
+    private double score;
+
+    private List<String> snippets;
+
+    public CoursSearchResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public CoursSearchResultDTO(Long id, String titre, Long matiereId, double score, List<String> snippets) {
+        this.id = id;
+        this.titre = titre;
+        this.matiereId = matiereId;
+        this.score = score;
+        this.snippets = snippets;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitre() {
+        return titre;
+    }
+
+    public void setTitre(String titre) {
+        this.titre = titre;
+    }
+
+    public Long getMatiereId() {
+        return matiereId;
+    }
+
+    public void setMatiereId(Long matiereId) {
+        this.matiereId = matiereId;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public List<String> getSnippets() {
+        return snippets;
+    }
+
+    public void setSnippets(List<String> snippets) {
+        this.snippets = snippets;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CoursSearchResultDTO{" +
+            "id=" + getId() +
+            ", titre='" + getTitre() + "'" +
+            ", matiereId=" + getMatiereId() +
+            ", score=" + getScore() +
+            "}";
+    }
+}
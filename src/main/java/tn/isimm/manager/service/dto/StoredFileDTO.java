@@ -0,0 +1,85 @@
+package tn.isimm.manager.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing a file stored for an entity: its size and SHA-256 hash, computed while it was uploaded.
+ */
+public class StoredFileDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private Long version;
+
+    private long size;
+
+    private String sha256;
+
+    private String contentType;
+
+    public StoredFileDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public StoredFileDTO(Long id, Long version, long size, String sha256, String contentType) {
+        this.id = id;
+        this.version = version;
+        this.size = size;
+        this.sha256 = sha256;
+        this.contentType = contentType;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StoredFileDTO{" +
+            "id=" + id +
+            ", version=" + version +
+            ", size=" + size +
+            ", sha256='" + sha256 + "'" +
+            ", contentType='" + contentType + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,62 @@
+package tn.isimm.manager.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A DTO representing a change of status of validation requests, published once committed.
+ */
+public class ValidationRequestChangeDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Long> fichierAdminIds;
+
+    private String status;
+
+    private String reviewer;
+
+    public ValidationRequestChangeDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ValidationRequestChangeDTO(List<Long> fichierAdminIds, String status, String reviewer) {
+        this.fichierAdminIds = fichierAdminIds;
+        this.status = status;
+        this.reviewer = reviewer;
+    }
+
+    public List<Long> getFichierAdminIds() {
+        return fichierAdminIds;
+    }
+
+    public void setFichierAdminIds(List<Long> fichierAdminIds) {
+        this.fichierAdminIds = fichierAdminIds;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getReviewer() {
+        return reviewer;
+    }
+
+    public void setReviewer(String reviewer) {
+        this.reviewer = reviewer;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ValidationRequestChangeDTO{" +
+            "fichierAdminIds=" + getFichierAdminIds() +
+            ", status='" + getStatus() + "'" +
+            ", reviewer='" + getReviewer() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,170 @@
+package tn.isimm.manager.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A DTO representing the validation request of a {@link tn.isimm.manager.domain.FichierAdmin}, without its file.
+ */
+public class ValidationRequestDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long fichierAdminId;
+
+    private String titre;
+
+    private String type;
+
+    private String fileContentType;
+
+    private Long etudiantId;
+
+    private String status;
+
+    private Instant requestedAt;
+
+    private String claimedBy;
+
+    private Instant claimedUntil;
+
+    private String reviewedBy;
+
+    private Instant reviewedAt;
+
+    public ValidationRequestDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ValidationRequestDTO(
+        Long fichierAdminId,
+        String titre,
+        String type,
+        String fileContentType,
+        Long etudiantId,
+        String status,
+        Instant requestedAt,
+        String claimedBy,
+        Instant claimedUntil,
+        String reviewedBy,
+        Instant reviewedAt
+    ) {
+        this.fichierAdminId = fichierAdminId;
+        this.titre = titre;
+        this.type = type;
+        this.fileContentType = fileContentType;
+        this.etudiantId = etudiantId;
+        this.status = status;
+        this.requestedAt = requestedAt;
+        this.claimedBy = claimedBy;
+        this.claimedUntil = claimedUntil;
+        this.reviewedBy = reviewedBy;
+        this.reviewedAt = reviewedAt;
+    }
+
+    public Long getFichierAdminId() {
+        return fichierAdminId;
+    }
+
+    public void setFichierAdminId(Long fichierAdminId) {
+        this.fichierAdminId = fichierAdminId;
+    }
+
+    public String getTitre() {
+        return titre;
+    }
+
+    public void setTitre(String titre) {
+        this.titre = titre;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getFileContentType() {
+        return fileContentType;
+    }
+
+    public void setFileContentType(String fileContentType) {
+        this.fileContentType = fileContentType;
+    }
+
+    public Long getEtudiantId() {
+        return etudiantId;
+    }
+
+    public void setEtudiantId(Long etudiantId) {
+        this.etudiantId = etudiantId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Instant getRequestedAt() {
+        return requestedAt;
+    }
+
+    public void setRequestedAt(Instant requestedAt) {
+        this.requestedAt = requestedAt;
+    }
+
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    public Instant getClaimedUntil() {
+        return claimedUntil;
+    }
+
+    public void setClaimedUntil(Instant claimedUntil) {
+        this.claimedUntil = claimedUntil;
+    }
+
+    public String getReviewedBy() {
+        return reviewedBy;
+    }
+
+    public void setReviewedBy(String reviewedBy) {
+        this.reviewedBy = reviewedBy;
+    }
+
+    public Instant getReviewedAt() {
+        return reviewedAt;
+    }
+
+    public void setReviewedAt(Instant reviewedAt) {
+        this.reviewedAt = reviewedAt;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ValidationRequestDTO{" +
+            "fichierAdminId=" + getFichierAdminId() +
+            ", titre='" + getTitre() + "'" +
+            ", type='" + getType() + "'" +
+            ", fileContentType='" + getFileContentType() + "'" +
+            ", etudiantId=" + getEtudiantId() +
+            ", status='" + getStatus() + "'" +
+            ", requestedAt=" + getRequestedAt() +
+            ", claimedBy='" + getClaimedBy() + "'" +
+            ", claimedUntil=" + getClaimedUntil() +
+            ", reviewedBy='" + getReviewedBy() + "'" +
+            ", reviewedAt=" + getReviewedAt() +
+            "}";
+    }
+}
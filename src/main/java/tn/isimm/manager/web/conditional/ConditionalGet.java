@@ -0,0 +1,29 @@
+package tn.isimm.manager.web.conditional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@code GET} handler whose response only depends on the given entity types.
+ * <p>
+ * {@link ConditionalGetInterceptor} then sends {@code ETag} and {@code Last-Modified} validators computed from the
+ * modification counters of those types, and answers matching conditional requests with {@code 304 (Not Modified)}
+ * before the handler runs.
+ * <p>
+ * Every entity type serialized in the response must be listed, including the associations fetched with it.
+ * <p>
+ * Not supported on handlers secured with {@code @PreAuthorize} or {@code @Secured}, whose authorization runs after the
+ * validators are checked: such handlers must be secured by URL instead.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConditionalGet {
+    /**
+     * @return the entity types the response is built from.
+     */
+    Class<?>[] value();
+}
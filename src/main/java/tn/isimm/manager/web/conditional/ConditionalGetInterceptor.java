@@ -0,0 +1,104 @@
+package tn.isimm.manager.web.conditional;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import tn.isimm.manager.repository.ReplicaRoutingDataSource;
+import tn.isimm.manager.service.EntityVersionService;
+
+/**
+ * Interceptor evaluating the conditional headers of the requests to {@link ConditionalGet} handlers.
+ * <p>
+ * The validators are computed with one small query on the entity version counters, so a {@code 304 (Not Modified)}
+ * is answered without loading nor serializing any entity.
+ * <p>
+ * The validators and the representation are read from the same data source, see
+ * {@link ReplicaRoutingDataSource#beginConsistentReads()}: read from a replica lagging more than the one serving the
+ * validators, the representation could be older than its ETag, and be revalidated until the next write.
+ * <p>
+ * Handlers secured by method security are left alone: their authorization is only checked once they are invoked,
+ * after this interceptor, so answering {@code 304} here would skip it.
+ */
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    /**
+     * Responses may be stored, but must be revalidated, and only by the user agent as they are not public.
+     */
+    static final String CACHE_CONTROL = "no-cache, private";
+
+    private final Logger log = LoggerFactory.getLogger(ConditionalGetInterceptor.class);
+
+    private final EntityVersionService entityVersionService;
+
+    public ConditionalGetInterceptor(EntityVersionService entityVersionService) {
+        this.entityVersionService = entityVersionService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || !isSafe(request)) {
+            return true;
+        }
+        ConditionalGet conditionalGet = handlerMethod.getMethodAnnotation(ConditionalGet.class);
+        if (conditionalGet == null) {
+            return true;
+        }
+        if (isSecured(handlerMethod)) {
+            log.debug("Ignoring @ConditionalGet on {}, which is secured by method security", handlerMethod.getShortLogMessage());
+            return true;
+        }
+        ReplicaRoutingDataSource.beginConsistentReads();
+        boolean proceed = false;
+        try {
+            proceed = !isNotModified(request, response, conditionalGet);
+            return proceed;
+        } finally {
+            if (!proceed) {
+                ReplicaRoutingDataSource.endConsistentReads();
+            }
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReplicaRoutingDataSource.endConsistentReads();
+    }
+
+    private boolean isNotModified(HttpServletRequest request, HttpServletResponse response, ConditionalGet conditionalGet) {
+        Optional<EntityVersionService.Validators> validators = entityVersionService.getValidators(conditionalGet.value());
+        if (validators.isEmpty()) {
+            return false;
+        }
+        // Set before the validators, so that Spring Security does not forbid caching the response
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        if (webRequest.checkNotModified(validators.orElseThrow().eTag(), validators.orElseThrow().lastModified().toEpochMilli())) {
+            log.debug("Not modified: {} {}", request.getMethod(), request.getRequestURI());
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isSecured(HandlerMethod handlerMethod) {
+        return Stream
+            .of(PreAuthorize.class, Secured.class)
+            .anyMatch(annotation ->
+                handlerMethod.hasMethodAnnotation(annotation) || AnnotatedElementUtils.hasAnnotation(handlerMethod.getBeanType(), annotation)
+            );
+    }
+
+    private static boolean isSafe(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    }
+}
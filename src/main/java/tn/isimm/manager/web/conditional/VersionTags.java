@@ -0,0 +1,102 @@
+package tn.isimm.manager.web.conditional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.dao.ConcurrencyFailureException;
+import tn.isimm.manager.web.rest.errors.PreconditionFailedException;
+
+/**
+ * Utility class mapping the {@code @Version} of an entity to and from HTTP entity tags.
+ * <p>
+ * The tag of an entity starts with its version: it is the quoted version in the {@code ETag} header of the responses to
+ * its updates, and the version followed by the validator of its associations in the responses reading it, see
+ * {@link VersionedResponses}. Either is accepted in the {@code If-Match} header of the requests updating it, which only
+ * compares the version: a change of the associations does not prevent the update.
+ */
+public final class VersionTags {
+
+    private static final char VERSION_SEPARATOR = '-';
+
+    private VersionTags() {}
+
+    /**
+     * @param version the version of an entity.
+     * @return the strong entity tag of that version.
+     */
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @param version the version of an entity.
+     * @param validator the strong entity tag of the associations of the entity, quoted.
+     * @return the strong entity tag of that version with those associations.
+     */
+    public static String of(Long version, String validator) {
+        return "\"" + version + VERSION_SEPARATOR + validator.substring(1, validator.length() - 1) + "\"";
+    }
+
+    /**
+     * Check that an update was prepared against the current version of an entity, given either by {@code If-Match} or
+     * by the version of the body, an update without any of them being treated as a conflict.
+     *
+     * @param ifMatch the {@code If-Match} header of the request, if any.
+     * @param expectedVersion the version sent in the request body, if any.
+     * @param currentVersion the version currently stored.
+     * @param entityName the name of the entity, for the error message.
+     * @throws PreconditionFailedException {@code 412 (Precondition Failed)} if no tag of {@code If-Match} matches.
+     * @throws ConcurrencyFailureException {@code 409 (Conflict)} if the version of the body is not the current one, or
+     * is missing without {@code If-Match}.
+     */
+    public static void checkPreconditions(String ifMatch, Long expectedVersion, Long currentVersion, String entityName) {
+        if (ifMatch != null) {
+            List<Long> versions = parseIfMatch(ifMatch, entityName);
+            if (!versions.isEmpty() && !versions.contains(currentVersion)) {
+                throw new PreconditionFailedException("Entity was modified", entityName, "versionmismatch");
+            }
+        }
+        if (expectedVersion == null && ifMatch == null) {
+            throw new ConcurrencyFailureException("The " + entityName + " has no version to check the update against");
+        }
+        if (expectedVersion != null && !Objects.equals(expectedVersion, currentVersion)) {
+            throw new ConcurrencyFailureException("The " + entityName + " was modified by another request");
+        }
+    }
+
+    /**
+     * Parse the versions accepted by an {@code If-Match} header, for the updates checking the version in the statement
+     * that writes the entity.
+     *
+     * @param ifMatch the {@code If-Match} header of the request, if any.
+     * @param entityName the name of the entity, for the error message.
+     * @return the accepted versions, or an empty list if any version is accepted.
+     * @throws PreconditionFailedException {@code 412 (Precondition Failed)} if no tag of {@code If-Match} can match.
+     */
+    public static List<Long> parseIfMatch(String ifMatch, String entityName) {
+        if (ifMatch == null) {
+            return List.of();
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*")) {
+                return List.of();
+            }
+            // Weak tags never match, as If-Match uses the strong comparison
+            if (trimmed.length() > 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                String value = trimmed.substring(1, trimmed.length() - 1);
+                int separator = value.indexOf(VERSION_SEPARATOR);
+                try {
+                    versions.add(Long.parseLong(separator < 0 ? value : value.substring(0, separator)));
+                } catch (NumberFormatException e) {
+                    // Not the tag of a version
+                }
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new PreconditionFailedException("Entity was modified", entityName, "versionmismatch");
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,54 @@
+package tn.isimm.manager.web.conditional;
+
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import tech.jhipster.web.util.ResponseUtil;
+import tn.isimm.manager.service.EntityVersionService;
+
+/**
+ * Builds the responses reading one entity, tagged with its version and with the validators of the entity types it is
+ * serialized with.
+ * <p>
+ * The tag is the version followed by the aggregate of the counters of those types, see {@link VersionTags#of(Long,
+ * String)}: {@code If-None-Match} is answered with {@code 304 (Not Modified)} by Spring as long as neither the entity
+ * nor its associations changed, and the same tag is accepted in {@code If-Match} as long as the entity itself did not
+ * change. Unlike {@link ConditionalGet}, the entity is read before answering {@code 304}, as its version is part of the
+ * tag; it is not serialized.
+ */
+@Component
+public class VersionedResponses {
+
+    private final EntityVersionService entityVersionService;
+
+    public VersionedResponses(EntityVersionService entityVersionService) {
+        this.entityVersionService = entityVersionService;
+    }
+
+    /**
+     * Read an entity and wrap it in a response tagged with its version and associations. Must be called within the
+     * transaction reading the entity, so that both are read from the same data source.
+     *
+     * @param finder the query reading the entity.
+     * @param version the version of the entity.
+     * @param entityTypes the entity types the response is built from.
+     * @param <X> the type of the entity.
+     * @return the response with status {@code 200 (OK)} and the entity in body, or with status {@code 404 (Not Found)}.
+     */
+    public <X> ResponseEntity<X> wrapOrNotFound(Supplier<Optional<X>> finder, Function<X, Long> version, Class<?>... entityTypes) {
+        // Read first, so that the validators are never newer than the entity they tag
+        Optional<EntityVersionService.Validators> validators = entityVersionService.getValidators(entityTypes);
+        Optional<X> entity = finder.get();
+        HttpHeaders headers = new HttpHeaders();
+        if (validators.isPresent() && entity.isPresent()) {
+            headers.setCacheControl(CacheControl.noCache().cachePrivate());
+            headers.setETag(VersionTags.of(version.apply(entity.orElseThrow()), validators.orElseThrow().eTag()));
+            headers.setLastModified(validators.orElseThrow().lastModified());
+        }
+        return ResponseUtil.wrapOrNotFound(entity, headers);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * HTTP conditional requests support.
+ */
+package tn.isimm.manager.web.conditional;
@@ -0,0 +1,390 @@
+package tn.isimm.manager.web.filter;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tn.isimm.manager.config.ApplicationProperties;
+
+/**
+ * Limits the API requests of each client with a token bucket per route group, answering {@code 429 (Too Many Requests)}
+ * with a {@code Retry-After} header once the bucket is empty.
+ * <p>
+ * A client is the subject of its JWT, so this filter runs after the bearer token authentication, or its IP address when
+ * not authenticated. Behind a reverse proxy, the IP address is the one forwarded by the proxy when
+ * {@code server.forward-headers-strategy} is set, as in the {@code prod} profile. The authentication routes are keyed by
+ * IP address and login, read from the body, so that users sharing an address do not lock each other out; each address
+ * also has an {@code auth-address} bucket across all the logins it tries. The rejected requests are counted by
+ * {@value #REJECTED_METER}, tagged by route group.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String REJECTED_METER = "http.server.requests.rate.limited";
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Largest body of an authentication request read for its login, larger ones are keyed by IP address only.
+     */
+    private static final int MAX_LOGIN_BODY_SIZE = 4096;
+
+    private static final int MAX_LOGIN_LENGTH = 254;
+
+    private static final List<String> LOGIN_FIELDS = List.of("username", "login", "email");
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final boolean enabled;
+
+    private final int maxClients;
+
+    private final Map<RouteGroup, Limit> limits = new EnumMap<>(RouteGroup.class);
+
+    private final Map<RouteGroup, Map<String, TokenBucket>> buckets = new EnumMap<>(RouteGroup.class);
+
+    private final Limit authAddressLimit;
+
+    private final Map<String, TokenBucket> authAddressBuckets = new ConcurrentHashMap<>();
+
+    private final Map<RouteGroup, Counter> rejections = new EnumMap<>(RouteGroup.class);
+
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    public RateLimitFilter(ApplicationProperties.RateLimit properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.maxClients = properties.getMaxClients();
+        limits.put(RouteGroup.AUTH, Limit.of(properties.getAuth()));
+        limits.put(RouteGroup.FILE_DOWNLOAD, Limit.of(properties.getFileDownload()));
+        limits.put(RouteGroup.WRITE, Limit.of(properties.getWrite()));
+        limits.put(RouteGroup.LIST, Limit.of(properties.getList()));
+        this.authAddressLimit = Limit.of(properties.getAuthAddress());
+        for (RouteGroup group : RouteGroup.values()) {
+            buckets.put(group, new ConcurrentHashMap<>());
+            rejections.put(
+                group,
+                Counter
+                    .builder(REJECTED_METER)
+                    .description("Number of API requests rejected by the rate limit")
+                    .tag("group", group.tag)
+                    .register(meterRegistry)
+            );
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        RouteGroup group = RouteGroup.of(request);
+        long now = System.nanoTime();
+        sweep(now);
+        HttpServletRequest filteredRequest = request;
+        String client;
+        long waitNanos;
+        if (group == RouteGroup.AUTH && isAnonymous()) {
+            String address = "ip:" + request.getRemoteAddr();
+            CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+            filteredRequest = cachedRequest;
+            client = cachedRequest.login().map(login -> address + "|login:" + login).orElse(address);
+            waitNanos = consume(authAddressBuckets, address, now, authAddressLimit);
+            if (waitNanos == 0) {
+                waitNanos = consume(buckets.get(group), client, now, limits.get(group));
+            }
+        } else {
+            client = isAnonymous() ? "ip:" + request.getRemoteAddr() : "user:" + currentAuthentication().getName();
+            waitNanos = consume(buckets.get(group), client, now, limits.get(group));
+        }
+        if (waitNanos > 0) {
+            rejections.get(group).increment();
+            log.debug("Rate limit of {} reached by {}", group.tag, client);
+            long retryAfterSeconds = Math.max(1, divideRoundingUp(waitNanos, TimeUnit.SECONDS.toNanos(1)));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            return;
+        }
+        filterChain.doFilter(filteredRequest, response);
+    }
+
+    private static long consume(Map<String, TokenBucket> groupBuckets, String client, long now, Limit limit) {
+        return groupBuckets.computeIfAbsent(client, key -> new TokenBucket(now)).tryConsume(now, limit);
+    }
+
+    private static Authentication currentAuthentication() {
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static boolean isAnonymous() {
+        Authentication authentication = currentAuthentication();
+        return authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken;
+    }
+
+    /**
+     * Drops the buckets that refilled, which are the same as new ones, at most once per second. When more than
+     * {@code maxClients} are still kept in a map, the ones closest to refilled are dropped too, so that clients that
+     * never come back cannot grow the maps without limit. A request racing with the removal of its bucket is not
+     * counted, which the next requests of the client make up for.
+     */
+    void sweep(long now) {
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        sweep(authAddressBuckets, now);
+        buckets.values().forEach(groupBuckets -> sweep(groupBuckets, now));
+    }
+
+    private void sweep(Map<String, TokenBucket> groupBuckets, long now) {
+        groupBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        int excess = groupBuckets.size() - maxClients;
+        if (excess > 0) {
+            groupBuckets
+                .entrySet()
+                .stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().fullAt()))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(groupBuckets::remove);
+        }
+    }
+
+    private static long divideRoundingUp(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    enum RouteGroup {
+        AUTH(
+            "auth",
+            new OrRequestMatcher(
+                antMatcher(HttpMethod.POST, "/api/authenticate"),
+                antMatcher("/api/register"),
+                antMatcher("/api/activate"),
+                antMatcher("/api/account/reset-password/**")
+            )
+        ),
+        FILE_DOWNLOAD(
+            "file-download",
+            new OrRequestMatcher(
+                antMatcher(HttpMethod.GET, "/api/*/*/file"),
+                antMatcher(HttpMethod.GET, "/api/*/*/photo"),
+                antMatcher(HttpMethod.GET, "/api/photos/**")
+            )
+        ),
+        WRITE(
+            "write",
+            new OrRequestMatcher(
+                antMatcher(HttpMethod.POST, "/api/**"),
+                antMatcher(HttpMethod.PUT, "/api/**"),
+                antMatcher(HttpMethod.PATCH, "/api/**"),
+                antMatcher(HttpMethod.DELETE, "/api/**")
+            )
+        ),
+        LIST("list", AnyRequestMatcher.INSTANCE);
+
+        private final String tag;
+
+        private final RequestMatcher matcher;
+
+        RouteGroup(String tag, RequestMatcher matcher) {
+            this.tag = tag;
+            this.matcher = matcher;
+        }
+
+        static RouteGroup of(HttpServletRequest request) {
+            for (RouteGroup group : values()) {
+                if (group.matcher.matches(request)) {
+                    return group;
+                }
+            }
+            return LIST;
+        }
+    }
+
+    /**
+     * @param nanosPerToken the time to refill one request.
+     * @param burstNanos the time to refill the whole bucket.
+     */
+    private record Limit(long nanosPerToken, long burstNanos) {
+        static Limit of(ApplicationProperties.RateLimit.Bucket bucket) {
+            long nanosPerToken = Math.round(TimeUnit.SECONDS.toNanos(1) / bucket.getRequestsPerSecond());
+            return new Limit(nanosPerToken, nanosPerToken * bucket.getCapacity());
+        }
+    }
+
+    /**
+     * Token bucket held in a single atomic value, the time at which it is full again: taking a token pushes that time
+     * back by the refill time of one token, which is refused when it would go further than the refill time of the whole
+     * bucket.
+     */
+    private static final class TokenBucket {
+
+        private final AtomicLong fullAt;
+
+        TokenBucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+
+        /**
+         * @return {@code 0} if a token was taken, or else the nanoseconds until the next token.
+         */
+        long tryConsume(long now, Limit limit) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + limit.nanosPerToken();
+                long waitNanos = next - now - limit.burstNanos();
+                if (waitNanos > 0) {
+                    return waitNanos;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return fullAt.get() - now <= 0;
+        }
+
+        long fullAt() {
+            return fullAt.get();
+        }
+    }
+
+    /**
+     * Request whose first {@value #MAX_LOGIN_BODY_SIZE} bytes of body are read up front for the login, and replayed to
+     * the rest of the chain.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] head;
+
+        private final boolean complete;
+
+        private final InputStream body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            InputStream original = request.getInputStream();
+            this.head = original.readNBytes(MAX_LOGIN_BODY_SIZE + 1);
+            this.complete = head.length <= MAX_LOGIN_BODY_SIZE;
+            this.body = new SequenceInputStream(new ByteArrayInputStream(head), original);
+        }
+
+        /**
+         * @return the lower-cased login of a JSON body with a {@code username}, {@code login} or {@code email} field, or
+         * of a body that is the login itself, as when requesting a password reset.
+         */
+        Optional<String> login() {
+            if (!complete || head.length == 0) {
+                return Optional.empty();
+            }
+            String text = new String(head, charset()).trim();
+            try {
+                JsonNode json = OBJECT_MAPPER.readTree(text);
+                if (json != null && json.isTextual()) {
+                    text = json.asText().trim();
+                } else if (json != null && json.isObject()) {
+                    text = LOGIN_FIELDS.stream().map(json::path).filter(JsonNode::isTextual).map(JsonNode::asText).findFirst().orElse("");
+                }
+            } catch (JsonProcessingException e) {
+                // A plain text body, the login itself
+            }
+            text = text.trim().toLowerCase(Locale.ROOT);
+            if (text.isEmpty() || text.length() > MAX_LOGIN_LENGTH) {
+                return Optional.empty();
+            }
+            return Optional.of(text);
+        }
+
+        private Charset charset() {
+            String encoding = getCharacterEncoding();
+            return encoding != null && Charset.isSupported(encoding) ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return new ServletInputStream() {
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int read = body.read();
+                    finished = read < 0;
+                    return read;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = body.read(buffer, offset, length);
+                    finished = read < 0;
+                    return read;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException("Asynchronous reads of an authentication request");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset()));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package tn.isimm.manager.web.filter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import tn.isimm.manager.repository.StatementStatistics;
+import tn.isimm.manager.repository.StatementStatistics.RequestStatistics;
+
+/**
+ * Records how many statements, rows and entity loads each API request needed, tagged like {@code http.server.requests}.
+ */
+public class StatementStatisticsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    public StatementStatisticsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        StatementStatistics.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestStatistics statistics = StatementStatistics.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            record("http.server.requests.db.statements", "statements", request.getMethod(), uri, statistics.getStatements());
+            record("http.server.requests.db.rows", "rows", request.getMethod(), uri, statistics.getRows());
+            record("http.server.requests.db.entity.loads", "entities", request.getMethod(), uri, statistics.getEntityLoads());
+        }
+    }
+
+    private void record(String name, String baseUnit, String method, String uri, long amount) {
+        DistributionSummary.builder(name).baseUnit(baseUnit).tag("method", method).tag("uri", uri).register(meterRegistry).record(amount);
+    }
+}
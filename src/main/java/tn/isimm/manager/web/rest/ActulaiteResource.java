@@ -2,20 +2,37 @@ package tn.isimm.manager.web.rest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
 import tn.isimm.manager.domain.Actulaite;
 import tn.isimm.manager.repository.ActulaiteRepository;
+import tn.isimm.manager.repository.SparseFieldsetRepository;
+import tn.isimm.manager.web.conditional.ConditionalGet;
+import tn.isimm.manager.web.conditional.VersionTags;
+import tn.isimm.manager.web.conditional.VersionedResponses;
 import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
+import tn.isimm.manager.web.sse.ActulaiteFeedRelay;
+import tn.isimm.manager.web.sse.SseBroadcaster;
 
 /**
  * REST controller for managing {@link tn.isimm.manager.domain.Actulaite}.
@@ -29,13 +46,33 @@ public class ActulaiteResource {
 
     private static final String ENTITY_NAME = "actulaite";
 
+    private static final SparseFieldset SPARSE_FIELDSET = SparseFieldset.of(ENTITY_NAME, "id", "version", "date", "data");
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int MAX_FEED_SIZE = 100;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final ActulaiteRepository actulaiteRepository;
 
-    public ActulaiteResource(ActulaiteRepository actulaiteRepository) {
+    private final SseBroadcaster sseBroadcaster;
+
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+
+    private final VersionedResponses versionedResponses;
+
+    public ActulaiteResource(
+        ActulaiteRepository actulaiteRepository,
+        SseBroadcaster sseBroadcaster,
+        SparseFieldsetRepository sparseFieldsetRepository,
+        VersionedResponses versionedResponses
+    ) {
         this.actulaiteRepository = actulaiteRepository;
+        this.sseBroadcaster = sseBroadcaster;
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.versionedResponses = versionedResponses;
     }
 
     /**
@@ -62,15 +99,19 @@ public class ActulaiteResource {
      * {@code PUT  /actulaites/:id} : Updates an existing actulaite.
      *
      * @param id the id of the actulaite to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the actulaite.
      * @param actulaite the actulaite to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated actulaite,
      * or with status {@code 400 (Bad Request)} if the actulaite is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the actulaite couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Actulaite> updateActulaite(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Actulaite actulaite
     ) throws URISyntaxException {
         log.debug("REST request to update Actulaite : {}, {}", id, actulaite);
@@ -81,13 +122,17 @@ public class ActulaiteResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!actulaiteRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Actulaite existingActulaite = actulaiteRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        VersionTags.checkPreconditions(ifMatch, actulaite.getVersion(), existingActulaite.getVersion(), ENTITY_NAME);
+        // Merged into the instance loaded above, so that no other select is issued
+        actulaite.setVersion(existingActulaite.getVersion());
 
-        Actulaite result = actulaiteRepository.save(actulaite);
+        Actulaite result = actulaiteRepository.saveAndFlush(actulaite);
         return ResponseEntity
             .ok()
+            .eTag(VersionTags.of(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, actulaite.getId().toString()))
             .body(result);
     }
@@ -96,16 +141,20 @@ public class ActulaiteResource {
      * {@code PATCH  /actulaites/:id} : Partial updates given fields of an existing actulaite, field will ignore if it is null
      *
      * @param id the id of the actulaite to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the actulaite.
      * @param actulaite the actulaite to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated actulaite,
      * or with status {@code 400 (Bad Request)} if the actulaite is not valid,
      * or with status {@code 404 (Not Found)} if the actulaite is not found,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the actulaite couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Actulaite> partialUpdateActulaite(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Actulaite actulaite
     ) throws URISyntaxException {
         log.debug("REST request to partial update Actulaite partially : {}, {}", id, actulaite);
@@ -116,13 +165,10 @@ public class ActulaiteResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!actulaiteRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<Actulaite> result = actulaiteRepository
             .findById(actulaite.getId())
             .map(existingActulaite -> {
+                VersionTags.checkPreconditions(ifMatch, actulaite.getVersion(), existingActulaite.getVersion(), ENTITY_NAME);
                 if (actulaite.getDate() != null) {
                     existingActulaite.setDate(actulaite.getDate());
                 }
@@ -132,12 +178,17 @@ public class ActulaiteResource {
 
                 return existingActulaite;
             })
-            .map(actulaiteRepository::save);
+            .map(actulaiteRepository::saveAndFlush);
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, actulaite.getId().toString())
-        );
+        return result
+            .map(response ->
+                ResponseEntity
+                    .ok()
+                    .eTag(VersionTags.of(response.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, actulaite.getId().toString()))
+                    .body(response)
+            )
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
     }
 
     /**
@@ -146,11 +197,68 @@ public class ActulaiteResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of actulaites in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
+    @ConditionalGet(Actulaite.class)
     public List<Actulaite> getAllActulaites() {
         log.debug("REST request to get all Actulaites");
         return actulaiteRepository.findAll();
     }
 
+    /**
+     * {@code GET  /actulaites/feed} : get a page of the news feed, most recent first.
+     * <p>
+     * The feed is paginated with an opaque {@code (date, id)} cursor: the cursor of the next page is returned in the
+     * {@code X-Next-Cursor} and {@code Link} headers, and is absent on the last page. News without a date are not part of the feed.
+     *
+     * @param cursor the cursor returned with the previous page, or none for the first page.
+     * @param size the number of news to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of actulaites in body,
+     * or with status {@code 304 (Not Modified)} if the page matches the {@code If-None-Match} header,
+     * or with status {@code 400 (Bad Request)} if the cursor is not valid.
+     */
+    @GetMapping("/feed")
+    @Transactional(readOnly = true)
+    @ConditionalGet(Actulaite.class)
+    public ResponseEntity<List<Actulaite>> getActulaiteFeed(
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "size", required = false, defaultValue = "20") int size
+    ) {
+        log.debug("REST request to get the Actulaite feed after : {}", cursor);
+        int limit = Math.max(1, Math.min(size, MAX_FEED_SIZE));
+        // Fetch one more row than requested to know whether there is a next page
+        PageRequest pageRequest = PageRequest.of(0, limit + 1);
+        List<Actulaite> actulaites;
+        if (cursor == null || cursor.isEmpty()) {
+            actulaites = actulaiteRepository.findFeed(pageRequest);
+        } else {
+            Actulaite after = decodeCursor(cursor);
+            actulaites = actulaiteRepository.findFeedAfter(after.getDate(), after.getId(), pageRequest);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        if (actulaites.size() > limit) {
+            actulaites = actulaites.subList(0, limit);
+            String nextCursor = encodeCursor(actulaites.get(limit - 1));
+            String nextUri = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("cursor", nextCursor).toUriString();
+            headers.add(NEXT_CURSOR_HEADER, nextCursor);
+            headers.add(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().headers(headers).body(actulaites);
+    }
+
+    /**
+     * {@code GET  /actulaites/stream} : subscribe to the news feed.
+     * <p>
+     * Every new actulaite is pushed as an {@code actulaite} server-sent event, whose id is the id of the actulaite.
+     *
+     * @return the server-sent events stream.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamActulaites() {
+        log.debug("REST request to subscribe to the Actulaite feed");
+        return sseBroadcaster.subscribe(ActulaiteFeedRelay.TOPIC);
+    }
+
     /**
      * {@code GET  /actulaites/:id} : get the "id" actulaite.
      *
@@ -158,10 +266,38 @@ public class ActulaiteResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the actulaite, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Actulaite> getActulaite(@PathVariable("id") Long id) {
         log.debug("REST request to get Actulaite : {}", id);
-        Optional<Actulaite> actulaite = actulaiteRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(actulaite);
+        return versionedResponses.wrapOrNotFound(() -> actulaiteRepository.findById(id), Actulaite::getVersion, Actulaite.class);
+    }
+
+    /**
+     * {@code GET  /actulaites?fields=:fields} : get all the actulaites, reduced to some fields.
+     *
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the list of actulaites, or status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "", params = "fields")
+    @Transactional(readOnly = true)
+    @ConditionalGet(Actulaite.class)
+    public List<Map<String, Object>> getAllActulaitesFields(@RequestParam("fields") String fields) {
+        log.debug("REST request to get all Actulaites with fields : {}", fields);
+        return sparseFieldsetRepository.findAll(Actulaite.class, SPARSE_FIELDSET.parse(fields), Sort.by("id"));
+    }
+
+    /**
+     * {@code GET  /actulaites/:id?fields=:fields} : get the "id" actulaite, reduced to some fields.
+     *
+     * @param id the id of the actulaite to retrieve.
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the actulaite, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    @Transactional(readOnly = true)
+    public ResponseEntity<Map<String, Object>> getActulaiteFields(@PathVariable("id") Long id, @RequestParam("fields") String fields) {
+        log.debug("REST request to get Actulaite : {} with fields : {}", id, fields);
+        return ResponseUtil.wrapOrNotFound(sparseFieldsetRepository.findById(Actulaite.class, SPARSE_FIELDSET.parse(fields), id));
     }
 
     /**
@@ -179,4 +315,18 @@ public class ActulaiteResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private static String encodeCursor(Actulaite actulaite) {
+        String value = actulaite.getDate() + "," + actulaite.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Actulaite decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",", 2);
+            return new Actulaite().id(Long.valueOf(parts[1])).date(LocalDate.parse(parts[0]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+    }
 }
@@ -3,6 +3,7 @@ package tn.isimm.manager.web.rest;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
@@ -19,7 +20,13 @@ import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 import tn.isimm.manager.domain.Administrateur;
+import tn.isimm.manager.domain.User;
 import tn.isimm.manager.repository.AdministrateurRepository;
+import tn.isimm.manager.repository.SparseFieldsetRepository;
+import tn.isimm.manager.repository.projection.AdministrateurSummary;
+import tn.isimm.manager.web.conditional.ConditionalGet;
+import tn.isimm.manager.web.conditional.VersionTags;
+import tn.isimm.manager.web.conditional.VersionedResponses;
 import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
 
 /**
@@ -34,13 +41,39 @@ public class AdministrateurResource {
 
     private static final String ENTITY_NAME = "administrateur";
 
+    private static final SparseFieldset SPARSE_FIELDSET = SparseFieldset.of(
+        ENTITY_NAME,
+        "id",
+        "version",
+        "prenom",
+        "nom",
+        "email",
+        "matricule",
+        "titre",
+        "numTel",
+        "dateDeNaissance",
+        "photoDeProfileContentType",
+        "photoDeProfileHash",
+        "user"
+    );
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final AdministrateurRepository administrateurRepository;
 
-    public AdministrateurResource(AdministrateurRepository administrateurRepository) {
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+
+    private final VersionedResponses versionedResponses;
+
+    public AdministrateurResource(
+        AdministrateurRepository administrateurRepository,
+        SparseFieldsetRepository sparseFieldsetRepository,
+        VersionedResponses versionedResponses
+    ) {
         this.administrateurRepository = administrateurRepository;
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.versionedResponses = versionedResponses;
     }
 
     /**
@@ -67,15 +100,19 @@ public class AdministrateurResource {
      * {@code PUT  /administrateurs/:id} : Updates an existing administrateur.
      *
      * @param id the id of the administrateur to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the administrateur.
      * @param administrateur the administrateur to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated administrateur,
      * or with status {@code 400 (Bad Request)} if the administrateur is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the administrateur couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Administrateur> updateAdministrateur(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Administrateur administrateur
     ) throws URISyntaxException {
         log.debug("REST request to update Administrateur : {}, {}", id, administrateur);
@@ -86,13 +123,17 @@ public class AdministrateurResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!administrateurRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Administrateur existingAdministrateur = administrateurRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        VersionTags.checkPreconditions(ifMatch, administrateur.getVersion(), existingAdministrateur.getVersion(), ENTITY_NAME);
+        // Merged into the instance loaded above, so that no other select is issued
+        administrateur.setVersion(existingAdministrateur.getVersion());
 
-        Administrateur result = administrateurRepository.save(administrateur);
+        Administrateur result = administrateurRepository.saveAndFlush(administrateur);
         return ResponseEntity
             .ok()
+            .eTag(VersionTags.of(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, administrateur.getId().toString()))
             .body(result);
     }
@@ -101,16 +142,20 @@ public class AdministrateurResource {
      * {@code PATCH  /administrateurs/:id} : Partial updates given fields of an existing administrateur, field will ignore if it is null
      *
      * @param id the id of the administrateur to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the administrateur.
      * @param administrateur the administrateur to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated administrateur,
      * or with status {@code 400 (Bad Request)} if the administrateur is not valid,
      * or with status {@code 404 (Not Found)} if the administrateur is not found,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the administrateur couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Administrateur> partialUpdateAdministrateur(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Administrateur administrateur
     ) throws URISyntaxException {
         log.debug("REST request to partial update Administrateur partially : {}, {}", id, administrateur);
@@ -121,13 +166,10 @@ public class AdministrateurResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!administrateurRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<Administrateur> result = administrateurRepository
             .findById(administrateur.getId())
             .map(existingAdministrateur -> {
+                VersionTags.checkPreconditions(ifMatch, administrateur.getVersion(), existingAdministrateur.getVersion(), ENTITY_NAME);
                 if (administrateur.getPrenom() != null) {
                     existingAdministrateur.setPrenom(administrateur.getPrenom());
                 }
@@ -158,33 +200,34 @@ public class AdministrateurResource {
 
                 return existingAdministrateur;
             })
-            .map(administrateurRepository::save);
+            .map(administrateurRepository::saveAndFlush);
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, administrateur.getId().toString())
-        );
+        return result
+            .map(response ->
+                ResponseEntity
+                    .ok()
+                    .eTag(VersionTags.of(response.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, administrateur.getId().toString()))
+                    .body(response)
+            )
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
     }
 
     /**
      * {@code GET  /administrateurs} : get all the administrateurs.
+     * <p>
+     * Only the displayed columns and the ids of the associations are selected: the photo is served by
+     * {@code GET  /administrateurs/:id/photo}.
      *
      * @param pageable the pagination information.
-     * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of administrateurs in body.
      */
     @GetMapping("")
-    public ResponseEntity<List<Administrateur>> getAllAdministrateurs(
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
-        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload
-    ) {
+    @Transactional(readOnly = true)
+    @ConditionalGet({ Administrateur.class, User.class })
+    public ResponseEntity<List<AdministrateurSummary>> getAllAdministrateurs(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
         log.debug("REST request to get a page of Administrateurs");
-        Page<Administrateur> page;
-        if (eagerload) {
-            page = administrateurRepository.findAllWithEagerRelationships(pageable);
-        } else {
-            page = administrateurRepository.findAll(pageable);
-        }
+        Page<AdministrateurSummary> page = administrateurRepository.findAllSummaries(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
@@ -196,10 +239,69 @@ public class AdministrateurResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the administrateur, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Administrateur> getAdministrateur(@PathVariable("id") Long id) {
         log.debug("REST request to get Administrateur : {}", id);
-        Optional<Administrateur> administrateur = administrateurRepository.findOneWithEagerRelationships(id);
-        return ResponseUtil.wrapOrNotFound(administrateur);
+        return versionedResponses.wrapOrNotFound(
+            () -> administrateurRepository.findOneWithEagerRelationships(id),
+            Administrateur::getVersion,
+            Administrateur.class,
+            User.class
+        );
+    }
+
+    /**
+     * {@code GET  /administrateurs/:id/photo} : get the photo of the "id" administrateur.
+     * <p>
+     * Validated like the lists, so that it can be cached by the user agent and revalidated without being loaded.
+     *
+     * @param id the id of the administrateur.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the photo, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}/photo")
+    @Transactional(readOnly = true)
+    @ConditionalGet(Administrateur.class)
+    public ResponseEntity<byte[]> getAdministrateurPhoto(@PathVariable("id") Long id) {
+        log.debug("REST request to get the photo of Administrateur : {}", id);
+        return BinaryResponses.wrapOrNotFound(administrateurRepository.findPhotoDeProfileById(id));
+    }
+
+    /**
+     * {@code GET  /administrateurs?fields=:fields} : get a page of the administrateurs, reduced to some fields.
+     *
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of administrateurs in body, or with status {@code 400 (Bad Request)} if a field or a sort property is unknown.
+     */
+    @GetMapping(value = "", params = "fields")
+    @Transactional(readOnly = true)
+    @ConditionalGet({ Administrateur.class, User.class })
+    public ResponseEntity<List<Map<String, Object>>> getAllAdministrateursFields(
+        @RequestParam("fields") String fields,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a page of Administrateurs with fields : {}", fields);
+        Page<Map<String, Object>> page = sparseFieldsetRepository.findAll(
+            Administrateur.class,
+            SPARSE_FIELDSET.parse(fields),
+            SPARSE_FIELDSET.checkSort(pageable)
+        );
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /administrateurs/:id?fields=:fields} : get the "id" administrateur, reduced to some fields.
+     *
+     * @param id the id of the administrateur to retrieve.
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the administrateur, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    @Transactional(readOnly = true)
+    public ResponseEntity<Map<String, Object>> getAdministrateurFields(@PathVariable("id") Long id, @RequestParam("fields") String fields) {
+        log.debug("REST request to get Administrateur : {} with fields : {}", id, fields);
+        return ResponseUtil.wrapOrNotFound(sparseFieldsetRepository.findById(Administrateur.class, SPARSE_FIELDSET.parse(fields), id));
     }
 
     /**
@@ -0,0 +1,114 @@
+package tn.isimm.manager.web.rest;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import tech.jhipster.web.util.ResponseUtil;
+import tn.isimm.manager.repository.AttendanceRepository;
+import tn.isimm.manager.service.AttendanceService;
+import tn.isimm.manager.service.dto.AbsenceAlertDTO;
+import tn.isimm.manager.service.dto.AbsenceRateDTO;
+import tn.isimm.manager.service.dto.AttendanceSheetDTO;
+import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
+
+/**
+ * REST controller reporting the absences recorded by the {@code Presence} sheets.
+ */
+@RestController
+@RequestMapping("/api/attendance")
+public class AttendanceResource {
+
+    private static final String ENTITY_NAME = "attendance";
+
+    private static final int MAX_ALERTS = 1_000;
+
+    private final Logger log = LoggerFactory.getLogger(AttendanceResource.class);
+
+    private final AttendanceService attendanceService;
+
+    public AttendanceResource(AttendanceService attendanceService) {
+        this.attendanceService = attendanceService;
+    }
+
+    /**
+     * {@code GET  /attendance/etudiants/:id/rate} : get the absences of the "id" etudiant.
+     *
+     * @param id the id of the etudiant.
+     * @return the absence rate.
+     */
+    @GetMapping("/etudiants/{id}/rate")
+    public AbsenceRateDTO getEtudiantRate(@PathVariable("id") Long id) {
+        log.debug("REST request to get the absence rate of Etudiant : {}", id);
+        return attendanceService.findRate(AttendanceRepository.Scope.ETUDIANT, id);
+    }
+
+    /**
+     * {@code GET  /attendance/matieres/:id/rate} : get the absences of the etudiants of the "id" matiere.
+     *
+     * @param id the id of the matiere.
+     * @return the absence rate.
+     */
+    @GetMapping("/matieres/{id}/rate")
+    public AbsenceRateDTO getMatiereRate(@PathVariable("id") Long id) {
+        log.debug("REST request to get the absence rate of Matiere : {}", id);
+        return attendanceService.findRate(AttendanceRepository.Scope.MATIERE, id);
+    }
+
+    /**
+     * {@code GET  /attendance/niveaux/:id/rate} : get the absences of the etudiants of the "id" niveau.
+     *
+     * @param id the id of the niveau.
+     * @return the absence rate.
+     */
+    @GetMapping("/niveaux/{id}/rate")
+    public AbsenceRateDTO getNiveauRate(@PathVariable("id") Long id) {
+        log.debug("REST request to get the absence rate of Niveau : {}", id);
+        return attendanceService.findRate(AttendanceRepository.Scope.NIVEAU, id);
+    }
+
+    /**
+     * {@code GET  /attendance/alerts} : get the etudiants whose absence rate at a seance reached a threshold.
+     *
+     * @param threshold the absence rate, between 0 and 1, from which an etudiant is reported.
+     * @param minSessions the minimum number of sessions of a seance before its absences are reported.
+     * @param niveauId the id of the niveau of the seances, if any.
+     * @param matiereId the id of the matiere of the seances, if any.
+     * @param limit the maximum number of alerts, at most {@value #MAX_ALERTS}.
+     * @return the alerts, the highest rates first.
+     */
+    @GetMapping("/alerts")
+    public List<AbsenceAlertDTO> getAlerts(
+        @RequestParam(name = "threshold", defaultValue = "0.2") double threshold,
+        @RequestParam(name = "minSessions", defaultValue = "1") int minSessions,
+        @RequestParam(name = "niveauId", required = false) Long niveauId,
+        @RequestParam(name = "matiereId", required = false) Long matiereId,
+        @RequestParam(name = "limit", defaultValue = "100") int limit
+    ) {
+        log.debug("REST request to get the absence alerts from {} after {} sessions", threshold, minSessions);
+        if (!(threshold > 0 && threshold <= 1)) {
+            throw new BadRequestAlertException("The threshold must be between 0 and 1", ENTITY_NAME, "thresholdinvalid");
+        }
+        if (minSessions < 1 || limit < 1 || limit > MAX_ALERTS) {
+            throw new BadRequestAlertException("Invalid minSessions or limit", ENTITY_NAME, "limitinvalid");
+        }
+        return attendanceService.findAlerts(threshold, minSessions, niveauId, matiereId, limit);
+    }
+
+    /**
+     * {@code GET  /attendance/sheets/:id} : get the outcome of the ingestion of the "id" fichier admin.
+     *
+     * @param id the id of the {@code Presence} fichier admin.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/sheets/{id}")
+    public ResponseEntity<AttendanceSheetDTO> getSheet(@PathVariable("id") Long id) {
+        log.debug("REST request to get the ingestion of the attendance sheet : {}", id);
+        return ResponseUtil.wrapOrNotFound(attendanceService.findSheet(id));
+    }
+}
@@ -0,0 +1,108 @@
+package tn.isimm.manager.web.rest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
+import tn.isimm.manager.web.rest.vm.BatchItemVM;
+
+/**
+ * Utility class for the endpoints writing a batch of entities in a single transaction.
+ * <p>
+ * A batch is validated in one pass, against the entities loaded with a single query: if any item is invalid, nothing
+ * is written and the response lists the errors of the items. Otherwise all the items are flushed together, so that
+ * Hibernate groups the statements in JDBC batches ({@code hibernate.jdbc.batch_size}, {@code hibernate.order_inserts}
+ * and {@code hibernate.order_updates}).
+ */
+final class BatchWrites {
+
+    /**
+     * Maximum number of items of a batch, as all of them are held in the same persistence context.
+     */
+    static final int MAX_ITEMS = 1000;
+
+    private BatchWrites() {}
+
+    /**
+     * @param items the items of the batch.
+     * @param entityName the name of the entity, for the error message.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the batch is empty or too large.
+     */
+    static void checkSize(List<?> items, String entityName) {
+        if (items.isEmpty()) {
+            throw new BadRequestAlertException("A batch cannot be empty", entityName, "batchempty");
+        }
+        if (items.size() > MAX_ITEMS) {
+            throw new BadRequestAlertException("A batch cannot have more than " + MAX_ITEMS + " items", entityName, "batchtoolarge");
+        }
+    }
+
+    /**
+     * @param items the items of the batch.
+     * @param idOf the id of an item.
+     * @return the ids of the items that have one.
+     */
+    static <T> List<Long> ids(List<T> items, Function<T, Long> idOf) {
+        return items.stream().map(idOf).filter(Objects::nonNull).distinct().toList();
+    }
+
+    /**
+     * @param entities the entities found.
+     * @param idOf the id of an entity.
+     * @return the entities by id.
+     */
+    static <T> Map<Long, T> byId(List<T> entities, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T entity : entities) {
+            byId.put(idOf.apply(entity), entity);
+        }
+        return byId;
+    }
+
+    /**
+     * Check the items updating an entity: each must update a distinct existing entity, from its current version, an
+     * item without version being treated as a conflict. The items without id are not checked.
+     *
+     * @param items the items of the batch.
+     * @param existing the existing entities updated by the items, by id.
+     * @param idOf the id of an item or an entity.
+     * @param versionOf the version of an item or an entity.
+     * @return the errors, by item.
+     */
+    static <T> List<BatchItemVM> checkUpdates(List<T> items, Map<Long, T> existing, Function<T, Long> idOf, Function<T, Long> versionOf) {
+        List<BatchItemVM> errors = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int index = 0; index < items.size(); index++) {
+            T item = items.get(index);
+            Long id = idOf.apply(item);
+            if (id == null) {
+                continue;
+            }
+            T current = existing.get(id);
+            if (!seen.add(id)) {
+                errors.add(BatchItemVM.failed(index, id, HttpStatus.BAD_REQUEST, "idduplicate"));
+            } else if (current == null) {
+                errors.add(BatchItemVM.failed(index, id, HttpStatus.NOT_FOUND, "idnotfound"));
+            } else if (versionOf.apply(item) == null || !Objects.equals(versionOf.apply(item), versionOf.apply(current))) {
+                errors.add(BatchItemVM.failed(index, id, HttpStatus.CONFLICT, "versionmismatch"));
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * @param errors the errors of the items of a batch that was not written.
+     * @return the response with status {@code 400 (Bad Request)} and the errors in body.
+     */
+    static ResponseEntity<List<BatchItemVM>> rejected(List<BatchItemVM> errors) {
+        return ResponseEntity.badRequest().body(errors.stream().sorted(Comparator.comparingInt(BatchItemVM::getIndex)).toList());
+    }
+}
@@ -0,0 +1,39 @@
+package tn.isimm.manager.web.rest;
+
+import java.util.Optional;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import tn.isimm.manager.repository.projection.BinaryContent;
+
+/**
+ * Utility class building the responses serving a binary attribute of an entity, such as a photo or a file.
+ */
+final class BinaryResponses {
+
+    private BinaryResponses() {}
+
+    /**
+     * @param content the binary attribute, if the entity exists and has one.
+     * @return the response with the content as body and its content type.
+     * @throws ResponseStatusException {@code 404 (Not Found)} if there is no content.
+     */
+    static ResponseEntity<byte[]> wrapOrNotFound(Optional<BinaryContent> content) {
+        return content
+            .map(binary -> ResponseEntity.ok().contentType(mediaTypeOf(binary.contentType())).body(binary.content()))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    static MediaType mediaTypeOf(String contentType) {
+        if (contentType == null) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+        try {
+            return MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+}
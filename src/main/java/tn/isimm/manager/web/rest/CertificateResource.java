@@ -0,0 +1,76 @@
+package tn.isimm.manager.web.rest;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import tech.jhipster.web.util.ResponseUtil;
+import tn.isimm.manager.security.AuthoritiesConstants;
+import tn.isimm.manager.service.CertificateService;
+import tn.isimm.manager.service.dto.CertificateJobDTO;
+
+/**
+ * REST controller generating the success certificates of the etudiants of a niveau, and reporting the progress of the
+ * generations.
+ */
+@RestController
+@RequestMapping("/api/admin/certificates")
+@PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+public class CertificateResource {
+
+    private final Logger log = LoggerFactory.getLogger(CertificateResource.class);
+
+    private final CertificateService certificateService;
+
+    public CertificateResource(CertificateService certificateService) {
+        this.certificateService = certificateService;
+    }
+
+    /**
+     * {@code POST  /admin/certificates?niveauId=:niveauId} : generate the success certificates of the etudiants of a
+     * niveau, in the background.
+     *
+     * @param niveauId the id of the niveau.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)} and the queued job in body, or with status
+     * {@code 404 (Not Found)} if the niveau does not exist.
+     */
+    @PostMapping("")
+    public ResponseEntity<CertificateJobDTO> generateCertificates(@RequestParam(name = "niveauId") Long niveauId) {
+        log.debug("REST request to generate the success certificates of Niveau : {}", niveauId);
+        return certificateService
+            .generate(niveauId)
+            .map(job -> ResponseEntity.accepted().body(job))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * {@code GET  /admin/certificates} : get the last generations, the most recent first.
+     *
+     * @return the generations, with their progress and throughput.
+     */
+    @GetMapping("")
+    public List<CertificateJobDTO> getCertificateJobs() {
+        log.debug("REST request to get the generations of success certificates");
+        return certificateService.findJobs();
+    }
+
+    /**
+     * {@code GET  /admin/certificates/:id} : get the "id" generation.
+     *
+     * @param id the id of the generation.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the generation in body, or with status
+     * {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<CertificateJobDTO> getCertificateJob(@PathVariable("id") Long id) {
+        log.debug("REST request to get the generation of success certificates : {}", id);
+        return ResponseUtil.wrapOrNotFound(certificateService.findJob(id));
+    }
+}
@@ -3,18 +3,28 @@ package tn.isimm.manager.web.rest;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
 import tn.isimm.manager.domain.Club;
+import tn.isimm.manager.domain.Etudiant;
 import tn.isimm.manager.repository.ClubRepository;
+import tn.isimm.manager.repository.SparseFieldsetRepository;
+import tn.isimm.manager.service.AutocompleteService;
+import tn.isimm.manager.service.dto.AutocompleteItemDTO;
+import tn.isimm.manager.web.conditional.ConditionalGet;
+import tn.isimm.manager.web.conditional.VersionTags;
+import tn.isimm.manager.web.conditional.VersionedResponses;
 import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
 
 /**
@@ -29,13 +39,37 @@ public class ClubResource {
 
     private static final String ENTITY_NAME = "club";
 
+    private static final SparseFieldset SPARSE_FIELDSET = SparseFieldset.of(
+        ENTITY_NAME,
+        "id",
+        "version",
+        "nom",
+        "pageFB",
+        "pageIg",
+        "email"
+    );
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final ClubRepository clubRepository;
 
-    public ClubResource(ClubRepository clubRepository) {
+    private final AutocompleteService autocompleteService;
+
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+
+    private final VersionedResponses versionedResponses;
+
+    public ClubResource(
+        ClubRepository clubRepository,
+        AutocompleteService autocompleteService,
+        SparseFieldsetRepository sparseFieldsetRepository,
+        VersionedResponses versionedResponses
+    ) {
         this.clubRepository = clubRepository;
+        this.autocompleteService = autocompleteService;
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.versionedResponses = versionedResponses;
     }
 
     /**
@@ -62,15 +96,21 @@ public class ClubResource {
      * {@code PUT  /clubs/:id} : Updates an existing club.
      *
      * @param id the id of the club to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the club.
      * @param club the club to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated club,
      * or with status {@code 400 (Bad Request)} if the club is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the club couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Club> updateClub(@PathVariable(value = "id", required = false) final Long id, @RequestBody Club club)
-        throws URISyntaxException {
+    public ResponseEntity<Club> updateClub(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody Club club
+    ) throws URISyntaxException {
         log.debug("REST request to update Club : {}, {}", id, club);
         if (club.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -79,13 +119,17 @@ public class ClubResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!clubRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Club existingClub = clubRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        VersionTags.checkPreconditions(ifMatch, club.getVersion(), existingClub.getVersion(), ENTITY_NAME);
+        // Merged into the instance loaded above, so that no other select is issued
+        club.setVersion(existingClub.getVersion());
 
-        Club result = clubRepository.save(club);
+        Club result = clubRepository.saveAndFlush(club);
         return ResponseEntity
             .ok()
+            .eTag(VersionTags.of(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, club.getId().toString()))
             .body(result);
     }
@@ -94,16 +138,22 @@ public class ClubResource {
      * {@code PATCH  /clubs/:id} : Partial updates given fields of an existing club, field will ignore if it is null
      *
      * @param id the id of the club to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the club.
      * @param club the club to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated club,
      * or with status {@code 400 (Bad Request)} if the club is not valid,
      * or with status {@code 404 (Not Found)} if the club is not found,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the club couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
-    public ResponseEntity<Club> partialUpdateClub(@PathVariable(value = "id", required = false) final Long id, @RequestBody Club club)
-        throws URISyntaxException {
+    public ResponseEntity<Club> partialUpdateClub(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody Club club
+    ) throws URISyntaxException {
         log.debug("REST request to partial update Club partially : {}, {}", id, club);
         if (club.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -112,13 +162,10 @@ public class ClubResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!clubRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<Club> result = clubRepository
             .findById(club.getId())
             .map(existingClub -> {
+                VersionTags.checkPreconditions(ifMatch, club.getVersion(), existingClub.getVersion(), ENTITY_NAME);
                 if (club.getNom() != null) {
                     existingClub.setNom(club.getNom());
                 }
@@ -134,12 +181,17 @@ public class ClubResource {
 
                 return existingClub;
             })
-            .map(clubRepository::save);
+            .map(clubRepository::saveAndFlush);
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, club.getId().toString())
-        );
+        return result
+            .map(response ->
+                ResponseEntity
+                    .ok()
+                    .eTag(VersionTags.of(response.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, club.getId().toString()))
+                    .body(response)
+            )
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
     }
 
     /**
@@ -148,11 +200,31 @@ public class ClubResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of clubs in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
+    @ConditionalGet(Club.class)
     public List<Club> getAllClubs() {
         log.debug("REST request to get all Clubs");
         return clubRepository.findAll();
     }
 
+    /**
+     * {@code GET  /clubs/_autocomplete?prefix=:prefix} : suggest the clubs whose name has a word starting with the prefix.
+     * The suggestions are served from memory, without querying the database.
+     *
+     * @param prefix the prefix typed by the user.
+     * @param size the maximum number of suggestions to return.
+     * @return the list of suggestions, ordered alphabetically.
+     */
+    @GetMapping("/_autocomplete")
+    @Transactional(readOnly = true)
+    public List<AutocompleteItemDTO> autocompleteClubs(
+        @RequestParam(name = "prefix", required = false, defaultValue = "") String prefix,
+        @RequestParam(name = "size", required = false, defaultValue = "10") int size
+    ) {
+        log.debug("REST request to autocomplete Clubs : {}", prefix);
+        return autocompleteService.completeClubs(prefix, size);
+    }
+
     /**
      * {@code GET  /clubs/:id} : get the "id" club.
      *
@@ -160,10 +232,38 @@ public class ClubResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the club, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Club> getClub(@PathVariable("id") Long id) {
         log.debug("REST request to get Club : {}", id);
-        Optional<Club> club = clubRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(club);
+        return versionedResponses.wrapOrNotFound(() -> clubRepository.findById(id), Club::getVersion, Club.class, Etudiant.class);
+    }
+
+    /**
+     * {@code GET  /clubs?fields=:fields} : get all the clubs, reduced to some fields.
+     *
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the list of clubs, or status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "", params = "fields")
+    @Transactional(readOnly = true)
+    @ConditionalGet(Club.class)
+    public List<Map<String, Object>> getAllClubsFields(@RequestParam("fields") String fields) {
+        log.debug("REST request to get all Clubs with fields : {}", fields);
+        return sparseFieldsetRepository.findAll(Club.class, SPARSE_FIELDSET.parse(fields), Sort.by("id"));
+    }
+
+    /**
+     * {@code GET  /clubs/:id?fields=:fields} : get the "id" club, reduced to some fields.
+     *
+     * @param id the id of the club to retrieve.
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the club, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    @Transactional(readOnly = true)
+    public ResponseEntity<Map<String, Object>> getClubFields(@PathVariable("id") Long id, @RequestParam("fields") String fields) {
+        log.debug("REST request to get Club : {} with fields : {}", id, fields);
+        return ResponseUtil.wrapOrNotFound(sparseFieldsetRepository.findById(Club.class, SPARSE_FIELDSET.parse(fields), id));
     }
 
     /**
@@ -1,20 +1,45 @@
 package tn.isimm.manager.web.rest;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 import tn.isimm.manager.domain.Cours;
+import tn.isimm.manager.domain.Matiere;
 import tn.isimm.manager.repository.CoursRepository;
+import tn.isimm.manager.repository.FileKind;
+import tn.isimm.manager.repository.FileRepository;
+import tn.isimm.manager.repository.SparseFieldsetRepository;
+import tn.isimm.manager.repository.projection.CoursSummary;
+import tn.isimm.manager.service.CoursSearchService;
+import tn.isimm.manager.service.FileUploadService;
+import tn.isimm.manager.service.dto.CoursSearchResultDTO;
+import tn.isimm.manager.service.dto.StoredFileDTO;
+import tn.isimm.manager.web.conditional.ConditionalGet;
+import tn.isimm.manager.web.conditional.VersionTags;
+import tn.isimm.manager.web.conditional.VersionedResponses;
 import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
 
 /**
@@ -29,13 +54,44 @@ public class CoursResource {
 
     private static final String ENTITY_NAME = "cours";
 
+    private static final SparseFieldset SPARSE_FIELDSET = SparseFieldset.of(
+        ENTITY_NAME,
+        "id",
+        "version",
+        "titre",
+        "fileContentType",
+        "matiere"
+    );
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final CoursRepository coursRepository;
 
-    public CoursResource(CoursRepository coursRepository) {
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+
+    private final FileRepository fileRepository;
+
+    private final FileUploadService fileUploadService;
+
+    private final CoursSearchService coursSearchService;
+
+    private final VersionedResponses versionedResponses;
+
+    public CoursResource(
+        CoursRepository coursRepository,
+        SparseFieldsetRepository sparseFieldsetRepository,
+        FileRepository fileRepository,
+        FileUploadService fileUploadService,
+        CoursSearchService coursSearchService,
+        VersionedResponses versionedResponses
+    ) {
         this.coursRepository = coursRepository;
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.fileRepository = fileRepository;
+        this.fileUploadService = fileUploadService;
+        this.coursSearchService = coursSearchService;
+        this.versionedResponses = versionedResponses;
     }
 
     /**
@@ -62,15 +118,21 @@ public class CoursResource {
      * {@code PUT  /cours/:id} : Updates an existing cours.
      *
      * @param id the id of the cours to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the cours.
      * @param cours the cours to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated cours,
      * or with status {@code 400 (Bad Request)} if the cours is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the cours couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Cours> updateCours(@PathVariable(value = "id", required = false) final Long id, @RequestBody Cours cours)
-        throws URISyntaxException {
+    public ResponseEntity<Cours> updateCours(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody Cours cours
+    ) throws URISyntaxException {
         log.debug("REST request to update Cours : {}, {}", id, cours);
         if (cours.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -79,13 +141,17 @@ public class CoursResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!coursRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Cours existingCours = coursRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        VersionTags.checkPreconditions(ifMatch, cours.getVersion(), existingCours.getVersion(), ENTITY_NAME);
+        // Merged into the instance loaded above, so that no other select is issued
+        cours.setVersion(existingCours.getVersion());
 
-        Cours result = coursRepository.save(cours);
+        Cours result = coursRepository.saveAndFlush(cours);
         return ResponseEntity
             .ok()
+            .eTag(VersionTags.of(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, cours.getId().toString()))
             .body(result);
     }
@@ -94,16 +160,22 @@ public class CoursResource {
      * {@code PATCH  /cours/:id} : Partial updates given fields of an existing cours, field will ignore if it is null
      *
      * @param id the id of the cours to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the cours.
      * @param cours the cours to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated cours,
      * or with status {@code 400 (Bad Request)} if the cours is not valid,
      * or with status {@code 404 (Not Found)} if the cours is not found,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the cours couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
-    public ResponseEntity<Cours> partialUpdateCours(@PathVariable(value = "id", required = false) final Long id, @RequestBody Cours cours)
-        throws URISyntaxException {
+    public ResponseEntity<Cours> partialUpdateCours(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody Cours cours
+    ) throws URISyntaxException {
         log.debug("REST request to partial update Cours partially : {}, {}", id, cours);
         if (cours.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -112,13 +184,10 @@ public class CoursResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!coursRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<Cours> result = coursRepository
             .findById(cours.getId())
             .map(existingCours -> {
+                VersionTags.checkPreconditions(ifMatch, cours.getVersion(), existingCours.getVersion(), ENTITY_NAME);
                 if (cours.getTitre() != null) {
                     existingCours.setTitre(cours.getTitre());
                 }
@@ -131,23 +200,32 @@ public class CoursResource {
 
                 return existingCours;
             })
-            .map(coursRepository::save);
+            .map(coursRepository::saveAndFlush);
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, cours.getId().toString())
-        );
+        return result
+            .map(response ->
+                ResponseEntity
+                    .ok()
+                    .eTag(VersionTags.of(response.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, cours.getId().toString()))
+                    .body(response)
+            )
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
     }
 
     /**
      * {@code GET  /cours} : get all the cours.
+     * <p>
+     * The files are not selected: they are served by {@code GET  /cours/:id/file}.
      *
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of cours in body.
      */
     @GetMapping("")
-    public List<Cours> getAllCours() {
+    @Transactional(readOnly = true)
+    @ConditionalGet(Cours.class)
+    public List<CoursSummary> getAllCours() {
         log.debug("REST request to get all Cours");
-        return coursRepository.findAll();
+        return coursRepository.findAllSummaries();
     }
 
     /**
@@ -157,10 +235,133 @@ public class CoursResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the cours, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Cours> getCours(@PathVariable("id") Long id) {
         log.debug("REST request to get Cours : {}", id);
-        Optional<Cours> cours = coursRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(cours);
+        return versionedResponses.wrapOrNotFound(() -> coursRepository.findById(id), Cours::getVersion, Cours.class, Matiere.class);
+    }
+
+    /**
+     * {@code GET  /cours/:id/file} : get the file of the "id" cours.
+     * <p>
+     * Validated like the lists, so that it can be cached by the user agent and revalidated without being loaded. The file
+     * is streamed as stored when compressed and the {@code Accept-Encoding} of the request allows it.
+     *
+     * @param id the id of the cours.
+     * @param acceptEncoding the {@code Accept-Encoding} header of the request.
+     * @param response the response, with status {@code 200 (OK)} and with body the file, or with status {@code 404 (Not Found)}.
+     * @throws IOException if the file could not be sent.
+     */
+    @GetMapping("/{id}/file")
+    @Transactional(readOnly = true)
+    @ConditionalGet(Cours.class)
+    public void getCoursFile(
+        @PathVariable("id") Long id,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("REST request to get the file of Cours : {}", id);
+        FileDownloads.write(fileRepository, FileKind.COURS, id, acceptEncoding, response);
+    }
+
+    /**
+     * {@code PUT  /cours/:id/file} : replace the file of the "id" cours by the {@code file} part of a multipart request.
+     * <p>
+     * The part is streamed to the database, instead of being sent as Base64 in the JSON body of the cours.
+     *
+     * @param id the id of the cours.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the cours.
+     * @param file the file.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the size and hash of the stored file,
+     * or with status {@code 404 (Not Found)} if the cours is not found,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
+     * or with status {@code 413 (Payload Too Large)} if the file is larger than {@code application.uploads} allows.
+     */
+    @PutMapping(value = "/{id}/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<StoredFileDTO> uploadCoursFile(
+        @PathVariable("id") Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestPart("file") MultipartFile file
+    ) {
+        log.debug("REST request to upload the file of Cours : {}, {} bytes", id, file.getSize());
+        return FileUploads.store(fileUploadService, FileKind.COURS, id, ifMatch, file);
+    }
+
+    /**
+     * {@code PUT  /cours/:id/file} : replace the file of the "id" cours by the body of the request, of the type given by
+     * its {@code Content-Type}.
+     *
+     * @param id the id of the cours.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the cours.
+     * @param request the request, with a {@code Content-Length}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the size and hash of the stored file,
+     * or with status {@code 404 (Not Found)} if the cours is not found,
+     * or with status {@code 411 (Length Required)} if the length of the body is not known in advance,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
+     * or with status {@code 413 (Payload Too Large)} if the file is larger than {@code application.uploads} allows.
+     */
+    @PutMapping("/{id}/file")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<StoredFileDTO> uploadCoursFileContent(
+        @PathVariable("id") Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        HttpServletRequest request
+    ) {
+        log.debug("REST request to upload the file of Cours : {}, {} bytes", id, request.getContentLengthLong());
+        return FileUploads.store(fileUploadService, FileKind.COURS, id, ifMatch, request);
+    }
+
+    /**
+     * {@code GET  /cours/_search?query=:query} : search the text of the files of the cours.
+     * <p>
+     * Files are indexed in the background once uploaded, so a cours is only found shortly after its file was stored.
+     *
+     * @param query the words to search, all of which must be found, regardless of accents and case.
+     * @param matiereId the id of the matiere of the cours, if any.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matching cours in body, the best
+     * ranked first, with the passages of their files where the words were found.
+     */
+    @GetMapping("/_search")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<CoursSearchResultDTO>> searchCours(
+        @RequestParam("query") String query,
+        @RequestParam(value = "matiereId", required = false) Long matiereId,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search Courss for query {} in matiere {}", query, matiereId);
+        Page<CoursSearchResultDTO> page = coursSearchService.search(query, matiereId, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /cours?fields=:fields} : get all the cours, reduced to some fields.
+     *
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the list of cours, or status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "", params = "fields")
+    @Transactional(readOnly = true)
+    @ConditionalGet(Cours.class)
+    public List<Map<String, Object>> getAllCoursFields(@RequestParam("fields") String fields) {
+        log.debug("REST request to get all Courss with fields : {}", fields);
+        return sparseFieldsetRepository.findAll(Cours.class, SPARSE_FIELDSET.parse(fields), Sort.by("id"));
+    }
+
+    /**
+     * {@code GET  /cours/:id?fields=:fields} : get the "id" cours, reduced to some fields.
+     *
+     * @param id the id of the cours to retrieve.
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the cours, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    @Transactional(readOnly = true)
+    public ResponseEntity<Map<String, Object>> getCoursFields(@PathVariable("id") Long id, @RequestParam("fields") String fields) {
+        log.debug("REST request to get Cours : {} with fields : {}", id, fields);
+        return ResponseUtil.wrapOrNotFound(sparseFieldsetRepository.findById(Cours.class, SPARSE_FIELDSET.parse(fields), id));
     }
 
     /**
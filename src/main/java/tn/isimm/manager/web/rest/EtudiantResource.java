@@ -2,7 +2,9 @@ package tn.isimm.manager.web.rest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
@@ -11,6 +13,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
@@ -18,9 +21,19 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
+import tn.isimm.manager.domain.Club;
 import tn.isimm.manager.domain.Etudiant;
+import tn.isimm.manager.domain.FichierAdmin;
+import tn.isimm.manager.domain.Niveau;
+import tn.isimm.manager.domain.User;
 import tn.isimm.manager.repository.EtudiantRepository;
+import tn.isimm.manager.repository.SparseFieldsetRepository;
+import tn.isimm.manager.repository.projection.EtudiantSummary;
+import tn.isimm.manager.web.conditional.ConditionalGet;
+import tn.isimm.manager.web.conditional.VersionTags;
+import tn.isimm.manager.web.conditional.VersionedResponses;
 import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
+import tn.isimm.manager.web.rest.vm.BatchItemVM;
 
 /**
  * REST controller for managing {@link tn.isimm.manager.domain.Etudiant}.
@@ -34,13 +47,39 @@ public class EtudiantResource {
 
     private static final String ENTITY_NAME = "etudiant";
 
+    private static final SparseFieldset SPARSE_FIELDSET = SparseFieldset.of(
+        ENTITY_NAME,
+        "id",
+        "version",
+        "prenom",
+        "nom",
+        "email",
+        "numEtudiant",
+        "numTel",
+        "dateDeNaissance",
+        "photoDeProfileContentType",
+        "photoDeProfileHash",
+        "niveau",
+        "user"
+    );
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final EtudiantRepository etudiantRepository;
 
-    public EtudiantResource(EtudiantRepository etudiantRepository) {
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+
+    private final VersionedResponses versionedResponses;
+
+    public EtudiantResource(
+        EtudiantRepository etudiantRepository,
+        SparseFieldsetRepository sparseFieldsetRepository,
+        VersionedResponses versionedResponses
+    ) {
         this.etudiantRepository = etudiantRepository;
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.versionedResponses = versionedResponses;
     }
 
     /**
@@ -63,19 +102,54 @@ public class EtudiantResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /etudiants/batch} : Create a batch of etudiants in a single transaction.
+     * <p>
+     * Nothing is written if any etudiant has already an ID.
+     *
+     * @param etudiants the etudiants to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each etudiant,
+     * or with status {@code 400 (Bad Request)} and with body the errors of the etudiants that are not valid.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemVM>> createEtudiants(@RequestBody List<Etudiant> etudiants) {
+        log.debug("REST request to save a batch of {} Etudiants", etudiants.size());
+        BatchWrites.checkSize(etudiants, ENTITY_NAME);
+        List<BatchItemVM> errors = new ArrayList<>();
+        for (int index = 0; index < etudiants.size(); index++) {
+            if (etudiants.get(index).getId() != null) {
+                errors.add(BatchItemVM.failed(index, etudiants.get(index).getId(), HttpStatus.BAD_REQUEST, "idexists"));
+            }
+        }
+        if (!errors.isEmpty()) {
+            return BatchWrites.rejected(errors);
+        }
+
+        List<Etudiant> results = etudiantRepository.saveAllAndFlush(etudiants);
+        List<BatchItemVM> items = new ArrayList<>(results.size());
+        for (int index = 0; index < results.size(); index++) {
+            items.add(BatchItemVM.created(index, results.get(index).getId(), results.get(index).getVersion()));
+        }
+        return ResponseEntity.ok().body(items);
+    }
+
     /**
      * {@code PUT  /etudiants/:id} : Updates an existing etudiant.
      *
      * @param id the id of the etudiant to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the etudiant.
      * @param etudiant the etudiant to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated etudiant,
      * or with status {@code 400 (Bad Request)} if the etudiant is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the etudiant couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Etudiant> updateEtudiant(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Etudiant etudiant
     ) throws URISyntaxException {
         log.debug("REST request to update Etudiant : {}, {}", id, etudiant);
@@ -86,13 +160,17 @@ public class EtudiantResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!etudiantRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Etudiant existingEtudiant = etudiantRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        VersionTags.checkPreconditions(ifMatch, etudiant.getVersion(), existingEtudiant.getVersion(), ENTITY_NAME);
+        // Merged into the instance loaded above, so that no other select is issued
+        etudiant.setVersion(existingEtudiant.getVersion());
 
-        Etudiant result = etudiantRepository.save(etudiant);
+        Etudiant result = etudiantRepository.saveAndFlush(etudiant);
         return ResponseEntity
             .ok()
+            .eTag(VersionTags.of(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, etudiant.getId().toString()))
             .body(result);
     }
@@ -101,16 +179,20 @@ public class EtudiantResource {
      * {@code PATCH  /etudiants/:id} : Partial updates given fields of an existing etudiant, field will ignore if it is null
      *
      * @param id the id of the etudiant to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the etudiant.
      * @param etudiant the etudiant to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated etudiant,
      * or with status {@code 400 (Bad Request)} if the etudiant is not valid,
      * or with status {@code 404 (Not Found)} if the etudiant is not found,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the etudiant couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Etudiant> partialUpdateEtudiant(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Etudiant etudiant
     ) throws URISyntaxException {
         log.debug("REST request to partial update Etudiant partially : {}, {}", id, etudiant);
@@ -121,13 +203,10 @@ public class EtudiantResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!etudiantRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<Etudiant> result = etudiantRepository
             .findById(etudiant.getId())
             .map(existingEtudiant -> {
+                VersionTags.checkPreconditions(ifMatch, etudiant.getVersion(), existingEtudiant.getVersion(), ENTITY_NAME);
                 if (etudiant.getPrenom() != null) {
                     existingEtudiant.setPrenom(etudiant.getPrenom());
                 }
@@ -155,33 +234,34 @@ public class EtudiantResource {
 
                 return existingEtudiant;
             })
-            .map(etudiantRepository::save);
+            .map(etudiantRepository::saveAndFlush);
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, etudiant.getId().toString())
-        );
+        return result
+            .map(response ->
+                ResponseEntity
+                    .ok()
+                    .eTag(VersionTags.of(response.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, etudiant.getId().toString()))
+                    .body(response)
+            )
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
     }
 
     /**
      * {@code GET  /etudiants} : get all the etudiants.
+     * <p>
+     * Only the displayed columns and the ids of the associations are selected: the photo is served by
+     * {@code GET  /etudiants/:id/photo}.
      *
      * @param pageable the pagination information.
-     * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of etudiants in body.
      */
     @GetMapping("")
-    public ResponseEntity<List<Etudiant>> getAllEtudiants(
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
-        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload
-    ) {
+    @Transactional(readOnly = true)
+    @ConditionalGet({ Etudiant.class, User.class })
+    public ResponseEntity<List<EtudiantSummary>> getAllEtudiants(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
         log.debug("REST request to get a page of Etudiants");
-        Page<Etudiant> page;
-        if (eagerload) {
-            page = etudiantRepository.findAllWithEagerRelationships(pageable);
-        } else {
-            page = etudiantRepository.findAll(pageable);
-        }
+        Page<EtudiantSummary> page = etudiantRepository.findAllSummaries(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
@@ -193,10 +273,72 @@ public class EtudiantResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the etudiant, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Etudiant> getEtudiant(@PathVariable("id") Long id) {
         log.debug("REST request to get Etudiant : {}", id);
-        Optional<Etudiant> etudiant = etudiantRepository.findOneWithEagerRelationships(id);
-        return ResponseUtil.wrapOrNotFound(etudiant);
+        return versionedResponses.wrapOrNotFound(
+            () -> etudiantRepository.findOneWithEagerRelationships(id),
+            Etudiant::getVersion,
+            Etudiant.class,
+            FichierAdmin.class,
+            Niveau.class,
+            Club.class,
+            User.class
+        );
+    }
+
+    /**
+     * {@code GET  /etudiants/:id/photo} : get the photo of the "id" etudiant.
+     * <p>
+     * Validated like the lists, so that it can be cached by the user agent and revalidated without being loaded.
+     *
+     * @param id the id of the etudiant.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the photo, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}/photo")
+    @Transactional(readOnly = true)
+    @ConditionalGet(Etudiant.class)
+    public ResponseEntity<byte[]> getEtudiantPhoto(@PathVariable("id") Long id) {
+        log.debug("REST request to get the photo of Etudiant : {}", id);
+        return BinaryResponses.wrapOrNotFound(etudiantRepository.findPhotoDeProfileById(id));
+    }
+
+    /**
+     * {@code GET  /etudiants?fields=:fields} : get a page of the etudiants, reduced to some fields.
+     *
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of etudiants in body, or with status {@code 400 (Bad Request)} if a field or a sort property is unknown.
+     */
+    @GetMapping(value = "", params = "fields")
+    @Transactional(readOnly = true)
+    @ConditionalGet({ Etudiant.class, User.class })
+    public ResponseEntity<List<Map<String, Object>>> getAllEtudiantsFields(
+        @RequestParam("fields") String fields,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a page of Etudiants with fields : {}", fields);
+        Page<Map<String, Object>> page = sparseFieldsetRepository.findAll(
+            Etudiant.class,
+            SPARSE_FIELDSET.parse(fields),
+            SPARSE_FIELDSET.checkSort(pageable)
+        );
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /etudiants/:id?fields=:fields} : get the "id" etudiant, reduced to some fields.
+     *
+     * @param id the id of the etudiant to retrieve.
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the etudiant, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    @Transactional(readOnly = true)
+    public ResponseEntity<Map<String, Object>> getEtudiantFields(@PathVariable("id") Long id, @RequestParam("fields") String fields) {
+        log.debug("REST request to get Etudiant : {} with fields : {}", id, fields);
+        return ResponseUtil.wrapOrNotFound(sparseFieldsetRepository.findById(Etudiant.class, SPARSE_FIELDSET.parse(fields), id));
     }
 
     /**
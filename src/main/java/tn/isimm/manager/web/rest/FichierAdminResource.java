@@ -1,20 +1,39 @@
 package tn.isimm.manager.web.rest;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
+import tn.isimm.manager.domain.Etudiant;
 import tn.isimm.manager.domain.FichierAdmin;
 import tn.isimm.manager.repository.FichierAdminRepository;
+import tn.isimm.manager.repository.FileKind;
+import tn.isimm.manager.repository.FileRepository;
+import tn.isimm.manager.repository.SparseFieldsetRepository;
+import tn.isimm.manager.repository.projection.FichierAdminSummary;
+import tn.isimm.manager.service.FileUploadService;
+import tn.isimm.manager.service.dto.StoredFileDTO;
+import tn.isimm.manager.web.conditional.ConditionalGet;
+import tn.isimm.manager.web.conditional.VersionTags;
+import tn.isimm.manager.web.conditional.VersionedResponses;
 import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
 
 /**
@@ -29,13 +48,42 @@ public class FichierAdminResource {
 
     private static final String ENTITY_NAME = "fichierAdmin";
 
+    private static final SparseFieldset SPARSE_FIELDSET = SparseFieldset.of(
+        ENTITY_NAME,
+        "id",
+        "version",
+        "titre",
+        "type",
+        "fileContentType",
+        "demandeValide",
+        "etudiant"
+    );
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final FichierAdminRepository fichierAdminRepository;
 
-    public FichierAdminResource(FichierAdminRepository fichierAdminRepository) {
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+
+    private final FileRepository fileRepository;
+
+    private final FileUploadService fileUploadService;
+
+    private final VersionedResponses versionedResponses;
+
+    public FichierAdminResource(
+        FichierAdminRepository fichierAdminRepository,
+        SparseFieldsetRepository sparseFieldsetRepository,
+        FileRepository fileRepository,
+        FileUploadService fileUploadService,
+        VersionedResponses versionedResponses
+    ) {
         this.fichierAdminRepository = fichierAdminRepository;
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.fileRepository = fileRepository;
+        this.fileUploadService = fileUploadService;
+        this.versionedResponses = versionedResponses;
     }
 
     /**
@@ -62,15 +110,19 @@ public class FichierAdminResource {
      * {@code PUT  /fichier-admins/:id} : Updates an existing fichierAdmin.
      *
      * @param id the id of the fichierAdmin to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the fichierAdmin.
      * @param fichierAdmin the fichierAdmin to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated fichierAdmin,
      * or with status {@code 400 (Bad Request)} if the fichierAdmin is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the fichierAdmin couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<FichierAdmin> updateFichierAdmin(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody FichierAdmin fichierAdmin
     ) throws URISyntaxException {
         log.debug("REST request to update FichierAdmin : {}, {}", id, fichierAdmin);
@@ -81,13 +133,17 @@ public class FichierAdminResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!fichierAdminRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        FichierAdmin existingFichierAdmin = fichierAdminRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        VersionTags.checkPreconditions(ifMatch, fichierAdmin.getVersion(), existingFichierAdmin.getVersion(), ENTITY_NAME);
+        // Merged into the instance loaded above, so that no other select is issued
+        fichierAdmin.setVersion(existingFichierAdmin.getVersion());
 
-        FichierAdmin result = fichierAdminRepository.save(fichierAdmin);
+        FichierAdmin result = fichierAdminRepository.saveAndFlush(fichierAdmin);
         return ResponseEntity
             .ok()
+            .eTag(VersionTags.of(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, fichierAdmin.getId().toString()))
             .body(result);
     }
@@ -96,16 +152,20 @@ public class FichierAdminResource {
      * {@code PATCH  /fichier-admins/:id} : Partial updates given fields of an existing fichierAdmin, field will ignore if it is null
      *
      * @param id the id of the fichierAdmin to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the fichierAdmin.
      * @param fichierAdmin the fichierAdmin to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated fichierAdmin,
      * or with status {@code 400 (Bad Request)} if the fichierAdmin is not valid,
      * or with status {@code 404 (Not Found)} if the fichierAdmin is not found,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the fichierAdmin couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<FichierAdmin> partialUpdateFichierAdmin(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody FichierAdmin fichierAdmin
     ) throws URISyntaxException {
         log.debug("REST request to partial update FichierAdmin partially : {}, {}", id, fichierAdmin);
@@ -116,13 +176,10 @@ public class FichierAdminResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!fichierAdminRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<FichierAdmin> result = fichierAdminRepository
             .findById(fichierAdmin.getId())
             .map(existingFichierAdmin -> {
+                VersionTags.checkPreconditions(ifMatch, fichierAdmin.getVersion(), existingFichierAdmin.getVersion(), ENTITY_NAME);
                 if (fichierAdmin.getTitre() != null) {
                     existingFichierAdmin.setTitre(fichierAdmin.getTitre());
                 }
@@ -141,23 +198,32 @@ public class FichierAdminResource {
 
                 return existingFichierAdmin;
             })
-            .map(fichierAdminRepository::save);
+            .map(fichierAdminRepository::saveAndFlush);
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, fichierAdmin.getId().toString())
-        );
+        return result
+            .map(response ->
+                ResponseEntity
+                    .ok()
+                    .eTag(VersionTags.of(response.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, fichierAdmin.getId().toString()))
+                    .body(response)
+            )
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
     }
 
     /**
      * {@code GET  /fichier-admins} : get all the fichierAdmins.
+     * <p>
+     * The files are not selected: they are served by {@code GET  /fichier-admins/:id/file}.
      *
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of fichierAdmins in body.
      */
     @GetMapping("")
-    public List<FichierAdmin> getAllFichierAdmins() {
+    @Transactional(readOnly = true)
+    @ConditionalGet(FichierAdmin.class)
+    public List<FichierAdminSummary> getAllFichierAdmins() {
         log.debug("REST request to get all FichierAdmins");
-        return fichierAdminRepository.findAll();
+        return fichierAdminRepository.findAllSummaries();
     }
 
     /**
@@ -167,10 +233,114 @@ public class FichierAdminResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the fichierAdmin, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<FichierAdmin> getFichierAdmin(@PathVariable("id") Long id) {
         log.debug("REST request to get FichierAdmin : {}", id);
-        Optional<FichierAdmin> fichierAdmin = fichierAdminRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(fichierAdmin);
+        return versionedResponses.wrapOrNotFound(
+            () -> fichierAdminRepository.findById(id),
+            FichierAdmin::getVersion,
+            FichierAdmin.class,
+            Etudiant.class
+        );
+    }
+
+    /**
+     * {@code GET  /fichier-admins/:id/file} : get the file of the "id" fichierAdmin.
+     * <p>
+     * Validated like the lists, so that it can be cached by the user agent and revalidated without being loaded. The file
+     * is streamed as stored when compressed and the {@code Accept-Encoding} of the request allows it.
+     *
+     * @param id the id of the fichierAdmin.
+     * @param acceptEncoding the {@code Accept-Encoding} header of the request.
+     * @param response the response, with status {@code 200 (OK)} and with body the file, or with status {@code 404 (Not Found)}.
+     * @throws IOException if the file could not be sent.
+     */
+    @GetMapping("/{id}/file")
+    @Transactional(readOnly = true)
+    @ConditionalGet(FichierAdmin.class)
+    public void getFichierAdminFile(
+        @PathVariable("id") Long id,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("REST request to get the file of FichierAdmin : {}", id);
+        FileDownloads.write(fileRepository, FileKind.FICHIER_ADMIN, id, acceptEncoding, response);
+    }
+
+    /**
+     * {@code PUT  /fichier-admins/:id/file} : replace the file of the "id" fichierAdmin by the {@code file} part of a multipart request.
+     * <p>
+     * The part is streamed to the database, instead of being sent as Base64 in the JSON body of the fichierAdmin.
+     *
+     * @param id the id of the fichierAdmin.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the fichierAdmin.
+     * @param file the file.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the size and hash of the stored file,
+     * or with status {@code 404 (Not Found)} if the fichierAdmin is not found,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
+     * or with status {@code 413 (Payload Too Large)} if the file is larger than {@code application.uploads} allows.
+     */
+    @PutMapping(value = "/{id}/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<StoredFileDTO> uploadFichierAdminFile(
+        @PathVariable("id") Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestPart("file") MultipartFile file
+    ) {
+        log.debug("REST request to upload the file of FichierAdmin : {}, {} bytes", id, file.getSize());
+        return FileUploads.store(fileUploadService, FileKind.FICHIER_ADMIN, id, ifMatch, file);
+    }
+
+    /**
+     * {@code PUT  /fichier-admins/:id/file} : replace the file of the "id" fichierAdmin by the body of the request, of the type given by
+     * its {@code Content-Type}.
+     *
+     * @param id the id of the fichierAdmin.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the fichierAdmin.
+     * @param request the request, with a {@code Content-Length}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the size and hash of the stored file,
+     * or with status {@code 404 (Not Found)} if the fichierAdmin is not found,
+     * or with status {@code 411 (Length Required)} if the length of the body is not known in advance,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
+     * or with status {@code 413 (Payload Too Large)} if the file is larger than {@code application.uploads} allows.
+     */
+    @PutMapping("/{id}/file")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<StoredFileDTO> uploadFichierAdminFileContent(
+        @PathVariable("id") Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        HttpServletRequest request
+    ) {
+        log.debug("REST request to upload the file of FichierAdmin : {}, {} bytes", id, request.getContentLengthLong());
+        return FileUploads.store(fileUploadService, FileKind.FICHIER_ADMIN, id, ifMatch, request);
+    }
+
+    /**
+     * {@code GET  /fichier-admins?fields=:fields} : get all the fichier-admins, reduced to some fields.
+     *
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the list of fichier-admins, or status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "", params = "fields")
+    @Transactional(readOnly = true)
+    @ConditionalGet(FichierAdmin.class)
+    public List<Map<String, Object>> getAllFichierAdminsFields(@RequestParam("fields") String fields) {
+        log.debug("REST request to get all FichierAdmins with fields : {}", fields);
+        return sparseFieldsetRepository.findAll(FichierAdmin.class, SPARSE_FIELDSET.parse(fields), Sort.by("id"));
+    }
+
+    /**
+     * {@code GET  /fichier-admins/:id?fields=:fields} : get the "id" fichierAdmin, reduced to some fields.
+     *
+     * @param id the id of the fichierAdmin to retrieve.
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the fichierAdmin, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    @Transactional(readOnly = true)
+    public ResponseEntity<Map<String, Object>> getFichierAdminFields(@PathVariable("id") Long id, @RequestParam("fields") String fields) {
+        log.debug("REST request to get FichierAdmin : {} with fields : {}", id, fields);
+        return ResponseUtil.wrapOrNotFound(sparseFieldsetRepository.findById(FichierAdmin.class, SPARSE_FIELDSET.parse(fields), id));
     }
 
     /**
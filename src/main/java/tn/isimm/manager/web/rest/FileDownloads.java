@@ -0,0 +1,86 @@
+package tn.isimm.manager.web.rest;
+
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import tn.isimm.manager.domain.StoredFileCodec;
+import tn.isimm.manager.repository.FileKind;
+import tn.isimm.manager.repository.FileRepository;
+
+/**
+ * Utility class for the endpoints streaming the file of an entity from the database to the response.
+ * <p>
+ * A compressed file is sent as it is stored, with its {@code Content-Encoding}, to the clients accepting that encoding,
+ * and decompressed while it is sent to the others.
+ */
+final class FileDownloads {
+
+    private FileDownloads() {}
+
+    /**
+     * @param fileRepository the repository reading the file.
+     * @param kind the kind of the owner.
+     * @param id the id of the owner.
+     * @param acceptEncoding the {@code Accept-Encoding} header of the request, if any.
+     * @param response the response the file is written to.
+     * @throws ResponseStatusException {@code 404 (Not Found)} if the owner does not exist or has no file.
+     * @throws IOException if the file could not be sent.
+     */
+    static void write(FileRepository fileRepository, FileKind kind, Long id, String acceptEncoding, HttpServletResponse response)
+        throws IOException {
+        boolean found = fileRepository.readFile(
+            kind,
+            id,
+            file -> {
+                StoredFileCodec.Encoded encoded = StoredFileCodec.open(file.content());
+                response.setContentType(BinaryResponses.mediaTypeOf(file.contentType()).toString());
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                InputStream body;
+                if (encoded.encoding() != null && accepts(acceptEncoding, encoded.encoding())) {
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, encoded.encoding());
+                    body = encoded.content();
+                } else {
+                    body = encoded.decoded();
+                }
+                OutputStream output = response.getOutputStream();
+                body.transferTo(output);
+                output.flush();
+            }
+        );
+        if (!found) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * @param acceptEncoding an {@code Accept-Encoding} header, if any.
+     * @param encoding a content coding.
+     * @return {@code true} if the header accepts the coding, that is if it lists it or {@code *} without {@code q=0}.
+     */
+    static boolean accepts(String acceptEncoding, String encoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals(encoding) && !coding.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int index = 1; index < parts.length; index++) {
+                String parameter = parts[index].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    refused = parameter.substring(2).trim().matches("0(\\.0{0,3})?");
+                }
+            }
+            return !refused;
+        }
+        return false;
+    }
+}
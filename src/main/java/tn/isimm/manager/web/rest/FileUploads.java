@@ -0,0 +1,118 @@
+package tn.isimm.manager.web.rest;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import tn.isimm.manager.repository.FileKind;
+import tn.isimm.manager.service.FileUploadService;
+import tn.isimm.manager.service.dto.StoredFileDTO;
+import tn.isimm.manager.web.conditional.VersionTags;
+import tn.isimm.manager.web.rest.errors.PreconditionFailedException;
+
+/**
+ * Utility class for the endpoints streaming an uploaded file to an entity, either as a {@code file} part of a
+ * {@code multipart/form-data} request, or as the raw body of the request.
+ * <p>
+ * The size of the file is checked against the limit of the entity before any byte of it is read. The endpoints must
+ * not run in a transaction, as the file is stored in a transaction of its own. An {@code If-Match} header is checked
+ * by the statement writing the file.
+ */
+final class FileUploads {
+
+    private FileUploads() {}
+
+    /**
+     * @param fileUploadService the service storing the file.
+     * @param kind the kind of the owner.
+     * @param id the id of the owner.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the owner, if any.
+     * @param file the uploaded part, already spooled to disk by the servlet container.
+     * @return the response with the stored file as body and the new version of the owner as entity tag.
+     */
+    static ResponseEntity<StoredFileDTO> store(
+        FileUploadService fileUploadService,
+        FileKind kind,
+        Long id,
+        String ifMatch,
+        MultipartFile file
+    ) {
+        checkSize(fileUploadService, kind, file.getSize());
+        List<Long> expectedVersions = VersionTags.parseIfMatch(ifMatch, entityName(kind));
+        try (InputStream content = file.getInputStream()) {
+            return store(fileUploadService, kind, id, expectedVersions, content, file.getSize(), file.getContentType());
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The file could not be read", e);
+        }
+    }
+
+    /**
+     * @param fileUploadService the service storing the file.
+     * @param kind the kind of the owner.
+     * @param id the id of the owner.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the owner, if any.
+     * @param request the request, whose body is the file and whose {@code Content-Length} is required.
+     * @return the response with the stored file as body and the new version of the owner as entity tag.
+     */
+    static ResponseEntity<StoredFileDTO> store(
+        FileUploadService fileUploadService,
+        FileKind kind,
+        Long id,
+        String ifMatch,
+        HttpServletRequest request
+    ) {
+        long length = request.getContentLengthLong();
+        if (length < 0) {
+            throw new ResponseStatusException(HttpStatus.LENGTH_REQUIRED);
+        }
+        checkSize(fileUploadService, kind, length);
+        List<Long> expectedVersions = VersionTags.parseIfMatch(ifMatch, entityName(kind));
+        try (InputStream content = request.getInputStream()) {
+            return store(fileUploadService, kind, id, expectedVersions, content, length, request.getContentType());
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The file could not be read", e);
+        }
+    }
+
+    private static ResponseEntity<StoredFileDTO> store(
+        FileUploadService fileUploadService,
+        FileKind kind,
+        Long id,
+        List<Long> expectedVersions,
+        InputStream content,
+        long length,
+        String contentType
+    ) throws IOException {
+        String type = contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        StoredFileDTO storedFile;
+        try {
+            storedFile =
+                fileUploadService
+                    .store(kind, id, content, length, type, expectedVersions)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        } catch (OptimisticLockingFailureException e) {
+            throw new PreconditionFailedException("Entity was modified", entityName(kind), "versionmismatch");
+        }
+        return ResponseEntity.ok().eTag(VersionTags.of(storedFile.getVersion())).body(storedFile);
+    }
+
+    private static String entityName(FileKind kind) {
+        return StringUtils.uncapitalize(kind.getEntityType().getSimpleName());
+    }
+
+    private static void checkSize(FileUploadService fileUploadService, FileKind kind, long length) {
+        if (length > fileUploadService.getMaxSize(kind)) {
+            throw new ResponseStatusException(
+                HttpStatus.PAYLOAD_TOO_LARGE,
+                "The file is larger than " + fileUploadService.getMaxSize(kind) + " bytes"
+            );
+        }
+    }
+}
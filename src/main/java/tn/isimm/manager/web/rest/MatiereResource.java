@@ -3,19 +3,33 @@ package tn.isimm.manager.web.rest;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
+import tn.isimm.manager.domain.Cours;
 import tn.isimm.manager.domain.Matiere;
+import tn.isimm.manager.domain.Note;
+import tn.isimm.manager.domain.Professeur;
+import tn.isimm.manager.domain.Seance;
+import tn.isimm.manager.domain.Semestre;
 import tn.isimm.manager.repository.MatiereRepository;
+import tn.isimm.manager.repository.SparseFieldsetRepository;
+import tn.isimm.manager.service.AutocompleteService;
+import tn.isimm.manager.service.dto.AutocompleteItemDTO;
+import tn.isimm.manager.web.conditional.ConditionalGet;
+import tn.isimm.manager.web.conditional.VersionTags;
+import tn.isimm.manager.web.conditional.VersionedResponses;
 import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
 
 /**
@@ -30,13 +44,37 @@ public class MatiereResource {
 
     private static final String ENTITY_NAME = "matiere";
 
+    private static final SparseFieldset SPARSE_FIELDSET = SparseFieldset.of(
+        ENTITY_NAME,
+        "id",
+        "version",
+        "nomMatiere",
+        "semestre",
+        "note",
+        "seance"
+    );
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final MatiereRepository matiereRepository;
 
-    public MatiereResource(MatiereRepository matiereRepository) {
+    private final AutocompleteService autocompleteService;
+
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+
+    private final VersionedResponses versionedResponses;
+
+    public MatiereResource(
+        MatiereRepository matiereRepository,
+        AutocompleteService autocompleteService,
+        SparseFieldsetRepository sparseFieldsetRepository,
+        VersionedResponses versionedResponses
+    ) {
         this.matiereRepository = matiereRepository;
+        this.autocompleteService = autocompleteService;
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.versionedResponses = versionedResponses;
     }
 
     /**
@@ -63,15 +101,21 @@ public class MatiereResource {
      * {@code PUT  /matieres/:id} : Updates an existing matiere.
      *
      * @param id the id of the matiere to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the matiere.
      * @param matiere the matiere to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated matiere,
      * or with status {@code 400 (Bad Request)} if the matiere is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the matiere couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Matiere> updateMatiere(@PathVariable(value = "id", required = false) final Long id, @RequestBody Matiere matiere)
-        throws URISyntaxException {
+    public ResponseEntity<Matiere> updateMatiere(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody Matiere matiere
+    ) throws URISyntaxException {
         log.debug("REST request to update Matiere : {}, {}", id, matiere);
         if (matiere.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -80,13 +124,17 @@ public class MatiereResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!matiereRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Matiere existingMatiere = matiereRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        VersionTags.checkPreconditions(ifMatch, matiere.getVersion(), existingMatiere.getVersion(), ENTITY_NAME);
+        // Merged into the instance loaded above, so that no other select is issued
+        matiere.setVersion(existingMatiere.getVersion());
 
-        Matiere result = matiereRepository.save(matiere);
+        Matiere result = matiereRepository.saveAndFlush(matiere);
         return ResponseEntity
             .ok()
+            .eTag(VersionTags.of(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, matiere.getId().toString()))
             .body(result);
     }
@@ -95,16 +143,20 @@ public class MatiereResource {
      * {@code PATCH  /matieres/:id} : Partial updates given fields of an existing matiere, field will ignore if it is null
      *
      * @param id the id of the matiere to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the matiere.
      * @param matiere the matiere to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated matiere,
      * or with status {@code 400 (Bad Request)} if the matiere is not valid,
      * or with status {@code 404 (Not Found)} if the matiere is not found,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the matiere couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Matiere> partialUpdateMatiere(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Matiere matiere
     ) throws URISyntaxException {
         log.debug("REST request to partial update Matiere partially : {}, {}", id, matiere);
@@ -115,25 +167,27 @@ public class MatiereResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!matiereRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<Matiere> result = matiereRepository
             .findById(matiere.getId())
             .map(existingMatiere -> {
+                VersionTags.checkPreconditions(ifMatch, matiere.getVersion(), existingMatiere.getVersion(), ENTITY_NAME);
                 if (matiere.getNomMatiere() != null) {
                     existingMatiere.setNomMatiere(matiere.getNomMatiere());
                 }
 
                 return existingMatiere;
             })
-            .map(matiereRepository::save);
+            .map(matiereRepository::saveAndFlush);
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, matiere.getId().toString())
-        );
+        return result
+            .map(response ->
+                ResponseEntity
+                    .ok()
+                    .eTag(VersionTags.of(response.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, matiere.getId().toString()))
+                    .body(response)
+            )
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
     }
 
     /**
@@ -143,16 +197,36 @@ public class MatiereResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matieres in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
+    @ConditionalGet({ Matiere.class, Seance.class })
     public List<Matiere> getAllMatieres(@RequestParam(name = "filter", required = false) String filter) {
         if ("seance-is-null".equals(filter)) {
             log.debug("REST request to get all Matieres where seance is null");
             return StreamSupport
-                .stream(matiereRepository.findAll().spliterator(), false)
+                .stream(matiereRepository.findAllWithSeance().spliterator(), false)
                 .filter(matiere -> matiere.getSeance() == null)
                 .toList();
         }
         log.debug("REST request to get all Matieres");
-        return matiereRepository.findAll();
+        return matiereRepository.findAllWithSeance();
+    }
+
+    /**
+     * {@code GET  /matieres/_autocomplete?prefix=:prefix} : suggest the matieres whose name has a word starting with the prefix.
+     * The suggestions are served from memory, without querying the database.
+     *
+     * @param prefix the prefix typed by the user.
+     * @param size the maximum number of suggestions to return.
+     * @return the list of suggestions, ordered alphabetically.
+     */
+    @GetMapping("/_autocomplete")
+    @Transactional(readOnly = true)
+    public List<AutocompleteItemDTO> autocompleteMatieres(
+        @RequestParam(name = "prefix", required = false, defaultValue = "") String prefix,
+        @RequestParam(name = "size", required = false, defaultValue = "10") int size
+    ) {
+        log.debug("REST request to autocomplete Matieres : {}", prefix);
+        return autocompleteService.completeMatieres(prefix, size);
     }
 
     /**
@@ -162,10 +236,47 @@ public class MatiereResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the matiere, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Matiere> getMatiere(@PathVariable("id") Long id) {
         log.debug("REST request to get Matiere : {}", id);
-        Optional<Matiere> matiere = matiereRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(matiere);
+        return versionedResponses.wrapOrNotFound(
+            () -> matiereRepository.findById(id),
+            Matiere::getVersion,
+            Matiere.class,
+            Semestre.class,
+            Note.class,
+            Cours.class,
+            Seance.class,
+            Professeur.class
+        );
+    }
+
+    /**
+     * {@code GET  /matieres?fields=:fields} : get all the matieres, reduced to some fields.
+     *
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the list of matieres, or status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "", params = { "fields", "!filter" })
+    @Transactional(readOnly = true)
+    @ConditionalGet({ Matiere.class, Seance.class })
+    public List<Map<String, Object>> getAllMatieresFields(@RequestParam("fields") String fields) {
+        log.debug("REST request to get all Matieres with fields : {}", fields);
+        return sparseFieldsetRepository.findAll(Matiere.class, SPARSE_FIELDSET.parse(fields), Sort.by("id"));
+    }
+
+    /**
+     * {@code GET  /matieres/:id?fields=:fields} : get the "id" matiere, reduced to some fields.
+     *
+     * @param id the id of the matiere to retrieve.
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the matiere, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    @Transactional(readOnly = true)
+    public ResponseEntity<Map<String, Object>> getMatiereFields(@PathVariable("id") Long id, @RequestParam("fields") String fields) {
+        log.debug("REST request to get Matiere : {} with fields : {}", id, fields);
+        return ResponseUtil.wrapOrNotFound(sparseFieldsetRepository.findById(Matiere.class, SPARSE_FIELDSET.parse(fields), id));
     }
 
     /**
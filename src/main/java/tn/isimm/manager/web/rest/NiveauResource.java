@@ -3,18 +3,30 @@ package tn.isimm.manager.web.rest;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
+import tn.isimm.manager.domain.Etudiant;
 import tn.isimm.manager.domain.Niveau;
+import tn.isimm.manager.domain.Seance;
+import tn.isimm.manager.domain.Semestre;
 import tn.isimm.manager.repository.NiveauRepository;
+import tn.isimm.manager.repository.SparseFieldsetRepository;
+import tn.isimm.manager.service.AutocompleteService;
+import tn.isimm.manager.service.dto.AutocompleteItemDTO;
+import tn.isimm.manager.web.conditional.ConditionalGet;
+import tn.isimm.manager.web.conditional.VersionTags;
+import tn.isimm.manager.web.conditional.VersionedResponses;
 import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
 
 /**
@@ -29,13 +41,29 @@ public class NiveauResource {
 
     private static final String ENTITY_NAME = "niveau";
 
+    private static final SparseFieldset SPARSE_FIELDSET = SparseFieldset.of(ENTITY_NAME, "id", "version", "classe", "tp", "td", "semestre");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final NiveauRepository niveauRepository;
 
-    public NiveauResource(NiveauRepository niveauRepository) {
+    private final AutocompleteService autocompleteService;
+
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+
+    private final VersionedResponses versionedResponses;
+
+    public NiveauResource(
+        NiveauRepository niveauRepository,
+        AutocompleteService autocompleteService,
+        SparseFieldsetRepository sparseFieldsetRepository,
+        VersionedResponses versionedResponses
+    ) {
         this.niveauRepository = niveauRepository;
+        this.autocompleteService = autocompleteService;
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.versionedResponses = versionedResponses;
     }
 
     /**
@@ -62,15 +90,21 @@ public class NiveauResource {
      * {@code PUT  /niveaus/:id} : Updates an existing niveau.
      *
      * @param id the id of the niveau to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the niveau.
      * @param niveau the niveau to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated niveau,
      * or with status {@code 400 (Bad Request)} if the niveau is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the niveau couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Niveau> updateNiveau(@PathVariable(value = "id", required = false) final Long id, @RequestBody Niveau niveau)
-        throws URISyntaxException {
+    public ResponseEntity<Niveau> updateNiveau(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody Niveau niveau
+    ) throws URISyntaxException {
         log.debug("REST request to update Niveau : {}, {}", id, niveau);
         if (niveau.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -79,13 +113,17 @@ public class NiveauResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!niveauRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Niveau existingNiveau = niveauRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        VersionTags.checkPreconditions(ifMatch, niveau.getVersion(), existingNiveau.getVersion(), ENTITY_NAME);
+        // Merged into the instance loaded above, so that no other select is issued
+        niveau.setVersion(existingNiveau.getVersion());
 
-        Niveau result = niveauRepository.save(niveau);
+        Niveau result = niveauRepository.saveAndFlush(niveau);
         return ResponseEntity
             .ok()
+            .eTag(VersionTags.of(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, niveau.getId().toString()))
             .body(result);
     }
@@ -94,16 +132,20 @@ public class NiveauResource {
      * {@code PATCH  /niveaus/:id} : Partial updates given fields of an existing niveau, field will ignore if it is null
      *
      * @param id the id of the niveau to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the niveau.
      * @param niveau the niveau to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated niveau,
      * or with status {@code 400 (Bad Request)} if the niveau is not valid,
      * or with status {@code 404 (Not Found)} if the niveau is not found,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the niveau couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Niveau> partialUpdateNiveau(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Niveau niveau
     ) throws URISyntaxException {
         log.debug("REST request to partial update Niveau partially : {}, {}", id, niveau);
@@ -114,13 +156,10 @@ public class NiveauResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!niveauRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<Niveau> result = niveauRepository
             .findById(niveau.getId())
             .map(existingNiveau -> {
+                VersionTags.checkPreconditions(ifMatch, niveau.getVersion(), existingNiveau.getVersion(), ENTITY_NAME);
                 if (niveau.getClasse() != null) {
                     existingNiveau.setClasse(niveau.getClasse());
                 }
@@ -133,12 +172,17 @@ public class NiveauResource {
 
                 return existingNiveau;
             })
-            .map(niveauRepository::save);
+            .map(niveauRepository::saveAndFlush);
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, niveau.getId().toString())
-        );
+        return result
+            .map(response ->
+                ResponseEntity
+                    .ok()
+                    .eTag(VersionTags.of(response.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, niveau.getId().toString()))
+                    .body(response)
+            )
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
     }
 
     /**
@@ -147,11 +191,31 @@ public class NiveauResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of niveaus in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
+    @ConditionalGet(Niveau.class)
     public List<Niveau> getAllNiveaus() {
         log.debug("REST request to get all Niveaus");
         return niveauRepository.findAll();
     }
 
+    /**
+     * {@code GET  /niveaus/_autocomplete?prefix=:prefix} : suggest the niveaus whose class or group has a word starting with the prefix.
+     * The suggestions are served from memory, without querying the database.
+     *
+     * @param prefix the prefix typed by the user.
+     * @param size the maximum number of suggestions to return.
+     * @return the list of suggestions, ordered alphabetically.
+     */
+    @GetMapping("/_autocomplete")
+    @Transactional(readOnly = true)
+    public List<AutocompleteItemDTO> autocompleteNiveaus(
+        @RequestParam(name = "prefix", required = false, defaultValue = "") String prefix,
+        @RequestParam(name = "size", required = false, defaultValue = "10") int size
+    ) {
+        log.debug("REST request to autocomplete Niveaus : {}", prefix);
+        return autocompleteService.completeNiveaus(prefix, size);
+    }
+
     /**
      * {@code GET  /niveaus/:id} : get the "id" niveau.
      *
@@ -159,10 +223,45 @@ public class NiveauResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the niveau, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Niveau> getNiveau(@PathVariable("id") Long id) {
         log.debug("REST request to get Niveau : {}", id);
-        Optional<Niveau> niveau = niveauRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(niveau);
+        return versionedResponses.wrapOrNotFound(
+            () -> niveauRepository.findById(id),
+            Niveau::getVersion,
+            Niveau.class,
+            Semestre.class,
+            Seance.class,
+            Etudiant.class
+        );
+    }
+
+    /**
+     * {@code GET  /niveaus?fields=:fields} : get all the niveaus, reduced to some fields.
+     *
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the list of niveaus, or status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "", params = "fields")
+    @Transactional(readOnly = true)
+    @ConditionalGet(Niveau.class)
+    public List<Map<String, Object>> getAllNiveausFields(@RequestParam("fields") String fields) {
+        log.debug("REST request to get all Niveaus with fields : {}", fields);
+        return sparseFieldsetRepository.findAll(Niveau.class, SPARSE_FIELDSET.parse(fields), Sort.by("id"));
+    }
+
+    /**
+     * {@code GET  /niveaus/:id?fields=:fields} : get the "id" niveau, reduced to some fields.
+     *
+     * @param id the id of the niveau to retrieve.
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the niveau, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    @Transactional(readOnly = true)
+    public ResponseEntity<Map<String, Object>> getNiveauFields(@PathVariable("id") Long id, @RequestParam("fields") String fields) {
+        log.debug("REST request to get Niveau : {} with fields : {}", id, fields);
+        return ResponseUtil.wrapOrNotFound(sparseFieldsetRepository.findById(Niveau.class, SPARSE_FIELDSET.parse(fields), id));
     }
 
     /**
@@ -2,21 +2,31 @@ package tn.isimm.manager.web.rest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
+import tn.isimm.manager.domain.Matiere;
 import tn.isimm.manager.domain.Note;
+import tn.isimm.manager.domain.Seance;
 import tn.isimm.manager.repository.NoteRepository;
+import tn.isimm.manager.repository.SparseFieldsetRepository;
+import tn.isimm.manager.web.conditional.ConditionalGet;
+import tn.isimm.manager.web.conditional.VersionTags;
+import tn.isimm.manager.web.conditional.VersionedResponses;
 import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
+import tn.isimm.manager.web.rest.vm.BatchItemVM;
 
 /**
  * REST controller for managing {@link tn.isimm.manager.domain.Note}.
@@ -30,13 +40,25 @@ public class NoteResource {
 
     private static final String ENTITY_NAME = "note";
 
+    private static final SparseFieldset SPARSE_FIELDSET = SparseFieldset.of(ENTITY_NAME, "id", "version", "note", "matiere");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final NoteRepository noteRepository;
 
-    public NoteResource(NoteRepository noteRepository) {
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+
+    private final VersionedResponses versionedResponses;
+
+    public NoteResource(
+        NoteRepository noteRepository,
+        SparseFieldsetRepository sparseFieldsetRepository,
+        VersionedResponses versionedResponses
+    ) {
         this.noteRepository = noteRepository;
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.versionedResponses = versionedResponses;
     }
 
     /**
@@ -63,15 +85,21 @@ public class NoteResource {
      * {@code PUT  /notes/:id} : Updates an existing note.
      *
      * @param id the id of the note to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the note.
      * @param note the note to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated note,
      * or with status {@code 400 (Bad Request)} if the note is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the note couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Note> updateNote(@PathVariable(value = "id", required = false) final Long id, @RequestBody Note note)
-        throws URISyntaxException {
+    public ResponseEntity<Note> updateNote(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody Note note
+    ) throws URISyntaxException {
         log.debug("REST request to update Note : {}, {}", id, note);
         if (note.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -80,13 +108,17 @@ public class NoteResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!noteRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Note existingNote = noteRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        VersionTags.checkPreconditions(ifMatch, note.getVersion(), existingNote.getVersion(), ENTITY_NAME);
+        // Merged into the instance loaded above, so that no other select is issued
+        note.setVersion(existingNote.getVersion());
 
-        Note result = noteRepository.save(note);
+        Note result = noteRepository.saveAndFlush(note);
         return ResponseEntity
             .ok()
+            .eTag(VersionTags.of(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, note.getId().toString()))
             .body(result);
     }
@@ -95,16 +127,22 @@ public class NoteResource {
      * {@code PATCH  /notes/:id} : Partial updates given fields of an existing note, field will ignore if it is null
      *
      * @param id the id of the note to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the note.
      * @param note the note to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated note,
      * or with status {@code 400 (Bad Request)} if the note is not valid,
      * or with status {@code 404 (Not Found)} if the note is not found,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the note couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
-    public ResponseEntity<Note> partialUpdateNote(@PathVariable(value = "id", required = false) final Long id, @RequestBody Note note)
-        throws URISyntaxException {
+    public ResponseEntity<Note> partialUpdateNote(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody Note note
+    ) throws URISyntaxException {
         log.debug("REST request to partial update Note partially : {}, {}", id, note);
         if (note.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -113,25 +151,67 @@ public class NoteResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!noteRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<Note> result = noteRepository
             .findById(note.getId())
             .map(existingNote -> {
+                VersionTags.checkPreconditions(ifMatch, note.getVersion(), existingNote.getVersion(), ENTITY_NAME);
                 if (note.getNote() != null) {
                     existingNote.setNote(note.getNote());
                 }
 
                 return existingNote;
             })
-            .map(noteRepository::save);
+            .map(noteRepository::saveAndFlush);
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, note.getId().toString())
-        );
+        return result
+            .map(response ->
+                ResponseEntity
+                    .ok()
+                    .eTag(VersionTags.of(response.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, note.getId().toString()))
+                    .body(response)
+            )
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+    }
+
+    /**
+     * {@code POST  /notes/batch} : Create or update a batch of notes in a single transaction.
+     * <p>
+     * The notes without id are created, the others fully updated like with {@code PUT  /notes/:id}. Nothing is written
+     * if any note is not valid.
+     *
+     * @param notes the notes to create or update.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each note,
+     * or with status {@code 400 (Bad Request)} and with body the errors of the notes that are not valid.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemVM>> saveNotes(@RequestBody List<Note> notes) {
+        log.debug("REST request to save a batch of {} Notes", notes.size());
+        BatchWrites.checkSize(notes, ENTITY_NAME);
+        Map<Long, Note> existingNotes = BatchWrites.byId(noteRepository.findAllById(BatchWrites.ids(notes, Note::getId)), Note::getId);
+        List<BatchItemVM> errors = BatchWrites.checkUpdates(notes, existingNotes, Note::getId, Note::getVersion);
+        if (!errors.isEmpty()) {
+            return BatchWrites.rejected(errors);
+        }
+        List<Boolean> created = notes.stream().map(note -> note.getId() == null).toList();
+        for (Note note : notes) {
+            if (note.getId() != null) {
+                // Merged into the instances loaded above, so that no other select is issued
+                note.setVersion(existingNotes.get(note.getId()).getVersion());
+            }
+        }
+
+        List<Note> results = noteRepository.saveAllAndFlush(notes);
+        List<BatchItemVM> items = new ArrayList<>(results.size());
+        for (int index = 0; index < results.size(); index++) {
+            Note result = results.get(index);
+            items.add(
+                created.get(index)
+                    ? BatchItemVM.created(index, result.getId(), result.getVersion())
+                    : BatchItemVM.updated(index, result.getId(), result.getVersion())
+            );
+        }
+        return ResponseEntity.ok().body(items);
     }
 
     /**
@@ -141,13 +221,15 @@ public class NoteResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of notes in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
+    @ConditionalGet({ Note.class, Matiere.class })
     public List<Note> getAllNotes(@RequestParam(name = "filter", required = false) String filter) {
         if ("matiere-is-null".equals(filter)) {
             log.debug("REST request to get all Notes where matiere is null");
-            return StreamSupport.stream(noteRepository.findAll().spliterator(), false).filter(note -> note.getMatiere() == null).toList();
+            return noteRepository.findAllWithMatiere().stream().filter(note -> note.getMatiere() == null).toList();
         }
         log.debug("REST request to get all Notes");
-        return noteRepository.findAll();
+        return noteRepository.findAllWithMatiere();
     }
 
     /**
@@ -157,10 +239,44 @@ public class NoteResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the note, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Note> getNote(@PathVariable("id") Long id) {
         log.debug("REST request to get Note : {}", id);
-        Optional<Note> note = noteRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(note);
+        return versionedResponses.wrapOrNotFound(
+            () -> noteRepository.findById(id),
+            Note::getVersion,
+            Note.class,
+            Matiere.class,
+            Seance.class
+        );
+    }
+
+    /**
+     * {@code GET  /notes?fields=:fields} : get all the notes, reduced to some fields.
+     *
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the list of notes, or status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "", params = { "fields", "!filter" })
+    @Transactional(readOnly = true)
+    @ConditionalGet({ Note.class, Matiere.class })
+    public List<Map<String, Object>> getAllNotesFields(@RequestParam("fields") String fields) {
+        log.debug("REST request to get all Notes with fields : {}", fields);
+        return sparseFieldsetRepository.findAll(Note.class, SPARSE_FIELDSET.parse(fields), Sort.by("id"));
+    }
+
+    /**
+     * {@code GET  /notes/:id?fields=:fields} : get the "id" note, reduced to some fields.
+     *
+     * @param id the id of the note to retrieve.
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the note, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    @Transactional(readOnly = true)
+    public ResponseEntity<Map<String, Object>> getNoteFields(@PathVariable("id") Long id, @RequestParam("fields") String fields) {
+        log.debug("REST request to get Note : {} with fields : {}", id, fields);
+        return ResponseUtil.wrapOrNotFound(sparseFieldsetRepository.findById(Note.class, SPARSE_FIELDSET.parse(fields), id));
     }
 
     /**
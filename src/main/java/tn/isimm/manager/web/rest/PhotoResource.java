@@ -0,0 +1,70 @@
+package tn.isimm.manager.web.rest;
+
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import tn.isimm.manager.repository.PhotoKind;
+import tn.isimm.manager.repository.PhotoThumbnailRepository.Thumbnail;
+import tn.isimm.manager.service.PhotoThumbnailService;
+
+/**
+ * REST controller serving the thumbnails of the profile photos.
+ */
+@RestController
+@RequestMapping("/api/photos")
+public class PhotoResource {
+
+    /**
+     * Thumbnails requested with the hash of their photo never change: the user agent may keep them for a year.
+     */
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+
+    private final Logger log = LoggerFactory.getLogger(PhotoResource.class);
+
+    private final PhotoThumbnailService photoThumbnailService;
+
+    public PhotoResource(PhotoThumbnailService photoThumbnailService) {
+        this.photoThumbnailService = photoThumbnailService;
+    }
+
+    /**
+     * {@code GET  /photos/:kind/:id/:size?v=:hash} : get the thumbnail of the profile photo of the "id" owner.
+     *
+     * @param kind the kind of the owner: {@code etudiant}, {@code professeur} or {@code administrateur}.
+     * @param id the id of the owner.
+     * @param size the size of the thumbnail, in pixels, one of {@code application.photos.thumbnail-sizes}.
+     * @param hash the {@code photoDeProfileHash} of the owner, which makes the response immutable.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the JPEG thumbnail, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{kind}/{id}/{size}")
+    public ResponseEntity<byte[]> getThumbnail(
+        @PathVariable("kind") String kind,
+        @PathVariable("id") Long id,
+        @PathVariable("size") int size,
+        @RequestParam(name = "v", required = false) String hash
+    ) {
+        log.debug("REST request to get the {} thumbnail of {} : {}", size, kind, id);
+        PhotoKind photoKind = PhotoKind.fromName(kind).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        Thumbnail thumbnail = photoThumbnailService
+            .getThumbnail(photoKind, id, size, hash)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        // Without the hash, or with the one of a replaced photo, the URL does not name this content
+        CacheControl cacheControl = thumbnail.contentHash().equals(hash) ? IMMUTABLE : CacheControl.noCache().cachePrivate();
+        return ResponseEntity
+            .ok()
+            .cacheControl(cacheControl)
+            .eTag(thumbnail.contentHash())
+            .contentType(MediaType.parseMediaType(thumbnail.contentType()))
+            .body(thumbnail.content());
+    }
+}
@@ -3,6 +3,7 @@ package tn.isimm.manager.web.rest;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
@@ -18,8 +19,17 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
+import tn.isimm.manager.domain.Matiere;
 import tn.isimm.manager.domain.Professeur;
+import tn.isimm.manager.domain.User;
 import tn.isimm.manager.repository.ProfesseurRepository;
+import tn.isimm.manager.repository.SparseFieldsetRepository;
+import tn.isimm.manager.repository.projection.ProfesseurSummary;
+import tn.isimm.manager.service.AutocompleteService;
+import tn.isimm.manager.service.dto.AutocompleteItemDTO;
+import tn.isimm.manager.web.conditional.ConditionalGet;
+import tn.isimm.manager.web.conditional.VersionTags;
+import tn.isimm.manager.web.conditional.VersionedResponses;
 import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
 
 /**
@@ -34,13 +44,44 @@ public class ProfesseurResource {
 
     private static final String ENTITY_NAME = "professeur";
 
+    private static final SparseFieldset SPARSE_FIELDSET = SparseFieldset.of(
+        ENTITY_NAME,
+        "id",
+        "version",
+        "prenom",
+        "nom",
+        "email",
+        "matricule",
+        "departement",
+        "titre",
+        "numTel",
+        "dateDeNaissance",
+        "photoDeProfileContentType",
+        "photoDeProfileHash",
+        "user"
+    );
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final ProfesseurRepository professeurRepository;
 
-    public ProfesseurResource(ProfesseurRepository professeurRepository) {
+    private final AutocompleteService autocompleteService;
+
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+
+    private final VersionedResponses versionedResponses;
+
+    public ProfesseurResource(
+        ProfesseurRepository professeurRepository,
+        AutocompleteService autocompleteService,
+        SparseFieldsetRepository sparseFieldsetRepository,
+        VersionedResponses versionedResponses
+    ) {
         this.professeurRepository = professeurRepository;
+        this.autocompleteService = autocompleteService;
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.versionedResponses = versionedResponses;
     }
 
     /**
@@ -67,15 +108,19 @@ public class ProfesseurResource {
      * {@code PUT  /professeurs/:id} : Updates an existing professeur.
      *
      * @param id the id of the professeur to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the professeur.
      * @param professeur the professeur to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated professeur,
      * or with status {@code 400 (Bad Request)} if the professeur is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the professeur couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Professeur> updateProfesseur(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Professeur professeur
     ) throws URISyntaxException {
         log.debug("REST request to update Professeur : {}, {}", id, professeur);
@@ -86,13 +131,17 @@ public class ProfesseurResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!professeurRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Professeur existingProfesseur = professeurRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        VersionTags.checkPreconditions(ifMatch, professeur.getVersion(), existingProfesseur.getVersion(), ENTITY_NAME);
+        // Merged into the instance loaded above, so that no other select is issued
+        professeur.setVersion(existingProfesseur.getVersion());
 
-        Professeur result = professeurRepository.save(professeur);
+        Professeur result = professeurRepository.saveAndFlush(professeur);
         return ResponseEntity
             .ok()
+            .eTag(VersionTags.of(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, professeur.getId().toString()))
             .body(result);
     }
@@ -101,16 +150,20 @@ public class ProfesseurResource {
      * {@code PATCH  /professeurs/:id} : Partial updates given fields of an existing professeur, field will ignore if it is null
      *
      * @param id the id of the professeur to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the professeur.
      * @param professeur the professeur to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated professeur,
      * or with status {@code 400 (Bad Request)} if the professeur is not valid,
      * or with status {@code 404 (Not Found)} if the professeur is not found,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the professeur couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Professeur> partialUpdateProfesseur(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Professeur professeur
     ) throws URISyntaxException {
         log.debug("REST request to partial update Professeur partially : {}, {}", id, professeur);
@@ -121,13 +174,10 @@ public class ProfesseurResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!professeurRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<Professeur> result = professeurRepository
             .findById(professeur.getId())
             .map(existingProfesseur -> {
+                VersionTags.checkPreconditions(ifMatch, professeur.getVersion(), existingProfesseur.getVersion(), ENTITY_NAME);
                 if (professeur.getPrenom() != null) {
                     existingProfesseur.setPrenom(professeur.getPrenom());
                 }
@@ -161,37 +211,56 @@ public class ProfesseurResource {
 
                 return existingProfesseur;
             })
-            .map(professeurRepository::save);
+            .map(professeurRepository::saveAndFlush);
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, professeur.getId().toString())
-        );
+        return result
+            .map(response ->
+                ResponseEntity
+                    .ok()
+                    .eTag(VersionTags.of(response.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, professeur.getId().toString()))
+                    .body(response)
+            )
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
     }
 
     /**
      * {@code GET  /professeurs} : get all the professeurs.
+     * <p>
+     * Only the displayed columns and the ids of the associations are selected: the photo is served by
+     * {@code GET  /professeurs/:id/photo}.
      *
      * @param pageable the pagination information.
-     * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of professeurs in body.
      */
     @GetMapping("")
-    public ResponseEntity<List<Professeur>> getAllProfesseurs(
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
-        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload
-    ) {
+    @Transactional(readOnly = true)
+    @ConditionalGet({ Professeur.class, User.class })
+    public ResponseEntity<List<ProfesseurSummary>> getAllProfesseurs(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
         log.debug("REST request to get a page of Professeurs");
-        Page<Professeur> page;
-        if (eagerload) {
-            page = professeurRepository.findAllWithEagerRelationships(pageable);
-        } else {
-            page = professeurRepository.findAll(pageable);
-        }
+        Page<ProfesseurSummary> page = professeurRepository.findAllSummaries(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /professeurs/_autocomplete?prefix=:prefix} : suggest the professeurs whose first or last name has a word starting with the prefix.
+     * The suggestions are served from memory, without querying the database.
+     *
+     * @param prefix the prefix typed by the user.
+     * @param size the maximum number of suggestions to return.
+     * @return the list of suggestions, ordered alphabetically.
+     */
+    @GetMapping("/_autocomplete")
+    @Transactional(readOnly = true)
+    public List<AutocompleteItemDTO> autocompleteProfesseurs(
+        @RequestParam(name = "prefix", required = false, defaultValue = "") String prefix,
+        @RequestParam(name = "size", required = false, defaultValue = "10") int size
+    ) {
+        log.debug("REST request to autocomplete Professeurs : {}", prefix);
+        return autocompleteService.completeProfesseurs(prefix, size);
+    }
+
     /**
      * {@code GET  /professeurs/:id} : get the "id" professeur.
      *
@@ -199,10 +268,70 @@ public class ProfesseurResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the professeur, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Professeur> getProfesseur(@PathVariable("id") Long id) {
         log.debug("REST request to get Professeur : {}", id);
-        Optional<Professeur> professeur = professeurRepository.findOneWithEagerRelationships(id);
-        return ResponseUtil.wrapOrNotFound(professeur);
+        return versionedResponses.wrapOrNotFound(
+            () -> professeurRepository.findOneWithEagerRelationships(id),
+            Professeur::getVersion,
+            Professeur.class,
+            Matiere.class,
+            User.class
+        );
+    }
+
+    /**
+     * {@code GET  /professeurs/:id/photo} : get the photo of the "id" professeur.
+     * <p>
+     * Validated like the lists, so that it can be cached by the user agent and revalidated without being loaded.
+     *
+     * @param id the id of the professeur.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the photo, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}/photo")
+    @Transactional(readOnly = true)
+    @ConditionalGet(Professeur.class)
+    public ResponseEntity<byte[]> getProfesseurPhoto(@PathVariable("id") Long id) {
+        log.debug("REST request to get the photo of Professeur : {}", id);
+        return BinaryResponses.wrapOrNotFound(professeurRepository.findPhotoDeProfileById(id));
+    }
+
+    /**
+     * {@code GET  /professeurs?fields=:fields} : get a page of the professeurs, reduced to some fields.
+     *
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of professeurs in body, or with status {@code 400 (Bad Request)} if a field or a sort property is unknown.
+     */
+    @GetMapping(value = "", params = "fields")
+    @Transactional(readOnly = true)
+    @ConditionalGet({ Professeur.class, User.class })
+    public ResponseEntity<List<Map<String, Object>>> getAllProfesseursFields(
+        @RequestParam("fields") String fields,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a page of Professeurs with fields : {}", fields);
+        Page<Map<String, Object>> page = sparseFieldsetRepository.findAll(
+            Professeur.class,
+            SPARSE_FIELDSET.parse(fields),
+            SPARSE_FIELDSET.checkSort(pageable)
+        );
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /professeurs/:id?fields=:fields} : get the "id" professeur, reduced to some fields.
+     *
+     * @param id the id of the professeur to retrieve.
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the professeur, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    @Transactional(readOnly = true)
+    public ResponseEntity<Map<String, Object>> getProfesseurFields(@PathVariable("id") Long id, @RequestParam("fields") String fields) {
+        log.debug("REST request to get Professeur : {} with fields : {}", id, fields);
+        return ResponseUtil.wrapOrNotFound(sparseFieldsetRepository.findById(Professeur.class, SPARSE_FIELDSET.parse(fields), id));
     }
 
     /**
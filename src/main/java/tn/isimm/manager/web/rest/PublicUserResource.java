@@ -13,8 +13,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.PaginationUtil;
+import tn.isimm.manager.domain.Authority;
+import tn.isimm.manager.domain.User;
 import tn.isimm.manager.service.UserService;
 import tn.isimm.manager.service.dto.UserDTO;
+import tn.isimm.manager.web.conditional.ConditionalGet;
 
 @RestController
 @RequestMapping("/api")
@@ -39,6 +42,7 @@ public class PublicUserResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
+    @ConditionalGet(User.class)
     public ResponseEntity<List<UserDTO>> getAllPublicUsers(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
         log.debug("REST request to get all public User names");
         if (!onlyContainsAllowedProperties(pageable)) {
@@ -59,6 +63,7 @@ public class PublicUserResource {
      * @return a string list of all roles.
      */
     @GetMapping("/authorities")
+    @ConditionalGet(Authority.class)
     public List<String> getAuthorities() {
         return userService.getAuthorities();
     }
@@ -1,10 +1,13 @@
 package tn.isimm.manager.web.rest;
 
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
@@ -13,6 +16,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
@@ -20,9 +24,16 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
+import tn.isimm.manager.domain.Matiere;
+import tn.isimm.manager.domain.Niveau;
 import tn.isimm.manager.domain.Seance;
 import tn.isimm.manager.repository.SeanceRepository;
+import tn.isimm.manager.repository.SparseFieldsetRepository;
+import tn.isimm.manager.web.conditional.ConditionalGet;
+import tn.isimm.manager.web.conditional.VersionTags;
+import tn.isimm.manager.web.conditional.VersionedResponses;
 import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
+import tn.isimm.manager.web.rest.vm.BatchItemVM;
 
 /**
  * REST controller for managing {@link tn.isimm.manager.domain.Seance}.
@@ -36,13 +47,38 @@ public class SeanceResource {
 
     private static final String ENTITY_NAME = "seance";
 
+    private static final SparseFieldset SPARSE_FIELDSET = SparseFieldset.of(
+        ENTITY_NAME,
+        "id",
+        "version",
+        "jour",
+        "numSeance",
+        "salle",
+        "matiere",
+        "niveau"
+    );
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final SeanceRepository seanceRepository;
 
-    public SeanceResource(SeanceRepository seanceRepository) {
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+
+    private final Validator validator;
+
+    private final VersionedResponses versionedResponses;
+
+    public SeanceResource(
+        SeanceRepository seanceRepository,
+        SparseFieldsetRepository sparseFieldsetRepository,
+        Validator validator,
+        VersionedResponses versionedResponses
+    ) {
         this.seanceRepository = seanceRepository;
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.validator = validator;
+        this.versionedResponses = versionedResponses;
     }
 
     /**
@@ -69,15 +105,19 @@ public class SeanceResource {
      * {@code PUT  /seances/:id} : Updates an existing seance.
      *
      * @param id the id of the seance to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the seance.
      * @param seance the seance to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated seance,
      * or with status {@code 400 (Bad Request)} if the seance is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the seance couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Seance> updateSeance(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody Seance seance
     ) throws URISyntaxException {
         log.debug("REST request to update Seance : {}, {}", id, seance);
@@ -88,13 +128,17 @@ public class SeanceResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!seanceRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Seance existingSeance = seanceRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        VersionTags.checkPreconditions(ifMatch, seance.getVersion(), existingSeance.getVersion(), ENTITY_NAME);
+        // Merged into the instance loaded above, so that no other select is issued
+        seance.setVersion(existingSeance.getVersion());
 
-        Seance result = seanceRepository.save(seance);
+        Seance result = seanceRepository.saveAndFlush(seance);
         return ResponseEntity
             .ok()
+            .eTag(VersionTags.of(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, seance.getId().toString()))
             .body(result);
     }
@@ -103,16 +147,20 @@ public class SeanceResource {
      * {@code PATCH  /seances/:id} : Partial updates given fields of an existing seance, field will ignore if it is null
      *
      * @param id the id of the seance to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the seance.
      * @param seance the seance to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated seance,
      * or with status {@code 400 (Bad Request)} if the seance is not valid,
      * or with status {@code 404 (Not Found)} if the seance is not found,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the seance couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Seance> partialUpdateSeance(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody Seance seance
     ) throws URISyntaxException {
         log.debug("REST request to partial update Seance partially : {}, {}", id, seance);
@@ -123,13 +171,10 @@ public class SeanceResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!seanceRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<Seance> result = seanceRepository
             .findById(seance.getId())
             .map(existingSeance -> {
+                VersionTags.checkPreconditions(ifMatch, seance.getVersion(), existingSeance.getVersion(), ENTITY_NAME);
                 if (seance.getJour() != null) {
                     existingSeance.setJour(seance.getJour());
                 }
@@ -142,12 +187,70 @@ public class SeanceResource {
 
                 return existingSeance;
             })
-            .map(seanceRepository::save);
+            .map(seanceRepository::saveAndFlush);
+
+        return result
+            .map(response ->
+                ResponseEntity
+                    .ok()
+                    .eTag(VersionTags.of(response.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, seance.getId().toString()))
+                    .body(response)
+            )
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+    }
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, seance.getId().toString())
+    /**
+     * {@code PATCH  /seances/batch} : Partial updates given fields of a batch of existing seances in a single transaction.
+     * <p>
+     * Each seance is updated like with {@code PATCH  /seances/:id}. Nothing is written if any seance is not valid.
+     *
+     * @param seances the seances to update.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each seance,
+     * or with status {@code 400 (Bad Request)} and with body the errors of the seances that are not valid.
+     */
+    @PatchMapping(value = "/batch", consumes = { "application/json", "application/merge-patch+json" })
+    public ResponseEntity<List<BatchItemVM>> partialUpdateSeances(@RequestBody List<Seance> seances) {
+        log.debug("REST request to partial update a batch of {} Seances", seances.size());
+        BatchWrites.checkSize(seances, ENTITY_NAME);
+        Map<Long, Seance> existingSeances = BatchWrites.byId(
+            seanceRepository.findAllById(BatchWrites.ids(seances, Seance::getId)),
+            Seance::getId
         );
+        List<BatchItemVM> errors = new ArrayList<>(BatchWrites.checkUpdates(seances, existingSeances, Seance::getId, Seance::getVersion));
+        for (int index = 0; index < seances.size(); index++) {
+            Seance seance = seances.get(index);
+            if (seance.getId() == null) {
+                errors.add(BatchItemVM.failed(index, null, HttpStatus.BAD_REQUEST, "idnull"));
+            } else if (
+                seance.getNumSeance() != null && !validator.validateValue(Seance.class, "numSeance", seance.getNumSeance()).isEmpty()
+            ) {
+                errors.add(BatchItemVM.failed(index, seance.getId(), HttpStatus.BAD_REQUEST, "invalid"));
+            }
+        }
+        if (!errors.isEmpty()) {
+            return BatchWrites.rejected(errors);
+        }
+
+        for (Seance seance : seances) {
+            Seance existingSeance = existingSeances.get(seance.getId());
+            if (seance.getJour() != null) {
+                existingSeance.setJour(seance.getJour());
+            }
+            if (seance.getNumSeance() != null) {
+                existingSeance.setNumSeance(seance.getNumSeance());
+            }
+            if (seance.getSalle() != null) {
+                existingSeance.setSalle(seance.getSalle());
+            }
+        }
+        seanceRepository.flush();
+        List<BatchItemVM> items = new ArrayList<>(seances.size());
+        for (int index = 0; index < seances.size(); index++) {
+            Seance result = existingSeances.get(seances.get(index).getId());
+            items.add(BatchItemVM.updated(index, result.getId(), result.getVersion()));
+        }
+        return ResponseEntity.ok().body(items);
     }
 
     /**
@@ -157,6 +260,8 @@ public class SeanceResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of seances in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
+    @ConditionalGet(Seance.class)
     public ResponseEntity<List<Seance>> getAllSeances(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
         log.debug("REST request to get a page of Seances");
         Page<Seance> page = seanceRepository.findAll(pageable);
@@ -171,10 +276,54 @@ public class SeanceResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the seance, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Seance> getSeance(@PathVariable("id") Long id) {
         log.debug("REST request to get Seance : {}", id);
-        Optional<Seance> seance = seanceRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(seance);
+        return versionedResponses.wrapOrNotFound(
+            () -> seanceRepository.findById(id),
+            Seance::getVersion,
+            Seance.class,
+            Matiere.class,
+            Niveau.class
+        );
+    }
+
+    /**
+     * {@code GET  /seances?fields=:fields} : get a page of the seances, reduced to some fields.
+     *
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of seances in body, or with status {@code 400 (Bad Request)} if a field or a sort property is unknown.
+     */
+    @GetMapping(value = "", params = "fields")
+    @Transactional(readOnly = true)
+    @ConditionalGet(Seance.class)
+    public ResponseEntity<List<Map<String, Object>>> getAllSeancesFields(
+        @RequestParam("fields") String fields,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a page of Seances with fields : {}", fields);
+        Page<Map<String, Object>> page = sparseFieldsetRepository.findAll(
+            Seance.class,
+            SPARSE_FIELDSET.parse(fields),
+            SPARSE_FIELDSET.checkSort(pageable)
+        );
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /seances/:id?fields=:fields} : get the "id" seance, reduced to some fields.
+     *
+     * @param id the id of the seance to retrieve.
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the seance, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    @Transactional(readOnly = true)
+    public ResponseEntity<Map<String, Object>> getSeanceFields(@PathVariable("id") Long id, @RequestParam("fields") String fields) {
+        log.debug("REST request to get Seance : {} with fields : {}", id, fields);
+        return ResponseUtil.wrapOrNotFound(sparseFieldsetRepository.findById(Seance.class, SPARSE_FIELDSET.parse(fields), id));
     }
 
     /**
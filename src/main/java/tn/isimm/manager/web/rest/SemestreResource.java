@@ -3,19 +3,28 @@ package tn.isimm.manager.web.rest;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
+import tn.isimm.manager.domain.Matiere;
+import tn.isimm.manager.domain.Niveau;
+import tn.isimm.manager.domain.Seance;
 import tn.isimm.manager.domain.Semestre;
 import tn.isimm.manager.repository.SemestreRepository;
+import tn.isimm.manager.repository.SparseFieldsetRepository;
+import tn.isimm.manager.web.conditional.ConditionalGet;
+import tn.isimm.manager.web.conditional.VersionTags;
+import tn.isimm.manager.web.conditional.VersionedResponses;
 import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
 
 /**
@@ -30,13 +39,33 @@ public class SemestreResource {
 
     private static final String ENTITY_NAME = "semestre";
 
+    private static final SparseFieldset SPARSE_FIELDSET = SparseFieldset.of(
+        ENTITY_NAME,
+        "id",
+        "version",
+        "anneeScolaire",
+        "s",
+        "niveau",
+        "matiere"
+    );
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final SemestreRepository semestreRepository;
 
-    public SemestreResource(SemestreRepository semestreRepository) {
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+
+    private final VersionedResponses versionedResponses;
+
+    public SemestreResource(
+        SemestreRepository semestreRepository,
+        SparseFieldsetRepository sparseFieldsetRepository,
+        VersionedResponses versionedResponses
+    ) {
         this.semestreRepository = semestreRepository;
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.versionedResponses = versionedResponses;
     }
 
     /**
@@ -63,15 +92,19 @@ public class SemestreResource {
      * {@code PUT  /semestres/:id} : Updates an existing semestre.
      *
      * @param id the id of the semestre to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the semestre.
      * @param semestre the semestre to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated semestre,
      * or with status {@code 400 (Bad Request)} if the semestre is not valid,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the semestre couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Semestre> updateSemestre(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Semestre semestre
     ) throws URISyntaxException {
         log.debug("REST request to update Semestre : {}, {}", id, semestre);
@@ -82,13 +115,17 @@ public class SemestreResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!semestreRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Semestre existingSemestre = semestreRepository
+            .findById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        VersionTags.checkPreconditions(ifMatch, semestre.getVersion(), existingSemestre.getVersion(), ENTITY_NAME);
+        // Merged into the instance loaded above, so that no other select is issued
+        semestre.setVersion(existingSemestre.getVersion());
 
-        Semestre result = semestreRepository.save(semestre);
+        Semestre result = semestreRepository.saveAndFlush(semestre);
         return ResponseEntity
             .ok()
+            .eTag(VersionTags.of(result.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, semestre.getId().toString()))
             .body(result);
     }
@@ -97,16 +134,20 @@ public class SemestreResource {
      * {@code PATCH  /semestres/:id} : Partial updates given fields of an existing semestre, field will ignore if it is null
      *
      * @param id the id of the semestre to save.
+     * @param ifMatch the {@code If-Match} header, holding the expected version of the semestre.
      * @param semestre the semestre to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated semestre,
      * or with status {@code 400 (Bad Request)} if the semestre is not valid,
      * or with status {@code 404 (Not Found)} if the semestre is not found,
+     * or with status {@code 409 (Conflict)} if the version of the body is not the current one,
+     * or with status {@code 412 (Precondition Failed)} if {@code If-Match} does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the semestre couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Semestre> partialUpdateSemestre(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Semestre semestre
     ) throws URISyntaxException {
         log.debug("REST request to partial update Semestre partially : {}, {}", id, semestre);
@@ -117,13 +158,10 @@ public class SemestreResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!semestreRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<Semestre> result = semestreRepository
             .findById(semestre.getId())
             .map(existingSemestre -> {
+                VersionTags.checkPreconditions(ifMatch, semestre.getVersion(), existingSemestre.getVersion(), ENTITY_NAME);
                 if (semestre.getAnneeScolaire() != null) {
                     existingSemestre.setAnneeScolaire(semestre.getAnneeScolaire());
                 }
@@ -133,12 +171,17 @@ public class SemestreResource {
 
                 return existingSemestre;
             })
-            .map(semestreRepository::save);
+            .map(semestreRepository::saveAndFlush);
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, semestre.getId().toString())
-        );
+        return result
+            .map(response ->
+                ResponseEntity
+                    .ok()
+                    .eTag(VersionTags.of(response.getVersion()))
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, semestre.getId().toString()))
+                    .body(response)
+            )
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
     }
 
     /**
@@ -148,24 +191,28 @@ public class SemestreResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of semestres in body.
      */
     @GetMapping("")
+    @Transactional(readOnly = true)
+    @ConditionalGet({ Semestre.class, Niveau.class, Matiere.class })
     public List<Semestre> getAllSemestres(@RequestParam(name = "filter", required = false) String filter) {
         if ("niveau-is-null".equals(filter)) {
             log.debug("REST request to get all Semestres where niveau is null");
-            return StreamSupport
-                .stream(semestreRepository.findAll().spliterator(), false)
+            return semestreRepository
+                .findAllWithNiveauAndMatiere()
+                .stream()
                 .filter(semestre -> semestre.getNiveau() == null)
                 .toList();
         }
 
         if ("matiere-is-null".equals(filter)) {
             log.debug("REST request to get all Semestres where matiere is null");
-            return StreamSupport
-                .stream(semestreRepository.findAll().spliterator(), false)
+            return semestreRepository
+                .findAllWithNiveauAndMatiere()
+                .stream()
                 .filter(semestre -> semestre.getMatiere() == null)
                 .toList();
         }
         log.debug("REST request to get all Semestres");
-        return semestreRepository.findAll();
+        return semestreRepository.findAllWithNiveauAndMatiere();
     }
 
     /**
@@ -175,10 +222,45 @@ public class SemestreResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the semestre, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Semestre> getSemestre(@PathVariable("id") Long id) {
         log.debug("REST request to get Semestre : {}", id);
-        Optional<Semestre> semestre = semestreRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(semestre);
+        return versionedResponses.wrapOrNotFound(
+            () -> semestreRepository.findById(id),
+            Semestre::getVersion,
+            Semestre.class,
+            Niveau.class,
+            Matiere.class,
+            Seance.class
+        );
+    }
+
+    /**
+     * {@code GET  /semestres?fields=:fields} : get all the semestres, reduced to some fields.
+     *
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the list of semestres, or status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "", params = { "fields", "!filter" })
+    @Transactional(readOnly = true)
+    @ConditionalGet({ Semestre.class, Niveau.class, Matiere.class })
+    public List<Map<String, Object>> getAllSemestresFields(@RequestParam("fields") String fields) {
+        log.debug("REST request to get all Semestres with fields : {}", fields);
+        return sparseFieldsetRepository.findAll(Semestre.class, SPARSE_FIELDSET.parse(fields), Sort.by("id"));
+    }
+
+    /**
+     * {@code GET  /semestres/:id?fields=:fields} : get the "id" semestre, reduced to some fields.
+     *
+     * @param id the id of the semestre to retrieve.
+     * @param fields the comma separated fields to return, the id being always returned.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the semestre, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    @Transactional(readOnly = true)
+    public ResponseEntity<Map<String, Object>> getSemestreFields(@PathVariable("id") Long id, @RequestParam("fields") String fields) {
+        log.debug("REST request to get Semestre : {} with fields : {}", id, fields);
+        return ResponseUtil.wrapOrNotFound(sparseFieldsetRepository.findById(Semestre.class, SPARSE_FIELDSET.parse(fields), id));
     }
 
     /**
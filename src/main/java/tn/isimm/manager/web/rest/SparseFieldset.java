@@ -0,0 +1,79 @@
+package tn.isimm.manager.web.rest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
+
+/**
+ * The fields of an entity a client may select with the {@code fields} request parameter, as in
+ * {@code GET /api/etudiants?fields=nom,prenom}.
+ * <p>
+ * Only scalar attributes and to-one associations are allowed: binary attributes are served by their own endpoints,
+ * and collections would need one more query per row.
+ */
+final class SparseFieldset {
+
+    private static final String ID = "id";
+
+    private final String entityName;
+
+    private final Set<String> allowed;
+
+    private SparseFieldset(String entityName, Set<String> allowed) {
+        this.entityName = entityName;
+        this.allowed = allowed;
+    }
+
+    /**
+     * @param entityName the name of the entity, used in the error messages.
+     * @param allowed the fields that may be selected.
+     * @return the fieldset.
+     */
+    static SparseFieldset of(String entityName, String... allowed) {
+        return new SparseFieldset(entityName, Set.of(allowed));
+    }
+
+    /**
+     * Parse the {@code fields} request parameter. The id is always selected, first.
+     *
+     * @param fields the comma separated fields.
+     * @return the fields to select, in order and without duplicates.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if a field is not allowed.
+     */
+    List<String> parse(String fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add(ID);
+        for (String field : fields.split(",")) {
+            String name = field.strip();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new BadRequestAlertException("Unknown field " + name, entityName, "fieldinvalid");
+            }
+            selected.add(name);
+        }
+        return new ArrayList<>(selected);
+    }
+
+    /**
+     * Check that the pagination information only sorts by fields that may be selected, as the others are either not
+     * attributes or would need a join the query does not make.
+     *
+     * @param pageable the pagination information.
+     * @return the pagination information.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if a sort property is not allowed.
+     */
+    Pageable checkSort(Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!ID.equals(order.getProperty()) && !allowed.contains(order.getProperty())) {
+                throw new BadRequestAlertException("Unknown sort property " + order.getProperty(), entityName, "sortinvalid");
+            }
+        }
+        return pageable;
+    }
+}
@@ -0,0 +1,44 @@
+package tn.isimm.manager.web.rest;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import tn.isimm.manager.repository.StatementStatistics;
+import tn.isimm.manager.repository.StatementStatistics.StatementSummary;
+import tn.isimm.manager.security.AuthoritiesConstants;
+
+/**
+ * REST controller exposing the statistics of the SQL statements run since startup.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class StatementStatisticsResource {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final Logger log = LoggerFactory.getLogger(StatementStatisticsResource.class);
+
+    private final StatementStatistics statementStatistics;
+
+    public StatementStatisticsResource(StatementStatistics statementStatistics) {
+        this.statementStatistics = statementStatistics;
+    }
+
+    /**
+     * {@code GET  /admin/slow-statements} : get the slowest SQL statements since startup.
+     *
+     * @param limit the number of statements to return, at most 100.
+     * @return the statements, by decreasing maximum execution time, with their literals redacted.
+     */
+    @GetMapping("/slow-statements")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public List<StatementSummary> getSlowStatements(@RequestParam(name = "limit", required = false, defaultValue = "20") int limit) {
+        log.debug("REST request to get the {} slowest statements", limit);
+        return statementStatistics.findSlowest(Math.max(0, Math.min(limit, MAX_LIMIT)));
+    }
+}
@@ -0,0 +1,149 @@
+package tn.isimm.manager.web.rest;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+import tn.isimm.manager.repository.ValidationRequestRepository;
+import tn.isimm.manager.security.AuthoritiesConstants;
+import tn.isimm.manager.service.ValidationRequestService;
+import tn.isimm.manager.service.dto.ValidationRequestDTO;
+import tn.isimm.manager.web.rest.errors.BadRequestAlertException;
+import tn.isimm.manager.web.sse.SseBroadcaster;
+import tn.isimm.manager.web.sse.ValidationRequestRelay;
+
+/**
+ * REST controller for the queue of the validation requests of the {@link tn.isimm.manager.domain.FichierAdmin}.
+ */
+@RestController
+@RequestMapping("/api/validation-requests")
+@PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+public class ValidationRequestResource {
+
+    private static final String ENTITY_NAME = "validationRequest";
+
+    private static final int MAX_REVIEWED = 1_000;
+
+    private static final Set<String> STATUSES = Set.of(
+        ValidationRequestRepository.PENDING,
+        ValidationRequestRepository.CLAIMED,
+        ValidationRequestRepository.APPROVED,
+        ValidationRequestRepository.REJECTED
+    );
+
+    private final Logger log = LoggerFactory.getLogger(ValidationRequestResource.class);
+
+    private final ValidationRequestService validationRequestService;
+
+    private final SseBroadcaster sseBroadcaster;
+
+    public ValidationRequestResource(ValidationRequestService validationRequestService, SseBroadcaster sseBroadcaster) {
+        this.validationRequestService = validationRequestService;
+        this.sseBroadcaster = sseBroadcaster;
+    }
+
+    /**
+     * {@code GET  /validation-requests?status=:status} : get the requests with a status, the oldest first, without their files.
+     *
+     * @param status the status of the requests: {@code PENDING}, {@code CLAIMED}, {@code APPROVED} or {@code REJECTED}.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of requests in body.
+     */
+    @GetMapping("")
+    public ResponseEntity<List<ValidationRequestDTO>> getValidationRequests(
+        @RequestParam(name = "status", defaultValue = ValidationRequestRepository.PENDING) String status,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a page of {} validation requests", status);
+        String normalizedStatus = status.toUpperCase(Locale.ROOT);
+        if (!STATUSES.contains(normalizedStatus)) {
+            throw new BadRequestAlertException("Invalid status", ENTITY_NAME, "statusinvalid");
+        }
+        Page<ValidationRequestDTO> page = validationRequestService.findByStatus(normalizedStatus, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code POST  /validation-requests/_claim?size=:size} : claim the oldest pending requests.
+     *
+     * @param size the maximum number of requests claimed.
+     * @return the claimed requests, the oldest first.
+     */
+    @PostMapping("/_claim")
+    public List<ValidationRequestDTO> claimValidationRequests(@RequestParam(name = "size", defaultValue = "10") int size) {
+        log.debug("REST request to claim {} validation requests", size);
+        if (size < 1) {
+            throw new BadRequestAlertException("Invalid size", ENTITY_NAME, "sizeinvalid");
+        }
+        return validationRequestService.claim(size);
+    }
+
+    /**
+     * {@code POST  /validation-requests/_approve} : approve requests, in one transaction.
+     *
+     * @param ids the ids of the fichier admins.
+     * @return the approved requests; the ones claimed by another reviewer, or already reviewed, are left unchanged.
+     */
+    @PostMapping("/_approve")
+    public List<ValidationRequestDTO> approveValidationRequests(@RequestBody List<Long> ids) {
+        log.debug("REST request to approve {} validation requests", ids.size());
+        return validationRequestService.review(checkIds(ids), true);
+    }
+
+    /**
+     * {@code POST  /validation-requests/_reject} : reject requests, in one transaction.
+     *
+     * @param ids the ids of the fichier admins.
+     * @return the rejected requests; the ones claimed by another reviewer, or already reviewed, are left unchanged.
+     */
+    @PostMapping("/_reject")
+    public List<ValidationRequestDTO> rejectValidationRequests(@RequestBody List<Long> ids) {
+        log.debug("REST request to reject {} validation requests", ids.size());
+        return validationRequestService.review(checkIds(ids), false);
+    }
+
+    /**
+     * {@code POST  /validation-requests/_release} : return requests claimed by the current user to the queue.
+     *
+     * @param ids the ids of the fichier admins.
+     * @return the requests returned to the queue.
+     */
+    @PostMapping("/_release")
+    public List<ValidationRequestDTO> releaseValidationRequests(@RequestBody List<Long> ids) {
+        log.debug("REST request to release {} validation requests", ids.size());
+        return validationRequestService.release(checkIds(ids));
+    }
+
+    /**
+     * {@code GET  /validation-requests/stream} : subscribe to the changes of status of the requests.
+     * <p>
+     * Every committed change is pushed as a {@code validation-request} server-sent event, holding the ids of the fichier
+     * admins, their new status and the reviewer.
+     *
+     * @return the server-sent events stream.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamValidationRequests() {
+        log.debug("REST request to subscribe to the validation requests");
+        return sseBroadcaster.subscribe(ValidationRequestRelay.TOPIC);
+    }
+
+    private static List<Long> checkIds(List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_REVIEWED || ids.contains(null)) {
+            throw new BadRequestAlertException("Between 1 and " + MAX_REVIEWED + " ids are expected", ENTITY_NAME, "idsinvalid");
+        }
+        return ids.stream().distinct().toList();
+    }
+}
@@ -223,6 +223,15 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler {
     }
 
     private HttpHeaders buildHeaders(Throwable err) {
+        if (err instanceof PreconditionFailedException preconditionFailedException) {
+            return HeaderUtil.createFailureAlert(
+                applicationName,
+                true,
+                preconditionFailedException.getEntityName(),
+                preconditionFailedException.getErrorKey(),
+                preconditionFailedException.getMessage()
+            );
+        }
         return err instanceof BadRequestAlertException badRequestAlertException
             ? HeaderUtil.createFailureAlert(
                 applicationName,
@@ -0,0 +1,74 @@
+package tn.isimm.manager.web.rest.vm;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * View Model object for the result of one item of a batch write.
+ * <p>
+ * {@code status} is the status a single request would have returned for the item: {@code 201} or {@code 200} once
+ * written, or the error status, with the error key in {@code error}.
+ */
+public class BatchItemVM {
+
+    private final int index;
+
+    private final Long id;
+
+    private final Long version;
+
+    private final int status;
+
+    private final String error;
+
+    private BatchItemVM(int index, Long id, Long version, HttpStatus status, String error) {
+        this.index = index;
+        this.id = id;
+        this.version = version;
+        this.status = status.value();
+        this.error = error;
+    }
+
+    public static BatchItemVM created(int index, Long id, Long version) {
+        return new BatchItemVM(index, id, version, HttpStatus.CREATED, null);
+    }
+
+    public static BatchItemVM updated(int index, Long id, Long version) {
+        return new BatchItemVM(index, id, version, HttpStatus.OK, null);
+    }
+
+    public static BatchItemVM failed(int index, Long id, HttpStatus status, String error) {
+        return new BatchItemVM(index, id, null, status, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BatchItemVM{" +
+            "index=" + index +
+            ", id=" + id +
+            ", version=" + version +
+            ", status=" + status +
+            ", error='" + error + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,30 @@
+package tn.isimm.manager.web.sse;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import tn.isimm.manager.domain.Actulaite;
+import tn.isimm.manager.repository.EntityChangedEvent;
+
+/**
+ * Pushes every newly committed {@link Actulaite} to the subscribers of the news feed stream.
+ */
+@Component
+public class ActulaiteFeedRelay {
+
+    public static final String TOPIC = "actulaites";
+
+    public static final String EVENT_NAME = "actulaite";
+
+    private final SseBroadcaster sseBroadcaster;
+
+    public ActulaiteFeedRelay(SseBroadcaster sseBroadcaster) {
+        this.sseBroadcaster = sseBroadcaster;
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isAbout(Actulaite.class) && event.getChangeType() == EntityChangedEvent.ChangeType.CREATED) {
+            sseBroadcaster.broadcast(TOPIC, EVENT_NAME, String.valueOf(event.getId()), event.getEntity());
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package tn.isimm.manager.web.sse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tn.isimm.manager.config.ApplicationProperties;
+
+/**
+ * Single shared broadcaster of server-sent events, grouped by topic.
+ * <p>
+ * Connections are held by the servlet container in async mode, so an idle subscriber costs no thread.
+ * Payloads are serialized once per broadcast and queued to each subscriber, whose events are written by a small pool
+ * of sender threads, so that the publishing thread (usually a committing transaction) is never blocked by slow clients
+ * and a slow client only delays its own events. A subscriber whose buffer is full is completed, so that its client
+ * reconnects from its {@code Last-Event-ID}; one whose write has not returned within the send timeout is dropped and
+ * completed with an error once the container gives up on the write.
+ */
+@Component
+public class SseBroadcaster {
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(30);
+
+    private static final long NOT_SENDING = Long.MIN_VALUE;
+
+    private final Logger log = LoggerFactory.getLogger(SseBroadcaster.class);
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final ExecutorService sender;
+
+    private final int bufferSize;
+
+    private final long sendTimeoutNanos;
+
+    private final ObjectMapper objectMapper;
+
+    public SseBroadcaster(ObjectMapper objectMapper, ApplicationProperties applicationProperties) {
+        this.objectMapper = objectMapper;
+        ApplicationProperties.ServerSentEvents properties = applicationProperties.getServerSentEvents();
+        this.bufferSize = properties.getBufferSize();
+        this.sendTimeoutNanos = properties.getSendTimeout().toNanos();
+        AtomicInteger threads = new AtomicInteger();
+        this.sender =
+            Executors.newFixedThreadPool(
+                properties.getThreads(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sse-sender-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            );
+    }
+
+    /**
+     * Open a new subscription to {@code topic}.
+     *
+     * @param topic the topic to subscribe to.
+     * @return the emitter to return from the controller.
+     */
+    public SseEmitter subscribe(String topic) {
+        SseEmitter emitter = new SseEmitter(DEFAULT_TIMEOUT.toMillis());
+        Set<Subscriber> topicSubscribers = subscribers.computeIfAbsent(topic, key -> ConcurrentHashMap.newKeySet());
+        Subscriber subscriber = new Subscriber(topicSubscribers, emitter);
+        topicSubscribers.add(subscriber);
+        emitter.onCompletion(subscriber::forget);
+        emitter.onTimeout(subscriber::forget);
+        emitter.onError(e -> subscriber.forget());
+        log.debug("New subscriber to {}, {} connected", topic, topicSubscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Push {@code payload} as JSON to every subscriber of {@code topic}.
+     *
+     * @param topic the topic to publish to.
+     * @param eventName the SSE event name.
+     * @param eventId the SSE event id, may be {@code null}.
+     * @param payload the object to serialize.
+     */
+    public void broadcast(String topic, String eventName, String eventId, Object payload) {
+        Set<Subscriber> topicSubscribers = subscribers.get(topic);
+        if (topicSubscribers == null || topicSubscribers.isEmpty()) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize the {} event of {}: {}", eventName, topic, e.getMessage());
+            return;
+        }
+        topicSubscribers.forEach(subscriber -> {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(eventName).data(json, MediaType.APPLICATION_JSON);
+            if (eventId != null) {
+                event.id(eventId);
+            }
+            subscriber.offer(event);
+        });
+    }
+
+    public int countSubscribers(String topic) {
+        Set<Subscriber> topicSubscribers = subscribers.get(topic);
+        return topicSubscribers == null ? 0 : topicSubscribers.size();
+    }
+
+    /**
+     * Send a comment to every subscriber, so that intermediaries keep the connections open and dead ones are detected.
+     */
+    @Scheduled(fixedDelay = 30_000)
+    public void heartbeat() {
+        subscribers
+            .values()
+            .forEach(topicSubscribers -> topicSubscribers.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("heartbeat"))));
+    }
+
+    /**
+     * Drop the subscribers whose current write has not returned within the send timeout.
+     */
+    @Scheduled(fixedDelay = 1_000)
+    public void dropStuckSubscribers() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(topicSubscribers -> topicSubscribers.forEach(subscriber -> subscriber.dropIfStuck(now)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscribers.values().forEach(topicSubscribers -> topicSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    /**
+     * A subscription, with the events not written yet. At most one sender thread drains it at a time.
+     */
+    private final class Subscriber {
+
+        private final Set<Subscriber> topicSubscribers;
+
+        private final SseEmitter emitter;
+
+        // An event builder is stateful, so each subscriber is given its own
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer = new ArrayBlockingQueue<>(bufferSize);
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private volatile long sendingSince = NOT_SENDING;
+
+        private volatile boolean dropped;
+
+        private volatile boolean behind;
+
+        private volatile boolean stuck;
+
+        Subscriber(Set<Subscriber> topicSubscribers, SseEmitter emitter) {
+            this.topicSubscribers = topicSubscribers;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (dropped) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                // The client fell behind: it catches up from its last event id once it reconnects
+                log.debug("Completing a subscriber {} events behind", bufferSize);
+                behind = true;
+                forget();
+                buffer.clear();
+                scheduleDrain();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        void dropIfStuck(long now) {
+            long since = sendingSince;
+            if (since != NOT_SENDING && now - since > sendTimeoutNanos) {
+                log.debug("Dropping a subscriber whose write did not return within {} ms", sendTimeoutNanos / 1_000_000);
+                stuck = true;
+                forget();
+                buffer.clear();
+            }
+        }
+
+        void forget() {
+            dropped = true;
+            topicSubscribers.remove(this);
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!dropped && (event = buffer.poll()) != null) {
+                    sendingSince = System.nanoTime();
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        // The client went away: forget it
+                        forget();
+                        emitter.completeWithError(e);
+                        return;
+                    } finally {
+                        sendingSince = NOT_SENDING;
+                    }
+                }
+                // Completed by the sender thread, as completing waits for the write in progress
+                if ((stuck || behind) && completed.compareAndSet(false, true)) {
+                    if (stuck) {
+                        emitter.completeWithError(new TimeoutException("Write not returned within the send timeout"));
+                    } else {
+                        emitter.complete();
+                    }
+                    return;
+                }
+            } finally {
+                draining.set(false);
+            }
+            // An event offered, or the subscriber dropped, after the last poll while this drain was still running
+            if (!buffer.isEmpty() || ((stuck || behind) && !completed.get())) {
+                scheduleDrain();
+            }
+        }
+    }
+}
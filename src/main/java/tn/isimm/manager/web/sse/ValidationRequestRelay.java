@@ -0,0 +1,27 @@
+package tn.isimm.manager.web.sse;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import tn.isimm.manager.service.dto.ValidationRequestChangeDTO;
+
+/**
+ * Pushes every committed change of status of the validation requests to the subscribers of the queue stream.
+ */
+@Component
+public class ValidationRequestRelay {
+
+    public static final String TOPIC = "validation-requests";
+
+    public static final String EVENT_NAME = "validation-request";
+
+    private final SseBroadcaster sseBroadcaster;
+
+    public ValidationRequestRelay(SseBroadcaster sseBroadcaster) {
+        this.sseBroadcaster = sseBroadcaster;
+    }
+
+    @EventListener
+    public void onValidationRequestChange(ValidationRequestChangeDTO change) {
+        sseBroadcaster.broadcast(TOPIC, EVENT_NAME, null, change);
+    }
+}
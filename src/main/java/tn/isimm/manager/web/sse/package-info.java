@@ -0,0 +1,4 @@
+/**
+ * Server-sent events support.
+ */
+package tn.isimm.manager.web.sse;
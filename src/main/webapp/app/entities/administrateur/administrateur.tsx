@@ -2,12 +2,13 @@ import React, { useState, useEffect } from 'react';
 import InfiniteScroll from 'react-infinite-scroll-component';
 import { Link, useLocation, useNavigate } from 'react-router-dom';
 import { Button, Table } from 'reactstrap';
-import { openFile, byteSize, Translate, TextFormat, getPaginationState } from 'react-jhipster';
+import { Translate, TextFormat, getPaginationState } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 import { faSort, faSortUp, faSortDown } from '@fortawesome/free-solid-svg-icons';
 import { APP_DATE_FORMAT, APP_LOCAL_DATE_FORMAT } from 'app/config/constants';
 import { ASC, DESC, ITEMS_PER_PAGE, SORT } from 'app/shared/util/pagination.constants';
 import { overridePaginationStateWithQueryParams } from 'app/shared/util/entity-utils';
+import { openRemoteFile, photoThumbnailUrl, RemoteImage } from 'app/shared/util/remote-file';
 import { useAppDispatch, useAppSelector } from 'app/config/store';
 
 import { getEntities, reset } from './administrateur.reducer';
@@ -190,20 +191,20 @@ export const Administrateur = () => {
                       ) : null}
                     </td>
                     <td>
-                      {administrateur.photoDeProfile ? (
+                      {administrateur.photoDeProfileContentType ? (
                         <div>
-                          {administrateur.photoDeProfileContentType ? (
-                            <a onClick={openFile(administrateur.photoDeProfileContentType, administrateur.photoDeProfile)}>
-                              <img
-                                src={`data:${administrateur.photoDeProfileContentType};base64,${administrateur.photoDeProfile}`}
-                                style={{ maxHeight: '30px' }}
-                              />
-                              &nbsp;
-                            </a>
-                          ) : null}
-                          <span>
-                            {administrateur.photoDeProfileContentType}, {byteSize(administrateur.photoDeProfile)}
-                          </span>
+                          <a onClick={openRemoteFile(`api/administrateurs/${administrateur.id}/photo`)}>
+                            <RemoteImage
+                              url={
+                                administrateur.photoDeProfileHash
+                                  ? photoThumbnailUrl('administrateur', administrateur.id, administrateur.photoDeProfileHash)
+                                  : `api/administrateurs/${administrateur.id}/photo`
+                              }
+                              style={{ maxHeight: '30px' }}
+                            />
+                            &nbsp;
+                          </a>
+                          <span>{administrateur.photoDeProfileContentType}</span>
                         </div>
                       ) : null}
                     </td>
@@ -1,11 +1,12 @@
 import React, { useState, useEffect } from 'react';
 import { Link, useLocation, useNavigate } from 'react-router-dom';
 import { Button, Table } from 'reactstrap';
-import { openFile, byteSize, Translate, getSortState } from 'react-jhipster';
+import { Translate, getSortState } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 import { faSort, faSortUp, faSortDown } from '@fortawesome/free-solid-svg-icons';
 import { ASC, DESC, SORT } from 'app/shared/util/pagination.constants';
 import { overrideSortStateWithQueryParams } from 'app/shared/util/entity-utils';
+import { openRemoteFile } from 'app/shared/util/remote-file';
 import { useAppDispatch, useAppSelector } from 'app/config/store';
 
 import { getEntities } from './cours.reducer';
@@ -111,17 +112,13 @@ export const Cours = () => {
                   </td>
                   <td>{cours.titre}</td>
                   <td>
-                    {cours.file ? (
+                    {cours.fileContentType ? (
                       <div>
-                        {cours.fileContentType ? (
-                          <a onClick={openFile(cours.fileContentType, cours.file)}>
-                            <Translate contentKey="entity.action.open">Open</Translate>
-                            &nbsp;
-                          </a>
-                        ) : null}
-                        <span>
-                          {cours.fileContentType}, {byteSize(cours.file)}
-                        </span>
+                        <a onClick={openRemoteFile(`api/cours/${cours.id}/file`)}>
+                          <Translate contentKey="entity.action.open">Open</Translate>
+                          &nbsp;
+                        </a>
+                        <span>{cours.fileContentType}</span>
                       </div>
                     ) : null}
                   </td>
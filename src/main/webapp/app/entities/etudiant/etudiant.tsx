@@ -2,12 +2,13 @@ import React, { useState, useEffect } from 'react';
 import InfiniteScroll from 'react-infinite-scroll-component';
 import { Link, useLocation, useNavigate } from 'react-router-dom';
 import { Button, Table } from 'reactstrap';
-import { openFile, byteSize, Translate, TextFormat, getPaginationState } from 'react-jhipster';
+import { Translate, TextFormat, getPaginationState } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 import { faSort, faSortUp, faSortDown } from '@fortawesome/free-solid-svg-icons';
 import { APP_DATE_FORMAT, APP_LOCAL_DATE_FORMAT } from 'app/config/constants';
 import { ASC, DESC, ITEMS_PER_PAGE, SORT } from 'app/shared/util/pagination.constants';
 import { overridePaginationStateWithQueryParams } from 'app/shared/util/entity-utils';
+import { openRemoteFile, photoThumbnailUrl, RemoteImage } from 'app/shared/util/remote-file';
 import { useAppDispatch, useAppSelector } from 'app/config/store';
 
 import { getEntities, reset } from './etudiant.reducer';
@@ -188,20 +189,20 @@ export const Etudiant = () => {
                       ) : null}
                     </td>
                     <td>
-                      {etudiant.photoDeProfile ? (
+                      {etudiant.photoDeProfileContentType ? (
                         <div>
-                          {etudiant.photoDeProfileContentType ? (
-                            <a onClick={openFile(etudiant.photoDeProfileContentType, etudiant.photoDeProfile)}>
-                              <img
-                                src={`data:${etudiant.photoDeProfileContentType};base64,${etudiant.photoDeProfile}`}
-                                style={{ maxHeight: '30px' }}
-                              />
-                              &nbsp;
-                            </a>
-                          ) : null}
-                          <span>
-                            {etudiant.photoDeProfileContentType}, {byteSize(etudiant.photoDeProfile)}
-                          </span>
+                          <a onClick={openRemoteFile(`api/etudiants/${etudiant.id}/photo`)}>
+                            <RemoteImage
+                              url={
+                                etudiant.photoDeProfileHash
+                                  ? photoThumbnailUrl('etudiant', etudiant.id, etudiant.photoDeProfileHash)
+                                  : `api/etudiants/${etudiant.id}/photo`
+                              }
+                              style={{ maxHeight: '30px' }}
+                            />
+                            &nbsp;
+                          </a>
+                          <span>{etudiant.photoDeProfileContentType}</span>
                         </div>
                       ) : null}
                     </td>
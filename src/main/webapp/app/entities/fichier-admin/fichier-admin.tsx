@@ -1,11 +1,12 @@
 import React, { useState, useEffect } from 'react';
 import { Link, useLocation, useNavigate } from 'react-router-dom';
 import { Button, Table } from 'reactstrap';
-import { openFile, byteSize, Translate, getSortState } from 'react-jhipster';
+import { Translate, getSortState } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 import { faSort, faSortUp, faSortDown } from '@fortawesome/free-solid-svg-icons';
 import { ASC, DESC, SORT } from 'app/shared/util/pagination.constants';
 import { overrideSortStateWithQueryParams } from 'app/shared/util/entity-utils';
+import { openRemoteFile } from 'app/shared/util/remote-file';
 import { useAppDispatch, useAppSelector } from 'app/config/store';
 
 import { getEntities } from './fichier-admin.reducer';
@@ -123,17 +124,13 @@ export const FichierAdmin = () => {
                     <Translate contentKey={`isimmManagerApp.TypeFichierAdmin.${fichierAdmin.type}`} />
                   </td>
                   <td>
-                    {fichierAdmin.file ? (
+                    {fichierAdmin.fileContentType ? (
                       <div>
-                        {fichierAdmin.fileContentType ? (
-                          <a onClick={openFile(fichierAdmin.fileContentType, fichierAdmin.file)}>
-                            <Translate contentKey="entity.action.open">Open</Translate>
-                            &nbsp;
-                          </a>
-                        ) : null}
-                        <span>
-                          {fichierAdmin.fileContentType}, {byteSize(fichierAdmin.file)}
-                        </span>
+                        <a onClick={openRemoteFile(`api/fichier-admins/${fichierAdmin.id}/file`)}>
+                          <Translate contentKey="entity.action.open">Open</Translate>
+                          &nbsp;
+                        </a>
+                        <span>{fichierAdmin.fileContentType}</span>
                       </div>
                     ) : null}
                   </td>
@@ -2,12 +2,13 @@ import React, { useState, useEffect } from 'react';
 import InfiniteScroll from 'react-infinite-scroll-component';
 import { Link, useLocation, useNavigate } from 'react-router-dom';
 import { Button, Table } from 'reactstrap';
-import { openFile, byteSize, Translate, TextFormat, getPaginationState } from 'react-jhipster';
+import { Translate, TextFormat, getPaginationState } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 import { faSort, faSortUp, faSortDown } from '@fortawesome/free-solid-svg-icons';
 import { APP_DATE_FORMAT, APP_LOCAL_DATE_FORMAT } from 'app/config/constants';
 import { ASC, DESC, ITEMS_PER_PAGE, SORT } from 'app/shared/util/pagination.constants';
 import { overridePaginationStateWithQueryParams } from 'app/shared/util/entity-utils';
+import { openRemoteFile, photoThumbnailUrl, RemoteImage } from 'app/shared/util/remote-file';
 import { useAppDispatch, useAppSelector } from 'app/config/store';
 
 import { getEntities, reset } from './professeur.reducer';
@@ -197,20 +198,20 @@ export const Professeur = () => {
                       ) : null}
                     </td>
                     <td>
-                      {professeur.photoDeProfile ? (
+                      {professeur.photoDeProfileContentType ? (
                         <div>
-                          {professeur.photoDeProfileContentType ? (
-                            <a onClick={openFile(professeur.photoDeProfileContentType, professeur.photoDeProfile)}>
-                              <img
-                                src={`data:${professeur.photoDeProfileContentType};base64,${professeur.photoDeProfile}`}
-                                style={{ maxHeight: '30px' }}
-                              />
-                              &nbsp;
-                            </a>
-                          ) : null}
-                          <span>
-                            {professeur.photoDeProfileContentType}, {byteSize(professeur.photoDeProfile)}
-                          </span>
+                          <a onClick={openRemoteFile(`api/professeurs/${professeur.id}/photo`)}>
+                            <RemoteImage
+                              url={
+                                professeur.photoDeProfileHash
+                                  ? photoThumbnailUrl('professeur', professeur.id, professeur.photoDeProfileHash)
+                                  : `api/professeurs/${professeur.id}/photo`
+                              }
+                              style={{ maxHeight: '30px' }}
+                            />
+                            &nbsp;
+                          </a>
+                          <span>{professeur.photoDeProfileContentType}</span>
                         </div>
                       ) : null}
                     </td>
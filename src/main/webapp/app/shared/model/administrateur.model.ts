@@ -12,6 +12,7 @@ export interface IAdministrateur {
   dateDeNaissance?: dayjs.Dayjs | null;
   photoDeProfileContentType?: string | null;
   photoDeProfile?: string | null;
+  photoDeProfileHash?: string | null;
   user?: IUser | null;
 }
 
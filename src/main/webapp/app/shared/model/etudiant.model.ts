@@ -14,6 +14,7 @@ export interface IEtudiant {
   dateDeNaissance?: dayjs.Dayjs | null;
   photoDeProfileContentType?: string | null;
   photoDeProfile?: string | null;
+  photoDeProfileHash?: string | null;
   fichierAdmins?: IFichierAdmin[] | null;
   niveau?: INiveau | null;
   clubs?: IClub[] | null;
@@ -15,6 +15,7 @@ export interface IProfesseur {
   dateDeNaissance?: dayjs.Dayjs | null;
   photoDeProfileContentType?: string | null;
   photoDeProfile?: string | null;
+  photoDeProfileHash?: string | null;
   matieres?: IMatiere[] | null;
   user?: IUser | null;
 }
@@ -0,0 +1,52 @@
+import React, { useEffect, useState } from 'react';
+import axios from 'axios';
+
+/**
+ * Binary attributes are not part of the lists, they are fetched from their own URL: with axios, so that the request
+ * is authenticated, and cached by the browser until the entities change.
+ */
+const fetchObjectUrl = async (url: string) => {
+  const response = await axios.get<Blob>(url, { responseType: 'blob' });
+  return URL.createObjectURL(response.data);
+};
+
+/**
+ * URL of the thumbnail of a profile photo: it holds the hash of the photo, so the browser keeps it until the photo changes.
+ */
+export const photoThumbnailUrl = (kind: string, id: number, hash: string, size = 64) => `api/photos/${kind}/${id}/${size}?v=${hash}`;
+
+export const openRemoteFile = (url: string) => async () => {
+  const objectUrl = await fetchObjectUrl(url);
+  const fileWindow = window.open(objectUrl, '_blank');
+  if (!fileWindow) {
+    URL.revokeObjectURL(objectUrl);
+  }
+};
+
+export const RemoteImage = ({ url, style }: { url: string; style?: React.CSSProperties }) => {
+  const [objectUrl, setObjectUrl] = useState<string>(null);
+
+  useEffect(() => {
+    let current: string = null;
+    let cancelled = false;
+    fetchObjectUrl(url).then(
+      fetched => {
+        if (cancelled) {
+          URL.revokeObjectURL(fetched);
+        } else {
+          current = fetched;
+          setObjectUrl(fetched);
+        }
+      },
+      () => setObjectUrl(null),
+    );
+    return () => {
+      cancelled = true;
+      if (current) {
+        URL.revokeObjectURL(current);
+      }
+    };
+  }, [url]);
+
+  return objectUrl ? <img src={objectUrl} style={style} /> : null;
+};
@@ -0,0 +1,155 @@
+package gatling.simulations;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Typical journeys of the application users, run against the synthetic dataset written with {@code --generate-data}.
+ * <p>
+ * Settings are read from system properties: {@code baseURL}, {@code username}, {@code password}, {@code users} (per
+ * journey, reached after {@code rampUp} seconds), {@code duration} (in seconds, at full load) and {@code etudiantPages}
+ * (the number of pages of 20 etudiants to browse).
+ */
+public class UniversityJourneysSimulation extends Simulation {
+
+    String baseURL = Optional.ofNullable(System.getProperty("baseURL")).orElse("http://localhost:8080");
+
+    String username = Optional.ofNullable(System.getProperty("username")).orElse("admin");
+
+    String password = Optional.ofNullable(System.getProperty("password")).orElse("admin");
+
+    int users = Integer.getInteger("users", 20);
+
+    Duration rampUp = Duration.ofSeconds(Integer.getInteger("rampUp", 30));
+
+    Duration duration = Duration.ofSeconds(Integer.getInteger("duration", 120));
+
+    int etudiantPages = Integer.getInteger("etudiantPages", 5_000);
+
+    String document = Base64.getEncoder().encodeToString(("%PDF-1.4\n" + "attestation ".repeat(700)).getBytes());
+
+    HttpProtocolBuilder httpConf = http
+        .baseUrl(baseURL)
+        .acceptHeader("application/json")
+        .acceptEncodingHeader("gzip, deflate")
+        .userAgentHeader("Gatling")
+        .silentResources();
+
+    Map<String, String> headersHttpAuthenticated = Map.of("Authorization", "Bearer #{access_token}");
+
+    ChainBuilder authenticate = exec(
+        http("Authentication")
+            .post("/api/authenticate")
+            .body(StringBody("{\"username\":\"" + username + "\", \"password\":\"" + password + "\", \"rememberMe\":false}"))
+            .asJson()
+            .check(status().is(200))
+            .check(jmesPath("id_token").saveAs("access_token"))
+    );
+
+    ChainBuilder browseEtudiants = repeat(5).on(
+        exec(session -> session.set("page", ThreadLocalRandom.current().nextInt(etudiantPages)))
+            .exec(
+                http("Get etudiants page")
+                    .get("/api/etudiants?page=#{page}&size=20&sort=id,asc")
+                    .headers(headersHttpAuthenticated)
+                    .check(status().is(200))
+                    .check(jmesPath("[*].id").findRandom().optional().saveAs("etudiant_id"))
+            )
+            .pause(Duration.ofSeconds(1), Duration.ofSeconds(3))
+            .doIf(session -> session.contains("etudiant_id"))
+            .then(
+                exec(
+                    http("Get etudiant").get("/api/etudiants/#{etudiant_id}").headers(headersHttpAuthenticated).check(status().is(200))
+                )
+            )
+    );
+
+    ChainBuilder openTimetable = exec(
+        http("Get niveaus")
+            .get("/api/niveaus")
+            .headers(headersHttpAuthenticated)
+            .check(status().is(200))
+            .check(jmesPath("[*].id").findRandom().saveAs("niveau_id"))
+    )
+        .pause(Duration.ofSeconds(1))
+        .exec(http("Get niveau").get("/api/niveaus/#{niveau_id}").headers(headersHttpAuthenticated).check(status().is(200)))
+        .exec(
+            http("Get seances page").get("/api/seances?page=0&size=50&sort=jour,asc").headers(headersHttpAuthenticated).check(status().is(200))
+        );
+
+    ChainBuilder downloadCours = exec(
+        http("Get cours")
+            .get("/api/cours")
+            .headers(headersHttpAuthenticated)
+            .check(status().is(200))
+            .check(jmesPath("[*].id").findRandom().saveAs("cours_id"))
+    )
+        .pause(Duration.ofSeconds(1), Duration.ofSeconds(2))
+        .exec(http("Download cours").get("/api/cours/#{cours_id}/file").headers(headersHttpAuthenticated).check(status().is(200)));
+
+    ChainBuilder submitFichierAdmin = exec(
+        http("Get etudiants first page")
+            .get("/api/etudiants?page=0&size=20")
+            .headers(headersHttpAuthenticated)
+            .check(status().is(200))
+            .check(jmesPath("[*].id").findRandom().saveAs("etudiant_id"))
+    )
+        .pause(Duration.ofSeconds(2), Duration.ofSeconds(5))
+        .exec(
+            http("Submit fichierAdmin")
+                .post("/api/fichier-admins")
+                .headers(headersHttpAuthenticated)
+                .body(
+                    StringBody(
+                        "{\"titre\":\"Demande d'attestation\", \"type\":\"Reusite\", \"demandeValide\":false, " +
+                        "\"fileContentType\":\"application/pdf\", \"file\":\"" +
+                        document +
+                        "\", \"etudiant\":{\"id\":#{etudiant_id}}}"
+                    )
+                )
+                .asJson()
+                .check(status().is(201))
+                .check(header("Location").saveAs("new_fichier_admin_url"))
+        )
+        .pause(Duration.ofSeconds(1))
+        .exec(http("Get created fichierAdmin").get("#{new_fichier_admin_url}").headers(headersHttpAuthenticated).check(status().is(200)));
+
+    ScenarioBuilder browseEtudiantsScenario = scenario("Browse etudiants").exec(authenticate).forever().on(browseEtudiants);
+
+    ScenarioBuilder openTimetableScenario = scenario("Open a niveau timetable")
+        .exec(authenticate)
+        .forever()
+        .on(exec(openTimetable).pause(Duration.ofSeconds(2), Duration.ofSeconds(5)));
+
+    ScenarioBuilder downloadCoursScenario = scenario("Download a cours")
+        .exec(authenticate)
+        .forever()
+        .on(exec(downloadCours).pause(Duration.ofSeconds(2), Duration.ofSeconds(5)));
+
+    ScenarioBuilder submitFichierAdminScenario = scenario("Submit a fichierAdmin request")
+        .exec(authenticate)
+        .forever()
+        .on(exec(submitFichierAdmin).pause(Duration.ofSeconds(5), Duration.ofSeconds(10)));
+
+    {
+        setUp(
+            browseEtudiantsScenario.injectOpen(rampUsers(users).during(rampUp)),
+            openTimetableScenario.injectOpen(rampUsers(users).during(rampUp)),
+            downloadCoursScenario.injectOpen(rampUsers(users).during(rampUp)),
+            submitFichierAdminScenario.injectOpen(rampUsers(Math.max(1, users / 4)).during(rampUp))
+        )
+            .maxDuration(rampUp.plus(duration))
+            .protocols(httpConf)
+            .assertions(global().failedRequests().percent().lt(1.0));
+    }
+}
@@ -0,0 +1,218 @@
+package tn.isimm.manager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.jayway.jsonpath.JsonPath;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.junit.jupiter.EnabledIf;
+
+/**
+ * Smoke tests of the native executable built by the {@code native} Maven profile, which sets the system properties
+ * read here.
+ * <p>
+ * The executable and the jar are started in turn on the database migrated by the test context, and the same requests
+ * are sent to both: they go through the entities, the DTOs, the view models and the mail templates, which the native
+ * executable only reaches with the hints of {@link tn.isimm.manager.config.NativeRuntimeHints}. The time until the
+ * application is healthy and the resident memory of both are written to {@code comparison.md}, with the versions of the
+ * JDK and of GraalVM, to be published in the README.
+ */
+@IntegrationTest
+@EnabledIfSystemProperty(named = "native-smoke.executable", matches = ".+")
+@EnabledIf(expression = "#{environment.acceptsProfiles('testprod')}", loadContext = true)
+class NativeSmokeIT {
+
+    private static final long TIMEOUT_SECONDS = 180;
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(20);
+
+    private final Logger log = LoggerFactory.getLogger(NativeSmokeIT.class);
+
+    private final Path directory = Path.of(System.getProperty("native-smoke.directory"));
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    void nativeExecutableServesLikeTheJar() throws Exception {
+        Files.createDirectories(directory);
+        Measure nativeMeasure = run("native", List.of(System.getProperty("native-smoke.executable")));
+        Measure jvmMeasure = run(
+            "jvm",
+            List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Dspring.aot.enabled=false",
+                "-jar",
+                System.getProperty("native-smoke.jar")
+            )
+        );
+
+        String comparison = String.join(
+            System.lineSeparator(),
+            String.format(
+                "Measured with %s, on %s %s with %d processors:",
+                runtimeVersion(),
+                System.getProperty("os.name"),
+                System.getProperty("os.arch"),
+                Runtime.getRuntime().availableProcessors()
+            ),
+            "",
+            "| Runtime | Startup (ms) | RSS after startup (MiB) | RSS after the smoke tests (MiB) |",
+            "|---|---:|---:|---:|",
+            nativeMeasure.toRow(),
+            jvmMeasure.toRow(),
+            ""
+        );
+        Files.writeString(directory.resolve("comparison.md"), comparison);
+        log.info("Native executable compared with the jar:{}{}", System.lineSeparator(), comparison);
+        assertThat(nativeMeasure.startupMillis()).isLessThan(jvmMeasure.startupMillis());
+    }
+
+    private Measure run(String runtime, List<String> launcher) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(launcher);
+        command.add("--server.port=" + port);
+        command.add("--spring.datasource.url=" + environment.getRequiredProperty("spring.datasource.url"));
+        command.add("--spring.datasource.username=" + environment.getRequiredProperty("spring.datasource.username"));
+        command.add("--spring.datasource.password=" + environment.getRequiredProperty("spring.datasource.password"));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(directory.resolve(runtime + ".log").toFile())
+            .start();
+        try {
+            String baseUrl = "http://localhost:" + port;
+            awaitHealthy(process, baseUrl, runtime);
+            long startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            long startupRss = residentMemoryKib(process);
+            smokeTest(baseUrl);
+            return new Measure(runtime, startupMillis, startupRss, residentMemoryKib(process));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private void awaitHealthy(Process process, String baseUrl, String runtime) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            assertThat(process.isAlive()).as("%s is running, see %s.log", runtime, runtime).isTrue();
+            try {
+                HttpResponse<String> health = send(HttpRequest.newBuilder(URI.create(baseUrl + "/management/health")).GET());
+                if (health.statusCode() == 200 && "UP".equals(JsonPath.read(health.body(), "$.status"))) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        }
+        throw new AssertionError(runtime + " was not healthy within " + TIMEOUT_SECONDS + " s, see " + runtime + ".log");
+    }
+
+    private void smokeTest(String baseUrl) throws IOException, InterruptedException {
+        HttpResponse<String> anonymous = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/account")).GET());
+        assertThat(anonymous.statusCode()).isEqualTo(401);
+
+        HttpResponse<String> authentication = send(
+            HttpRequest
+                .newBuilder(URI.create(baseUrl + "/api/authenticate"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"admin\",\"rememberMe\":false}"))
+        );
+        assertThat(authentication.statusCode()).isEqualTo(200);
+        String authorization = "Bearer " + JsonPath.read(authentication.body(), "$.id_token");
+
+        HttpResponse<String> account = send(
+            HttpRequest.newBuilder(URI.create(baseUrl + "/api/account")).header("Authorization", authorization).GET()
+        );
+        assertThat(account.statusCode()).isEqualTo(200);
+        assertThat(JsonPath.<String>read(account.body(), "$.login")).isEqualTo("admin");
+        assertThat(JsonPath.<List<String>>read(account.body(), "$.authorities")).contains("ROLE_ADMIN");
+
+        HttpResponse<String> etudiants = send(
+            HttpRequest.newBuilder(URI.create(baseUrl + "/api/etudiants?page=0&size=5")).header("Authorization", authorization).GET()
+        );
+        assertThat(etudiants.statusCode()).isEqualTo(200);
+
+        // The mail is rendered from the passwordResetEmail template in the background, failures are logged
+        HttpResponse<String> passwordReset = send(
+            HttpRequest
+                .newBuilder(URI.create(baseUrl + "/api/account/reset-password/init"))
+                .header("Content-Type", "text/plain")
+                .POST(HttpRequest.BodyPublishers.ofString("admin@localhost"))
+        );
+        assertThat(passwordReset.statusCode()).isEqualTo(200);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.timeout(Duration.ofSeconds(10)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * @return the JDK running the tests, the GraalVM one that built the executable and runs the jar.
+     */
+    private static String runtimeVersion() {
+        return String.format(
+            "%s %s (Java %s)",
+            System.getProperty("java.vm.name"),
+            System.getProperty("java.vendor.version", ""),
+            System.getProperty("java.runtime.version")
+        );
+    }
+
+    /**
+     * @return the resident memory of the process in KiB, read from {@code /proc}, or -1 when not available.
+     */
+    private static long residentMemoryKib(Process process) throws IOException {
+        Path status = Path.of("/proc", Long.toString(process.pid()), "status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        return Files
+            .readAllLines(status)
+            .stream()
+            .filter(line -> line.startsWith("VmRSS:"))
+            .map(line -> line.replaceAll("\\D", ""))
+            .mapToLong(Long::parseLong)
+            .findFirst()
+            .orElse(-1);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record Measure(String runtime, long startupMillis, long startupRssKib, long smokeTestRssKib) {
+        String toRow() {
+            return "| " + runtime + " | " + startupMillis + " | " + mebibytes(startupRssKib) + " | " + mebibytes(smokeTestRssKib) + " |";
+        }
+
+        private static String mebibytes(long kibibytes) {
+            return kibibytes < 0 ? "n/a" : Long.toString(kibibytes / 1024);
+        }
+    }
+}
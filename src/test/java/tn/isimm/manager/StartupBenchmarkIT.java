@@ -0,0 +1,149 @@
+package tn.isimm.manager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.jayway.jsonpath.JsonPath;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.junit.jupiter.EnabledIf;
+import tn.isimm.manager.config.Constants;
+
+/**
+ * Startup benchmark of the jar built by the {@code fast-start} Maven profile, which sets the system properties read here.
+ * <p>
+ * Every run starts the jar on the database migrated by the test context and measures the time until
+ * {@code /management/health} is {@code UP}, which the lazy beans and the entity manager factory built in the background
+ * only are once they are ready. The median startup with the AOT initialization, the archive and the {@code fast-start}
+ * Spring profile must not exceed {@code startup-benchmark.max-ratio} times the median startup of the same jar without
+ * them.
+ */
+@IntegrationTest
+@EnabledIfSystemProperty(named = "startup-benchmark.jar", matches = ".+")
+@EnabledIf(expression = "#{environment.acceptsProfiles('testprod')}", loadContext = true)
+class StartupBenchmarkIT {
+
+    private static final int RUNS = Integer.getInteger("startup-benchmark.runs", 5);
+
+    private static final double MAX_RATIO = Double.parseDouble(System.getProperty("startup-benchmark.max-ratio", "0.9"));
+
+    private static final long TIMEOUT_SECONDS = 180;
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(20);
+
+    private final Logger log = LoggerFactory.getLogger(StartupBenchmarkIT.class);
+
+    private final Path directory = Path.of(System.getProperty("startup-benchmark.directory"));
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    void fastStartIsFasterThanPlainStart() throws Exception {
+        String jar = System.getProperty("startup-benchmark.jar");
+        String plainProfiles = Arrays
+            .stream(System.getProperty("startup-benchmark.profiles").split(","))
+            .map(String::trim)
+            .filter(profile -> !profile.equals(Constants.SPRING_PROFILE_FAST_START))
+            .collect(Collectors.joining(","));
+        List<String> plain = command(List.of("-Dspring.aot.enabled=false"), jar, "--spring.profiles.active=" + plainProfiles);
+        List<String> fastStart = command(List.of("-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true"), jar);
+
+        // Warm up the file system cache
+        start(plain);
+        start(fastStart);
+        long plainMillis = median(plain);
+        long fastStartMillis = median(fastStart);
+
+        log.info("Median time to healthy over {} runs: {} ms plain, {} ms with fast-start", RUNS, plainMillis, fastStartMillis);
+        assertThat(fastStartMillis).isLessThanOrEqualTo(Math.round(plainMillis * MAX_RATIO));
+    }
+
+    private List<String> command(List<String> jvmOptions, String jar, String... arguments) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-jar");
+        command.add(jar);
+        command.add("--spring.datasource.url=" + environment.getRequiredProperty("spring.datasource.url"));
+        command.add("--spring.datasource.username=" + environment.getRequiredProperty("spring.datasource.username"));
+        command.add("--spring.datasource.password=" + environment.getRequiredProperty("spring.datasource.password"));
+        command.addAll(Arrays.asList(arguments));
+        return command;
+    }
+
+    private long median(List<String> command) throws IOException, InterruptedException {
+        long[] millis = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            millis[i] = start(command);
+        }
+        Arrays.sort(millis);
+        return millis[RUNS / 2];
+    }
+
+    /**
+     * @return the milliseconds from the start of the process until the application is healthy.
+     */
+    private long start(List<String> command) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> portCommand = new ArrayList<>(command);
+        portCommand.add("--server.port=" + port);
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(portCommand)
+            .directory(directory.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.appendTo(directory.resolve("startup-benchmark.log").toFile()))
+            .start();
+        try {
+            awaitHealthy(process, "http://localhost:" + port, command);
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private void awaitHealthy(Process process, String baseUrl, List<String> command) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/management/health")).timeout(Duration.ofSeconds(10)).build();
+        while (System.nanoTime() < deadline) {
+            assertThat(process.isAlive()).as("running, see startup-benchmark.log: %s", command).isTrue();
+            try {
+                HttpResponse<String> health = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (health.statusCode() == 200 && "UP".equals(JsonPath.read(health.body(), "$.status"))) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        }
+        throw new AssertionError("Not healthy within " + TIMEOUT_SECONDS + " s, see startup-benchmark.log: " + command);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
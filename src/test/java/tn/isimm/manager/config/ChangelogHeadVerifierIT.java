@@ -0,0 +1,53 @@
+package tn.isimm.manager.config;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ResourceLoader;
+import tn.isimm.manager.IntegrationTest;
+
+/**
+ * Integration tests for the {@link ChangelogHeadVerifier}.
+ */
+@IntegrationTest
+class ChangelogHeadVerifierIT {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Test
+    void acceptsMigratedSchema() {
+        ChangelogHeadVerifier verifier = createVerifier("classpath:config/liquibase/master.xml");
+
+        assertThatCode(verifier::afterPropertiesSet).doesNotThrowAnyException();
+    }
+
+    @Test
+    void refusesSchemaBehindChangelog() {
+        ChangelogHeadVerifier verifier = createVerifier("classpath:config/liquibase/behind/master.xml");
+
+        assertThatThrownBy(verifier::afterPropertiesSet).isInstanceOf(IllegalStateException.class).hasMessageContaining("99991231000000-1");
+    }
+
+    @Test
+    void skipsVerificationWhenDisabled() {
+        ChangelogHeadVerifier verifier = createVerifier("classpath:config/liquibase/behind/master.xml");
+        verifier.setShouldRun(false);
+
+        assertThatCode(verifier::afterPropertiesSet).doesNotThrowAnyException();
+    }
+
+    private ChangelogHeadVerifier createVerifier(String changeLog) {
+        ChangelogHeadVerifier verifier = new ChangelogHeadVerifier();
+        verifier.setDataSource(dataSource);
+        verifier.setResourceLoader(resourceLoader);
+        verifier.setChangeLog(changeLog);
+        return verifier;
+    }
+}
@@ -0,0 +1,49 @@
+package tn.isimm.manager.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class StoredFileCodecTest {
+
+    private static final byte[] TEXT = "Chapitre 1 : introduction. ".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void compressibleFilesAreCompressed() throws Exception {
+        byte[] stored = StoredFileCodec.encode(TEXT, "text/plain; charset=UTF-8");
+
+        assertThat(stored.length).isLessThan(TEXT.length);
+        assertThat(StoredFileCodec.isEncoded(stored)).isTrue();
+        assertThat(StoredFileCodec.decode(stored)).isEqualTo(TEXT);
+        StoredFileCodec.Encoded encoded = StoredFileCodec.open(new ByteArrayInputStream(stored));
+        assertThat(encoded.encoding()).isEqualTo(StoredFileCodec.GZIP);
+        assertThat(encoded.decoded().readAllBytes()).isEqualTo(TEXT);
+    }
+
+    @Test
+    void otherFilesAreStoredRaw() throws Exception {
+        byte[] small = "Chapitre 1".getBytes(StandardCharsets.UTF_8);
+        byte[] zip = TEXT.clone();
+        System.arraycopy(new byte[] { 'P', 'K', 3, 4 }, 0, zip, 0, 4);
+
+        assertThat(StoredFileCodec.encode(small, "text/plain")).isSameAs(small);
+        assertThat(StoredFileCodec.encode(TEXT, "image/png")).isSameAs(TEXT);
+        assertThat(StoredFileCodec.encode(zip, null)).isSameAs(zip);
+        assertThat(StoredFileCodec.decode(TEXT)).isSameAs(TEXT);
+        StoredFileCodec.Encoded encoded = StoredFileCodec.open(new ByteArrayInputStream(TEXT));
+        assertThat(encoded.encoding()).isNull();
+        assertThat(encoded.decoded().readAllBytes()).isEqualTo(TEXT);
+    }
+
+    @Test
+    void rawFilesStartingLikeTheHeaderAreAlwaysCompressed() {
+        byte[] lookalike = { 0, 'I', 'S', 'I', 'M', 'M', 'Z', 1, 42 };
+
+        byte[] stored = StoredFileCodec.encode(lookalike, "image/png");
+
+        assertThat(stored).isNotEqualTo(lookalike);
+        assertThat(StoredFileCodec.decode(stored)).isEqualTo(lookalike);
+    }
+}
@@ -0,0 +1,214 @@
+package tn.isimm.manager.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.EnabledIf;
+import org.springframework.transaction.annotation.Transactional;
+import tn.isimm.manager.IntegrationTest;
+import tn.isimm.manager.domain.Club;
+import tn.isimm.manager.domain.Etudiant;
+import tn.isimm.manager.domain.Matiere;
+import tn.isimm.manager.domain.Niveau;
+
+/**
+ * Query plan regression tests: every lookup query is explained against a large seeded PostgreSQL database,
+ * and must not read a large table sequentially.
+ * <p>
+ * Only run with the {@code testprod} profile, as plans only make sense on PostgreSQL. Queries reading a whole table on
+ * purpose, such as unpaged {@code findAll} and the count queries of pages, are not checked.
+ */
+@IntegrationTest
+@Transactional
+@EnabledIf(expression = "#{environment.acceptsProfiles('testprod')}", loadContext = true)
+class QueryPlanIT {
+
+    private static final long FIRST_ID = 1_000_001L;
+
+    private static final Pattern PAGINATION_PARAMETER = Pattern.compile("\\b(offset|first|next|limit) \\?");
+
+    private static final Set<String> LARGE_TABLES = Set.of(
+        "jhi_user",
+        "jhi_user_authority",
+        "etudiant",
+        "rel_etudiant__club",
+        "fichier_admin",
+        "seance",
+        "cours",
+        "rel_professeur__matiere",
+        "actulaite"
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EtudiantRepository etudiantRepository;
+
+    @Autowired
+    private ProfesseurRepository professeurRepository;
+
+    @Autowired
+    private AdministrateurRepository administrateurRepository;
+
+    @Autowired
+    private ActulaiteRepository actulaiteRepository;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute("insert into niveau (id, classe) select g, 'classe ' || g from generate_series(1000001, 1000500) g");
+        jdbcTemplate.execute("insert into club (id, nom) select g, 'club ' || g from generate_series(1000001, 1000200) g");
+        jdbcTemplate.execute("insert into matiere (id, nom_matiere) select g, 'matiere ' || g from generate_series(1000001, 1002000) g");
+        jdbcTemplate.execute(
+            "insert into jhi_user (id, login, password_hash, email, activated, activation_key, reset_key, created_by) " +
+            "select g, 'plan-' || g, repeat('x', 60), 'plan-' || g || '@localhost', true, 'a' || g, 'r' || g, 'system' " +
+            "from generate_series(1000001, 1050000) g"
+        );
+        jdbcTemplate.execute(
+            "insert into jhi_user_authority (user_id, authority_name) select g, 'ROLE_USER' from generate_series(1000001, 1050000) g"
+        );
+        jdbcTemplate.execute(
+            "insert into etudiant (id, nom, niveau_id, user_id) " +
+            "select g, 'etudiant ' || g, 1000001 + g % 500, g from generate_series(1000001, 1050000) g"
+        );
+        jdbcTemplate.execute(
+            "insert into rel_etudiant__club (etudiant_id, club_id) select g, 1000001 + g % 200 from generate_series(1000001, 1050000) g"
+        );
+        jdbcTemplate.execute("insert into fichier_admin (id, etudiant_id) select g, g from generate_series(1000001, 1050000) g");
+        jdbcTemplate.execute(
+            "insert into seance (id, niveau_id) select g, 1000001 + g % 500 from generate_series(1000001, 1020000) g"
+        );
+        jdbcTemplate.execute(
+            "insert into cours (id, matiere_id) select g, 1000001 + g % 2000 from generate_series(1000001, 1020000) g"
+        );
+        jdbcTemplate.execute("insert into professeur (id, nom) select g, 'professeur ' || g from generate_series(1000001, 1002000) g");
+        jdbcTemplate.execute(
+            "insert into rel_professeur__matiere (professeur_id, matiere_id) " +
+            "select p, 1000001 + (p * 7 + m) % 2000 from generate_series(1000001, 1002000) p, generate_series(0, 9) m"
+        );
+        jdbcTemplate.execute(
+            "insert into actulaite (id, date, data) " +
+            "select g, date '2020-01-01' + (g % 2000), 'actulaite ' || g from generate_series(1000001, 1050000) g"
+        );
+        // Statistics are collected inside the test transaction, so they are rolled back with the data
+        jdbcTemplate.execute("analyze");
+        em.getEntityManagerFactory().getCache().evictAll();
+    }
+
+    @Test
+    void userLookupsUseIndexes() throws Exception {
+        assertNoSequentialScan(() -> {
+            userRepository.findOneByActivationKey("a1000042");
+            userRepository.findOneByResetKey("r1000042");
+            userRepository.findOneByLogin("plan-1000042");
+            userRepository.findOneByEmailIgnoreCase("PLAN-1000042@localhost");
+            userRepository.findOneWithAuthoritiesByLogin("plan-1000042");
+            userRepository.findAllWithAuthorities(PageRequest.of(3, 20, Sort.by("id")));
+        });
+    }
+
+    @Test
+    void relationshipLoadingUsesIndexes() throws Exception {
+        assertNoSequentialScan(() -> {
+            em.find(Niveau.class, FIRST_ID).getEtudiants().size();
+            em.find(Niveau.class, FIRST_ID + 1).getSeances().size();
+            em.find(Etudiant.class, FIRST_ID).getFichierAdmins().size();
+            em.find(Matiere.class, FIRST_ID).getCours().size();
+            em.find(Matiere.class, FIRST_ID + 1).getProfesseurs().size();
+            em.find(Club.class, FIRST_ID).getEtudiants().size();
+        });
+    }
+
+    @Test
+    void eagerLookupsUseIndexes() throws Exception {
+        assertNoSequentialScan(() -> {
+            etudiantRepository.findOneWithEagerRelationships(FIRST_ID);
+            professeurRepository.findOneWithEagerRelationships(FIRST_ID);
+            administrateurRepository.findOneWithEagerRelationships(FIRST_ID);
+            etudiantRepository.findAllWithEagerRelationships(PageRequest.of(3, 20, Sort.by("id")));
+        });
+    }
+
+    @Test
+    void actulaiteFeedUsesIndex() throws Exception {
+        assertNoSequentialScan(() -> {
+            actulaiteRepository.findFeed(PageRequest.of(0, 21));
+            actulaiteRepository.findFeedAfter(LocalDate.of(2022, 1, 1), FIRST_ID, PageRequest.of(0, 21));
+        });
+    }
+
+    private void assertNoSequentialScan(Runnable queries) throws Exception {
+        RecordingStatementInspector.start();
+        try {
+            queries.run();
+            em.flush();
+        } finally {
+            List<String> statements = RecordingStatementInspector.stop();
+            assertThat(statements).isNotEmpty();
+            for (String sql : statements) {
+                if (!sql.startsWith("select") || sql.startsWith("select count(")) {
+                    continue;
+                }
+                List<String> scans = sequentialScans(sql);
+                assertThat(scans).as("Sequential scans of %s", sql).isEmpty();
+            }
+        }
+    }
+
+    private List<String> sequentialScans(String sql) throws Exception {
+        // A generic plan does not need the parameter values, which Hibernate binds as JDBC placeholders
+        String plan = jdbcTemplate.queryForObject("explain (generic_plan, format json) " + toNumberedParameters(sql), String.class);
+        List<String> scans = new ArrayList<>();
+        collectSequentialScans(objectMapper.readTree(plan).get(0).get("Plan"), scans);
+        return scans;
+    }
+
+    private static void collectSequentialScans(JsonNode node, List<String> scans) {
+        String relation = node.path("Relation Name").asText();
+        if ("Seq Scan".equals(node.path("Node Type").asText()) && LARGE_TABLES.contains(relation)) {
+            scans.add(relation);
+        }
+        node.path("Plans").forEach(child -> collectSequentialScans(child, scans));
+    }
+
+    private static String toNumberedParameters(String sql) {
+        // An unknown row limit is planned as 10% of the table, so pagination is explained with a page-sized one
+        sql = PAGINATION_PARAMETER.matcher(sql).replaceAll("$1 20");
+        StringBuilder result = new StringBuilder();
+        boolean quoted = false;
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (c == '?' && !quoted) {
+                result.append('$').append(++parameter);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,188 @@
+package tn.isimm.manager.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit tests for {@link ReplicaRoutingDataSource}.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final Connection firstReplicaConnection = mock(Connection.class);
+
+    private final Connection secondReplicaConnection = mock(Connection.class);
+
+    private DataSource secondReplica;
+
+    private MutableClock clock;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        DataSource firstReplica = mock(DataSource.class);
+        when(firstReplica.getConnection()).thenReturn(firstReplicaConnection);
+        secondReplica = mock(DataSource.class);
+        when(secondReplica.getConnection()).thenReturn(secondReplicaConnection);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("first", firstReplica);
+        replicas.put("second", secondReplica);
+        clock = new MutableClock();
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, Duration.ofSeconds(10), Duration.ofSeconds(5), clock);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        SecurityContextHolder.clearContext();
+        ReplicaRoutingDataSource.endConsistentReads();
+    }
+
+    @Test
+    void testWritesGoToThePrimary() throws SQLException {
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void testReadOnlyTransactionsGoToTheReplicasInTurn() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(firstReplicaConnection);
+        assertThat(routingDataSource.getConnection()).isSameAs(secondReplicaConnection);
+        assertThat(routingDataSource.getConnection()).isSameAs(firstReplicaConnection);
+    }
+
+    @Test
+    void testUnavailableReplicasAreSkipped() throws SQLException {
+        when(secondReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(firstReplicaConnection);
+        assertThat(routingDataSource.getConnection()).isSameAs(firstReplicaConnection);
+        assertThat(routingDataSource.getConnection()).isSameAs(firstReplicaConnection);
+        assertThat(routingDataSource.getHealthyReplicas()).containsExactly("first");
+    }
+
+    @Test
+    void testReadYourWrites() throws SQLException {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user", "password"));
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Within the window, the user reads its own write from the primary
+        clock.advance(Duration.ofSeconds(4));
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+
+        clock.advance(Duration.ofSeconds(2));
+        assertThat(routingDataSource.getConnection()).isSameAs(firstReplicaConnection);
+    }
+
+    @Test
+    void testConsistentReadsStayOnTheirFirstReplica() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReplicaRoutingDataSource.beginConsistentReads();
+
+        // The validators, then the representation
+        assertThat(routingDataSource.getConnection()).isSameAs(firstReplicaConnection);
+        assertThat(routingDataSource.getConnection()).isSameAs(firstReplicaConnection);
+
+        ReplicaRoutingDataSource.endConsistentReads();
+        assertThat(routingDataSource.getConnection()).isSameAs(secondReplicaConnection);
+    }
+
+    @Test
+    void testConsistentReadsLeaveALaggingReplicaForThePrimary() throws SQLException {
+        stubLag(firstReplicaConnection, 60_000);
+        stubLag(secondReplicaConnection, 0);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReplicaRoutingDataSource.beginConsistentReads();
+        assertThat(routingDataSource.getConnection()).isSameAs(firstReplicaConnection);
+
+        routingDataSource.checkReplicas();
+
+        // The second replica may be behind the state read from the first one, unlike the primary
+        assertThat(routingDataSource.getHealthyReplicas()).containsExactly("second");
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void testConsistentReadsOfAUserWhoJustWroteGoToThePrimary() throws SQLException {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user", "password"));
+        TransactionSynchronizationManager.initSynchronization();
+        routingDataSource.getConnection();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReplicaRoutingDataSource.beginConsistentReads();
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+
+        // The read-your-writes window ends between the validators and the representation
+        clock.advance(Duration.ofSeconds(6));
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    private static void stubLag(Connection connection, long lagMillis) throws SQLException {
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(lagMillis);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant = Instant.parse("2026-10-19T10:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package tn.isimm.manager.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tn.isimm.manager.repository.StatementStatistics.RequestStatistics;
+import tn.isimm.manager.repository.StatementStatistics.StatementSummary;
+
+/**
+ * Unit tests for {@link StatementStatistics}.
+ */
+class StatementStatisticsTest {
+
+    private static final String SELECT_SQL = "select e1_0.id,e1_0.nom from etudiant e1_0 where e1_0.id=?";
+
+    private static final String UPDATE_SQL = "update niveau set classe=?,version=? where id=? and version=?";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private StatementStatistics statementStatistics;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        statementStatistics = new StatementStatistics(meterRegistry, Duration.ofSeconds(1), 2);
+    }
+
+    @Test
+    void testTagsOf() {
+        assertThat(StatementStatistics.tagsOf(SELECT_SQL)).isEqualTo("select etudiant");
+        assertThat(StatementStatistics.tagsOf(UPDATE_SQL)).isEqualTo("update niveau");
+        assertThat(StatementStatistics.tagsOf("insert into cours (titre,id) values (?,?)")).isEqualTo("insert cours");
+        assertThat(StatementStatistics.tagsOf("call next value for sequence_generator")).isEqualTo("other none");
+    }
+
+    @Test
+    void testRedact() {
+        assertThat(StatementStatistics.redact("select * from jhi_user where login='admin' and id > 1000 and t1_0.x=2.5"))
+            .isEqualTo("select * from jhi_user where login=? and id > ? and t1_0.x=?");
+    }
+
+    @Test
+    void testMeters() {
+        statementStatistics.recordExecution(SELECT_SQL, TimeUnit.MILLISECONDS.toNanos(3));
+        statementStatistics.recordRows(SELECT_SQL, 1);
+        statementStatistics.recordExecution(SELECT_SQL, TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertThat(meterRegistry.get(StatementStatistics.STATEMENTS_METER).tag("operation", "select").tag("table", "etudiant").timer().count())
+            .isEqualTo(2);
+        assertThat(meterRegistry.get(StatementStatistics.ROWS_METER).tag("table", "etudiant").summary().totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    void testFindSlowest() {
+        statementStatistics.recordExecution(SELECT_SQL, 3_000);
+        statementStatistics.recordExecution(SELECT_SQL, 1_000);
+        statementStatistics.recordRows(SELECT_SQL, 4);
+        statementStatistics.recordExecution(UPDATE_SQL, 9_000);
+        // Over the limit of distinct statements: metered, but not tracked
+        statementStatistics.recordExecution("delete from note where id=?", 50_000);
+
+        List<StatementSummary> slowest = statementStatistics.findSlowest(10);
+
+        assertThat(slowest).extracting(StatementSummary::sql).containsExactly(UPDATE_SQL, SELECT_SQL);
+        assertThat(slowest.get(1)).isEqualTo(new StatementSummary(SELECT_SQL, 2, 4_000, 2_000, 3_000, 4));
+        assertThat(statementStatistics.findSlowest(1)).hasSize(1);
+    }
+
+    @Test
+    void testRequestStatistics() {
+        statementStatistics.recordExecution(SELECT_SQL, 1_000);
+
+        StatementStatistics.begin();
+        statementStatistics.recordExecution(SELECT_SQL, 1_000);
+        statementStatistics.recordRows(SELECT_SQL, 3);
+        StatementStatistics.recordEntityLoad();
+        StatementStatistics.recordEntityLoad();
+        RequestStatistics request = StatementStatistics.end();
+
+        assertThat(request.getStatements()).isEqualTo(1);
+        assertThat(request.getRows()).isEqualTo(3);
+        assertThat(request.getEntityLoads()).isEqualTo(2);
+        assertThat(StatementStatistics.end()).isNull();
+    }
+}
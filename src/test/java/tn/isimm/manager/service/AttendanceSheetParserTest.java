@@ -0,0 +1,62 @@
+package tn.isimm.manager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link AttendanceSheetParser} utility class.
+ */
+class AttendanceSheetParserTest {
+
+    @Test
+    void parsesColumnsInAnyOrder() throws Exception {
+        String sheet =
+            "\uFEFFDate,Nom,Num Etudiant,Seance,Présence\n" +
+            "2026-10-05,\"Ben Salah, Amine\",1001,7,oui\n" +
+            "\n" +
+            "05/10/2026,Trabelsi,1002,7,A\n";
+
+        AttendanceSheetParser.Sheet parsed = AttendanceSheetParser.parse(new StringReader(sheet), 100);
+
+        assertThat(parsed.rejected()).isZero();
+        assertThat(parsed.firstError()).isNull();
+        assertThat(parsed.rows())
+            .containsExactly(
+                new AttendanceSheetParser.Row(null, 1001L, 7, LocalDate.of(2026, 10, 5), true),
+                new AttendanceSheetParser.Row(null, 1002L, 7, LocalDate.of(2026, 10, 5), false)
+            );
+    }
+
+    @Test
+    void rejectsInvalidLines() throws Exception {
+        String sheet =
+            "etudiant;seance;jour;present\n" + "1;7;2026-10-05;1\n" + "x;7;2026-10-05;1\n" + "2;7;2026-13-05;0\n" + "3;7;2026-10-05\n";
+
+        AttendanceSheetParser.Sheet parsed = AttendanceSheetParser.parse(new StringReader(sheet), 100);
+
+        assertThat(parsed.rows()).containsExactly(new AttendanceSheetParser.Row(1L, null, 7, LocalDate.of(2026, 10, 5), true));
+        assertThat(parsed.rejected()).isEqualTo(3);
+        assertThat(parsed.firstError()).isEqualTo("Line 3: invalid etudiant 'x'");
+    }
+
+    @Test
+    void rejectsLinesBeyondTheMaximum() throws Exception {
+        String sheet = "etudiant,seance,date,present\n1,7,2026-10-05,1\n2,7,2026-10-05,1\n";
+
+        AttendanceSheetParser.Sheet parsed = AttendanceSheetParser.parse(new StringReader(sheet), 1);
+
+        assertThat(parsed.rows()).hasSize(1);
+        assertThat(parsed.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsSheetsWithoutRequiredColumns() throws Exception {
+        AttendanceSheetParser.Sheet parsed = AttendanceSheetParser.parse(new StringReader("etudiant,date,present\n1,2026-10-05,1\n"), 100);
+
+        assertThat(parsed.rows()).isEmpty();
+        assertThat(parsed.firstError()).isEqualTo("The sheet has no seance column");
+    }
+}
@@ -0,0 +1,89 @@
+package tn.isimm.manager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link DocumentTextExtractor} utility.
+ */
+class DocumentTextExtractorTest {
+
+    @Test
+    void testExtractsTheTextOfAWordDocument() throws Exception {
+        ByteArrayOutputStream docx = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(docx)) {
+            zip.putNextEntry(new ZipEntry("[Content_Types].xml"));
+            zip.write("<Types/>".getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("word/document.xml"));
+            zip.write(
+                (
+                    "<w:document xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\"><w:body>" +
+                    "<w:p><w:r><w:t>Arbres </w:t></w:r><w:r><w:t>équi</w:t></w:r><w:r><w:t>librés</w:t></w:r></w:p>" +
+                    "<w:p><w:r><w:t>Rotations</w:t></w:r></w:p></w:body></w:document>"
+                ).getBytes(StandardCharsets.UTF_8)
+            );
+        }
+
+        assertThat(extract(docx.toByteArray(), "application/vnd.openxmlformats-officedocument.wordprocessingml.document"))
+            .isEqualTo("Arbres équilibrés Rotations");
+    }
+
+    @Test
+    void testExtractsTheTextOfThePagesOfAPdf() throws Exception {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (String line : List.of("Arbres (binaires)", "Rotations AVL")) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 12);
+                    content.newLineAtOffset(72, 712);
+                    content.showText(line);
+                    content.endText();
+                }
+            }
+            document.save(pdf);
+        }
+
+        assertThat(extract(pdf.toByteArray(), "application/pdf")).isEqualTo("Arbres (binaires) Rotations AVL");
+    }
+
+    @Test
+    void testDropsTheMarkupOfHtmlFiles() throws Exception {
+        byte[] html = "<html><body><h1>Chapitre 1</h1><p>Les <b>graphes</b></p></body></html>".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(extract(html, "text/html; charset=UTF-8")).isEqualTo("Chapitre 1 Les graphes");
+    }
+
+    @Test
+    void testTruncatesTheText() throws Exception {
+        byte[] text = "abcdefghij".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(DocumentTextExtractor.extract(new ByteArrayInputStream(text), "text/plain", 4)).contains("abcd");
+    }
+
+    @Test
+    void testDoesNotSupportOtherFormats() throws Exception {
+        byte[] png = { (byte) 0x89, 'P', 'N', 'G', 0, 0, 0, 0 };
+
+        assertThat(DocumentTextExtractor.extract(new ByteArrayInputStream(png), "image/png", 100)).isEmpty();
+    }
+
+    private static String extract(byte[] content, String contentType) throws Exception {
+        return DocumentTextExtractor.extract(new ByteArrayInputStream(content), contentType, 10_000).orElseThrow();
+    }
+}
@@ -0,0 +1,48 @@
+package tn.isimm.manager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+import tn.isimm.manager.web.rest.TestUtil;
+
+/**
+ * Unit tests for the image processing of {@link PhotoThumbnailService}.
+ */
+class PhotoThumbnailServiceTest {
+
+    @Test
+    void testThumbnailIsCroppedAndScaledDown() throws IOException {
+        byte[] thumbnail = PhotoThumbnailService.thumbnail(TestUtil.createPngImage(900, 600), 64, 0.85f).orElseThrow();
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(thumbnail));
+        assertThat(image.getWidth()).isEqualTo(64);
+        assertThat(image.getHeight()).isEqualTo(64);
+        // The center square keeps both halves of the photo
+        assertThat(image.getRGB(8, 32) & 0xFF0000).isGreaterThan(0xC00000);
+        assertThat(image.getRGB(56, 32) & 0xFF).isGreaterThan(0xC0);
+    }
+
+    @Test
+    void testThumbnailIsNeverScaledUp() throws IOException {
+        byte[] thumbnail = PhotoThumbnailService.thumbnail(TestUtil.createPngImage(40, 50), 64, 0.85f).orElseThrow();
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(thumbnail));
+        assertThat(image.getWidth()).isEqualTo(40);
+        assertThat(image.getHeight()).isEqualTo(40);
+    }
+
+    @Test
+    void testThumbnailOfUnsupportedContent() {
+        assertThat(PhotoThumbnailService.thumbnail("not an image".getBytes(), 64, 0.85f)).isEmpty();
+    }
+
+    @Test
+    void testHash() {
+        assertThat(PhotoThumbnailService.hash("photo".getBytes())).hasSize(16).isEqualTo(PhotoThumbnailService.hash("photo".getBytes()));
+        assertThat(PhotoThumbnailService.hash("photo".getBytes())).isNotEqualTo(PhotoThumbnailService.hash("other".getBytes()));
+    }
+}
@@ -0,0 +1,53 @@
+package tn.isimm.manager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link PrefixIndex} data structure.
+ */
+class PrefixIndexTest {
+
+    private final PrefixIndex index = PrefixIndex.of(
+        Map.of(1L, "Génie Logiciel", 2L, "Analyse numérique", 3L, "Algèbre", 4L, "Architecture des ordinateurs", 5L, "  ")
+    );
+
+    @Test
+    void testSearchIgnoresCaseAndAccents() {
+        assertThat(index.search("GEN", 10)).containsExactly(1L);
+        assertThat(index.search("numé", 10)).containsExactly(2L);
+    }
+
+    @Test
+    void testSearchMatchesEveryWordOfTheLabel() {
+        assertThat(index.search("log", 10)).containsExactly(1L);
+        assertThat(index.search("ordi", 10)).containsExactly(4L);
+    }
+
+    @Test
+    void testSearchReturnsMatchesInAlphabeticalOrderUpToTheLimit() {
+        assertThat(index.search("a", 10)).containsExactly(3L, 2L, 4L);
+        assertThat(index.search("a", 2)).containsExactly(3L, 2L);
+        assertThat(index.search("", 10)).hasSize(4);
+        assertThat(index.search("z", 10)).isEmpty();
+    }
+
+    @Test
+    void testSearchDoesNotReturnDuplicates() {
+        PrefixIndex duplicated = PrefixIndex.of(Map.of(1L, "Club Club Club"));
+        assertThat(duplicated.search("cl", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void testUpdatesReturnNewIndexes() {
+        PrefixIndex updated = index.with(6L, "Bases de données").without(1L);
+
+        assertThat(updated.search("bas", 10)).containsExactly(6L);
+        assertThat(updated.search("gen", 10)).isEmpty();
+        assertThat(updated.labelOf(6L)).isEqualTo("Bases de données");
+        assertThat(index.search("gen", 10)).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+}
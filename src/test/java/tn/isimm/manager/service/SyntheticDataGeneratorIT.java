@@ -0,0 +1,153 @@
+package tn.isimm.manager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.isimm.manager.IntegrationTest;
+import tn.isimm.manager.config.ApplicationProperties;
+
+/**
+ * Integration tests for {@link SyntheticDataGenerator}.
+ * <p>
+ * Not transactional: the generator commits every chunk, so the rows are removed after each test instead.
+ */
+@IntegrationTest
+class SyntheticDataGeneratorIT {
+
+    private static final long FIRST_ID = 20_000_000L;
+
+    private static final long OTHER_FIRST_ID = 30_000_000L;
+
+    private static final List<String> TABLES = List.of(
+        "fichier_admin",
+        "cours",
+        "actulaite",
+        "etudiant",
+        "professeur",
+        "club",
+        "seance",
+        "matiere",
+        "niveau",
+        "note",
+        "semestre"
+    );
+
+    @Autowired
+    private SyntheticDataGenerator syntheticDataGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    public void cleanup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from rel_etudiant__club where etudiant_id >= ?", FIRST_ID);
+            jdbcTemplate.update("delete from rel_professeur__matiere where professeur_id >= ?", FIRST_ID);
+            TABLES.forEach(table -> jdbcTemplate.update("delete from " + table + " where id >= ?", FIRST_ID));
+        });
+    }
+
+    @Test
+    void generatesTheSameRowsWhateverTheThreads() {
+        long rows = syntheticDataGenerator.generate(settings(FIRST_ID, 1));
+        long otherRows = syntheticDataGenerator.generate(settings(OTHER_FIRST_ID, 3));
+
+        assertThat(rows).isPositive().isEqualTo(otherRows);
+        assertThat(etudiants(OTHER_FIRST_ID)).isEqualTo(etudiants(FIRST_ID)).hasSize(120);
+        assertThat(memberships(OTHER_FIRST_ID)).isEqualTo(memberships(FIRST_ID));
+        assertThat(count("cours", FIRST_ID)).isEqualTo(15);
+        assertThat(count("fichier_admin", FIRST_ID)).isEqualTo(30);
+    }
+
+    @Test
+    void refusesToOverwriteAnExistingDataset() {
+        ApplicationProperties.DataGenerator settings = settings(FIRST_ID, 2);
+        assertThat(syntheticDataGenerator.generate(settings)).isPositive();
+
+        assertThat(syntheticDataGenerator.generate(settings)).isZero();
+        assertThat(count("etudiant", FIRST_ID)).isEqualTo(120);
+    }
+
+    @Test
+    void neverMovesTheSequenceBackwards() {
+        assertThat(syntheticDataGenerator.generate(settings(OTHER_FIRST_ID, 1))).isPositive();
+        assertThat(syntheticDataGenerator.generate(settings(FIRST_ID, 1))).isPositive();
+
+        String nextValueSql = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices()
+            .getDialect()
+            .getSequenceSupport()
+            .getSequenceNextValString("sequence_generator");
+        long lastId = TABLES
+            .stream()
+            .mapToLong(table -> jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class))
+            .max()
+            .orElseThrow();
+        assertThat(lastId).isGreaterThan(OTHER_FIRST_ID);
+        assertThat(jdbcTemplate.queryForObject(nextValueSql, Long.class)).isGreaterThan(lastId);
+    }
+
+    private ApplicationProperties.DataGenerator settings(long firstId, int threads) {
+        ApplicationProperties.DataGenerator settings = new ApplicationProperties.DataGenerator();
+        settings.setSeed(7L);
+        settings.setFirstId(firstId);
+        settings.setThreads(threads);
+        settings.setBatchSize(25);
+        settings.setEtudiants(120);
+        settings.setProfesseurs(10);
+        settings.setNiveaus(5);
+        settings.setMatieres(20);
+        settings.setClubs(4);
+        settings.setCours(15);
+        settings.setFichierAdmins(30);
+        settings.setActulaites(10);
+        settings.setBlobSize(256);
+        return settings;
+    }
+
+    private List<Map<String, Object>> etudiants(long firstId) {
+        return jdbcTemplate.queryForList(
+            "select prenom, nom, email, num_etudiant, num_tel, date_de_naissance, niveau_id - ? as niveau " +
+            "from etudiant where id >= ? and id < ? order by id",
+            firstId,
+            firstId,
+            firstId + 10_000_000L
+        );
+    }
+
+    private List<Map<String, Object>> memberships(long firstId) {
+        return jdbcTemplate.queryForList(
+            "select etudiant_id - ? as etudiant, club_id - ? as club from rel_etudiant__club " +
+            "where etudiant_id >= ? and etudiant_id < ? order by etudiant_id, club_id",
+            firstId,
+            firstId,
+            firstId,
+            firstId + 10_000_000L
+        );
+    }
+
+    private long count(String table, long firstId) {
+        return jdbcTemplate.queryForObject(
+            "select count(*) from " + table + " where id >= ? and id < ?",
+            Long.class,
+            firstId,
+            firstId + 10_000_000L
+        );
+    }
+}
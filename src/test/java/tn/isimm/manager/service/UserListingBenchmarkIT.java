@@ -0,0 +1,136 @@
+package tn.isimm.manager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.EnabledIf;
+import org.springframework.transaction.annotation.Transactional;
+import tn.isimm.manager.IntegrationTest;
+import tn.isimm.manager.repository.RecordingStatementInspector;
+import tn.isimm.manager.repository.UserRepository;
+import tn.isimm.manager.service.dto.AdminUserDTO;
+
+/**
+ * Benchmark of the admin user listing on 50,000 users: the pages of {@link UserService#getAllManagedUsers(Pageable)},
+ * fetched with their authorities by id, against the same pages whose authorities are loaded lazily, in batches.
+ * <p>
+ * Only run with the {@code testprod} profile, as the round trips to PostgreSQL are what the listing saves. The caches
+ * are emptied before every page, so that every run reads the database.
+ */
+@IntegrationTest
+@Transactional
+@EnabledIf(expression = "#{environment.acceptsProfiles('testprod')}", loadContext = true)
+class UserListingBenchmarkIT {
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final int PAGES = 20;
+
+    private static final int RUNS = 5;
+
+    private final Logger log = LoggerFactory.getLogger(UserListingBenchmarkIT.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute(
+            "insert into jhi_user (id, login, password_hash, email, activated, created_by) " +
+            "select g, 'listing-' || g, repeat('x', 60), 'listing-' || g || '@localhost', true, 'system' " +
+            "from generate_series(2000001, 2050000) g"
+        );
+        jdbcTemplate.execute(
+            "insert into jhi_user_authority (user_id, authority_name) " +
+            "select g, case when g % 100 = 0 then 'ROLE_ADMIN' else 'ROLE_USER' end from generate_series(2000001, 2050000) g"
+        );
+        // Statistics are collected inside the test transaction, so they are rolled back with the data
+        jdbcTemplate.execute("analyze");
+    }
+
+    @Test
+    void managedUsersAreListedInConstantQueries() {
+        List<Pageable> pages = IntStream
+            .range(0, PAGES)
+            .<Pageable>mapToObj(page -> PageRequest.of(page * 24, PAGE_SIZE, Sort.by("login")))
+            .toList();
+        Function<Pageable, Page<AdminUserDTO>> lazyAuthorities = pageable -> userRepository.findAll(pageable).map(AdminUserDTO::new);
+        Function<Pageable, Page<AdminUserDTO>> fetchedAuthorities = userService::getAllManagedUsers;
+
+        Pageable firstPage = pages.get(0);
+        assertThat(listPage(fetchedAuthorities, firstPage).getContent())
+            .usingRecursiveFieldByFieldElementComparator()
+            .containsExactlyElementsOf(listPage(lazyAuthorities, firstPage).getContent());
+        List<String> lazyStatements = recordStatements(lazyAuthorities, firstPage);
+        List<String> fetchedStatements = recordStatements(fetchedAuthorities, firstPage);
+        // The page, its count, and the users by id with their authorities
+        assertThat(fetchedStatements).hasSize(3);
+
+        long lazyMillis = median(lazyAuthorities, pages);
+        long fetchedMillis = median(fetchedAuthorities, pages);
+        log.info(
+            "Median time to list {} pages of {} users: {} ms in {} queries per page with lazy authorities, " +
+            "{} ms in {} queries per page with fetched authorities",
+            PAGES,
+            PAGE_SIZE,
+            lazyMillis,
+            lazyStatements.size(),
+            fetchedMillis,
+            fetchedStatements.size()
+        );
+        assertThat(fetchedStatements.size()).isLessThan(lazyStatements.size());
+        assertThat(fetchedMillis).isLessThan(lazyMillis);
+    }
+
+    private long median(Function<Pageable, Page<AdminUserDTO>> listing, List<Pageable> pages) {
+        long[] millis = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            pages.forEach(pageable -> listPage(listing, pageable));
+            millis[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        Arrays.sort(millis);
+        return millis[RUNS / 2];
+    }
+
+    private List<String> recordStatements(Function<Pageable, Page<AdminUserDTO>> listing, Pageable pageable) {
+        RecordingStatementInspector.start();
+        List<String> statements;
+        try {
+            listPage(listing, pageable);
+        } finally {
+            statements = RecordingStatementInspector.stop();
+        }
+        return statements;
+    }
+
+    private Page<AdminUserDTO> listPage(Function<Pageable, Page<AdminUserDTO>> listing, Pageable pageable) {
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll();
+        return listing.apply(pageable);
+    }
+}
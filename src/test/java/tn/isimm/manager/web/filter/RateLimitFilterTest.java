@@ -0,0 +1,206 @@
+package tn.isimm.manager.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import tn.isimm.manager.config.ApplicationProperties;
+
+/**
+ * Unit tests for {@link RateLimitFilter}.
+ */
+class RateLimitFilterTest {
+
+    private static final String CLIENT_IP = "192.0.2.1";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ApplicationProperties.RateLimit properties;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ApplicationProperties.RateLimit();
+        // Buckets that do not refill during a test
+        for (ApplicationProperties.RateLimit.Bucket bucket : List.of(
+            properties.getAuth(),
+            properties.getAuthAddress(),
+            properties.getList(),
+            properties.getWrite(),
+            properties.getFileDownload()
+        )) {
+            bucket.setCapacity(2);
+            bucket.setRequestsPerSecond(0.001);
+        }
+    }
+
+    @AfterEach
+    public void teardown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testRejectsOnceTheBucketIsEmpty() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+
+        assertThat(perform(filter, "GET", "/api/etudiants").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(perform(filter, "GET", "/api/etudiants").getStatus()).isEqualTo(HttpStatus.OK.value());
+        MockHttpServletResponse rejected = perform(filter, "GET", "/api/etudiants");
+
+        assertThat(rejected.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        // One request per 1000 seconds
+        assertThat(Long.parseLong(rejected.getHeader(HttpHeaders.RETRY_AFTER))).isBetween(999L, 1000L);
+        assertThat(meterRegistry.get(RateLimitFilter.REJECTED_METER).tag("group", "list").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(RateLimitFilter.REJECTED_METER).tag("group", "write").counter().count()).isZero();
+    }
+
+    @Test
+    void testRefillsTheBucket() throws Exception {
+        properties.getList().setCapacity(1);
+        properties.getList().setRequestsPerSecond(100);
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+
+        assertThat(perform(filter, "GET", "/api/etudiants").getStatus()).isEqualTo(HttpStatus.OK.value());
+        Thread.sleep(20);
+
+        assertThat(perform(filter, "GET", "/api/etudiants").getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void testRouteGroupsHaveTheirOwnBuckets() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+        perform(filter, "GET", "/api/etudiants");
+        perform(filter, "GET", "/api/etudiants");
+
+        assertThat(perform(filter, "GET", "/api/etudiants").getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(perform(filter, "PUT", "/api/etudiants/1").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(perform(filter, "GET", "/api/cours/1/file").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(perform(filter, "POST", "/api/authenticate").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(RateLimitFilter.RouteGroup.of(request("GET", "/api/photos/etudiants/1/64")))
+            .isEqualTo(RateLimitFilter.RouteGroup.FILE_DOWNLOAD);
+        assertThat(RateLimitFilter.RouteGroup.of(request("POST", "/api/account/reset-password/init")))
+            .isEqualTo(RateLimitFilter.RouteGroup.AUTH);
+        assertThat(RateLimitFilter.RouteGroup.of(request("DELETE", "/api/notes/1"))).isEqualTo(RateLimitFilter.RouteGroup.WRITE);
+    }
+
+    @Test
+    void testKeysByUserThenByAddress() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+        perform(filter, "GET", "/api/etudiants");
+        perform(filter, "GET", "/api/etudiants");
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("etudiant", null, "ROLE_USER"));
+        assertThat(perform(filter, "GET", "/api/etudiants").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(perform(filter, "GET", "/api/etudiants").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(perform(filter, "GET", "/api/etudiants").getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("professeur", null, "ROLE_USER"));
+        assertThat(perform(filter, "GET", "/api/etudiants").getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void testKeysAuthenticationByAddressAndLogin() throws Exception {
+        properties.getAuthAddress().setCapacity(10);
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+        String alice = "{\"username\":\"Alice\",\"password\":\"wrong\"}";
+        perform(filter, authenticate(alice));
+        perform(filter, authenticate(alice));
+
+        assertThat(perform(filter, authenticate(alice)).getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(perform(filter, authenticate("{\"username\":\"alice\",\"password\":\"right\"}")).getStatus())
+            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        // Another user behind the same address
+        MockHttpServletRequest bob = authenticate("{\"username\":\"bob\",\"password\":\"right\"}");
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(bob, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(chain.getRequest().getInputStream().readAllBytes())
+            .asString(StandardCharsets.UTF_8)
+            .isEqualTo("{\"username\":\"bob\",\"password\":\"right\"}");
+    }
+
+    @Test
+    void testLimitsTheAuthenticationsOfAnAddressAcrossLogins() throws Exception {
+        properties.getAuth().setCapacity(10);
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+
+        assertThat(perform(filter, authenticate("{\"username\":\"alice\"}")).getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(perform(filter, authenticate("{\"username\":\"bob\"}")).getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(perform(filter, authenticate("{\"username\":\"carol\"}")).getStatus())
+            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(meterRegistry.get(RateLimitFilter.REJECTED_METER).tag("group", "auth").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testDropsTheBucketsClosestToRefilledBeyondMaxClients() throws Exception {
+        properties.setMaxClients(1);
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+        perform(filter, request("GET", "/api/etudiants"));
+        perform(filter, request("GET", "/api/etudiants"));
+        MockHttpServletRequest other = request("GET", "/api/etudiants");
+        other.setRemoteAddr("192.0.2.2");
+        perform(filter, other);
+
+        filter.sweep(System.nanoTime() + TimeUnit.SECONDS.toNanos(2));
+
+        assertThat(perform(filter, request("GET", "/api/etudiants")).getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        // The bucket of the other address was dropped, and is full again
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest again = request("GET", "/api/etudiants");
+            again.setRemoteAddr("192.0.2.2");
+            assertThat(perform(filter, again).getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+    }
+
+    @Test
+    void testIgnoresOtherPathsAndWhenDisabled() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+        for (int i = 0; i < 5; i++) {
+            assertThat(perform(filter, "GET", "/management/health").getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+
+        properties.setEnabled(false);
+        RateLimitFilter disabled = new RateLimitFilter(properties, meterRegistry);
+        for (int i = 0; i < 5; i++) {
+            assertThat(perform(disabled, "GET", "/api/etudiants").getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter filter, String method, String path) throws Exception {
+        return perform(filter, request(method, path));
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest authenticate(String body) {
+        MockHttpServletRequest request = request("POST", "/api/authenticate");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        request.setRemoteAddr(CLIENT_IP);
+        return request;
+    }
+}
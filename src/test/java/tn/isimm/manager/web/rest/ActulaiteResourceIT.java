@@ -15,6 +15,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -132,6 +133,25 @@ class ActulaiteResourceIT {
             .andExpect(jsonPath("$.[*].data").value(hasItem(DEFAULT_DATA)));
     }
 
+    @Test
+    @Transactional
+    void getAllActulaitesWithinQueryBudget() throws Exception {
+        // Initialize the database with more actulaites than the budget
+        for (int i = 0; i <= QueryCountAssertions.DEFAULT_QUERY_BUDGET; i++) {
+            em.persist(createEntity(em));
+        }
+
+        // Get all the actulaiteList, then the first page of the feed
+        QueryCountAssertions.assertWithinQueryBudget(
+            em,
+            () -> restActulaiteMockMvc.perform(get(ENTITY_API_URL + "?sort=id,desc")).andExpect(status().isOk())
+        );
+        QueryCountAssertions.assertWithinQueryBudget(
+            em,
+            () -> restActulaiteMockMvc.perform(get(ENTITY_API_URL + "/feed?size=3")).andExpect(status().isOk())
+        );
+    }
+
     @Test
     @Transactional
     void getActulaite() throws Exception {
@@ -148,6 +168,58 @@ class ActulaiteResourceIT {
             .andExpect(jsonPath("$.data").value(DEFAULT_DATA));
     }
 
+    @Test
+    @Transactional
+    void getActulaiteFeedWithCursor() throws Exception {
+        // Initialize the database
+        Actulaite oldest = actulaiteRepository.saveAndFlush(new Actulaite().date(LocalDate.of(2999, 1, 1)).data(DEFAULT_DATA));
+        Actulaite older = actulaiteRepository.saveAndFlush(new Actulaite().date(LocalDate.of(2999, 1, 2)).data(DEFAULT_DATA));
+        Actulaite newest = actulaiteRepository.saveAndFlush(new Actulaite().date(LocalDate.of(2999, 1, 2)).data(UPDATED_DATA));
+
+        // Get the first page of the feed
+        String nextCursor = restActulaiteMockMvc
+            .perform(get(ENTITY_API_URL + "/feed?size=2"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(jsonPath("$.[0].id").value(newest.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(older.getId().intValue()))
+            .andReturn()
+            .getResponse()
+            .getHeader(ActulaiteResource.NEXT_CURSOR_HEADER);
+        assertThat(nextCursor).isNotBlank();
+
+        // Get the next page of the feed
+        restActulaiteMockMvc
+            .perform(get(ENTITY_API_URL + "/feed?size=2&cursor=" + nextCursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(oldest.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getActulaiteFeedNotModified() throws Exception {
+        // Initialize the database
+        actulaiteRepository.saveAndFlush(actulaite);
+
+        String eTag = restActulaiteMockMvc
+            .perform(get(ENTITY_API_URL + "/feed"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restActulaiteMockMvc
+            .perform(get(ENTITY_API_URL + "/feed").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Transactional
+    void getActulaiteFeedWithInvalidCursor() throws Exception {
+        restActulaiteMockMvc.perform(get(ENTITY_API_URL + "/feed?cursor=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getNonExistingActulaite() throws Exception {
@@ -252,6 +324,7 @@ class ActulaiteResourceIT {
         // Update the actulaite using partial update
         Actulaite partialUpdatedActulaite = new Actulaite();
         partialUpdatedActulaite.setId(actulaite.getId());
+        partialUpdatedActulaite.setVersion(actulaite.getVersion());
 
         partialUpdatedActulaite.date(UPDATED_DATE);
 
@@ -282,6 +355,7 @@ class ActulaiteResourceIT {
         // Update the actulaite using partial update
         Actulaite partialUpdatedActulaite = new Actulaite();
         partialUpdatedActulaite.setId(actulaite.getId());
+        partialUpdatedActulaite.setVersion(actulaite.getVersion());
 
         partialUpdatedActulaite.date(UPDATED_DATE).data(UPDATED_DATA);
 
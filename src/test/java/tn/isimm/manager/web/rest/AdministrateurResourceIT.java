@@ -2,40 +2,33 @@ package tn.isimm.manager.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
-import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import jakarta.persistence.EntityManager;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 import tn.isimm.manager.IntegrationTest;
 import tn.isimm.manager.domain.Administrateur;
+import tn.isimm.manager.domain.User;
 import tn.isimm.manager.repository.AdministrateurRepository;
 
 /**
  * Integration tests for the {@link AdministrateurResource} REST controller.
  */
 @IntegrationTest
-@ExtendWith(MockitoExtension.class)
 @AutoConfigureMockMvc
 @WithMockUser
 class AdministrateurResourceIT {
@@ -75,9 +68,6 @@ class AdministrateurResourceIT {
     @Autowired
     private AdministrateurRepository administrateurRepository;
 
-    @Mock
-    private AdministrateurRepository administrateurRepositoryMock;
-
     @Autowired
     private EntityManager em;
 
@@ -197,24 +187,28 @@ class AdministrateurResourceIT {
             .andExpect(jsonPath("$.[*].numTel").value(hasItem(DEFAULT_NUM_TEL)))
             .andExpect(jsonPath("$.[*].dateDeNaissance").value(hasItem(DEFAULT_DATE_DE_NAISSANCE.toString())))
             .andExpect(jsonPath("$.[*].photoDeProfileContentType").value(hasItem(DEFAULT_PHOTO_DE_PROFILE_CONTENT_TYPE)))
-            .andExpect(jsonPath("$.[*].photoDeProfile").value(hasItem(Base64.getEncoder().encodeToString(DEFAULT_PHOTO_DE_PROFILE))));
-    }
-
-    @SuppressWarnings({ "unchecked" })
-    void getAllAdministrateursWithEagerRelationshipsIsEnabled() throws Exception {
-        when(administrateurRepositoryMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
-
-        restAdministrateurMockMvc.perform(get(ENTITY_API_URL + "?eagerload=true")).andExpect(status().isOk());
-
-        verify(administrateurRepositoryMock, times(1)).findAllWithEagerRelationships(any());
+            .andExpect(jsonPath("$.[*].photoDeProfile").doesNotExist());
     }
 
-    @SuppressWarnings({ "unchecked" })
-    void getAllAdministrateursWithEagerRelationshipsIsNotEnabled() throws Exception {
-        when(administrateurRepositoryMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
+    @Test
+    @Transactional
+    void getAllAdministrateursWithinQueryBudget() throws Exception {
+        // Initialize the database with more administrateurs than the budget, each with its own user
+        for (int i = 0; i <= QueryCountAssertions.DEFAULT_QUERY_BUDGET; i++) {
+            User user = UserResourceIT.createEntity(em);
+            em.persist(user);
+            em.persist(createEntity(em).user(user));
+        }
 
-        restAdministrateurMockMvc.perform(get(ENTITY_API_URL + "?eagerload=false")).andExpect(status().isOk());
-        verify(administrateurRepositoryMock, times(1)).findAll(any(Pageable.class));
+        // Get all the administrateurList
+        QueryCountAssertions.assertWithinQueryBudget(
+            em,
+            () ->
+                restAdministrateurMockMvc
+                    .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.[*].user.id").isNotEmpty())
+        );
     }
 
     @Test
@@ -240,6 +234,20 @@ class AdministrateurResourceIT {
             .andExpect(jsonPath("$.photoDeProfile").value(Base64.getEncoder().encodeToString(DEFAULT_PHOTO_DE_PROFILE)));
     }
 
+    @Test
+    @Transactional
+    void getAdministrateurPhoto() throws Exception {
+        // Initialize the database
+        administrateurRepository.saveAndFlush(administrateur);
+
+        // Get the photo of the administrateur
+        restAdministrateurMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/photo", administrateur.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(DEFAULT_PHOTO_DE_PROFILE_CONTENT_TYPE))
+            .andExpect(content().bytes(DEFAULT_PHOTO_DE_PROFILE));
+    }
+
     @Test
     @Transactional
     void getNonExistingAdministrateur() throws Exception {
@@ -360,6 +368,7 @@ class AdministrateurResourceIT {
         // Update the administrateur using partial update
         Administrateur partialUpdatedAdministrateur = new Administrateur();
         partialUpdatedAdministrateur.setId(administrateur.getId());
+        partialUpdatedAdministrateur.setVersion(administrateur.getVersion());
 
         partialUpdatedAdministrateur
             .prenom(UPDATED_PRENOM)
@@ -404,6 +413,7 @@ class AdministrateurResourceIT {
         // Update the administrateur using partial update
         Administrateur partialUpdatedAdministrateur = new Administrateur();
         partialUpdatedAdministrateur.setId(administrateur.getId());
+        partialUpdatedAdministrateur.setVersion(administrateur.getVersion());
 
         partialUpdatedAdministrateur
             .prenom(UPDATED_PRENOM)
@@ -0,0 +1,185 @@
+package tn.isimm.manager.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import jakarta.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import tn.isimm.manager.IntegrationTest;
+import tn.isimm.manager.domain.Etudiant;
+import tn.isimm.manager.domain.FichierAdmin;
+import tn.isimm.manager.domain.Niveau;
+import tn.isimm.manager.domain.Seance;
+import tn.isimm.manager.domain.enumeration.TypeFichierAdmin;
+import tn.isimm.manager.service.AttendanceService;
+
+/**
+ * Integration tests for the {@link AttendanceResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class AttendanceResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/attendance";
+
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restAttendanceMockMvc;
+
+    @Test
+    @Transactional
+    void ingestPresenceSheet() throws Exception {
+        // Initialize the database
+        Etudiant etudiant = EtudiantResourceIT.createEntity(em);
+        em.persist(etudiant);
+        Seance seance = SeanceResourceIT.createEntity(em);
+        em.persist(seance);
+        String sheet =
+            "Etudiant;Séance;Date;Présent\n" +
+            etudiant.getId() + ";" + seance.getId() + ";2026-10-05;P\n" +
+            etudiant.getId() + ";" + seance.getId() + ";12/10/2026;A\n" +
+            etudiant.getId() + ";" + seance.getId() + ";2026-10-19;absent\n" +
+            etudiant.getId() + ";" + seance.getId() + ";2026-10-26;peut-être\n";
+        FichierAdmin fichierAdmin = new FichierAdmin()
+            .titre("Presence")
+            .type(TypeFichierAdmin.Presence)
+            .file(sheet.getBytes(StandardCharsets.UTF_8))
+            .fileContentType("text/csv");
+        em.persist(fichierAdmin);
+        em.flush();
+
+        assertThat(attendanceService.ingest(fichierAdmin.getId())).isTrue();
+        assertThat(attendanceService.ingest(fichierAdmin.getId())).isFalse();
+
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "/sheets/{id}", fichierAdmin.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value(AttendanceService.STATUS_INGESTED))
+            .andExpect(jsonPath("$.ingestedRows").value(3))
+            .andExpect(jsonPath("$.rejectedRows").value(1));
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "/etudiants/{id}/rate", etudiant.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sessions").value(3))
+            .andExpect(jsonPath("$.absences").value(2));
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "/alerts?threshold=0.5&minSessions=3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].etudiantId").value(etudiant.getId().intValue()))
+            .andExpect(jsonPath("$.[0].seanceId").value(seance.getId().intValue()));
+        restAttendanceMockMvc.perform(get(ENTITY_API_URL + "/alerts?threshold=0.7&minSessions=3")).andExpect(jsonPath("$", hasSize(0)));
+        restAttendanceMockMvc.perform(get(ENTITY_API_URL + "/alerts?threshold=2")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void removeSheetOverlappingAnother() throws Exception {
+        // Initialize the database
+        Etudiant etudiant = EtudiantResourceIT.createEntity(em);
+        em.persist(etudiant);
+        Seance seance = SeanceResourceIT.createEntity(em);
+        em.persist(seance);
+        String line = etudiant.getId() + ";" + seance.getId() + ";";
+        FichierAdmin older = new FichierAdmin()
+            .titre("Presence")
+            .type(TypeFichierAdmin.Presence)
+            .file(("Etudiant;Séance;Date;Présent\n" + line + "2026-10-05;P\n" + line + "2026-10-12;A\n").getBytes(StandardCharsets.UTF_8))
+            .fileContentType("text/csv");
+        em.persist(older);
+        FichierAdmin newer = new FichierAdmin()
+            .titre("Presence")
+            .type(TypeFichierAdmin.Presence)
+            .file(("Etudiant;Séance;Date;Présent\n" + line + "2026-10-12;P\n" + line + "2026-10-19;A\n").getBytes(StandardCharsets.UTF_8))
+            .fileContentType("text/csv");
+        em.persist(newer);
+        em.flush();
+        assertThat(attendanceService.ingest(older.getId())).isTrue();
+        assertThat(attendanceService.ingest(newer.getId())).isTrue();
+
+        // The newer sheet holds the session of 2026-10-12
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "/etudiants/{id}/rate", etudiant.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sessions").value(3))
+            .andExpect(jsonPath("$.absences").value(1));
+
+        // Once it is no longer a Presence sheet, the older one holds it again
+        newer.type(TypeFichierAdmin.Reusite);
+        em.flush();
+        assertThat(attendanceService.ingest(newer.getId())).isTrue();
+
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "/etudiants/{id}/rate", etudiant.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sessions").value(2))
+            .andExpect(jsonPath("$.absences").value(1));
+
+        older.type(TypeFichierAdmin.Reusite);
+        em.flush();
+        assertThat(attendanceService.ingest(older.getId())).isTrue();
+
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "/etudiants/{id}/rate", etudiant.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sessions").value(0));
+    }
+
+    @Test
+    @Transactional
+    void moveSeanceToAnotherNiveau() throws Exception {
+        // Initialize the database
+        Etudiant etudiant = EtudiantResourceIT.createEntity(em);
+        em.persist(etudiant);
+        Niveau niveau = NiveauResourceIT.createEntity(em);
+        em.persist(niveau);
+        Niveau otherNiveau = NiveauResourceIT.createEntity(em);
+        em.persist(otherNiveau);
+        Seance seance = SeanceResourceIT.createEntity(em).niveau(niveau);
+        em.persist(seance);
+        String sheet = "Etudiant;Séance;Date;Présent\n" + etudiant.getId() + ";" + seance.getId() + ";2026-10-05;A\n";
+        FichierAdmin fichierAdmin = new FichierAdmin()
+            .titre("Presence")
+            .type(TypeFichierAdmin.Presence)
+            .file(sheet.getBytes(StandardCharsets.UTF_8))
+            .fileContentType("text/csv");
+        em.persist(fichierAdmin);
+        em.flush();
+        assertThat(attendanceService.ingest(fichierAdmin.getId())).isTrue();
+
+        // The absences follow their seance
+        seance.niveau(otherNiveau);
+        em.flush();
+        assertThat(attendanceService.refreshSeanceScope(seance.getId())).isTrue();
+        assertThat(attendanceService.refreshSeanceScope(seance.getId())).isFalse();
+
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "/niveaux/{id}/rate", niveau.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sessions").value(0));
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "/niveaux/{id}/rate", otherNiveau.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sessions").value(1))
+            .andExpect(jsonPath("$.absences").value(1));
+        restAttendanceMockMvc
+            .perform(get(ENTITY_API_URL + "/alerts?threshold=0.5&minSessions=1&niveauId=" + otherNiveau.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].niveauId").value(otherNiveau.getId().intValue()));
+    }
+}
@@ -0,0 +1,183 @@
+package tn.isimm.manager.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import tn.isimm.manager.IntegrationTest;
+import tn.isimm.manager.domain.Etudiant;
+import tn.isimm.manager.domain.Niveau;
+import tn.isimm.manager.repository.CertificateRepository;
+import tn.isimm.manager.repository.EtudiantRepository;
+import tn.isimm.manager.repository.FichierAdminRepository;
+import tn.isimm.manager.repository.NiveauRepository;
+import tn.isimm.manager.security.AuthoritiesConstants;
+import tn.isimm.manager.service.CertificateService;
+import tn.isimm.manager.service.dto.CertificateJobDTO;
+
+/**
+ * Integration tests for the {@link CertificateResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+class CertificateResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/admin/certificates";
+
+    private static final long TIMEOUT_SECONDS = 30;
+
+    @Autowired
+    private SpringTemplateEngine templateEngine;
+
+    @Autowired
+    private ObjectMapper om;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NiveauRepository niveauRepository;
+
+    @Autowired
+    private EtudiantRepository etudiantRepository;
+
+    @Autowired
+    private FichierAdminRepository fichierAdminRepository;
+
+    @Autowired
+    private MockMvc restCertificateMockMvc;
+
+    @Test
+    void generateCertificates() throws Exception {
+        // Committed outside of any test transaction, as the certificates are generated in the background
+        Niveau niveau = niveauRepository.saveAndFlush(NiveauResourceIT.createEntity(em));
+        List<Etudiant> etudiants = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                etudiants.add(
+                    etudiantRepository.saveAndFlush(
+                        EtudiantResourceIT
+                            .createEntity(em)
+                            .email("certificate-" + i)
+                            .numEtudiant(20261019L + i)
+                            .photoDeProfile(null)
+                            .niveau(niveau)
+                    )
+                );
+            }
+            List<Long> etudiantIds = etudiants.stream().map(Etudiant::getId).toList();
+
+            CertificateJobDTO job = awaitJob(generate(niveau));
+            assertThat(job.getStatus()).isEqualTo(CertificateService.STATUS_COMPLETED);
+            assertThat(job.getTotal()).isEqualTo(2);
+            assertThat(job.getStored()).isEqualTo(2);
+            assertThat(job.getFailed()).isZero();
+            List<Long> certificateIds = findCertificateIds(etudiantIds);
+            assertThat(certificateIds).hasSize(2);
+
+            // Generated again, the certificates replace the previous ones
+            job = awaitJob(generate(niveau));
+            assertThat(job.getStatus()).isEqualTo(CertificateService.STATUS_COMPLETED);
+            assertThat(job.getStored()).isEqualTo(2);
+            assertThat(findCertificateIds(etudiantIds)).containsExactlyElementsOf(certificateIds);
+
+            restCertificateMockMvc.perform(get(ENTITY_API_URL)).andExpect(status().isOk()).andExpect(jsonPath("$.[*].id").isNotEmpty());
+            restCertificateMockMvc.perform(post(ENTITY_API_URL + "?niveauId={id}", Long.MAX_VALUE)).andExpect(status().isNotFound());
+        } finally {
+            List<Long> etudiantIds = etudiants.stream().map(Etudiant::getId).toList();
+            if (!etudiantIds.isEmpty()) {
+                fichierAdminRepository.deleteAllById(findCertificateIds(etudiantIds));
+            }
+            etudiantRepository.deleteAll(etudiants);
+            niveauRepository.deleteById(niveau.getId());
+        }
+    }
+
+    @Test
+    void renderCertificate() {
+        Context context = new Context(Locale.FRENCH);
+        context.setVariable(
+            "etudiant",
+            new CertificateRepository.Graduate(1L, "Amira", "Ben Salah", 20261019L, LocalDate.of(2004, 3, 14))
+        );
+        context.setVariable("classe", new CertificateRepository.Classe(1L, "LSI2", "1", "2", 1, "2026/2027"));
+        context.setVariable(
+            "matieres",
+            List.of(new CertificateRepository.MatiereNote("Algorithmique", 14), new CertificateRepository.MatiereNote("Réseaux", 11))
+        );
+        context.setVariable("moyenne", 12.5);
+        context.setVariable("deliveredOn", LocalDate.of(2026, 10, 19));
+
+        String certificate = templateEngine.process("certificate/attestationReussite", context);
+
+        assertThat(certificate)
+            .contains("Ben Salah")
+            .contains("14/03/2004")
+            .contains("LSI2 TD 1 TP 2")
+            .contains("2026/2027")
+            .contains("Algorithmique")
+            .contains("19/10/2026");
+    }
+    private int generate(Niveau niveau) throws Exception {
+        String response = restCertificateMockMvc
+            .perform(post(ENTITY_API_URL + "?niveauId={id}", niveau.getId()))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.niveauId").value(niveau.getId().intValue()))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        return JsonPath.read(response, "$.id");
+    }
+
+    private CertificateJobDTO awaitJob(int id) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            String response = restCertificateMockMvc
+                .perform(get(ENTITY_API_URL + "/{id}", id))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+            CertificateJobDTO job = om.readValue(response, CertificateJobDTO.class);
+            if (job.getFinishedAt() != null) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("The certificate job " + id + " did not finish within " + TIMEOUT_SECONDS + " s");
+    }
+
+    /**
+     * @return the ids of the success certificates of the etudiants that have a file, in ascending order.
+     */
+    private List<Long> findCertificateIds(List<Long> etudiantIds) {
+        return jdbcTemplate.queryForList(
+            "select id from fichier_admin where type = 'Reusite' and file is not null and etudiant_id in (" +
+            String.join(", ", Collections.nCopies(etudiantIds.size(), "?")) +
+            ") order by id",
+            Long.class,
+            etudiantIds.toArray()
+        );
+    }
+}
@@ -140,6 +140,23 @@ class ClubResourceIT {
             .andExpect(jsonPath("$.[*].email").value(hasItem(DEFAULT_EMAIL)));
     }
 
+    @Test
+    @Transactional
+    void getAllClubsWithinQueryBudget() throws Exception {
+        // Initialize the database with more clubs than the budget, each with its own etudiant
+        for (int i = 0; i <= QueryCountAssertions.DEFAULT_QUERY_BUDGET; i++) {
+            Club club = createEntity(em);
+            em.persist(club);
+            em.persist(EtudiantResourceIT.createEntity(em).addClub(club));
+        }
+
+        // Get all the clubList
+        QueryCountAssertions.assertWithinQueryBudget(
+            em,
+            () -> restClubMockMvc.perform(get(ENTITY_API_URL + "?sort=id,desc")).andExpect(status().isOk())
+        );
+    }
+
     @Test
     @Transactional
     void getClub() throws Exception {
@@ -264,6 +281,7 @@ class ClubResourceIT {
         // Update the club using partial update
         Club partialUpdatedClub = new Club();
         partialUpdatedClub.setId(club.getId());
+        partialUpdatedClub.setVersion(club.getVersion());
 
         partialUpdatedClub.nom(UPDATED_NOM).pageFB(UPDATED_PAGE_FB).pageIg(UPDATED_PAGE_IG);
 
@@ -296,6 +314,7 @@ class ClubResourceIT {
         // Update the club using partial update
         Club partialUpdatedClub = new Club();
         partialUpdatedClub.setId(club.getId());
+        partialUpdatedClub.setVersion(club.getVersion());
 
         partialUpdatedClub.nom(UPDATED_NOM).pageFB(UPDATED_PAGE_FB).pageIg(UPDATED_PAGE_IG).email(UPDATED_EMAIL);
 
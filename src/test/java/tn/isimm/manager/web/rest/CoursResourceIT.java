@@ -1,26 +1,41 @@
 package tn.isimm.manager.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Base64;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
 import tn.isimm.manager.IntegrationTest;
+import tn.isimm.manager.config.ApplicationProperties;
 import tn.isimm.manager.domain.Cours;
+import tn.isimm.manager.domain.Matiere;
 import tn.isimm.manager.repository.CoursRepository;
+import tn.isimm.manager.service.CoursSearchService;
+import tn.isimm.manager.web.conditional.VersionTags;
 
 /**
  * Integration tests for the {@link CoursResource} REST controller.
@@ -47,6 +62,12 @@ class CoursResourceIT {
     @Autowired
     private CoursRepository coursRepository;
 
+    @Autowired
+    private CoursSearchService coursSearchService;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     @Autowired
     private EntityManager em;
 
@@ -132,7 +153,24 @@ class CoursResourceIT {
             .andExpect(jsonPath("$.[*].id").value(hasItem(cours.getId().intValue())))
             .andExpect(jsonPath("$.[*].titre").value(hasItem(DEFAULT_TITRE)))
             .andExpect(jsonPath("$.[*].fileContentType").value(hasItem(DEFAULT_FILE_CONTENT_TYPE)))
-            .andExpect(jsonPath("$.[*].file").value(hasItem(Base64.getEncoder().encodeToString(DEFAULT_FILE))));
+            .andExpect(jsonPath("$.[*].file").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllCoursWithinQueryBudget() throws Exception {
+        // Initialize the database with more cours than the budget, each with its own matiere
+        for (int i = 0; i <= QueryCountAssertions.DEFAULT_QUERY_BUDGET; i++) {
+            Matiere matiere = MatiereResourceIT.createEntity(em);
+            em.persist(matiere);
+            em.persist(createEntity(em).matiere(matiere));
+        }
+
+        // Get all the coursList
+        QueryCountAssertions.assertWithinQueryBudget(
+            em,
+            () -> restCoursMockMvc.perform(get(ENTITY_API_URL + "?sort=id,desc")).andExpect(status().isOk())
+        );
     }
 
     @Test
@@ -152,6 +190,201 @@ class CoursResourceIT {
             .andExpect(jsonPath("$.file").value(Base64.getEncoder().encodeToString(DEFAULT_FILE)));
     }
 
+    @Test
+    @Transactional
+    void getCoursFile() throws Exception {
+        // Initialize the database
+        coursRepository.saveAndFlush(cours);
+
+        // Get the file of the cours
+        restCoursMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/file", cours.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(DEFAULT_FILE_CONTENT_TYPE))
+            .andExpect(content().bytes(DEFAULT_FILE));
+    }
+
+    @Test
+    void uploadCoursFile() throws Exception {
+        // Committed outside of any test transaction, as the file is stored in a transaction of its own
+        coursRepository.saveAndFlush(cours);
+        try {
+            // Upload the file as a multipart part
+            MockMultipartFile file = new MockMultipartFile("file", "cours.bin", UPDATED_FILE_CONTENT_TYPE, UPDATED_FILE);
+            restCoursMockMvc
+                .perform(multipart(HttpMethod.PUT, ENTITY_API_URL_ID + "/file", cours.getId()).file(file))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.size").value(UPDATED_FILE.length))
+                .andExpect(jsonPath("$.sha256").value(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(UPDATED_FILE))));
+
+            // Get the uploaded file
+            restCoursMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/file", cours.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(UPDATED_FILE_CONTENT_TYPE))
+                .andExpect(content().bytes(UPDATED_FILE));
+        } finally {
+            coursRepository.deleteById(cours.getId());
+        }
+    }
+
+    @Test
+    void uploadCoursFileContent() throws Exception {
+        // Committed outside of any test transaction, as the file is stored in a transaction of its own
+        coursRepository.saveAndFlush(cours);
+        try {
+            // Upload the file as the body of the request
+            restCoursMockMvc
+                .perform(put(ENTITY_API_URL_ID + "/file", cours.getId()).contentType(UPDATED_FILE_CONTENT_TYPE).content(UPDATED_FILE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(UPDATED_FILE.length))
+                .andExpect(jsonPath("$.contentType").value(UPDATED_FILE_CONTENT_TYPE));
+
+            restCoursMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/file", cours.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(UPDATED_FILE));
+        } finally {
+            coursRepository.deleteById(cours.getId());
+        }
+    }
+
+    @Test
+    void uploadCoursFileWithIfMatch() throws Exception {
+        // Committed outside of any test transaction, as the file is stored in a transaction of its own
+        coursRepository.saveAndFlush(cours);
+        try {
+            // The file is not written against another version
+            restCoursMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID + "/file", cours.getId())
+                        .header(HttpHeaders.IF_MATCH, VersionTags.of(cours.getVersion() + 1))
+                        .contentType(UPDATED_FILE_CONTENT_TYPE)
+                        .content(UPDATED_FILE)
+                )
+                .andExpect(status().isPreconditionFailed());
+            restCoursMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/file", cours.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(DEFAULT_FILE));
+
+            // But is against the current one
+            restCoursMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID + "/file", cours.getId())
+                        .header(HttpHeaders.IF_MATCH, VersionTags.of(cours.getVersion()))
+                        .contentType(UPDATED_FILE_CONTENT_TYPE)
+                        .content(UPDATED_FILE)
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, VersionTags.of(cours.getVersion() + 1)));
+            restCoursMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/file", cours.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(UPDATED_FILE));
+        } finally {
+            coursRepository.deleteById(cours.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    void uploadCoursFileTooLarge() throws Exception {
+        DataSize maxSize = applicationProperties.getUploads().getCoursMaxSize();
+        applicationProperties.getUploads().setCoursMaxSize(DataSize.ofBytes(UPDATED_FILE.length - 1));
+        try {
+            // Refused before the cours is looked up
+            restCoursMockMvc
+                .perform(put(ENTITY_API_URL_ID + "/file", Long.MAX_VALUE).contentType(UPDATED_FILE_CONTENT_TYPE).content(UPDATED_FILE))
+                .andExpect(status().isPayloadTooLarge());
+            MockMultipartFile file = new MockMultipartFile("file", "cours.bin", UPDATED_FILE_CONTENT_TYPE, UPDATED_FILE);
+            restCoursMockMvc
+                .perform(multipart(HttpMethod.PUT, ENTITY_API_URL_ID + "/file", Long.MAX_VALUE).file(file))
+                .andExpect(status().isPayloadTooLarge());
+        } finally {
+            applicationProperties.getUploads().setCoursMaxSize(maxSize);
+        }
+    }
+
+    @Test
+    @Transactional
+    void uploadCoursFileWithoutLength() throws Exception {
+        // A body without Content-Length cannot be checked against the limit before it is read
+        restCoursMockMvc
+            .perform(put(ENTITY_API_URL_ID + "/file", Long.MAX_VALUE).contentType(UPDATED_FILE_CONTENT_TYPE))
+            .andExpect(status().isLengthRequired());
+    }
+
+    @Test
+    void getCompressedCoursFile() throws Exception {
+        // Committed outside of any test transaction, as the file is stored in a transaction of its own
+        coursRepository.saveAndFlush(cours);
+        try {
+            byte[] text = "Chapitre 1 : introduction. ".repeat(200).getBytes(StandardCharsets.UTF_8);
+            restCoursMockMvc
+                .perform(put(ENTITY_API_URL_ID + "/file", cours.getId()).contentType(MediaType.TEXT_PLAIN).content(text))
+                .andExpect(status().isOk());
+
+            // The file is sent as stored to the clients accepting gzip
+            byte[] compressed = restCoursMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/file", cours.getId()).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+            assertThat(compressed.length).isLessThan(text.length);
+            assertThat(new GZIPInputStream(new ByteArrayInputStream(compressed)).readAllBytes()).isEqualTo(text);
+
+            // And decompressed for the others
+            restCoursMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/file", cours.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(text));
+
+            // The entity holds the raw content
+            assertThat(coursRepository.findById(cours.getId()).orElseThrow().getFile()).isEqualTo(text);
+        } finally {
+            coursRepository.deleteById(cours.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    void searchCours() throws Exception {
+        // Initialize the database
+        String text = "Chapitre 3. Les arbres binaires de recherche équilibrés, et leur rotation. " + "Exercices. ".repeat(50);
+        cours.file(text.getBytes(StandardCharsets.UTF_8)).fileContentType("text/plain");
+        coursRepository.saveAndFlush(cours);
+        coursSearchService.index(cours.getId());
+
+        // Search the words regardless of accents and case
+        restCoursMockMvc
+            .perform(get(ENTITY_API_URL + "/_search?query=EQUILIBRES arbres"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[0].id").value(cours.getId().intValue()))
+            .andExpect(jsonPath("$.[0].titre").value(DEFAULT_TITRE))
+            .andExpect(jsonPath("$.[0].snippets[0]").value(containsString("Les <mark>arbres</mark> binaires de recherche <mark>équilibrés</mark>")));
+
+        // All the words must be found
+        restCoursMockMvc
+            .perform(get(ENTITY_API_URL + "/_search?query=arbres rouges"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @Transactional
+    void uploadNonExistingCoursFile() throws Exception {
+        restCoursMockMvc
+            .perform(put(ENTITY_API_URL_ID + "/file", Long.MAX_VALUE).contentType(UPDATED_FILE_CONTENT_TYPE).content(UPDATED_FILE))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     void getNonExistingCours() throws Exception {
@@ -257,6 +490,7 @@ class CoursResourceIT {
         // Update the cours using partial update
         Cours partialUpdatedCours = new Cours();
         partialUpdatedCours.setId(cours.getId());
+        partialUpdatedCours.setVersion(cours.getVersion());
 
         partialUpdatedCours.titre(UPDATED_TITRE).file(UPDATED_FILE).fileContentType(UPDATED_FILE_CONTENT_TYPE);
 
@@ -288,6 +522,7 @@ class CoursResourceIT {
         // Update the cours using partial update
         Cours partialUpdatedCours = new Cours();
         partialUpdatedCours.setId(cours.getId());
+        partialUpdatedCours.setVersion(cours.getVersion());
 
         partialUpdatedCours.titre(UPDATED_TITRE).file(UPDATED_FILE).fileContentType(UPDATED_FILE_CONTENT_TYPE);
 
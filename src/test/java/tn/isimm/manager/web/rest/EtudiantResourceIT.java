@@ -2,40 +2,34 @@ package tn.isimm.manager.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
-import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import jakarta.persistence.EntityManager;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 import tn.isimm.manager.IntegrationTest;
+import tn.isimm.manager.domain.Club;
 import tn.isimm.manager.domain.Etudiant;
+import tn.isimm.manager.domain.Niveau;
 import tn.isimm.manager.repository.EtudiantRepository;
 
 /**
  * Integration tests for the {@link EtudiantResource} REST controller.
  */
 @IntegrationTest
-@ExtendWith(MockitoExtension.class)
 @AutoConfigureMockMvc
 @WithMockUser
 class EtudiantResourceIT {
@@ -72,9 +66,6 @@ class EtudiantResourceIT {
     @Autowired
     private EtudiantRepository etudiantRepository;
 
-    @Mock
-    private EtudiantRepository etudiantRepositoryMock;
-
     @Autowired
     private EntityManager em;
 
@@ -149,6 +140,58 @@ class EtudiantResourceIT {
         assertThat(testEtudiant.getPhotoDeProfileContentType()).isEqualTo(DEFAULT_PHOTO_DE_PROFILE_CONTENT_TYPE);
     }
 
+    @Test
+    @Transactional
+    void createEtudiantsBatch() throws Exception {
+        int databaseSizeBeforeCreate = etudiantRepository.findAll().size();
+
+        // Create the Etudiants in a single batch
+        restEtudiantMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(etudiant, createUpdatedEntity(em))))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].index").value(0))
+            .andExpect(jsonPath("$.[0].id").isNumber())
+            .andExpect(jsonPath("$.[0].status").value(201))
+            .andExpect(jsonPath("$.[1].index").value(1))
+            .andExpect(jsonPath("$.[1].id").isNumber())
+            .andExpect(jsonPath("$.[1].status").value(201));
+
+        // Validate the Etudiants in the database
+        List<Etudiant> etudiantList = etudiantRepository.findAll();
+        assertThat(etudiantList).hasSize(databaseSizeBeforeCreate + 2);
+        assertThat(etudiantList).extracting(Etudiant::getNom).contains(DEFAULT_NOM, UPDATED_NOM);
+    }
+
+    @Test
+    @Transactional
+    void createEtudiantsBatchWithExistingId() throws Exception {
+        int databaseSizeBeforeCreate = etudiantRepository.findAll().size();
+        Etudiant etudiantWithId = createUpdatedEntity(em);
+        etudiantWithId.setId(1L);
+
+        // Nothing is written when one of the etudiants is not valid
+        restEtudiantMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(etudiant, etudiantWithId)))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].index").value(1))
+            .andExpect(jsonPath("$.[0].status").value(400))
+            .andExpect(jsonPath("$.[0].error").value("idexists"));
+
+        // Validate the Etudiants in the database
+        List<Etudiant> etudiantList = etudiantRepository.findAll();
+        assertThat(etudiantList).hasSize(databaseSizeBeforeCreate);
+    }
+
     @Test
     @Transactional
     void createEtudiantWithExistingId() throws Exception {
@@ -186,24 +229,26 @@ class EtudiantResourceIT {
             .andExpect(jsonPath("$.[*].numTel").value(hasItem(DEFAULT_NUM_TEL)))
             .andExpect(jsonPath("$.[*].dateDeNaissance").value(hasItem(DEFAULT_DATE_DE_NAISSANCE.toString())))
             .andExpect(jsonPath("$.[*].photoDeProfileContentType").value(hasItem(DEFAULT_PHOTO_DE_PROFILE_CONTENT_TYPE)))
-            .andExpect(jsonPath("$.[*].photoDeProfile").value(hasItem(Base64.getEncoder().encodeToString(DEFAULT_PHOTO_DE_PROFILE))));
+            .andExpect(jsonPath("$.[*].photoDeProfile").doesNotExist());
     }
 
-    @SuppressWarnings({ "unchecked" })
-    void getAllEtudiantsWithEagerRelationshipsIsEnabled() throws Exception {
-        when(etudiantRepositoryMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
-
-        restEtudiantMockMvc.perform(get(ENTITY_API_URL + "?eagerload=true")).andExpect(status().isOk());
-
-        verify(etudiantRepositoryMock, times(1)).findAllWithEagerRelationships(any());
-    }
-
-    @SuppressWarnings({ "unchecked" })
-    void getAllEtudiantsWithEagerRelationshipsIsNotEnabled() throws Exception {
-        when(etudiantRepositoryMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
+    @Test
+    @Transactional
+    void getAllEtudiantsWithinQueryBudget() throws Exception {
+        // Initialize the database with more etudiants than the budget, each with its own niveau and club
+        for (int i = 0; i <= QueryCountAssertions.DEFAULT_QUERY_BUDGET; i++) {
+            Niveau niveau = NiveauResourceIT.createEntity(em);
+            em.persist(niveau);
+            Club club = ClubResourceIT.createEntity(em);
+            em.persist(club);
+            em.persist(createEntity(em).niveau(niveau).addClub(club));
+        }
 
-        restEtudiantMockMvc.perform(get(ENTITY_API_URL + "?eagerload=false")).andExpect(status().isOk());
-        verify(etudiantRepositoryMock, times(1)).findAll(any(Pageable.class));
+        // Get all the etudiantList
+        QueryCountAssertions.assertWithinQueryBudget(
+            em,
+            () -> restEtudiantMockMvc.perform(get(ENTITY_API_URL + "?sort=id,desc")).andExpect(status().isOk())
+        );
     }
 
     @Test
@@ -228,6 +273,68 @@ class EtudiantResourceIT {
             .andExpect(jsonPath("$.photoDeProfile").value(Base64.getEncoder().encodeToString(DEFAULT_PHOTO_DE_PROFILE)));
     }
 
+    @Test
+    @Transactional
+    void getEtudiantPhoto() throws Exception {
+        // Initialize the database
+        etudiantRepository.saveAndFlush(etudiant);
+
+        // Get the photo of the etudiant
+        restEtudiantMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/photo", etudiant.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(DEFAULT_PHOTO_DE_PROFILE_CONTENT_TYPE))
+            .andExpect(content().bytes(DEFAULT_PHOTO_DE_PROFILE));
+    }
+
+    @Test
+    @Transactional
+    void getAllEtudiantsWithFields() throws Exception {
+        // Initialize the database
+        Niveau niveau = NiveauResourceIT.createEntity(em);
+        em.persist(niveau);
+        etudiantRepository.saveAndFlush(etudiant.niveau(niveau));
+
+        // Get the selected fields of all the etudiants
+        restEtudiantMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&fields=nom,prenom,niveau"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(etudiant.getId().intValue())))
+            .andExpect(jsonPath("$.[*].nom").value(hasItem(DEFAULT_NOM)))
+            .andExpect(jsonPath("$.[*].prenom").value(hasItem(DEFAULT_PRENOM)))
+            .andExpect(jsonPath("$.[*].niveau.id").value(hasItem(niveau.getId().intValue())))
+            .andExpect(jsonPath("$.[*].email").doesNotExist())
+            .andExpect(jsonPath("$.[*].photoDeProfileContentType").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getEtudiantWithFields() throws Exception {
+        // Initialize the database
+        etudiantRepository.saveAndFlush(etudiant);
+
+        // Get the selected fields of the etudiant
+        restEtudiantMockMvc
+            .perform(get(ENTITY_API_URL_ID + "?fields=email", etudiant.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(etudiant.getId().intValue()))
+            .andExpect(jsonPath("$.email").value(DEFAULT_EMAIL))
+            .andExpect(jsonPath("$.nom").doesNotExist());
+
+        restEtudiantMockMvc.perform(get(ENTITY_API_URL_ID + "?fields=email", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void getAllEtudiantsWithUnknownField() throws Exception {
+        // Binary attributes and collections are not selectable
+        restEtudiantMockMvc.perform(get(ENTITY_API_URL + "?fields=nom,photoDeProfile")).andExpect(status().isBadRequest());
+        restEtudiantMockMvc.perform(get(ENTITY_API_URL + "?fields=clubs")).andExpect(status().isBadRequest());
+        restEtudiantMockMvc.perform(get(ENTITY_API_URL + "?sort=clubs&fields=nom")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getNonExistingEtudiant() throws Exception {
@@ -346,6 +453,7 @@ class EtudiantResourceIT {
         // Update the etudiant using partial update
         Etudiant partialUpdatedEtudiant = new Etudiant();
         partialUpdatedEtudiant.setId(etudiant.getId());
+        partialUpdatedEtudiant.setVersion(etudiant.getVersion());
 
         partialUpdatedEtudiant
             .nom(UPDATED_NOM)
@@ -386,6 +494,7 @@ class EtudiantResourceIT {
         // Update the etudiant using partial update
         Etudiant partialUpdatedEtudiant = new Etudiant();
         partialUpdatedEtudiant.setId(etudiant.getId());
+        partialUpdatedEtudiant.setVersion(etudiant.getVersion());
 
         partialUpdatedEtudiant
             .prenom(UPDATED_PRENOM)
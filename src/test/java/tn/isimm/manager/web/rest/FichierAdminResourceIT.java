@@ -19,6 +19,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 import tn.isimm.manager.IntegrationTest;
+import tn.isimm.manager.domain.Etudiant;
 import tn.isimm.manager.domain.FichierAdmin;
 import tn.isimm.manager.domain.enumeration.TypeFichierAdmin;
 import tn.isimm.manager.repository.FichierAdminRepository;
@@ -152,10 +153,27 @@ class FichierAdminResourceIT {
             .andExpect(jsonPath("$.[*].titre").value(hasItem(DEFAULT_TITRE)))
             .andExpect(jsonPath("$.[*].type").value(hasItem(DEFAULT_TYPE.toString())))
             .andExpect(jsonPath("$.[*].fileContentType").value(hasItem(DEFAULT_FILE_CONTENT_TYPE)))
-            .andExpect(jsonPath("$.[*].file").value(hasItem(Base64.getEncoder().encodeToString(DEFAULT_FILE))))
+            .andExpect(jsonPath("$.[*].file").doesNotExist())
             .andExpect(jsonPath("$.[*].demandeValide").value(hasItem(DEFAULT_DEMANDE_VALIDE.booleanValue())));
     }
 
+    @Test
+    @Transactional
+    void getAllFichierAdminsWithinQueryBudget() throws Exception {
+        // Initialize the database with more fichierAdmins than the budget, each with its own etudiant
+        for (int i = 0; i <= QueryCountAssertions.DEFAULT_QUERY_BUDGET; i++) {
+            Etudiant etudiant = EtudiantResourceIT.createEntity(em);
+            em.persist(etudiant);
+            em.persist(createEntity(em).etudiant(etudiant));
+        }
+
+        // Get all the fichierAdminList
+        QueryCountAssertions.assertWithinQueryBudget(
+            em,
+            () -> restFichierAdminMockMvc.perform(get(ENTITY_API_URL + "?sort=id,desc")).andExpect(status().isOk())
+        );
+    }
+
     @Test
     @Transactional
     void getFichierAdmin() throws Exception {
@@ -175,6 +193,20 @@ class FichierAdminResourceIT {
             .andExpect(jsonPath("$.demandeValide").value(DEFAULT_DEMANDE_VALIDE.booleanValue()));
     }
 
+    @Test
+    @Transactional
+    void getFichierAdminFile() throws Exception {
+        // Initialize the database
+        fichierAdminRepository.saveAndFlush(fichierAdmin);
+
+        // Get the file of the fichierAdmin
+        restFichierAdminMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/file", fichierAdmin.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(DEFAULT_FILE_CONTENT_TYPE))
+            .andExpect(content().bytes(DEFAULT_FILE));
+    }
+
     @Test
     @Transactional
     void getNonExistingFichierAdmin() throws Exception {
@@ -287,6 +319,7 @@ class FichierAdminResourceIT {
         // Update the fichierAdmin using partial update
         FichierAdmin partialUpdatedFichierAdmin = new FichierAdmin();
         partialUpdatedFichierAdmin.setId(fichierAdmin.getId());
+        partialUpdatedFichierAdmin.setVersion(fichierAdmin.getVersion());
 
         partialUpdatedFichierAdmin.type(UPDATED_TYPE);
 
@@ -320,6 +353,7 @@ class FichierAdminResourceIT {
         // Update the fichierAdmin using partial update
         FichierAdmin partialUpdatedFichierAdmin = new FichierAdmin();
         partialUpdatedFichierAdmin.setId(fichierAdmin.getId());
+        partialUpdatedFichierAdmin.setVersion(fichierAdmin.getVersion());
 
         partialUpdatedFichierAdmin
             .titre(UPDATED_TITRE)
@@ -14,12 +14,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 import tn.isimm.manager.IntegrationTest;
 import tn.isimm.manager.domain.Matiere;
+import tn.isimm.manager.repository.EntityVersionRepository;
 import tn.isimm.manager.repository.MatiereRepository;
+import tn.isimm.manager.service.AutocompleteService;
 
 /**
  * Integration tests for the {@link MatiereResource} REST controller.
@@ -47,6 +50,15 @@ class MatiereResourceIT {
     @Autowired
     private MockMvc restMatiereMockMvc;
 
+    @Autowired
+    private AutocompleteService autocompleteService;
+
+    @Autowired
+    private EntityVersionRepository entityVersionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Matiere matiere;
 
     /**
@@ -125,6 +137,71 @@ class MatiereResourceIT {
             .andExpect(jsonPath("$.[*].nomMatiere").value(hasItem(DEFAULT_NOM_MATIERE)));
     }
 
+    @Test
+    @Transactional
+    void getAllMatieresWithinQueryBudget() throws Exception {
+        // Initialize the database with more matieres than the budget, each with its own seance
+        for (int i = 0; i <= QueryCountAssertions.DEFAULT_QUERY_BUDGET; i++) {
+            Matiere matiere = createEntity(em);
+            em.persist(matiere);
+            em.persist(SeanceResourceIT.createEntity(em).matiere(matiere));
+        }
+
+        // Get all the matiereList
+        QueryCountAssertions.assertWithinQueryBudget(
+            em,
+            () ->
+                restMatiereMockMvc
+                    .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.[*].seance.id").isNotEmpty())
+        );
+    }
+
+    @Test
+    void autocompleteMatieres() throws Exception {
+        // Initialize the database, committed as the index is shared
+        matiereRepository.saveAndFlush(matiere);
+
+        try {
+            // Complete the matiere name
+            restMatiereMockMvc
+                .perform(get(ENTITY_API_URL + "/_autocomplete?prefix=aaa&size=5"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(matiere.getId().intValue())))
+                .andExpect(jsonPath("$.[*].label").value(hasItem(DEFAULT_NOM_MATIERE)));
+        } finally {
+            matiereRepository.deleteById(matiere.getId());
+        }
+    }
+
+    @Test
+    void autocompleteMatieresChangedByAnotherNode() throws Exception {
+        // Initialize the database, committed as the index is shared
+        matiereRepository.saveAndFlush(matiere);
+
+        try {
+            restMatiereMockMvc
+                .perform(get(ENTITY_API_URL + "/_autocomplete?prefix=aaa&size=5"))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(matiere.getId().intValue())));
+
+            // Rename the matiere without publishing the change, as another node would
+            jdbcTemplate.update("update matiere set nom_matiere = ? where id = ?", UPDATED_NOM_MATIERE, matiere.getId());
+            entityVersionRepository.incrementVersions(List.of(Matiere.class.getSimpleName()));
+            autocompleteService.reloadChangedIndexes();
+
+            // Complete the new matiere name
+            restMatiereMockMvc
+                .perform(get(ENTITY_API_URL + "/_autocomplete?prefix=bbb&size=5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(matiere.getId().intValue())))
+                .andExpect(jsonPath("$.[*].label").value(hasItem(UPDATED_NOM_MATIERE)));
+        } finally {
+            matiereRepository.deleteById(matiere.getId());
+        }
+    }
+
     @Test
     @Transactional
     void getMatiere() throws Exception {
@@ -243,6 +320,7 @@ class MatiereResourceIT {
         // Update the matiere using partial update
         Matiere partialUpdatedMatiere = new Matiere();
         partialUpdatedMatiere.setId(matiere.getId());
+        partialUpdatedMatiere.setVersion(matiere.getVersion());
 
         restMatiereMockMvc
             .perform(
@@ -270,6 +348,7 @@ class MatiereResourceIT {
         // Update the matiere using partial update
         Matiere partialUpdatedMatiere = new Matiere();
         partialUpdatedMatiere.setId(matiere.getId());
+        partialUpdatedMatiere.setVersion(matiere.getVersion());
 
         partialUpdatedMatiere.nomMatiere(UPDATED_NOM_MATIERE);
 
@@ -1,7 +1,9 @@
 package tn.isimm.manager.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -13,13 +15,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 import tn.isimm.manager.IntegrationTest;
 import tn.isimm.manager.domain.Niveau;
+import tn.isimm.manager.domain.Semestre;
 import tn.isimm.manager.repository.NiveauRepository;
+import tn.isimm.manager.repository.SemestreRepository;
 
 /**
  * Integration tests for the {@link NiveauResource} REST controller.
@@ -47,6 +52,9 @@ class NiveauResourceIT {
     @Autowired
     private NiveauRepository niveauRepository;
 
+    @Autowired
+    private SemestreRepository semestreRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -135,6 +143,23 @@ class NiveauResourceIT {
             .andExpect(jsonPath("$.[*].td").value(hasItem(DEFAULT_TD)));
     }
 
+    @Test
+    @Transactional
+    void getAllNiveausWithinQueryBudget() throws Exception {
+        // Initialize the database with more niveaus than the budget, each with its own etudiant
+        for (int i = 0; i <= QueryCountAssertions.DEFAULT_QUERY_BUDGET; i++) {
+            Niveau niveau = createEntity(em);
+            em.persist(niveau);
+            em.persist(EtudiantResourceIT.createEntity(em).niveau(niveau));
+        }
+
+        // Get all the niveauList
+        QueryCountAssertions.assertWithinQueryBudget(
+            em,
+            () -> restNiveauMockMvc.perform(get(ENTITY_API_URL + "?sort=id,desc")).andExpect(status().isOk())
+        );
+    }
+
     @Test
     @Transactional
     void getNiveau() throws Exception {
@@ -159,6 +184,146 @@ class NiveauResourceIT {
         restNiveauMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getAllNiveausNotModified() throws Exception {
+        // Initialize the database
+        niveauRepository.saveAndFlush(niveau);
+
+        String eTag = restNiveauMockMvc
+            .perform(get(ENTITY_API_URL))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("no-cache")))
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotBlank();
+
+        restNiveauMockMvc
+            .perform(get(ENTITY_API_URL).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag))
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    void getNiveauNotModified() throws Exception {
+        // Initialize the database
+        niveauRepository.saveAndFlush(niveau);
+
+        String eTag = restNiveauMockMvc
+            .perform(get(ENTITY_API_URL_ID, niveau.getId()))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        // The tag is the version, followed by the validator of the associations
+        assertThat(eTag).startsWith("\"" + niveau.getVersion() + "-");
+
+        restNiveauMockMvc
+            .perform(get(ENTITY_API_URL_ID, niveau.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Transactional
+    void putNiveauWithIfMatchFromGet() throws Exception {
+        // Initialize the database
+        niveauRepository.saveAndFlush(niveau);
+
+        String eTag = restNiveauMockMvc
+            .perform(get(ENTITY_API_URL_ID, niveau.getId()))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // The tag read is sent back as is
+        Niveau updatedNiveau = new Niveau().id(niveau.getId()).classe(UPDATED_CLASSE);
+        restNiveauMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, niveau.getId())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(updatedNiveau))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + (niveau.getVersion() + 1) + "\""));
+
+        // But not once the niveau was updated
+        restNiveauMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, niveau.getId())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(updatedNiveau))
+            )
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @Transactional
+    void patchNiveauWithoutVersion() throws Exception {
+        // Initialize the database
+        niveauRepository.saveAndFlush(niveau);
+
+        // Neither If-Match nor a version: the update cannot be checked
+        restNiveauMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, niveau.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(new Niveau().id(niveau.getId()).classe(UPDATED_CLASSE)))
+            )
+            .andExpect(status().isConflict());
+
+        assertThat(niveauRepository.findById(niveau.getId()).orElseThrow().getClasse()).isEqualTo(DEFAULT_CLASSE);
+    }
+
+    @Test
+    void getNiveauModifiedByItsAssociationsAfterCommit() throws Exception {
+        // Committed outside of any test transaction, so that the versions are incremented
+        niveauRepository.saveAndFlush(niveau);
+        Semestre semestre = null;
+        try {
+            String eTag = restNiveauMockMvc
+                .perform(get(ENTITY_API_URL_ID, niveau.getId()))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+            // The niveau row is left unchanged, only its associated type is written
+            semestre = semestreRepository.saveAndFlush(SemestreResourceIT.createEntity(em));
+            restNiveauMockMvc
+                .perform(get(ENTITY_API_URL_ID, niveau.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+        } finally {
+            if (semestre != null) {
+                semestreRepository.deleteById(semestre.getId());
+            }
+            niveauRepository.deleteById(niveau.getId());
+        }
+    }
+
+    @Test
+    void getAllNiveausModifiedAfterCommit() throws Exception {
+        String eTag = restNiveauMockMvc.perform(get(ENTITY_API_URL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Committed outside of any test transaction, so that the Niveau version is incremented
+        niveauRepository.saveAndFlush(niveau);
+        try {
+            restNiveauMockMvc
+                .perform(get(ENTITY_API_URL).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(niveau.getId().intValue())));
+        } finally {
+            niveauRepository.deleteById(niveau.getId());
+        }
+    }
+
     @Test
     @Transactional
     void putExistingNiveau() throws Exception {
@@ -190,6 +355,62 @@ class NiveauResourceIT {
         assertThat(testNiveau.getTd()).isEqualTo(UPDATED_TD);
     }
 
+    @Test
+    @Transactional
+    void putExistingNiveauWithIfMatch() throws Exception {
+        // Initialize the database
+        niveauRepository.saveAndFlush(niveau);
+        long version = niveau.getVersion();
+
+        // Update the niveau
+        Niveau updatedNiveau = niveauRepository.findById(niveau.getId()).orElseThrow();
+        // Disconnect from session so that the updates on updatedNiveau are not directly saved in db
+        em.detach(updatedNiveau);
+        updatedNiveau.classe(UPDATED_CLASSE).tp(UPDATED_TP).td(UPDATED_TD).version(null);
+
+        restNiveauMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedNiveau.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"" + version + "\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedNiveau))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + (version + 1) + "\""))
+            .andExpect(jsonPath("$.version").value(version + 1));
+
+        // A second update based on the same version must be rejected
+        restNiveauMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, updatedNiveau.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"" + version + "\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(new Niveau().id(niveau.getId()).classe(DEFAULT_CLASSE)))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        // Validate the Niveau in the database
+        Niveau testNiveau = niveauRepository.findById(niveau.getId()).orElseThrow();
+        assertThat(testNiveau.getClasse()).isEqualTo(UPDATED_CLASSE);
+    }
+
+    @Test
+    @Transactional
+    void putExistingNiveauWithStaleVersion() throws Exception {
+        // Initialize the database
+        niveauRepository.saveAndFlush(niveau);
+
+        Niveau updatedNiveau = new Niveau().id(niveau.getId()).classe(UPDATED_CLASSE).version(niveau.getVersion() - 1);
+
+        restNiveauMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedNiveau.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedNiveau))
+            )
+            .andExpect(status().isConflict());
+    }
+
     @Test
     @Transactional
     void putNonExistingNiveau() throws Exception {
@@ -257,6 +478,7 @@ class NiveauResourceIT {
         // Update the niveau using partial update
         Niveau partialUpdatedNiveau = new Niveau();
         partialUpdatedNiveau.setId(niveau.getId());
+        partialUpdatedNiveau.setVersion(niveau.getVersion());
 
         partialUpdatedNiveau.td(UPDATED_TD);
 
@@ -288,6 +510,7 @@ class NiveauResourceIT {
         // Update the niveau using partial update
         Niveau partialUpdatedNiveau = new Niveau();
         partialUpdatedNiveau.setId(niveau.getId());
+        partialUpdatedNiveau.setVersion(niveau.getVersion());
 
         partialUpdatedNiveau.classe(UPDATED_CLASSE).tp(UPDATED_TP).td(UPDATED_TD);
 
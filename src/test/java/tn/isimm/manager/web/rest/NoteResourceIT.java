@@ -18,6 +18,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 import tn.isimm.manager.IntegrationTest;
+import tn.isimm.manager.domain.Matiere;
 import tn.isimm.manager.domain.Note;
 import tn.isimm.manager.repository.NoteRepository;
 
@@ -125,6 +126,29 @@ class NoteResourceIT {
             .andExpect(jsonPath("$.[*].note").value(hasItem(DEFAULT_NOTE)));
     }
 
+    @Test
+    @Transactional
+    void getAllNotesWithinQueryBudget() throws Exception {
+        // Initialize the database with more notes than the budget, each with its own matiere and seance
+        for (int i = 0; i <= QueryCountAssertions.DEFAULT_QUERY_BUDGET; i++) {
+            Note note = createEntity(em);
+            em.persist(note);
+            Matiere matiere = MatiereResourceIT.createEntity(em).note(note);
+            em.persist(matiere);
+            em.persist(SeanceResourceIT.createEntity(em).matiere(matiere));
+        }
+
+        // Get all the noteList
+        QueryCountAssertions.assertWithinQueryBudget(
+            em,
+            () ->
+                restNoteMockMvc
+                    .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.[*].matiere.id").isNotEmpty())
+        );
+    }
+
     @Test
     @Transactional
     void getNote() throws Exception {
@@ -176,6 +200,61 @@ class NoteResourceIT {
         assertThat(testNote.getNote()).isEqualTo(UPDATED_NOTE);
     }
 
+    @Test
+    @Transactional
+    void saveNotesBatch() throws Exception {
+        // Initialize the database
+        noteRepository.saveAndFlush(note);
+
+        int databaseSizeBeforeUpdate = noteRepository.findAll().size();
+
+        // Update the note and create another one in the same batch
+        Note updatedNote = noteRepository.findById(note.getId()).orElseThrow();
+        em.detach(updatedNote);
+        updatedNote.note(UPDATED_NOTE);
+
+        restNoteMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(updatedNote, createUpdatedEntity(em))))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(note.getId().intValue()))
+            .andExpect(jsonPath("$.[0].status").value(200))
+            .andExpect(jsonPath("$.[1].id").isNumber())
+            .andExpect(jsonPath("$.[1].status").value(201));
+
+        // Validate the Notes in the database
+        List<Note> noteList = noteRepository.findAll();
+        assertThat(noteList).hasSize(databaseSizeBeforeUpdate + 1);
+        assertThat(noteList).extracting(Note::getNote).containsOnly(UPDATED_NOTE);
+    }
+
+    @Test
+    @Transactional
+    void saveNotesBatchWithNonExistingNote() throws Exception {
+        int databaseSizeBeforeUpdate = noteRepository.findAll().size();
+        note.setId(longCount.incrementAndGet());
+
+        // Nothing is written when one of the notes is not valid
+        restNoteMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(createEntity(em), note)))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].index").value(1))
+            .andExpect(jsonPath("$.[0].status").value(404))
+            .andExpect(jsonPath("$.[0].error").value("idnotfound"));
+
+        // Validate the Note in the database
+        List<Note> noteList = noteRepository.findAll();
+        assertThat(noteList).hasSize(databaseSizeBeforeUpdate);
+    }
+
     @Test
     @Transactional
     void putNonExistingNote() throws Exception {
@@ -243,6 +322,7 @@ class NoteResourceIT {
         // Update the note using partial update
         Note partialUpdatedNote = new Note();
         partialUpdatedNote.setId(note.getId());
+        partialUpdatedNote.setVersion(note.getVersion());
 
         partialUpdatedNote.note(UPDATED_NOTE);
 
@@ -272,6 +352,7 @@ class NoteResourceIT {
         // Update the note using partial update
         Note partialUpdatedNote = new Note();
         partialUpdatedNote.setId(note.getId());
+        partialUpdatedNote.setVersion(note.getVersion());
 
         partialUpdatedNote.note(UPDATED_NOTE);
 
@@ -0,0 +1,106 @@
+package tn.isimm.manager.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import tn.isimm.manager.IntegrationTest;
+import tn.isimm.manager.domain.Etudiant;
+import tn.isimm.manager.repository.EtudiantRepository;
+import tn.isimm.manager.repository.PhotoKind;
+import tn.isimm.manager.service.PhotoThumbnailService;
+
+/**
+ * Integration tests for the {@link PhotoResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class PhotoResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/photos/etudiant/{id}/{size}";
+
+    @Autowired
+    private EtudiantRepository etudiantRepository;
+
+    @Autowired
+    private PhotoThumbnailService photoThumbnailService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restPhotoMockMvc;
+
+    private Etudiant createEtudiantWithThumbnails() throws Exception {
+        Etudiant etudiant = etudiantRepository.saveAndFlush(
+            EtudiantResourceIT.createEntity(em).photoDeProfile(TestUtil.createPngImage(300, 200)).photoDeProfileContentType("image/png")
+        );
+        assertThat(photoThumbnailService.refresh(PhotoKind.ETUDIANT, etudiant.getId())).isTrue();
+        // Generated from the same photo
+        assertThat(photoThumbnailService.refresh(PhotoKind.ETUDIANT, etudiant.getId())).isFalse();
+        em.clear();
+        return etudiantRepository.findById(etudiant.getId()).orElseThrow();
+    }
+
+    @Test
+    @Transactional
+    void getThumbnailWithHash() throws Exception {
+        Etudiant etudiant = createEtudiantWithThumbnails();
+        assertThat(etudiant.getPhotoDeProfileHash()).isNotNull();
+
+        restPhotoMockMvc
+            .perform(get(ENTITY_API_URL + "?v=" + etudiant.getPhotoDeProfileHash(), etudiant.getId(), 64))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(PhotoThumbnailService.CONTENT_TYPE))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + etudiant.getPhotoDeProfileHash() + "\""));
+    }
+
+    @Test
+    @Transactional
+    void getThumbnailWithoutHash() throws Exception {
+        Etudiant etudiant = createEtudiantWithThumbnails();
+
+        restPhotoMockMvc
+            .perform(get(ENTITY_API_URL, etudiant.getId(), 256))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("no-cache")));
+    }
+
+    @Test
+    @Transactional
+    void backfillGeneratesTheMissingThumbnails() throws Exception {
+        Etudiant etudiant = etudiantRepository.saveAndFlush(
+            EtudiantResourceIT.createEntity(em).photoDeProfile(TestUtil.createPngImage(300, 200)).photoDeProfileContentType("image/png")
+        );
+        Long version = etudiant.getVersion();
+
+        assertThat(photoThumbnailService.backfill(PhotoKind.ETUDIANT)).isPositive();
+        assertThat(photoThumbnailService.backfill(PhotoKind.ETUDIANT)).isZero();
+        em.clear();
+        Etudiant backfilled = etudiantRepository.findById(etudiant.getId()).orElseThrow();
+        assertThat(backfilled.getPhotoDeProfileHash()).isNotNull();
+        // Clients holding the owner read before the thumbnails can still update it
+        assertThat(backfilled.getVersion()).isEqualTo(version);
+
+        restPhotoMockMvc.perform(get(ENTITY_API_URL, etudiant.getId(), 64)).andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    void getThumbnailOfUnknownSize() throws Exception {
+        Etudiant etudiant = createEtudiantWithThumbnails();
+
+        restPhotoMockMvc.perform(get(ENTITY_API_URL, etudiant.getId(), 100)).andExpect(status().isNotFound());
+    }
+}
@@ -2,33 +2,28 @@ package tn.isimm.manager.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
-import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import jakarta.persistence.EntityManager;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 import tn.isimm.manager.IntegrationTest;
+import tn.isimm.manager.domain.Matiere;
 import tn.isimm.manager.domain.Professeur;
+import tn.isimm.manager.domain.User;
 import tn.isimm.manager.domain.enumeration.Departement;
 import tn.isimm.manager.repository.ProfesseurRepository;
 
@@ -36,7 +31,6 @@ import tn.isimm.manager.repository.ProfesseurRepository;
  * Integration tests for the {@link ProfesseurResource} REST controller.
  */
 @IntegrationTest
-@ExtendWith(MockitoExtension.class)
 @AutoConfigureMockMvc
 @WithMockUser
 class ProfesseurResourceIT {
@@ -79,9 +73,6 @@ class ProfesseurResourceIT {
     @Autowired
     private ProfesseurRepository professeurRepository;
 
-    @Mock
-    private ProfesseurRepository professeurRepositoryMock;
-
     @Autowired
     private EntityManager em;
 
@@ -201,24 +192,30 @@ class ProfesseurResourceIT {
             .andExpect(jsonPath("$.[*].numTel").value(hasItem(DEFAULT_NUM_TEL)))
             .andExpect(jsonPath("$.[*].dateDeNaissance").value(hasItem(DEFAULT_DATE_DE_NAISSANCE.toString())))
             .andExpect(jsonPath("$.[*].photoDeProfileContentType").value(hasItem(DEFAULT_PHOTO_DE_PROFILE_CONTENT_TYPE)))
-            .andExpect(jsonPath("$.[*].photoDeProfile").value(hasItem(Base64.getEncoder().encodeToString(DEFAULT_PHOTO_DE_PROFILE))));
-    }
-
-    @SuppressWarnings({ "unchecked" })
-    void getAllProfesseursWithEagerRelationshipsIsEnabled() throws Exception {
-        when(professeurRepositoryMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
-
-        restProfesseurMockMvc.perform(get(ENTITY_API_URL + "?eagerload=true")).andExpect(status().isOk());
-
-        verify(professeurRepositoryMock, times(1)).findAllWithEagerRelationships(any());
+            .andExpect(jsonPath("$.[*].photoDeProfile").doesNotExist());
     }
 
-    @SuppressWarnings({ "unchecked" })
-    void getAllProfesseursWithEagerRelationshipsIsNotEnabled() throws Exception {
-        when(professeurRepositoryMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
+    @Test
+    @Transactional
+    void getAllProfesseursWithinQueryBudget() throws Exception {
+        // Initialize the database with more professeurs than the budget, each with its own user and matiere
+        for (int i = 0; i <= QueryCountAssertions.DEFAULT_QUERY_BUDGET; i++) {
+            User user = UserResourceIT.createEntity(em);
+            em.persist(user);
+            Matiere matiere = MatiereResourceIT.createEntity(em);
+            em.persist(matiere);
+            em.persist(createEntity(em).user(user).addMatiere(matiere));
+        }
 
-        restProfesseurMockMvc.perform(get(ENTITY_API_URL + "?eagerload=false")).andExpect(status().isOk());
-        verify(professeurRepositoryMock, times(1)).findAll(any(Pageable.class));
+        // Get all the professeurList
+        QueryCountAssertions.assertWithinQueryBudget(
+            em,
+            () ->
+                restProfesseurMockMvc
+                    .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.[*].user.id").isNotEmpty())
+        );
     }
 
     @Test
@@ -245,6 +242,20 @@ class ProfesseurResourceIT {
             .andExpect(jsonPath("$.photoDeProfile").value(Base64.getEncoder().encodeToString(DEFAULT_PHOTO_DE_PROFILE)));
     }
 
+    @Test
+    @Transactional
+    void getProfesseurPhoto() throws Exception {
+        // Initialize the database
+        professeurRepository.saveAndFlush(professeur);
+
+        // Get the photo of the professeur
+        restProfesseurMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/photo", professeur.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(DEFAULT_PHOTO_DE_PROFILE_CONTENT_TYPE))
+            .andExpect(content().bytes(DEFAULT_PHOTO_DE_PROFILE));
+    }
+
     @Test
     @Transactional
     void getNonExistingProfesseur() throws Exception {
@@ -367,6 +378,7 @@ class ProfesseurResourceIT {
         // Update the professeur using partial update
         Professeur partialUpdatedProfesseur = new Professeur();
         partialUpdatedProfesseur.setId(professeur.getId());
+        partialUpdatedProfesseur.setVersion(professeur.getVersion());
 
         partialUpdatedProfesseur
             .nom(UPDATED_NOM)
@@ -410,6 +422,7 @@ class ProfesseurResourceIT {
         // Update the professeur using partial update
         Professeur partialUpdatedProfesseur = new Professeur();
         partialUpdatedProfesseur.setId(professeur.getId());
+        partialUpdatedProfesseur.setVersion(professeur.getVersion());
 
         partialUpdatedProfesseur
             .prenom(UPDATED_PRENOM)
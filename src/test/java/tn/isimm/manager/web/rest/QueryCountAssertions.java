@@ -0,0 +1,100 @@
+package tn.isimm.manager.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import tn.isimm.manager.repository.RecordingStatementInspector;
+
+/**
+ * Assertions on the SQL statements run by Hibernate while serving a request, to catch N+1 query patterns.
+ * <p>
+ * The persistence context is flushed and cleared before the request, so that lazy associations are not already
+ * loaded from the test fixture: initialize more rows than the budget, and a list endpoint issuing one query per row
+ * fails the assertion.
+ */
+public final class QueryCountAssertions {
+
+    /**
+     * Default number of statements a single request may run, whatever the number of rows it returns.
+     */
+    public static final int DEFAULT_QUERY_BUDGET = 5;
+
+    private QueryCountAssertions() {}
+
+    /**
+     * A request performed by a test, typically {@code () -> restMockMvc.perform(get(url)).andExpect(status().isOk())}.
+     */
+    @FunctionalInterface
+    public interface Request {
+        void perform() throws Exception;
+    }
+
+    /**
+     * Record the statements run by Hibernate while performing {@code request}.
+     *
+     * @param em the entity manager of the test, flushed and cleared first.
+     * @param request the request to perform.
+     * @return the statements, in order.
+     * @throws Exception if the request failed.
+     */
+    public static List<String> recordStatements(EntityManager em, Request request) throws Exception {
+        em.flush();
+        em.clear();
+        RecordingStatementInspector.start();
+        List<String> statements;
+        try {
+            request.perform();
+        } finally {
+            statements = RecordingStatementInspector.stop();
+        }
+        return statements;
+    }
+
+    /**
+     * Assert that {@code request} runs at most {@link #DEFAULT_QUERY_BUDGET} statements and never the same select twice.
+     *
+     * @param em the entity manager of the test.
+     * @param request the request to perform.
+     * @throws Exception if the request failed.
+     */
+    public static void assertWithinQueryBudget(EntityManager em, Request request) throws Exception {
+        assertWithinQueryBudget(em, DEFAULT_QUERY_BUDGET, request);
+    }
+
+    /**
+     * Assert that {@code request} runs at most {@code budget} statements and never the same select twice.
+     *
+     * @param em the entity manager of the test.
+     * @param budget the maximum number of statements.
+     * @param request the request to perform.
+     * @throws Exception if the request failed.
+     */
+    public static void assertWithinQueryBudget(EntityManager em, int budget, Request request) throws Exception {
+        List<String> statements = recordStatements(em, request);
+        assertThat(statements).as("statements run by the request").hasSizeLessThanOrEqualTo(budget);
+        assertNoRepeatedSelect(statements);
+    }
+
+    /**
+     * Assert that no select statement was run twice: the same select with different parameters is the mark of a
+     * query run once per row.
+     *
+     * @param statements the statements, as recorded by {@link #recordStatements(EntityManager, Request)}.
+     */
+    public static void assertNoRepeatedSelect(List<String> statements) {
+        Map<String, Long> repeatedSelects = statements
+            .stream()
+            .filter(sql -> sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select"))
+            .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
+            .entrySet()
+            .stream()
+            .filter(entry -> entry.getValue() > 1)
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        assertThat(repeatedSelects).as("select statements run more than once, probably once per row").isEmpty();
+    }
+}
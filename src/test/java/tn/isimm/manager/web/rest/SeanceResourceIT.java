@@ -18,6 +18,8 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 import tn.isimm.manager.IntegrationTest;
+import tn.isimm.manager.domain.Matiere;
+import tn.isimm.manager.domain.Niveau;
 import tn.isimm.manager.domain.Seance;
 import tn.isimm.manager.domain.enumeration.Jours;
 import tn.isimm.manager.domain.enumeration.Salle;
@@ -137,6 +139,52 @@ class SeanceResourceIT {
             .andExpect(jsonPath("$.[*].salle").value(hasItem(DEFAULT_SALLE.toString())));
     }
 
+    @Test
+    @Transactional
+    void getAllSeancesWithinQueryBudget() throws Exception {
+        // Initialize the database with more seances than the budget, each with its own matiere and niveau
+        for (int i = 0; i <= QueryCountAssertions.DEFAULT_QUERY_BUDGET; i++) {
+            Matiere matiere = MatiereResourceIT.createEntity(em);
+            em.persist(matiere);
+            Niveau niveau = NiveauResourceIT.createEntity(em);
+            em.persist(niveau);
+            em.persist(createEntity(em).matiere(matiere).niveau(niveau));
+        }
+
+        // Get all the seanceList
+        QueryCountAssertions.assertWithinQueryBudget(
+            em,
+            () -> restSeanceMockMvc.perform(get(ENTITY_API_URL + "?sort=id,desc")).andExpect(status().isOk())
+        );
+    }
+
+    @Test
+    @Transactional
+    void getAllSeancesWithFields() throws Exception {
+        // Initialize the database
+        Matiere matiere = MatiereResourceIT.createEntity(em);
+        em.persist(matiere);
+        seanceRepository.saveAndFlush(seance.matiere(matiere));
+
+        // Get the selected fields of all the seances, sorted by an association
+        restSeanceMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=matiere,desc&sort=id&fields=salle,matiere,niveau"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(seance.getId().intValue())))
+            .andExpect(jsonPath("$.[*].salle").value(hasItem(DEFAULT_SALLE.toString())))
+            .andExpect(jsonPath("$.[*].matiere.id").value(hasItem(matiere.getId().intValue())))
+            .andExpect(jsonPath("$.[*].jour").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllSeancesWithFieldsSortedByUnknownProperty() throws Exception {
+        restSeanceMockMvc.perform(get(ENTITY_API_URL + "?sort=unknown&fields=salle")).andExpect(status().isBadRequest());
+        restSeanceMockMvc.perform(get(ENTITY_API_URL + "?sort=matiere.nomMatiere&fields=matiere")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getSeance() throws Exception {
@@ -259,6 +307,7 @@ class SeanceResourceIT {
         // Update the seance using partial update
         Seance partialUpdatedSeance = new Seance();
         partialUpdatedSeance.setId(seance.getId());
+        partialUpdatedSeance.setVersion(seance.getVersion());
 
         restSeanceMockMvc
             .perform(
@@ -277,6 +326,68 @@ class SeanceResourceIT {
         assertThat(testSeance.getSalle()).isEqualTo(DEFAULT_SALLE);
     }
 
+    @Test
+    @Transactional
+    void partialUpdateSeancesBatch() throws Exception {
+        // Initialize the database
+        seanceRepository.saveAndFlush(seance);
+        Seance otherSeance = seanceRepository.saveAndFlush(createEntity(em));
+
+        // Move both seances in the same batch
+        Seance partialUpdatedSeance = new Seance();
+        partialUpdatedSeance.setId(seance.getId());
+        partialUpdatedSeance.setVersion(seance.getVersion());
+        partialUpdatedSeance.salle(UPDATED_SALLE);
+        Seance otherPartialUpdatedSeance = new Seance();
+        otherPartialUpdatedSeance.setId(otherSeance.getId());
+        otherPartialUpdatedSeance.jour(UPDATED_JOUR).numSeance(UPDATED_NUM_SEANCE);
+
+        restSeanceMockMvc
+            .perform(
+                patch(ENTITY_API_URL + "/batch")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(partialUpdatedSeance, otherPartialUpdatedSeance)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].status").value(hasItem(200)));
+
+        // Validate the Seances in the database
+        em.clear();
+        Seance testSeance = seanceRepository.findById(seance.getId()).orElseThrow();
+        assertThat(testSeance.getJour()).isEqualTo(DEFAULT_JOUR);
+        assertThat(testSeance.getSalle()).isEqualTo(UPDATED_SALLE);
+        Seance testOtherSeance = seanceRepository.findById(otherSeance.getId()).orElseThrow();
+        assertThat(testOtherSeance.getJour()).isEqualTo(UPDATED_JOUR);
+        assertThat(testOtherSeance.getNumSeance()).isEqualTo(UPDATED_NUM_SEANCE);
+        assertThat(testOtherSeance.getSalle()).isEqualTo(DEFAULT_SALLE);
+    }
+
+    @Test
+    @Transactional
+    void partialUpdateSeancesBatchWithInvalidSeance() throws Exception {
+        // Initialize the database
+        seanceRepository.saveAndFlush(seance);
+
+        Seance partialUpdatedSeance = new Seance();
+        partialUpdatedSeance.setId(seance.getId());
+        partialUpdatedSeance.setVersion(seance.getVersion());
+        partialUpdatedSeance.numSeance(6);
+
+        restSeanceMockMvc
+            .perform(
+                patch(ENTITY_API_URL + "/batch")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(partialUpdatedSeance, new Seance())))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.[0].error").value("invalid"))
+            .andExpect(jsonPath("$.[1].error").value("idnull"));
+
+        // Validate the Seance in the database
+        em.clear();
+        assertThat(seanceRepository.findById(seance.getId()).orElseThrow().getNumSeance()).isEqualTo(DEFAULT_NUM_SEANCE);
+    }
+
     @Test
     @Transactional
     void fullUpdateSeanceWithPatch() throws Exception {
@@ -288,6 +399,7 @@ class SeanceResourceIT {
         // Update the seance using partial update
         Seance partialUpdatedSeance = new Seance();
         partialUpdatedSeance.setId(seance.getId());
+        partialUpdatedSeance.setVersion(seance.getVersion());
 
         partialUpdatedSeance.jour(UPDATED_JOUR).numSeance(UPDATED_NUM_SEANCE).salle(UPDATED_SALLE);
 
@@ -18,6 +18,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 import tn.isimm.manager.IntegrationTest;
+import tn.isimm.manager.domain.Matiere;
 import tn.isimm.manager.domain.Semestre;
 import tn.isimm.manager.repository.SemestreRepository;
 
@@ -130,6 +131,30 @@ class SemestreResourceIT {
             .andExpect(jsonPath("$.[*].s").value(hasItem(DEFAULT_S)));
     }
 
+    @Test
+    @Transactional
+    void getAllSemestresWithinQueryBudget() throws Exception {
+        // Initialize the database with more semestres than the budget, each with its own niveau, matiere and seance
+        for (int i = 0; i <= QueryCountAssertions.DEFAULT_QUERY_BUDGET; i++) {
+            Semestre semestre = createEntity(em);
+            em.persist(semestre);
+            em.persist(NiveauResourceIT.createEntity(em).semestre(semestre));
+            Matiere matiere = MatiereResourceIT.createEntity(em).semestre(semestre);
+            em.persist(matiere);
+            em.persist(SeanceResourceIT.createEntity(em).matiere(matiere));
+        }
+
+        // Get all the semestreList
+        QueryCountAssertions.assertWithinQueryBudget(
+            em,
+            () ->
+                restSemestreMockMvc
+                    .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.[*].niveau.id").isNotEmpty())
+        );
+    }
+
     @Test
     @Transactional
     void getSemestre() throws Exception {
@@ -250,6 +275,7 @@ class SemestreResourceIT {
         // Update the semestre using partial update
         Semestre partialUpdatedSemestre = new Semestre();
         partialUpdatedSemestre.setId(semestre.getId());
+        partialUpdatedSemestre.setVersion(semestre.getVersion());
 
         partialUpdatedSemestre.s(UPDATED_S);
 
@@ -280,6 +306,7 @@ class SemestreResourceIT {
         // Update the semestre using partial update
         Semestre partialUpdatedSemestre = new Semestre();
         partialUpdatedSemestre.setId(semestre.getId());
+        partialUpdatedSemestre.setVersion(semestre.getVersion());
 
         partialUpdatedSemestre.anneeScolaire(UPDATED_ANNEE_SCOLAIRE).s(UPDATED_S);
 
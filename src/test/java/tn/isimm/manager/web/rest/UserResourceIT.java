@@ -245,6 +245,30 @@ class UserResourceIT {
             .andExpect(jsonPath("$.[*].langKey").value(hasItem(DEFAULT_LANGKEY)));
     }
 
+    @Test
+    @Transactional
+    void getAllUsersWithinQueryBudget() throws Exception {
+        // Initialize the database with more users than the batch size of the authorities, each with an authority
+        Authority authority = em.find(Authority.class, AuthoritiesConstants.USER);
+        for (int i = 0; i < 45; i++) {
+            User listedUser = createEntity(em);
+            listedUser.setAuthorities(new HashSet<>(Set.of(authority)));
+            em.persist(listedUser);
+        }
+
+        // One query for the ids of the page, one for the users with their authorities
+        QueryCountAssertions.assertWithinQueryBudget(
+            em,
+            2,
+            () ->
+                restUserMockMvc
+                    .perform(get("/api/admin/users?sort=id,desc&size=50").accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(45))
+                    .andExpect(jsonPath("$.[*].authorities[0]").value(hasItem(AuthoritiesConstants.USER)))
+        );
+    }
+
     @Test
     @Transactional
     void getUser() throws Exception {
@@ -0,0 +1,83 @@
+package tn.isimm.manager.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import tn.isimm.manager.IntegrationTest;
+import tn.isimm.manager.domain.FichierAdmin;
+import tn.isimm.manager.repository.FichierAdminRepository;
+import tn.isimm.manager.repository.ValidationRequestRepository;
+import tn.isimm.manager.security.AuthoritiesConstants;
+
+/**
+ * Integration tests for the {@link ValidationRequestResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+class ValidationRequestResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/validation-requests";
+
+    @Autowired
+    private ValidationRequestRepository validationRequestRepository;
+
+    @Autowired
+    private FichierAdminRepository fichierAdminRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restValidationRequestMockMvc;
+
+    @Test
+    @Transactional
+    void claimAndApproveValidationRequest() throws Exception {
+        // Initialize the database, the request being older than any other
+        FichierAdmin fichierAdmin = FichierAdminResourceIT.createEntity(em);
+        em.persist(fichierAdmin);
+        em.flush();
+        validationRequestRepository.sync(fichierAdmin.getId(), Instant.EPOCH);
+
+        restValidationRequestMockMvc
+            .perform(get(ENTITY_API_URL + "?status=pending&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].fichierAdminId").value(fichierAdmin.getId().intValue()))
+            .andExpect(jsonPath("$.[0].file").doesNotExist());
+
+        restValidationRequestMockMvc
+            .perform(post(ENTITY_API_URL + "/_claim?size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].fichierAdminId").value(fichierAdmin.getId().intValue()))
+            .andExpect(jsonPath("$.[0].status").value(ValidationRequestRepository.CLAIMED))
+            .andExpect(jsonPath("$.[0].claimedBy").value("user"));
+
+        restValidationRequestMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_approve")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(fichierAdmin.getId())))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].status").value(ValidationRequestRepository.APPROVED))
+            .andExpect(jsonPath("$.[0].reviewedBy").value("user"));
+
+        em.clear();
+        assertThat(fichierAdminRepository.findById(fichierAdmin.getId()).orElseThrow().getDemandeValide()).isTrue();
+        assertThat(validationRequestRepository.findStatus(fichierAdmin.getId())).contains(ValidationRequestRepository.APPROVED);
+    }
+}